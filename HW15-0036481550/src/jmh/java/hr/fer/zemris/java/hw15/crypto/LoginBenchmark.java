@@ -0,0 +1,166 @@
+package hr.fer.zemris.java.hw15.crypto;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.InvalidKeySpecException;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.hw15.dao.DAO;
+import hr.fer.zemris.java.hw15.dao.memory.MemoryDAOImpl;
+import hr.fer.zemris.java.hw15.entities.BlogUser;
+
+/**
+ * {@code LoginBenchmark} measures the hot path of a login: looking up the
+ * user and checking the password against its stored hash. The legacy SHA-1
+ * check is compared with the code it replaced, and the PBKDF2 check of the
+ * {@link Pbkdf2PasswordHasher} with the PBKDF2 of the JDK.
+ * <p>
+ * The users are kept in the {@link MemoryDAOImpl}, so the database doesn't
+ * hide the cost of hashing.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see PasswordService
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoginBenchmark {
+
+    /** Password of the users. */
+    private static final String PASSWORD = "correct horse battery staple";
+
+    /** Number of the PBKDF2 iterations. */
+    @Param({ "10000", "100000" })
+    public int iterations;
+
+    /** Users with the legacy and the PBKDF2 hash. */
+    private DAO dao;
+
+    /** Service that checks the passwords. */
+    private PasswordService passwords;
+
+    /** Legacy SHA-1 hash of the password. */
+    private String sha1Hash;
+
+    /** PBKDF2 hash of the password. */
+    private String pbkdf2Hash;
+
+    /** Salt of the PBKDF2 hash. */
+    private byte[] salt;
+
+    /**
+     * Stores one user with the legacy hash and one with the PBKDF2 hash.
+     */
+    @Setup
+    public void setup() {
+        Pbkdf2PasswordHasher pbkdf2 = new Pbkdf2PasswordHasher(iterations);
+        passwords = new PasswordService(pbkdf2, new Sha1PasswordHasher());
+        PasswordServiceProvider.setPasswordService(passwords);
+
+        sha1Hash = new Sha1PasswordHasher().hash(PASSWORD);
+        pbkdf2Hash = pbkdf2.hash(PASSWORD);
+        salt = new byte[16];
+
+        dao = new MemoryDAOImpl();
+        BlogUser legacy = new BlogUser("Legacy", "User", "legacy", "legacy@fer.hr", PASSWORD);
+        legacy.setPasswordHash(sha1Hash);
+        dao.addBlogUser(legacy);
+        BlogUser modern = new BlogUser("Modern", "User", "modern", "modern@fer.hr", PASSWORD);
+        modern.setPasswordHash(pbkdf2Hash);
+        dao.addBlogUser(modern);
+    }
+
+    /**
+     * The SHA-1 check as it was before the {@link PasswordService}: a new
+     * digest per call and the hex string made by {@link BigInteger}.
+     *
+     * @return {@code true} if the password matches
+     * @throws NoSuchAlgorithmException
+     *             never
+     */
+    @Benchmark
+    public boolean sha1Baseline() throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        digest.reset();
+        digest.update(PASSWORD.getBytes(StandardCharsets.UTF_8));
+        return new BigInteger(1, digest.digest()).toString(16).equals(sha1Hash);
+    }
+
+    /**
+     * The SHA-1 check of the {@link Sha1PasswordHasher}.
+     *
+     * @return {@code true} if the password matches
+     */
+    @Benchmark
+    public boolean sha1Check() {
+        return passwords.matches(PASSWORD, sha1Hash);
+    }
+
+    /**
+     * The whole login of a user with the legacy hash, without the rehash.
+     *
+     * @return {@code true} if the password matches
+     */
+    @Benchmark
+    public boolean sha1Login() {
+        return passwords.matches(PASSWORD, dao.getBlogUser("legacy").getPasswordHash());
+    }
+
+    /**
+     * The PBKDF2 check of the {@link Pbkdf2PasswordHasher}.
+     *
+     * @return {@code true} if the password matches
+     */
+    @Benchmark
+    public boolean pbkdf2Check() {
+        return passwords.matches(PASSWORD, pbkdf2Hash);
+    }
+
+    /**
+     * The whole login of a user with the PBKDF2 hash.
+     *
+     * @return {@code true} if the password matches
+     */
+    @Benchmark
+    public boolean pbkdf2Login() {
+        return passwords.matches(PASSWORD, dao.getBlogUser("modern").getPasswordHash());
+    }
+
+    /**
+     * The same PBKDF2 derivation done by the {@link SecretKeyFactory} of the
+     * JDK, for comparison.
+     *
+     * @return the derived key
+     * @throws NoSuchAlgorithmException
+     *             never
+     * @throws InvalidKeySpecException
+     *             never
+     */
+    @Benchmark
+    public byte[] pbkdf2Jdk() throws NoSuchAlgorithmException, InvalidKeySpecException {
+        PBEKeySpec spec = new PBEKeySpec(PASSWORD.toCharArray(), salt, iterations, 256);
+        return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+package hr.fer.zemris.java.hw15.crypto;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.hw15.entities.SampleData;
+
+/**
+ * {@code Sha1Benchmark} measures the hashing of the {@link Sha1Utils}: the
+ * digest of a string of the requested length and its hex string, compared
+ * with a new digest per call and the hex string made by {@link BigInteger}.
+ * The check of the passwords is measured by the {@link LoginBenchmark}.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see Sha1Utils
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Sha1Benchmark {
+
+    /** Length of the hashed string. */
+    @Param({ "16", "1024" })
+    public int length;
+
+    /** Hashed string. */
+    private String data;
+
+    /** Digest of the hashed string. */
+    private byte[] digest;
+
+    /**
+     * Makes the hashed string.
+     */
+    @Setup
+    public void setup() {
+        data = new SampleData().text(length);
+        digest = Sha1Utils.sha1(data);
+    }
+
+    /**
+     * Hashes the string by the {@link Sha1Utils}.
+     *
+     * @return the hex string of the digest
+     */
+    @Benchmark
+    public String sha1Hex() {
+        return Sha1Utils.sha1Hex(data);
+    }
+
+    /**
+     * Hashes the string with a new digest and makes the hex string by
+     * {@link BigInteger}.
+     *
+     * @return the hex string of the digest
+     * @throws NoSuchAlgorithmException
+     *             never
+     */
+    @Benchmark
+    public String sha1HexBaseline() throws NoSuchAlgorithmException {
+        MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
+        messageDigest.update(data.getBytes(StandardCharsets.UTF_8));
+        return String.format("%040x", new BigInteger(1, messageDigest.digest()));
+    }
+
+    /**
+     * Makes the hex string of a digest by the {@link Sha1Utils}.
+     *
+     * @return the hex string
+     */
+    @Benchmark
+    public String toHex() {
+        return Sha1Utils.toHex(digest);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,222 @@
+package hr.fer.zemris.java.hw15.dao.jpa;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.config.Configuration;
+import net.sf.ehcache.store.MemoryStoreEvictionPolicy;
+
+/**
+ * {@code CacheBenchmark} compares the cache used by
+ * {@link org.hibernate.cache.ehcache.SingletonEhCacheRegionFactory}, an Ehcache
+ * cache with LRU eviction, with the {@link CaffeineCache} used by
+ * {@link CaffeineRegionFactory}. Both are configured like the
+ * {@code BlogEntry} region in ehcache.xml.
+ * <p>
+ * Keys are drawn from a Zipfian distribution over {@link #keys} keys with the
+ * exponent {@link #skew}, so a few keys are read most of the time like the
+ * entries of a few popular blogs. Every thread reads its own sequence of keys
+ * the way Hibernate reads the cache: a miss is followed by a put. Besides the
+ * throughput, the hits and the misses of every iteration are reported, so
+ * their ratio is the hit rate of the cache.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see CaffeineCache
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+public class CacheBenchmark {
+
+    /** Seed of the random generator, so every run reads the same keys. */
+    private static final long SEED = 42;
+
+    /** Number of the keys in the sequence of one thread. */
+    private static final int SEQUENCE_LENGTH = 1 << 20;
+
+    /** Value of all the elements. */
+    private static final Object VALUE = new Object();
+
+    /** Measured cache: {@code ehcache-lru} or {@code caffeine}. */
+    @Param({ "ehcache-lru", "caffeine" })
+    public String cache;
+
+    /** Number of the keys. */
+    @Param({ "100000" })
+    public int keys;
+
+    /** Maximal number of the elements in the cache. */
+    @Param({ "5000" })
+    public int size;
+
+    /** Exponent of the Zipfian distribution of the keys. */
+    @Param({ "0.99" })
+    public double skew;
+
+    /** Cache manager of the measured cache. */
+    private CacheManager manager;
+
+    /** Measured cache. */
+    private Ehcache measured;
+
+    /** Cumulative weights of the keys. */
+    private double[] cumulative;
+
+    /** Keys, boxed once so the reads don't allocate them. */
+    private Long[] boxed;
+
+    /** Seeds of the sequences given to the threads. */
+    private final AtomicInteger sequences = new AtomicInteger();
+
+    /**
+     * Creates the cache and the distribution of the keys.
+     */
+    @Setup
+    public void setup() {
+        manager = new CacheManager(new Configuration().name("cache-benchmark"));
+        Cache ehcache = new Cache(new CacheConfiguration(cache, size)
+                .eternal(false)
+                .timeToIdleSeconds(300)
+                .timeToLiveSeconds(600)
+                .memoryStoreEvictionPolicy(MemoryStoreEvictionPolicy.LRU));
+        manager.addCache(ehcache);
+        switch (cache) {
+        case "ehcache-lru":
+            measured = ehcache;
+            break;
+        case "caffeine":
+            measured = new CaffeineCache(ehcache);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown cache: " + cache);
+        }
+
+        cumulative = new double[keys];
+        double sum = 0;
+        for (int i = 0; i < keys; i++) {
+            sum += 1 / Math.pow(i + 1, skew);
+            cumulative[i] = sum;
+        }
+        boxed = new Long[keys];
+        for (int i = 0; i < keys; i++) {
+            boxed[i] = (long) i;
+        }
+    }
+
+    /**
+     * Shuts the cache manager down.
+     */
+    @TearDown
+    public void tearDown() {
+        manager.shutdown();
+    }
+
+    /**
+     * Reads one key from the cache and puts it if it is missing.
+     *
+     * @param reader
+     *            the keys and the counters of the thread
+     */
+    @Benchmark
+    public void read(Reader reader) {
+        Long key = reader.next();
+        if (measured.get(key) != null) {
+            reader.hits++;
+        } else {
+            reader.misses++;
+            measured.put(new Element(key, VALUE));
+        }
+    }
+
+    /**
+     * {@code Reader} is the state of one thread: its sequence of the keys and
+     * the hits and the misses, which JMH reports as additional results.
+     *
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Reader {
+
+        /** Hits of the current iteration. */
+        public long hits;
+
+        /** Misses of the current iteration. */
+        public long misses;
+
+        /** Sequence of the keys read by the thread. */
+        private Long[] sequence;
+
+        /** Index of the next key in the sequence. */
+        private int next;
+
+        /**
+         * Generates the sequence of the keys of the thread.
+         *
+         * @param benchmark
+         *            the benchmark with the distribution of the keys
+         */
+        @Setup
+        public void setup(CacheBenchmark benchmark) {
+            double[] cumulative = benchmark.cumulative;
+            double sum = cumulative[cumulative.length - 1];
+            Random random = new Random(SEED + benchmark.sequences.getAndIncrement());
+            sequence = new Long[SEQUENCE_LENGTH];
+            for (int i = 0; i < SEQUENCE_LENGTH; i++) {
+                int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+                sequence[i] = benchmark.boxed[Math.min(cumulative.length - 1, index < 0 ? -index - 1 : index)];
+            }
+        }
+
+        /**
+         * Clears the counters before an iteration.
+         */
+        @Setup(Level.Iteration)
+        public void clear() {
+            hits = 0;
+            misses = 0;
+        }
+
+        /**
+         * Returns the next key of the sequence, starting over after the last.
+         *
+         * @return the key
+         */
+        Long next() {
+            Long key = sequence[next];
+            next = (next + 1) & (SEQUENCE_LENGTH - 1);
+            return key;
+        }
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,234 @@
+package hr.fer.zemris.java.hw15.dao.jpa;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.hw15.crypto.PasswordService;
+import hr.fer.zemris.java.hw15.crypto.PasswordServiceProvider;
+import hr.fer.zemris.java.hw15.crypto.Sha1PasswordHasher;
+import hr.fer.zemris.java.hw15.dao.BlogUserSummary;
+import hr.fer.zemris.java.hw15.dao.BlogVersion;
+import hr.fer.zemris.java.hw15.dao.DAO;
+import hr.fer.zemris.java.hw15.dao.PageCursor;
+import hr.fer.zemris.java.hw15.entities.BlogEntry;
+import hr.fer.zemris.java.hw15.entities.BlogUser;
+import hr.fer.zemris.java.hw15.entities.SampleData;
+
+/**
+ * {@code JPADAOBenchmark} measures the queries of the {@link JPADAOImpl} that
+ * serve the pages of the blog. The persistence unit of the application is
+ * pointed at an embedded Derby database in memory and filled with
+ * {@value #USERS} users, each with {@link #entries} entries of
+ * {@value #COMMENTS} comments. Every call is one unit of work, as in the
+ * {@link JPAFilter}, so it gets a new entity manager and the first-level
+ * cache doesn't hide anything; the second-level cache can be turned off with
+ * the {@link #secondLevelCache} parameter.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see JPADAOImpl
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JPADAOBenchmark {
+
+    /** Number of the users. */
+    private static final int USERS = 20;
+
+    /** Number of the comments of an entry. */
+    private static final int COMMENTS = 5;
+
+    /** Number of the entries on a page, as in the author servlet. */
+    private static final int PAGE_SIZE = 20;
+
+    /** Number of the entries of a user. */
+    @Param({ "100" })
+    public int entries;
+
+    /** {@code true} if the second-level and query caches are used. */
+    @Param({ "true", "false" })
+    public boolean secondLevelCache;
+
+    /** Entity manager factory of the embedded database. */
+    private EntityManagerFactory emf;
+
+    /** Direct access object. */
+    private DAO dao;
+
+    /** Nick of the read user. */
+    private String nick;
+
+    /** Read user. */
+    private BlogUser user;
+
+    /** Id of the read entry. */
+    private Long entryId;
+
+    /** Cursor of the second page of the entries of the user. */
+    private PageCursor secondPage;
+
+    /**
+     * Creates the database and fills it.
+     */
+    @Setup
+    public void setup() {
+        PasswordServiceProvider.setPasswordService(new PasswordService(new Sha1PasswordHasher()));
+        // Derby writes its log to the working directory unless told otherwise
+        if (System.getProperty("derby.stream.error.file") == null) {
+            System.setProperty("derby.stream.error.file", "target/derby.log");
+        }
+
+        Map<String, String> properties = new HashMap<>();
+        properties.put("hibernate.connection.driver_class", "org.apache.derby.jdbc.EmbeddedDriver");
+        properties.put("hibernate.connection.url", "jdbc:derby:memory:benchmark;create=true");
+        properties.put("hibernate.cache.use_second_level_cache", Boolean.toString(secondLevelCache));
+        properties.put("hibernate.cache.use_query_cache", Boolean.toString(secondLevelCache));
+        emf = Persistence.createEntityManagerFactory("baza.podataka.za.blog", properties);
+        JPAEMFProvider.setEmf(emf);
+        CacheRegions.configure(emf);
+        dao = new JPADAOImpl();
+
+        SampleData data = new SampleData();
+        for (int i = 0; i < USERS; i++) {
+            JPAEMProvider.beginUnitOfWork(true);
+            try {
+                BlogUser blogUser = data.user(i);
+                dao.addBlogUser(blogUser);
+                for (int j = 0; j < entries; j++) {
+                    dao.addBlogEntry(data.entry(blogUser, new Date(1_500_000_000_000L + j * 60_000L), 1000,
+                            COMMENTS));
+                }
+            } finally {
+                JPAEMProvider.release();
+            }
+        }
+
+        nick = "user" + USERS / 2;
+        List<BlogEntry> page = inUnitOfWork(() -> {
+            user = dao.getBlogUser(nick);
+            return dao.getUserEntries(user, null, PAGE_SIZE);
+        });
+        secondPage = PageCursor.of(page.get(PAGE_SIZE - 1));
+        entryId = page.get(PAGE_SIZE / 2).getId();
+    }
+
+    /**
+     * Closes the entity manager factory and drops the database.
+     */
+    @TearDown
+    public void tearDown() {
+        JPAEMFProvider.setEmf(null);
+        emf.close();
+        try {
+            java.sql.DriverManager.getConnection("jdbc:derby:memory:benchmark;drop=true");
+        } catch (java.sql.SQLException ex) {
+            // Derby reports a dropped database by an exception
+        }
+    }
+
+    /**
+     * Reads a user by the nick, as the login does.
+     *
+     * @return the user
+     */
+    @Benchmark
+    public BlogUser userByNick() {
+        return inUnitOfWork(() -> dao.getBlogUser(nick));
+    }
+
+    /**
+     * Reads the first page of the entries of a user.
+     *
+     * @return the entries
+     */
+    @Benchmark
+    public List<BlogEntry> firstPage() {
+        return inUnitOfWork(() -> dao.getUserEntries(user, null, PAGE_SIZE + 1));
+    }
+
+    /**
+     * Reads the second page of the entries of a user.
+     *
+     * @return the entries
+     */
+    @Benchmark
+    public List<BlogEntry> secondPage() {
+        return inUnitOfWork(() -> dao.getUserEntries(user, secondPage, PAGE_SIZE + 1));
+    }
+
+    /**
+     * Reads an entry together with its comments.
+     *
+     * @return the entry
+     */
+    @Benchmark
+    public BlogEntry entryWithComments() {
+        return inUnitOfWork(() -> {
+            BlogEntry entry = dao.getBlogEntryWithComments(entryId);
+            entry.getComments().size();
+            return entry;
+        });
+    }
+
+    /**
+     * Reads the version of an entry, as a conditional request does.
+     *
+     * @return the version
+     */
+    @Benchmark
+    public BlogVersion entryVersion() {
+        return inUnitOfWork(() -> dao.getBlogEntryVersion(entryId));
+    }
+
+    /**
+     * Reads the first page of the users, as the index page does.
+     *
+     * @return the users
+     */
+    @Benchmark
+    public List<BlogUserSummary> userSummaries() {
+        return inUnitOfWork(() -> dao.getBlogUserSummaries(null, 101));
+    }
+
+    /**
+     * Runs the query in a read-only unit of work.
+     *
+     * @param <T>
+     *            the type of the result
+     * @param query
+     *            the query
+     * @return the result of the query
+     */
+    private static <T> T inUnitOfWork(java.util.function.Supplier<T> query) {
+        JPAEMProvider.beginUnitOfWork(false);
+        try {
+            return query.get();
+        } finally {
+            JPAEMProvider.release();
+        }
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,119 @@
+package hr.fer.zemris.java.hw15.entities;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.hw15.crypto.PasswordService;
+import hr.fer.zemris.java.hw15.crypto.PasswordServiceProvider;
+import hr.fer.zemris.java.hw15.crypto.Sha1PasswordHasher;
+
+/**
+ * {@code EntityBenchmark} measures the construction of the entities with the
+ * checks of their constructors and setters, as the servlets make them from
+ * the parameters of a form. The password of a new user is hashed by SHA-1, so
+ * the hashing, which is measured by the
+ * {@link hr.fer.zemris.java.hw15.crypto.LoginBenchmark}, doesn't hide the
+ * checks.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see BlogUser
+ * @see BlogEntry
+ * @see BlogComment
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityBenchmark {
+
+    /** Creator of the entries. */
+    private BlogUser user;
+
+    /** Commented entry. */
+    private BlogEntry entry;
+
+    /** Title of the entries. */
+    private String title;
+
+    /** Text of the entries. */
+    private String text;
+
+    /** Message of the comments. */
+    private String message;
+
+    /** Time of the entries and the comments. */
+    private final Date now = new Date();
+
+    /**
+     * Makes the texts of the entities.
+     */
+    @Setup
+    public void setup() {
+        PasswordServiceProvider.setPasswordService(new PasswordService(new Sha1PasswordHasher()));
+        SampleData data = new SampleData();
+        user = data.user(1);
+        title = data.text(40);
+        text = data.text(2000);
+        message = data.text(200);
+        entry = new BlogEntry(user, title, text, now);
+    }
+
+    /**
+     * Makes a new user, as the registration does.
+     *
+     * @return the user
+     */
+    @Benchmark
+    public BlogUser newUser() {
+        return new BlogUser("First", "Last", "user", "user@fer.hr", SampleData.PASSWORD);
+    }
+
+    /**
+     * Makes a new entry, as the form of a new entry does.
+     *
+     * @return the entry
+     */
+    @Benchmark
+    public BlogEntry newEntry() {
+        return new BlogEntry(user, title, text, now);
+    }
+
+    /**
+     * Changes the title and the text of an entry, as the form of an edited
+     * entry does.
+     *
+     * @return the entry
+     */
+    @Benchmark
+    public BlogEntry editEntry() {
+        entry.setTitle(title);
+        entry.setText(text);
+        entry.setLastModifiedAt(now);
+        return entry;
+    }
+
+    /**
+     * Makes a new comment, as the form of a comment does.
+     *
+     * @return the comment
+     */
+    @Benchmark
+    public BlogComment newComment() {
+        return new BlogComment(entry, "reader@fer.hr", message, now);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,83 @@
+package hr.fer.zemris.java.hw15.entities;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * {@code SampleData} makes the blog users, entries and comments used by the
+ * benchmarks. The data is made from a fixed seed, so every run measures the
+ * same data, and its sizes are close to the real ones: titles of a few words
+ * and texts of the requested length, made of words of typical length.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public class SampleData {
+
+    /** Password of every user. */
+    public static final String PASSWORD = "password";
+
+    /** Words of the texts. */
+    private static final String[] WORDS = { "blog", "java", "servlet", "entity", "query", "cache", "the", "of",
+            "and", "a", "to", "in", "is", "performance", "database", "request", "page", "user", "comment", "on" };
+
+    /** Source of the words. */
+    private final Random random = new Random(42);
+
+    /**
+     * Returns a text of the specified length made of random words.
+     *
+     * @param length
+     *            the length of the text
+     * @return the text
+     */
+    public String text(int length) {
+        StringBuilder sb = new StringBuilder(length + 16);
+        while (sb.length() < length) {
+            if (sb.length() > 0) {
+                sb.append(sb.length() % 13 == 0 ? ". " : " ");
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        sb.setLength(length);
+        return sb.toString();
+    }
+
+    /**
+     * Makes a new user. The password is hashed by the current password
+     * service.
+     *
+     * @param index
+     *            the index of the user, which makes the nick unique
+     * @return the user
+     */
+    public BlogUser user(int index) {
+        return new BlogUser("First" + index, "Last" + index, "user" + index, "user" + index + "@fer.hr", PASSWORD);
+    }
+
+    /**
+     * Makes a new entry of the user with the specified number of comments.
+     *
+     * @param user
+     *            the creator of the entry
+     * @param createdAt
+     *            the time the entry was made
+     * @param textLength
+     *            the length of the text of the entry
+     * @param comments
+     *            the number of the comments
+     * @return the entry
+     */
+    public BlogEntry entry(BlogUser user, Date createdAt, int textLength, int comments) {
+        BlogEntry entry = new BlogEntry(user, text(40), text(textLength), createdAt);
+        List<BlogComment> list = new ArrayList<>(comments);
+        for (int i = 0; i < comments; i++) {
+            list.add(new BlogComment(entry, "reader" + i + "@fer.hr", text(200), createdAt));
+        }
+        entry.setComments(list);
+        return entry;
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,130 @@
+package hr.fer.zemris.java.hw15.load;
+
+import java.util.Date;
+
+import hr.fer.zemris.java.hw15.dao.DAO;
+import hr.fer.zemris.java.hw15.dao.DAOProvider;
+import hr.fer.zemris.java.hw15.dao.jpa.JPAEMProvider;
+import hr.fer.zemris.java.hw15.entities.BlogEntry;
+import hr.fer.zemris.java.hw15.entities.BlogUser;
+import hr.fer.zemris.java.hw15.entities.SampleData;
+
+/**
+ * {@code BlogSeed} fills the database of the started application with users,
+ * entries and comments made by the {@link SampleData} and keeps their nicks
+ * and IDs, so the {@link LoadClient}s request only the pages that exist. The
+ * data is saved by the {@link DAO} of the application, one user with all its
+ * entries in one unit of work. Every user has the password
+ * {@link SampleData#PASSWORD}.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see LoadTest
+ */
+public class BlogSeed {
+
+    /** Nicks of the users. */
+    private final String[] nicks;
+
+    /** IDs of the users. */
+    private final long[] userIds;
+
+    /** IDs of the entries of every user. */
+    private final long[][] entryIds;
+
+    /**
+     * Saves the users with their entries and comments.
+     *
+     * @param users
+     *            the number of the users
+     * @param entries
+     *            the number of the entries of every user
+     * @param comments
+     *            the number of the comments of every entry
+     * @param textLength
+     *            the length of the text of an entry
+     */
+    public BlogSeed(int users, int entries, int comments, int textLength) {
+        nicks = new String[users];
+        userIds = new long[users];
+        entryIds = new long[users][entries];
+
+        SampleData data = new SampleData();
+        DAO dao = DAOProvider.getDAO();
+        for (int i = 0; i < users; i++) {
+            JPAEMProvider.beginUnitOfWork(true);
+            try {
+                BlogUser user = data.user(i);
+                dao.addBlogUser(user);
+                BlogEntry[] saved = new BlogEntry[entries];
+                for (int j = 0; j < entries; j++) {
+                    saved[j] = data.entry(user, new Date(System.currentTimeMillis() - (entries - j) * 60_000L),
+                            textLength, comments);
+                    dao.addBlogEntry(saved[j]);
+                }
+
+                nicks[i] = user.getNick();
+                userIds[i] = user.getId();
+                for (int j = 0; j < entries; j++) {
+                    entryIds[i][j] = saved[j].getId();
+                }
+            } finally {
+                JPAEMProvider.release();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of the users.
+     *
+     * @return the number of the users
+     */
+    public int getUsers() {
+        return nicks.length;
+    }
+
+    /**
+     * Returns the nick of the user.
+     *
+     * @param user
+     *            the index of the user
+     * @return the nick of the user
+     */
+    public String getNick(int user) {
+        return nicks[user];
+    }
+
+    /**
+     * Returns the ID of the user.
+     *
+     * @param user
+     *            the index of the user
+     * @return the ID of the user
+     */
+    public long getUserId(int user) {
+        return userIds[user];
+    }
+
+    /**
+     * Returns the number of the entries of every user.
+     *
+     * @return the number of the entries
+     */
+    public int getEntries() {
+        return entryIds.length == 0 ? 0 : entryIds[0].length;
+    }
+
+    /**
+     * Returns the ID of the entry of the user.
+     *
+     * @param user
+     *            the index of the user
+     * @param entry
+     *            the index of the entry
+     * @return the ID of the entry
+     */
+    public long getEntryId(int user, int entry) {
+        return entryIds[user][entry];
+    }
+
+}
\ No newline at end of file
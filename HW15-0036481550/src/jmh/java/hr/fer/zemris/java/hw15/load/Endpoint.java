@@ -0,0 +1,63 @@
+package hr.fer.zemris.java.hw15.load;
+
+/**
+ * {@code Endpoint} enumerates the requests made by the {@link LoadTest}, each
+ * with its share of the requests in the default mix. The shares are close to
+ * a blog that is read much more than it is written.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see LoadTest
+ */
+public enum Endpoint {
+
+    /** List of the authors, {@code GET /index.jsp}. */
+    INDEX(30),
+
+    /** Page of the entries of an author, {@code GET /servleti/author/nick}. */
+    AUTHOR(25),
+
+    /** Entry with its comments, {@code GET /servleti/author/nick/id}. */
+    ENTRY(30),
+
+    /** Login of a user, {@code POST /servleti/login}. */
+    LOGIN(5),
+
+    /** New comment of an entry, {@code POST /servleti/addComment}. */
+    COMMENT(7),
+
+    /** Change of an entry of the logged in user, {@code POST /servleti/edit}. */
+    EDIT(3);
+
+    /** Share of the requests in the default mix. */
+    private final int defaultWeight;
+
+    /**
+     * Constructs a new {@code Endpoint}.
+     *
+     * @param defaultWeight
+     *            the share of the requests in the default mix
+     */
+    Endpoint(int defaultWeight) {
+        this.defaultWeight = defaultWeight;
+    }
+
+    /**
+     * Returns the share of the requests in the default mix.
+     *
+     * @return the share of the requests
+     */
+    public int getDefaultWeight() {
+        return defaultWeight;
+    }
+
+    /**
+     * Returns the name of the endpoint used in the options and the report.
+     *
+     * @return the name of the endpoint
+     */
+    public String getName() {
+        return name().toLowerCase();
+    }
+
+}
\ No newline at end of file
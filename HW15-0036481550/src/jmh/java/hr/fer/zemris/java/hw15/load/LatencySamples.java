@@ -0,0 +1,115 @@
+package hr.fer.zemris.java.hw15.load;
+
+import java.util.Arrays;
+
+/**
+ * {@code LatencySamples} keeps every measured duration of one endpoint, so the
+ * percentiles of the report are exact. The
+ * {@link hr.fer.zemris.java.hw15.dao.LatencyHistogram} of the application
+ * counts durations in buckets, which is cheap enough for every request of a
+ * server but too coarse for the 99.9th percentile. Samples are not
+ * synchronized; every client keeps its own and they are merged once the test
+ * is over.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see LoadTest
+ */
+public class LatencySamples {
+
+    /** Durations in nanoseconds. */
+    private long[] nanos = new long[1024];
+
+    /** Number of the durations. */
+    private int size;
+
+    /** Number of the failed requests. */
+    private long errors;
+
+    /** {@code true} if the durations are sorted. */
+    private boolean sorted;
+
+    /**
+     * Adds one duration.
+     *
+     * @param duration
+     *            the duration in nanoseconds
+     */
+    public void add(long duration) {
+        if (size == nanos.length) {
+            nanos = Arrays.copyOf(nanos, 2 * size);
+        }
+        nanos[size++] = duration;
+        sorted = false;
+    }
+
+    /**
+     * Counts one failed request.
+     */
+    public void addError() {
+        errors++;
+    }
+
+    /**
+     * Adds all the durations and failed requests of the other samples.
+     *
+     * @param other
+     *            the other samples
+     */
+    public void addAll(LatencySamples other) {
+        if (size + other.size > nanos.length) {
+            nanos = Arrays.copyOf(nanos, Math.max(2 * nanos.length, size + other.size));
+        }
+        System.arraycopy(other.nanos, 0, nanos, size, other.size);
+        size += other.size;
+        errors += other.errors;
+        sorted = false;
+    }
+
+    /**
+     * Returns the number of the durations, including the failed requests.
+     *
+     * @return the number of the durations
+     */
+    public int getCount() {
+        return size;
+    }
+
+    /**
+     * Returns the number of the failed requests.
+     *
+     * @return the number of the failed requests
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Returns the percentile of the durations by the nearest rank.
+     *
+     * @param percentile
+     *            the percentile, from 0 to 100
+     * @return the percentile in nanoseconds or 0 if there are no durations
+     */
+    public long getPercentileNanos(double percentile) {
+        if (size == 0)
+            return 0;
+        if (!sorted) {
+            Arrays.sort(nanos, 0, size);
+            sorted = true;
+        }
+        int rank = (int) Math.ceil(size * percentile / 100);
+        return nanos[Math.max(0, Math.min(size, rank) - 1)];
+    }
+
+    /**
+     * Returns the longest duration.
+     *
+     * @return the longest duration in nanoseconds or 0 if there are no
+     *         durations
+     */
+    public long getMaxNanos() {
+        return getPercentileNanos(100);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,330 @@
+package hr.fer.zemris.java.hw15.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+import javax.servlet.http.HttpServletResponse;
+
+import hr.fer.zemris.java.hw15.entities.SampleData;
+
+/**
+ * {@code LoadClient} is one client of the {@link LoadTest}. It logs in as one
+ * of the seeded users and then, until the end of the test, makes one request
+ * after another, each to an {@link Endpoint} chosen at random by the weights
+ * of the mix. Pages are read whole, as a browser would read them, and
+ * redirects aren't followed, so the duration of a request is the duration of
+ * its own response.
+ * <p>
+ * A request fails if it throws an {@link IOException} or if its status isn't
+ * 200 for a page or 302 for a form; a failed login is a login redirected back
+ * with {@code login=failed}. Requests started before the end of the warm-up
+ * aren't recorded.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see LoadTest
+ */
+public class LoadClient implements Runnable {
+
+    /** URL of the application, without the trailing slash. */
+    private final String baseUrl;
+
+    /** Seeded data. */
+    private final BlogSeed seed;
+
+    /** Endpoints of the mix. */
+    private final Endpoint[] endpoints;
+
+    /** Cumulative weights of the endpoints of the mix. */
+    private final int[] cumulative;
+
+    /** Index of the user the client logs in as. */
+    private final int user;
+
+    /** Length of the text of an edited entry. */
+    private final int textLength;
+
+    /** Time the recording starts, as by {@link System#nanoTime()}. */
+    private final long measureStart;
+
+    /** Time the client stops, as by {@link System#nanoTime()}. */
+    private final long end;
+
+    /** Source of the chosen endpoints and entries. */
+    private final Random random;
+
+    /** Source of the texts of the comments and entries. */
+    private final SampleData texts = new SampleData();
+
+    /** Recorded durations of every endpoint. */
+    private final Map<Endpoint, LatencySamples> samples = new EnumMap<>(Endpoint.class);
+
+    /** Buffer the responses are read into. */
+    private final byte[] buffer = new byte[8192];
+
+    /** Cookie with the authentication token or {@code null}. */
+    private String cookie;
+
+    /**
+     * Constructs a new {@code LoadClient}.
+     *
+     * @param baseUrl
+     *            the URL of the application, without the trailing slash
+     * @param seed
+     *            the seeded data
+     * @param mix
+     *            the weights of the endpoints
+     * @param user
+     *            the index of the user the client logs in as
+     * @param textLength
+     *            the length of the text of an edited entry
+     * @param measureStart
+     *            the time the recording starts, as by
+     *            {@link System#nanoTime()}
+     * @param end
+     *            the time the client stops, as by {@link System#nanoTime()}
+     * @param randomSeed
+     *            the seed of the random choices
+     */
+    public LoadClient(String baseUrl, BlogSeed seed, Map<Endpoint, Integer> mix, int user, int textLength,
+            long measureStart, long end, long randomSeed) {
+        this.baseUrl = baseUrl;
+        this.seed = seed;
+        this.user = user;
+        this.textLength = textLength;
+        this.measureStart = measureStart;
+        this.end = end;
+        this.random = new Random(randomSeed);
+
+        endpoints = mix.keySet().toArray(new Endpoint[mix.size()]);
+        cumulative = new int[endpoints.length];
+        int sum = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            sum += mix.get(endpoints[i]);
+            cumulative[i] = sum;
+            samples.put(endpoints[i], new LatencySamples());
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            login();
+        } catch (IOException ex) {
+            cookie = null;
+        }
+
+        while (System.nanoTime() - end < 0) {
+            Endpoint endpoint = nextEndpoint();
+            long start = System.nanoTime();
+            boolean succeeded;
+            try {
+                succeeded = request(endpoint);
+            } catch (IOException ex) {
+                succeeded = false;
+            }
+            long duration = System.nanoTime() - start;
+
+            if (start - measureStart >= 0) {
+                LatencySamples endpointSamples = samples.get(endpoint);
+                endpointSamples.add(duration);
+                if (!succeeded) {
+                    endpointSamples.addError();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the recorded durations of the endpoint.
+     *
+     * @param endpoint
+     *            the endpoint
+     * @return the recorded durations or {@code null} if the endpoint isn't in
+     *         the mix
+     */
+    public LatencySamples getSamples(Endpoint endpoint) {
+        return samples.get(endpoint);
+    }
+
+    /**
+     * Chooses the next endpoint by the weights of the mix.
+     *
+     * @return the endpoint
+     */
+    private Endpoint nextEndpoint() {
+        int value = random.nextInt(cumulative[cumulative.length - 1]);
+        int i = 0;
+        while (value >= cumulative[i]) {
+            i++;
+        }
+        return endpoints[i];
+    }
+
+    /**
+     * Makes one request to the endpoint.
+     *
+     * @param endpoint
+     *            the endpoint
+     * @return {@code true} if the request succeeded; {@code false} otherwise
+     * @throws IOException
+     *             if the request can't be made
+     */
+    private boolean request(Endpoint endpoint) throws IOException {
+        int author = random.nextInt(seed.getUsers());
+        int entry = random.nextInt(seed.getEntries());
+
+        switch (endpoint) {
+        case INDEX:
+            return get("/index.jsp");
+        case AUTHOR:
+            return get("/servleti/author/" + seed.getNick(author));
+        case ENTRY:
+            return get("/servleti/author/" + seed.getNick(author) + "/" + seed.getEntryId(author, entry));
+        case LOGIN:
+            return login();
+        case COMMENT:
+            return post("/servleti/addComment", "comment=" + encode(texts.text(200)) + "&entry="
+                    + seed.getEntryId(author, entry) + "&user=" + seed.getUserId(user)) != null;
+        case EDIT:
+            return post("/servleti/edit", "title=" + encode(texts.text(40)) + "&text=" + encode(texts.text(textLength))
+                    + "&entry=" + seed.getEntryId(user, entry)) != null;
+        default:
+            throw new IllegalArgumentException("Unknown endpoint " + endpoint + ".");
+        }
+    }
+
+    /**
+     * Logs in as the user of the client and keeps the authentication cookie.
+     *
+     * @return {@code true} if the login succeeded; {@code false} otherwise
+     * @throws IOException
+     *             if the request can't be made
+     */
+    private boolean login() throws IOException {
+        HttpURLConnection connection = post("/servleti/login",
+                "username=" + encode(seed.getNick(user)) + "&password=" + encode(SampleData.PASSWORD));
+        if (connection == null)
+            return false;
+
+        String location = connection.getHeaderField("Location");
+        String setCookie = connection.getHeaderField("Set-Cookie");
+        if (location == null || location.contains("login=failed") || setCookie == null)
+            return false;
+
+        int semicolon = setCookie.indexOf(';');
+        cookie = semicolon < 0 ? setCookie : setCookie.substring(0, semicolon);
+        return true;
+    }
+
+    /**
+     * Requests a page.
+     *
+     * @param path
+     *            the path of the page in the application
+     * @return {@code true} if the status of the response is 200;
+     *         {@code false} otherwise
+     * @throws IOException
+     *             if the request can't be made
+     */
+    private boolean get(String path) throws IOException {
+        HttpURLConnection connection = open(path, "GET");
+        return read(connection) == HttpServletResponse.SC_OK;
+    }
+
+    /**
+     * Posts a form.
+     *
+     * @param path
+     *            the path of the form in the application
+     * @param form
+     *            the encoded parameters of the form
+     * @return the connection if the status of the response is 302;
+     *         {@code null} otherwise
+     * @throws IOException
+     *             if the request can't be made
+     */
+    private HttpURLConnection post(String path, String form) throws IOException {
+        HttpURLConnection connection = open(path, "POST");
+        byte[] body = form.getBytes(StandardCharsets.UTF_8);
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded; charset=UTF-8");
+        connection.setFixedLengthStreamingMode(body.length);
+        try (OutputStream os = connection.getOutputStream()) {
+            os.write(body);
+        }
+        return read(connection) == HttpServletResponse.SC_FOUND ? connection : null;
+    }
+
+    /**
+     * Opens a connection to the path, with the headers of a browser and the
+     * authentication cookie.
+     *
+     * @param path
+     *            the path in the application
+     * @param method
+     *            the method of the request
+     * @return the connection
+     * @throws IOException
+     *             if the connection can't be opened
+     */
+    private HttpURLConnection open(String path, String method) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setInstanceFollowRedirects(false);
+        connection.setUseCaches(false);
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        if (cookie != null) {
+            connection.setRequestProperty("Cookie", cookie);
+        }
+        return connection;
+    }
+
+    /**
+     * Reads the whole response, so the connection can be reused.
+     *
+     * @param connection
+     *            the connection
+     * @return the status of the response
+     * @throws IOException
+     *             if the response can't be read
+     */
+    private int read(HttpURLConnection connection) throws IOException {
+        int status = connection.getResponseCode();
+        InputStream is = status >= HttpServletResponse.SC_BAD_REQUEST ? connection.getErrorStream()
+                : connection.getInputStream();
+        if (is != null) {
+            try (InputStream in = is) {
+                while (in.read(buffer) != -1) {
+                    // the body is only read
+                }
+            }
+        }
+        return status;
+    }
+
+    /**
+     * Encodes the value of a form parameter.
+     *
+     * @param value
+     *            the value
+     * @return the encoded value
+     */
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException ex) {
+            throw new IllegalStateException("UTF-8 is not supported.", ex);
+        }
+    }
+
+}
\ No newline at end of file
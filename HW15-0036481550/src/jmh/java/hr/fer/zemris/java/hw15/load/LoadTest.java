@@ -0,0 +1,349 @@
+package hr.fer.zemris.java.hw15.load;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.tomcat.InstanceManager;
+import org.apache.tomcat.SimpleInstanceManager;
+import org.eclipse.jetty.annotations.AnnotationConfiguration;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.webapp.Configuration;
+import org.eclipse.jetty.webapp.FragmentConfiguration;
+import org.eclipse.jetty.webapp.JettyWebXmlConfiguration;
+import org.eclipse.jetty.webapp.MetaInfConfiguration;
+import org.eclipse.jetty.webapp.WebAppContext;
+import org.eclipse.jetty.webapp.WebInfConfiguration;
+import org.eclipse.jetty.webapp.WebXmlConfiguration;
+
+/**
+ * {@code LoadTest} is a command line program that starts the whole blog in an
+ * embedded Jetty, fills an embedded Derby database in memory and lets many
+ * concurrent clients request its pages and post its forms. When the test is
+ * over it prints the throughput and the 50th, 95th, 99th and 99.9th
+ * percentiles of the latency of every endpoint.
+ * <p>
+ * Usage: {@code LoadTest [--clients n] [--warmup s] [--duration s]
+ * [--users n] [--entries n] [--comments n] [--text n] [--mix name=weight,...]
+ * [--param name=value] [--webapp dir] [--classes dir]}
+ * <p>
+ * Every client is a {@link LoadClient} logged in as one of the {@code users}
+ * seeded users, each with {@code entries} entries of {@code text} characters
+ * and {@code comments} comments per entry. The mix names the
+ * {@link Endpoint}s and their weights, e.g. {@code index=30,entry=70}; the
+ * default is the weight of every endpoint. Requests made in the first
+ * {@code warmup} seconds, while the JSPs are compiled and the caches filled,
+ * aren't recorded.
+ * <p>
+ * The application is started from the web application directory and the
+ * compiled classes, by default {@code src/main/webapp} and
+ * {@code target/classes}, with its web.xml and the servlets, filters and
+ * listeners found by their annotations. It runs with its own context
+ * parameters, except that its persistence unit is pointed at the embedded
+ * database through the {@code hibernate.} parameters; every {@code --param}
+ * sets one more context parameter, e.g. {@code --param password.hash=sha1} or
+ * {@code --param hibernate.connection.url=...} to test another database.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see LoadClient
+ */
+public class LoadTest {
+
+    /** Context path of the application, which its redirects assume. */
+    private static final String CONTEXT_PATH = "/blog";
+
+    /** Percentiles of the report. */
+    private static final double[] PERCENTILES = { 50, 95, 99, 99.9 };
+
+    /**
+     * Method which is executed when program is run.
+     *
+     * @param args
+     *            the options
+     * @throws Exception
+     *             if the server can't be started or stopped
+     */
+    public static void main(String[] args) throws Exception {
+        // Derby writes its log to the working directory unless told otherwise
+        if (System.getProperty("derby.stream.error.file") == null) {
+            System.setProperty("derby.stream.error.file", "target/derby.log");
+        }
+
+        int clients = 32;
+        int warmup = 10;
+        int duration = 30;
+        int users = 20;
+        int entries = 50;
+        int comments = 5;
+        int text = 1000;
+        Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+        Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put("hibernate.connection.driver_class", "org.apache.derby.jdbc.EmbeddedDriver");
+        parameters.put("hibernate.connection.url", "jdbc:derby:memory:loadtest;create=true");
+        String webapp = "src/main/webapp";
+        String classes = "target/classes";
+
+        if (args.length % 2 != 0) {
+            usage();
+        }
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                switch (args[i]) {
+                case "--clients":
+                    clients = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--duration":
+                    duration = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--users":
+                    users = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--entries":
+                    entries = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--comments":
+                    comments = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--text":
+                    text = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--mix":
+                    for (String part : args[i + 1].split(",")) {
+                        String[] weight = part.split("=");
+                        mix.put(Endpoint.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+                    }
+                    break;
+                case "--param":
+                    int equals = args[i + 1].indexOf('=');
+                    parameters.put(args[i + 1].substring(0, equals), args[i + 1].substring(equals + 1));
+                    break;
+                case "--webapp":
+                    webapp = args[i + 1];
+                    break;
+                case "--classes":
+                    classes = args[i + 1];
+                    break;
+                default:
+                    usage();
+                }
+            }
+        } catch (RuntimeException ex) {
+            usage();
+        }
+        if (mix.isEmpty()) {
+            for (Endpoint endpoint : Endpoint.values()) {
+                mix.put(endpoint, endpoint.getDefaultWeight());
+            }
+        }
+        mix.values().removeIf(weight -> weight <= 0);
+        if (clients < 1 || warmup < 0 || duration < 1 || users < 1 || entries < 1 || comments < 0 || text < 1
+                || mix.isEmpty()) {
+            usage();
+        }
+
+        // connections of every client are kept alive between its requests
+        System.setProperty("http.maxConnections", Integer.toString(clients));
+
+        Server server = new Server();
+        ServerConnector connector = new ServerConnector(server);
+        server.addConnector(connector);
+        server.setHandler(createContext(webapp, classes, parameters));
+        server.start();
+        try {
+            System.out.printf("Seeding %d users x %d entries x %d comments...%n", users, entries, comments);
+            BlogSeed seed = new BlogSeed(users, entries, comments, text);
+
+            String baseUrl = "http://localhost:" + connector.getLocalPort() + CONTEXT_PATH;
+            System.out.printf("%s: %d clients, %d s warm-up, %d s measured, mix %s%n", baseUrl, clients, warmup,
+                    duration, mix);
+            List<LoadClient> loadClients = run(baseUrl, seed, mix, clients, text, warmup, duration);
+            report(loadClients, mix, duration);
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * Prints the usage and exits.
+     */
+    private static void usage() {
+        System.err.println("Usage: LoadTest [--clients n] [--warmup s] [--duration s] [--users n] [--entries n]"
+                + " [--comments n] [--text n] [--mix name=weight,...] [--param name=value] [--webapp dir]"
+                + " [--classes dir]");
+        System.exit(1);
+    }
+
+    /**
+     * Creates the context of the application. The compiled classes are
+     * scanned for annotations as if they were in WEB-INF/classes, but they
+     * are loaded by the class loader of this program, so the seeded data is
+     * saved through the same {@code DAOProvider} the application uses.
+     *
+     * @param webapp
+     *            the web application directory
+     * @param classes
+     *            the directory of the compiled classes
+     * @param parameters
+     *            the context parameters that override the ones in web.xml
+     * @return the context
+     * @throws IOException
+     *             if the descriptor with the context parameters can't be
+     *             written
+     */
+    private static WebAppContext createContext(String webapp, String classes, Map<String, String> parameters)
+            throws IOException {
+        WebAppContext context = new WebAppContext(webapp, CONTEXT_PATH);
+        context.setConfigurations(new Configuration[] { new WebInfConfiguration(), new WebXmlConfiguration(),
+                new MetaInfConfiguration(), new FragmentConfiguration(), new AnnotationConfiguration(),
+                new JettyWebXmlConfiguration() });
+        context.setExtraClasspath(classes);
+        context.setParentLoaderPriority(true);
+        context.setAttribute(InstanceManager.class.getName(), new SimpleInstanceManager());
+        context.setAttribute("org.eclipse.jetty.server.webapp.ContainerIncludeJarPattern",
+                ".*/javax.servlet.jsp.jstl-[^/]*\\.jar$|.*/apache-jsp-[^/]*\\.jar$");
+        context.addOverrideDescriptor(writeOverrideDescriptor(parameters).toString());
+        return context;
+    }
+
+    /**
+     * Writes the context parameters to a temporary descriptor that overrides
+     * web.xml. Parameters set on the context directly would be overwritten by
+     * the ones in web.xml, which is read when the context starts.
+     *
+     * @param parameters
+     *            the context parameters
+     * @return the path of the descriptor
+     * @throws IOException
+     *             if the descriptor can't be written
+     */
+    private static Path writeOverrideDescriptor(Map<String, String> parameters) throws IOException {
+        Path descriptor = Files.createTempFile("load-test-web", ".xml");
+        descriptor.toFile().deleteOnExit();
+        try (Writer writer = Files.newBufferedWriter(descriptor, StandardCharsets.UTF_8)) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                    + "<web-app xmlns=\"http://java.sun.com/xml/ns/javaee\" version=\"3.0\">\n");
+            for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+                writer.write("  <context-param>\n    <param-name>" + escape(parameter.getKey())
+                        + "</param-name>\n    <param-value>" + escape(parameter.getValue())
+                        + "</param-value>\n  </context-param>\n");
+            }
+            writer.write("</web-app>\n");
+        }
+        return descriptor;
+    }
+
+    /**
+     * Escapes the text for XML.
+     *
+     * @param text
+     *            the text
+     * @return the escaped text
+     */
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    /**
+     * Runs the clients until the end of the test.
+     *
+     * @param baseUrl
+     *            the URL of the application
+     * @param seed
+     *            the seeded data
+     * @param mix
+     *            the weights of the endpoints
+     * @param clients
+     *            the number of the clients
+     * @param text
+     *            the length of the text of an edited entry
+     * @param warmup
+     *            the seconds that aren't recorded
+     * @param duration
+     *            the seconds that are recorded
+     * @return the clients
+     * @throws InterruptedException
+     *             if the main thread is interrupted while waiting for the
+     *             clients
+     */
+    private static List<LoadClient> run(String baseUrl, BlogSeed seed, Map<Endpoint, Integer> mix, int clients,
+            int text, int warmup, int duration) throws InterruptedException {
+        long measureStart = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmup);
+        long end = measureStart + TimeUnit.SECONDS.toNanos(duration);
+
+        List<LoadClient> loadClients = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            LoadClient client = new LoadClient(baseUrl, seed, mix, i % seed.getUsers(), text, measureStart, end, i);
+            loadClients.add(client);
+            threads.add(new Thread(client, "load-client-" + i));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return loadClients;
+    }
+
+    /**
+     * Prints the number of the requests and the failed requests, the
+     * throughput and the percentiles of the latency of every endpoint and of
+     * all of them together.
+     *
+     * @param clients
+     *            the clients
+     * @param mix
+     *            the weights of the endpoints
+     * @param duration
+     *            the seconds that were recorded
+     */
+    private static void report(List<LoadClient> clients, Map<Endpoint, Integer> mix, int duration) {
+        System.out.printf("%-8s %10s %8s %10s %10s %10s %10s %10s %10s%n", "endpoint", "requests", "errors",
+                "req/s", "p50 ms", "p95 ms", "p99 ms", "p999 ms", "max ms");
+
+        LatencySamples all = new LatencySamples();
+        for (Endpoint endpoint : mix.keySet()) {
+            LatencySamples samples = new LatencySamples();
+            for (LoadClient client : clients) {
+                samples.addAll(client.getSamples(endpoint));
+            }
+            all.addAll(samples);
+            print(endpoint.getName(), samples, duration);
+        }
+        print("total", all, duration);
+    }
+
+    /**
+     * Prints one line of the report.
+     *
+     * @param name
+     *            the name of the line
+     * @param samples
+     *            the recorded durations
+     * @param duration
+     *            the seconds that were recorded
+     */
+    private static void print(String name, LatencySamples samples, int duration) {
+        System.out.printf("%-8s %10d %8d %10.1f", name, samples.getCount(), samples.getErrors(),
+                (double) samples.getCount() / duration);
+        for (double percentile : PERCENTILES) {
+            System.out.printf(" %10.2f", samples.getPercentileNanos(percentile) / 1e6);
+        }
+        System.out.printf(" %10.2f%n", samples.getMaxNanos() / 1e6);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+package hr.fer.zemris.java.hw15.servlets;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hr.fer.zemris.java.hw15.servlets.AuthorServlet.Page;
+import hr.fer.zemris.java.hw15.web.route.RouteMatch;
+import hr.fer.zemris.java.hw15.web.route.Router;
+
+/**
+ * {@code AuthorRoutingBenchmark} measures the cost of dispatching one path of
+ * the {@link AuthorServlet}: the {@link Router} of the servlet compared with
+ * the string parsing it replaced. Run it with {@code -prof gc} to see the
+ * bytes allocated per path.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see Router
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorRoutingBenchmark {
+
+    /** Path of the request. */
+    @Param({ "/karlo", "/karlo/1234", "/karlo/edit" })
+    public String path;
+
+    /** Reused match of the router. */
+    private final RouteMatch match = AuthorServlet.ROUTER.newMatch();
+
+    /**
+     * Routes the path and reads the variable of the page, as the servlet
+     * does before it prepares the page.
+     *
+     * @param blackhole
+     *            the sink of the results
+     * @return the page
+     */
+    @Benchmark
+    public Page router(Blackhole blackhole) {
+        Page page = AuthorServlet.ROUTER.route(path, match);
+        if (page == Page.ENTRY) {
+            blackhole.consume(match.getLong("id"));
+        } else {
+            blackhole.consume(match.equals("nick", "karlo"));
+        }
+        return page;
+    }
+
+    /**
+     * Routes the path and cuts the nick out of it, as a page of the entries
+     * or the new and edit pages need it.
+     *
+     * @return the nick
+     */
+    @Benchmark
+    public String routerNick() {
+        AuthorServlet.ROUTER.route(path, match);
+        return match.getString("nick");
+    }
+
+    /**
+     * The parsing of the path as it was before the {@link Router}.
+     *
+     * @param blackhole
+     *            the sink of the results
+     * @return the page
+     */
+    @Benchmark
+    public Page legacy(Blackhole blackhole) {
+        String path = this.path.substring(1).replace("servleti/", "").replace("author/", "");
+        path = path.replace("servleti/", "");
+        path = path.replace("author/", "");
+
+        int index = path.contains("/") ? path.indexOf('/') : path.length();
+        String username = path.substring(0, index);
+        path = path.substring(index).replace("/", "");
+
+        blackhole.consume(username);
+        if (path.equals("new")) {
+            return Page.NEW;
+        } else if (path.equals("edit")) {
+            return Page.EDIT;
+        } else if (path.matches("^[0-9]+$")) {
+            blackhole.consume(Long.parseLong(path));
+            return Page.ENTRY;
+        } else if (path.equals("")) {
+            return Page.ENTRIES;
+        }
+        return null;
+    }
+
+}
\ No newline at end of file
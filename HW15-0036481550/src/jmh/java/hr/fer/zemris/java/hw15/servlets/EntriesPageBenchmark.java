@@ -0,0 +1,240 @@
+package hr.fer.zemris.java.hw15.servlets;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.tomcat.InstanceManager;
+import org.apache.tomcat.SimpleInstanceManager;
+import org.eclipse.jetty.annotations.ServletContainerInitializersStarter;
+import org.eclipse.jetty.apache.jsp.JettyJasperInitializer;
+import org.eclipse.jetty.plus.annotation.ContainerInitializer;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.webapp.WebAppContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hr.fer.zemris.java.hw15.crypto.PasswordService;
+import hr.fer.zemris.java.hw15.crypto.PasswordServiceProvider;
+import hr.fer.zemris.java.hw15.crypto.Sha1PasswordHasher;
+import hr.fer.zemris.java.hw15.entities.BlogEntry;
+import hr.fer.zemris.java.hw15.entities.BlogUser;
+import hr.fer.zemris.java.hw15.entities.SampleData;
+import hr.fer.zemris.java.hw15.web.auth.AuthToken;
+import hr.fer.zemris.java.hw15.web.cache.RenderedEntry;
+
+/**
+ * {@code EntriesPageBenchmark} measures the rendering of the pages of the
+ * {@link AuthorServlet}: one page of entries.jsp with the entries already
+ * rendered, as it is served from the fragment cache, and one entry with its
+ * comments rendered by entry.jsp, as it is when the cache misses.
+ * <p>
+ * The JSPs are compiled by Jasper in an embedded Jetty and requested through
+ * its {@link LocalConnector}, so no socket is used and the filters and
+ * listeners of the application, which aren't scanned for, don't run. The cost
+ * of a request without rendering is measured by {@link #baseline()}. The web
+ * application is read from {@code src/main/webapp} or the directory in the
+ * {@code blog.webapp} system property.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see AuthorServlet
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntriesPageBenchmark {
+
+    /** Number of the entries on a page, as in the {@link AuthorServlet}. */
+    private static final int PAGE_SIZE = 20;
+
+    /** Number of the comments of an entry. */
+    private static final int COMMENTS = 10;
+
+    /** Length of the text of an entry. */
+    @Param({ "500", "4000" })
+    public int textLength;
+
+    /** {@code true} if the author of the entries views the page. */
+    @Param({ "false", "true" })
+    public boolean author;
+
+    /** Embedded server. */
+    private Server server;
+
+    /** Connector of the requests. */
+    private LocalConnector connector;
+
+    /**
+     * Starts the server and renders the entries of the page without their
+     * comments, as the {@link AuthorServlet} does.
+     *
+     * @throws Exception
+     *             if the server can't be started
+     */
+    @Setup
+    public void setup() throws Exception {
+        PasswordServiceProvider.setPasswordService(new PasswordService(new Sha1PasswordHasher()));
+
+        server = new Server();
+        connector = new LocalConnector(server);
+        server.addConnector(connector);
+
+        WebAppContext context = new WebAppContext(System.getProperty("blog.webapp", "src/main/webapp"), "/blog");
+        context.setAttribute("org.eclipse.jetty.containerInitializers",
+                Arrays.asList(new ContainerInitializer(new JettyJasperInitializer(), null)));
+        context.setAttribute(InstanceManager.class.getName(), new SimpleInstanceManager());
+        context.setAttribute("org.eclipse.jetty.server.webapp.ContainerIncludeJarPattern",
+                ".*/javax.servlet.jsp.jstl-[^/]*\\.jar$");
+        context.addBean(new ServletContainerInitializersStarter(context), true);
+        context.addServlet(PageServlet.class, "/page/*");
+        server.setHandler(context);
+        server.start();
+
+        SampleData data = new SampleData();
+        BlogUser user = data.user(1);
+        user.setId(1L);
+        List<BlogEntry> entries = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            BlogEntry entry = data.entry(user, new Date(1_500_000_000_000L + i * 60_000L), textLength, COMMENTS);
+            entry.setId((long) i + 1);
+            entries.add(entry);
+        }
+
+        ServletContext servletContext = context.getServletContext();
+        servletContext.setAttribute("bench.entry", entries.get(0));
+        List<RenderedEntry> rendered = new ArrayList<>();
+        for (BlogEntry entry : entries) {
+            servletContext.setAttribute("bench.entry", entry);
+            String html = get("/blog/page/entry?comments=false");
+            rendered.add(new RenderedEntry(entry.getId(), user.getNick(), html, null));
+        }
+        servletContext.setAttribute("bench.entries", rendered);
+        servletContext.setAttribute("bench.auth",
+                author ? new AuthToken(1L, user.getNick(), user.getFirstName(), Long.MAX_VALUE) : null);
+    }
+
+    /**
+     * Stops the server.
+     *
+     * @throws Exception
+     *             if the server can't be stopped
+     */
+    @TearDown
+    public void tearDown() throws Exception {
+        server.stop();
+    }
+
+    /**
+     * Renders one page of entries.jsp from the rendered entries.
+     *
+     * @return the page
+     * @throws Exception
+     *             if the page can't be requested
+     */
+    @Benchmark
+    public String entriesPage() throws Exception {
+        return get("/blog/page/entries");
+    }
+
+    /**
+     * Renders one entry with its comments by entry.jsp.
+     *
+     * @return the entry
+     * @throws Exception
+     *             if the entry can't be requested
+     */
+    @Benchmark
+    public String entryWithComments() throws Exception {
+        return get("/blog/page/entry");
+    }
+
+    /**
+     * Requests a page that is empty, which measures the cost of a request
+     * through the connector, without rendering.
+     *
+     * @return the empty page
+     * @throws Exception
+     *             if the page can't be requested
+     */
+    @Benchmark
+    public String baseline() throws Exception {
+        return get("/blog/page/empty");
+    }
+
+    /**
+     * Requests the path and returns the body of the response. The request is
+     * made with HTTP/1.0, so the body is sent as it is, without chunks.
+     *
+     * @param path
+     *            the path
+     * @return the body of the response
+     * @throws Exception
+     *             if the path can't be requested or the status isn't 200
+     */
+    private String get(String path) throws Exception {
+        String response = connector.getResponse("GET " + path + " HTTP/1.0\r\n\r\n");
+        if (response == null || !response.startsWith("HTTP/1.1 200 "))
+            throw new IllegalStateException("Unable to get " + path + ": " + response);
+        return response.substring(response.indexOf("\r\n\r\n") + 4);
+    }
+
+    /**
+     * {@code PageServlet} is a {@link HttpServlet} that prepares the request
+     * attributes of the page from the context attributes of the benchmark and
+     * forwards it to the JSP, as the {@link AuthorServlet} does.
+     *
+     * @author Karlo Vrbić
+     * @version 1.0
+     * @see HttpServlet
+     */
+    public static class PageServlet extends HttpServlet {
+
+        /** Serial version UID. */
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void doGet(HttpServletRequest req, HttpServletResponse resp)
+                throws ServletException, IOException {
+            ServletContext context = getServletContext();
+            if (req.getPathInfo().equals("/empty")) {
+                resp.setContentType("text/html");
+            } else if (req.getPathInfo().equals("/entry")) {
+                req.setAttribute("entry", context.getAttribute("bench.entry"));
+                req.setAttribute("showComments", !"false".equals(req.getParameter("comments")));
+                req.getRequestDispatcher("/WEB-INF/pages/entry.jsp").forward(req, resp);
+            } else {
+                req.setAttribute("nick", "user1");
+                req.setAttribute("nextPage", "1500000000000-20");
+                req.setAttribute("entries", context.getAttribute("bench.entries"));
+                req.setAttribute("auth", context.getAttribute("bench.auth"));
+                req.getRequestDispatcher("/WEB-INF/pages/entries.jsp").forward(req, resp);
+            }
+        }
+
+    }
+
+}
\ No newline at end of file
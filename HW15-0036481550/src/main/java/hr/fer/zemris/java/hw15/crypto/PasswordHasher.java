@@ -0,0 +1,57 @@
+package hr.fer.zemris.java.hw15.crypto;
+
+/**
+ * {@code PasswordHasher} is one algorithm that hashes the passwords of the
+ * blog users. Every hasher stores its hashes in its own format, so the hasher
+ * of a stored hash can be recognized by {@link #supports(String)}.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see PasswordService
+ */
+public interface PasswordHasher {
+
+    /**
+     * Hashes the password.
+     *
+     * @param password
+     *            the password
+     * @return the hash of the password in the format of this hasher
+     */
+    public String hash(String password);
+
+    /**
+     * Checks whether the hash is in the format of this hasher.
+     *
+     * @param hash
+     *            the stored hash
+     * @return {@code true} if this hasher can check the hash; {@code false}
+     *         otherwise
+     */
+    public boolean supports(String hash);
+
+    /**
+     * Checks whether the password matches the hash. The hash must be in the
+     * format of this hasher.
+     *
+     * @param password
+     *            the password
+     * @param hash
+     *            the stored hash
+     * @return {@code true} if the password matches the hash; {@code false}
+     *         otherwise
+     */
+    public boolean matches(String password, String hash);
+
+    /**
+     * Checks whether the hash was made with weaker settings than this hasher
+     * uses now, so the password should be hashed again.
+     *
+     * @param hash
+     *            the stored hash in the format of this hasher
+     * @return {@code true} if the password should be hashed again;
+     *         {@code false} otherwise
+     */
+    public boolean isOutdated(String hash);
+
+}
\ No newline at end of file
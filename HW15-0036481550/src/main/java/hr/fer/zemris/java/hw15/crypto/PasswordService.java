@@ -0,0 +1,134 @@
+package hr.fer.zemris.java.hw15.crypto;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * {@code PasswordService} hashes and checks the passwords of the blog users.
+ * New passwords are hashed by the preferred {@link PasswordHasher}, while the
+ * stored hashes are checked by whichever hasher supports their format. A hash
+ * of another hasher, or one made with weaker settings, should be replaced
+ * once the user logs in with the right password; see
+ * {@link #needsRehash(String)}.
+ * <p>
+ * When there is no stored hash to check, e.g. because the user doesn't exist,
+ * the password should still be checked against the {@link #getDummyHash()},
+ * so the time of the answer doesn't tell whether the user exists.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see PasswordServiceProvider
+ */
+public class PasswordService {
+
+    /** Hasher of the new passwords. */
+    private final PasswordHasher preferred;
+
+    /** All the hashers, the preferred one first. */
+    private final List<PasswordHasher> hashers = new ArrayList<>();
+
+    /** Hash of a random password made by the preferred hasher. */
+    private final String dummyHash;
+
+    /**
+     * Constructs a new {@code PasswordService}.
+     *
+     * @param preferred
+     *            the hasher of the new passwords
+     * @param legacy
+     *            the hashers that only check the existing hashes
+     * @throws NullPointerException
+     *             if any of the hashers is a {@code null} reference
+     */
+    public PasswordService(PasswordHasher preferred, PasswordHasher... legacy) {
+        this.preferred = Objects.requireNonNull(preferred, "You cannot set the hasher to a null reference.");
+        hashers.add(preferred);
+        for (PasswordHasher hasher : Arrays.asList(legacy)) {
+            hashers.add(Objects.requireNonNull(hasher, "You cannot set the hasher to a null reference."));
+        }
+
+        byte[] random = new byte[16];
+        new SecureRandom().nextBytes(random);
+        dummyHash = preferred.hash(Base64.getEncoder().encodeToString(random));
+    }
+
+    /**
+     * Hashes the password with the preferred hasher.
+     *
+     * @param password
+     *            the password
+     * @return the hash of the password
+     * @throws NullPointerException
+     *             if parameter {@code password} is a {@code null} reference
+     */
+    public String hash(String password) {
+        Objects.requireNonNull(password, "You cannot hash a null reference.");
+        return preferred.hash(password);
+    }
+
+    /**
+     * Checks whether the password matches the stored hash.
+     *
+     * @param password
+     *            the password
+     * @param hash
+     *            the stored hash
+     * @return {@code true} if the password matches the hash; {@code false}
+     *         otherwise, also if no hasher supports the hash
+     * @throws NullPointerException
+     *             if parameter {@code password} or {@code hash} is a
+     *             {@code null} reference
+     */
+    public boolean matches(String password, String hash) {
+        Objects.requireNonNull(password, "You cannot check a null reference.");
+        Objects.requireNonNull(hash, "You cannot check against a null reference.");
+
+        PasswordHasher hasher = find(hash);
+        return hasher != null && hasher.matches(password, hash);
+    }
+
+    /**
+     * Returns the hash of a random password made by the preferred hasher with
+     * its current settings, so checking a password against it takes as long
+     * as checking against a stored hash, but never succeeds.
+     *
+     * @return the dummy hash
+     */
+    public String getDummyHash() {
+        return dummyHash;
+    }
+
+    /**
+     * Checks whether the stored hash should be replaced by a new hash of the
+     * same password, because it isn't made by the preferred hasher or its
+     * settings are outdated.
+     *
+     * @param hash
+     *            the stored hash
+     * @return {@code true} if the hash should be replaced; {@code false}
+     *         otherwise
+     */
+    public boolean needsRehash(String hash) {
+        return find(hash) != preferred || preferred.isOutdated(hash);
+    }
+
+    /**
+     * Returns the hasher that supports the hash.
+     *
+     * @param hash
+     *            the stored hash
+     * @return the hasher or {@code null} if no hasher supports the hash
+     */
+    private PasswordHasher find(String hash) {
+        for (PasswordHasher hasher : hashers) {
+            if (hasher.supports(hash))
+                return hasher;
+        }
+        return null;
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package hr.fer.zemris.java.hw15.crypto;
+
+import java.util.Objects;
+
+/**
+ * {@code PasswordServiceProvider} is a singleton that stores the
+ * {@link PasswordService} used by the application. By default new passwords
+ * are hashed with PBKDF2 and {@value #DEFAULT_ITERATIONS} iterations, and the
+ * legacy SHA-1 hashes are still accepted.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see PasswordService
+ */
+public class PasswordServiceProvider {
+
+    /** Default number of the PBKDF2 iterations. */
+    public static final int DEFAULT_ITERATIONS = 100_000;
+
+    /** Service that hashes the passwords. */
+    private static volatile PasswordService PASSWORD_SERVICE = new PasswordService(
+            new Pbkdf2PasswordHasher(DEFAULT_ITERATIONS), new Sha1PasswordHasher());
+
+    /**
+     * Returns the service that hashes the passwords.
+     *
+     * @return the service that hashes the passwords
+     */
+    public static PasswordService getPasswordService() {
+        return PASSWORD_SERVICE;
+    }
+
+    /**
+     * Sets the service that hashes the passwords.
+     *
+     * @param passwordService
+     *            the service that hashes the passwords
+     * @throws NullPointerException
+     *             if parameter {@code passwordService} is a {@code null}
+     *             reference
+     */
+    public static void setPasswordService(PasswordService passwordService) {
+        PASSWORD_SERVICE = Objects.requireNonNull(passwordService,
+                "You cannot set the password service to a null reference.");
+    }
+
+}
\ No newline at end of file
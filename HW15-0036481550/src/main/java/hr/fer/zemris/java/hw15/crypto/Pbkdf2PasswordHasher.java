@@ -0,0 +1,155 @@
+package hr.fer.zemris.java.hw15.crypto;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * {@code Pbkdf2PasswordHasher} is a {@link PasswordHasher} that derives the
+ * hash with PBKDF2 and HMAC-SHA256 from the password and a random salt. The
+ * number of the iterations sets the cost of one hash and is stored in it, so
+ * it can be raised later without breaking the stored hashes. Hashes look like
+ * {@code $pbkdf2-sha256$<iterations>$<salt>$<hash>}, with the salt and the
+ * hash in Base64.
+ * <p>
+ * Every thread reuses its own {@link Mac} and the iterations write into the
+ * same buffers, so a hash allocates nothing per iteration.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see PasswordHasher
+ */
+public class Pbkdf2PasswordHasher implements PasswordHasher {
+
+    /** Prefix of the hashes of this hasher. */
+    private static final String PREFIX = "$pbkdf2-sha256$";
+
+    /** Name of the pseudorandom function. */
+    private static final String ALGORITHM = "HmacSHA256";
+
+    /** Number of the bytes of the salt. */
+    private static final int SALT_LENGTH = 16;
+
+    /** Number of the bytes of the hash, one HMAC-SHA256 output. */
+    private static final int HASH_LENGTH = 32;
+
+    /** Source of the salts. */
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /** Message authentication codes of the threads. */
+    private static final ThreadLocal<Mac> MAC = ThreadLocal.withInitial(() -> {
+        try {
+            return Mac.getInstance(ALGORITHM);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ALGORITHM + " is not supported.", ex);
+        }
+    });
+
+    /** Number of the iterations of new hashes. */
+    private final int iterations;
+
+    /**
+     * Constructs a new {@code Pbkdf2PasswordHasher}.
+     *
+     * @param iterations
+     *            the number of the iterations of new hashes
+     * @throws IllegalArgumentException
+     *             if {@code iterations} is less than 1
+     */
+    public Pbkdf2PasswordHasher(int iterations) {
+        if (iterations < 1)
+            throw new IllegalArgumentException("Number of the iterations must be at least 1.");
+
+        this.iterations = iterations;
+    }
+
+    @Override
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_LENGTH];
+        RANDOM.nextBytes(salt);
+
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + encoder.encodeToString(salt) + "$"
+                + encoder.encodeToString(derive(password, salt, iterations));
+    }
+
+    @Override
+    public boolean supports(String hash) {
+        return hash.startsWith(PREFIX);
+    }
+
+    @Override
+    public boolean matches(String password, String hash) {
+        String[] parts = hash.substring(PREFIX.length()).split("\\$");
+        if (parts.length != 3)
+            return false;
+
+        try {
+            Base64.Decoder decoder = Base64.getDecoder();
+            byte[] expected = decoder.decode(parts[2]);
+            byte[] actual = derive(password, decoder.decode(parts[1]), Integer.parseInt(parts[0]));
+            return MessageDigest.isEqual(expected, actual);
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isOutdated(String hash) {
+        int end = hash.indexOf('$', PREFIX.length());
+        try {
+            return end < 0 || Integer.parseInt(hash.substring(PREFIX.length(), end)) < iterations;
+        } catch (NumberFormatException ex) {
+            return true;
+        }
+    }
+
+    /**
+     * Derives the hash of the password with PBKDF2, as defined in RFC 8018.
+     * The hash is one block long.
+     *
+     * @param password
+     *            the password
+     * @param salt
+     *            the salt
+     * @param iterations
+     *            the number of the iterations
+     * @return the hash
+     * @throws IllegalArgumentException
+     *             if {@code iterations} is less than 1
+     */
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        if (iterations < 1)
+            throw new IllegalArgumentException("Number of the iterations must be at least 1.");
+
+        Mac mac = MAC.get();
+        byte[] key = password.getBytes(StandardCharsets.UTF_8);
+        try {
+            mac.init(new SecretKeySpec(key.length == 0 ? new byte[1] : key, ALGORITHM));
+
+            byte[] u = new byte[HASH_LENGTH];
+            byte[] result = new byte[HASH_LENGTH];
+            mac.update(salt);
+            mac.update(new byte[] { 0, 0, 0, 1 });
+            mac.doFinal(u, 0);
+            System.arraycopy(u, 0, result, 0, HASH_LENGTH);
+
+            for (int i = 1; i < iterations; i++) {
+                mac.update(u);
+                mac.doFinal(u, 0);
+                for (int j = 0; j < HASH_LENGTH; j++) {
+                    result[j] ^= u[j];
+                }
+            }
+            return result;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Unable to hash the password.", ex);
+        }
+    }
+
+}
\ No newline at end of file
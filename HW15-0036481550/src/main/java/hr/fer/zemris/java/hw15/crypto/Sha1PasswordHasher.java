@@ -0,0 +1,62 @@
+package hr.fer.zemris.java.hw15.crypto;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * {@code Sha1PasswordHasher} is a {@link PasswordHasher} with the legacy
+ * format of the blog: the unsalted SHA-1 digest of the password as a hex
+ * string. Older hashes dropped their leading zeros, so both forms are
+ * accepted.
+ * <p>
+ * SHA-1 is far too fast to protect the passwords, so this hasher should only
+ * check the existing hashes until they are replaced.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see Sha1Utils
+ */
+public class Sha1PasswordHasher implements PasswordHasher {
+
+    /** Number of the hex digits of a SHA-1 digest. */
+    private static final int LENGTH = 40;
+
+    @Override
+    public String hash(String password) {
+        return Sha1Utils.sha1Hex(password);
+    }
+
+    @Override
+    public boolean supports(String hash) {
+        if (hash.isEmpty() || hash.length() > LENGTH)
+            return false;
+
+        for (int i = 0; i < hash.length(); i++) {
+            char c = hash.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f'))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean matches(String password, String hash) {
+        String expected = hash(password);
+        if (hash.length() < LENGTH) {
+            int zeros = LENGTH - hash.length();
+            for (int i = 0; i < zeros; i++) {
+                if (expected.charAt(i) != '0')
+                    return false;
+            }
+            expected = expected.substring(zeros);
+        }
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.US_ASCII),
+                hash.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public boolean isOutdated(String hash) {
+        return false;
+    }
+
+}
\ No newline at end of file
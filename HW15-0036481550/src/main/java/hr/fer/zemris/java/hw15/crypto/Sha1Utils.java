@@ -1,6 +1,5 @@
 package hr.fer.zemris.java.hw15.crypto;
 
-import java.math.BigInteger;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
@@ -9,26 +8,37 @@ import java.security.NoSuchAlgorithmException;
 /**
  * {@code Sha1Utils} is a utility class that simplify common
  * {@link MessageDigest} tasks.
+ * <p>
+ * Every thread reuses its own digest, so hashing doesn't look up the provider
+ * or allocate a new digest every time.
  * 
  * @author Karlo Vrbić
  * @version 1.0
  */
 public class Sha1Utils {
 
+    /** SHA-1 digests of the threads. */
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-1 is not supported.", ex);
+        }
+    });
+
+    /** Hexadecimal digits. */
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     /**
-     * Returns an SHA-1 digest.
+     * Returns the SHA-1 digest of the current thread. The digest is reset, and
+     * it must not be used after the thread calls any other method of this
+     * class.
      * 
      * @return SHA-1 digest instance.
      */
     public static MessageDigest getSha1Digest() {
-        MessageDigest messageDigest = null;
-
-        try {
-            messageDigest = MessageDigest.getInstance("SHA-1");
-            messageDigest.reset();
-        } catch (NoSuchAlgorithmException ignore) {
-        }
-
+        MessageDigest messageDigest = DIGEST.get();
+        messageDigest.reset();
         return messageDigest;
     }
 
@@ -75,14 +85,32 @@ public class Sha1Utils {
     }
 
     /**
-     * Calculates the SHA-1 digest and returns the value as a hex string.
+     * Calculates the SHA-1 digest and returns the value as a hex string of 40
+     * lowercase digits.
      * 
      * @param str
      *            the data to digest
      * @return SHA-1 digest as a hex string
      */
     public static String sha1Hex(String str) {
-        return new BigInteger(1, sha1(str)).toString(16);
+        return toHex(sha1(str));
+    }
+
+    /**
+     * Returns the bytes as a hex string of lowercase digits, two per byte,
+     * leading zeros included.
+     * 
+     * @param bytes
+     *            the bytes
+     * @return the hex string
+     */
+    public static String toHex(byte[] bytes) {
+        char[] hex = new char[2 * bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            hex[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(hex);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,162 @@
+package hr.fer.zemris.java.hw15.dao;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import hr.fer.zemris.java.hw15.entities.BlogEntry;
+import hr.fer.zemris.java.hw15.entities.BlogUser;
+
+/**
+ * {@code AsyncDAO} is an asynchronous variant of the {@link DAO}. Every method
+ * returns immediately with a {@link CompletableFuture} that is completed when
+ * the call to the underlying {@link DAO} finishes, so the caller can issue
+ * several independent lookups at the same time.
+ * <p>
+ * If the call to the underlying {@link DAO} throws a {@link DAOException} the
+ * future is completed exceptionally with it.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see DAO
+ */
+public interface AsyncDAO {
+
+    /**
+     * Calls the specified function with the underlying {@link DAO}
+     * asynchronously. This can be used for the calls that don't have their own
+     * asynchronous variant.
+     *
+     * @param <T>
+     *            type of the result
+     * @param call
+     *            the function that calls the underlying {@link DAO}
+     * @return the future result of the call
+     */
+    public <T> CompletableFuture<T> call(Function<DAO, T> call);
+
+    /**
+     * Asynchronous variant of the {@link DAO#getAllBlogUsers()}.
+     *
+     * @return the future list of all blog users
+     */
+    public CompletableFuture<List<BlogUser>> getAllBlogUsers();
+
+    /**
+     * Asynchronous variant of the
+     * {@link DAO#getBlogUserSummaries(String, int)}.
+     *
+     * @param afterNick
+     *            nickname of the last user of the previous page or
+     *            {@code null} for the first page
+     * @param maxResults
+     *            maximal number of summaries to return
+     * @return the future list of at most {@code maxResults} summaries of blog
+     *         users
+     */
+    public CompletableFuture<List<BlogUserSummary>> getBlogUserSummaries(String afterNick, int maxResults);
+
+    /**
+     * Asynchronous variant of the {@link DAO#getBlogUser(String)}.
+     *
+     * @param nick
+     *            user nick
+     * @return the future blog user or {@code null} if user doesn't exist
+     */
+    public CompletableFuture<BlogUser> getBlogUser(String nick);
+
+    /**
+     * Asynchronous variant of the {@link DAO#getBlogUser(Long)}.
+     *
+     * @param id
+     *            user id
+     * @return the future blog user or {@code null} if user doesn't exist
+     */
+    public CompletableFuture<BlogUser> getBlogUser(Long id);
+
+    /**
+     * Asynchronous variant of the {@link DAO#getAllBlogEntries()}.
+     *
+     * @return the future list of all blog entries
+     */
+    public CompletableFuture<List<BlogEntry>> getAllBlogEntries();
+
+    /**
+     * Asynchronous variant of the {@link DAO#getAllUserEntries(BlogUser)}.
+     *
+     * @param user
+     *            user that created blog entries
+     * @return the future list of all blog entries with specified {@code user}
+     */
+    public CompletableFuture<List<BlogEntry>> getAllUserEntries(BlogUser user);
+
+    /**
+     * Asynchronous variant of the
+     * {@link DAO#getUserEntries(BlogUser, PageCursor, int)}.
+     *
+     * @param user
+     *            user that created blog entries
+     * @param after
+     *            cursor pointing to the last entry of the previous page or
+     *            {@code null} for the first page
+     * @param maxResults
+     *            maximal number of entries to return
+     * @return the future list of at most {@code maxResults} blog entries
+     */
+    public CompletableFuture<List<BlogEntry>> getUserEntries(BlogUser user, PageCursor after, int maxResults);
+
+    /**
+     * Asynchronous variant of the
+     * {@link DAO#getUserEntriesWithComments(BlogUser, PageCursor, int)}.
+     *
+     * @param user
+     *            user that created blog entries
+     * @param after
+     *            cursor pointing to the last entry of the previous page or
+     *            {@code null} for the first page
+     * @param maxResults
+     *            maximal number of entries to return
+     * @return the future list of at most {@code maxResults} blog entries
+     */
+    public CompletableFuture<List<BlogEntry>> getUserEntriesWithComments(BlogUser user, PageCursor after,
+            int maxResults);
+
+    /**
+     * Asynchronous variant of the {@link DAO#getBlogEntry(Long)}.
+     *
+     * @param id
+     *            entry id
+     * @return the future blog entry or {@code null} if entry doesn't exist
+     */
+    public CompletableFuture<BlogEntry> getBlogEntry(Long id);
+
+    /**
+     * Asynchronous variant of the {@link DAO#getBlogEntryWithComments(Long)}.
+     *
+     * @param id
+     *            entry id
+     * @return the future blog entry or {@code null} if entry doesn't exist
+     */
+    public CompletableFuture<BlogEntry> getBlogEntryWithComments(Long id);
+
+    /**
+     * Asynchronous variant of the {@link DAO#getBlogEntryVersion(Long)}.
+     *
+     * @param id
+     *            entry id
+     * @return the future version of the blog entry or {@code null} if entry
+     *         doesn't exist
+     */
+    public CompletableFuture<BlogVersion> getBlogEntryVersion(Long id);
+
+    /**
+     * Asynchronous variant of the {@link DAO#getUserEntriesVersion(String)}.
+     *
+     * @param nick
+     *            user's nickname
+     * @return the future version of the blog entries of the user or
+     *         {@code null} if user doesn't exist
+     */
+    public CompletableFuture<BlogVersion> getUserEntriesVersion(String nick);
+
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+package hr.fer.zemris.java.hw15.dao;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import hr.fer.zemris.java.hw15.entities.BlogEntry;
+import hr.fer.zemris.java.hw15.entities.BlogUser;
+
+/**
+ * {@code AsyncDAOImpl} is an {@link AsyncDAO} that runs the calls to the
+ * underlying {@link DAO} on the specified {@link Executor}.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see AsyncDAO
+ * @see DAOExecutor
+ */
+public class AsyncDAOImpl implements AsyncDAO {
+
+    /** Underlying direct access object. */
+    private final DAO dao;
+
+    /** Executor that runs the calls. */
+    private final Executor executor;
+
+    /**
+     * Constructs a new {@code AsyncDAOImpl} with specified underlying direct
+     * access object and executor.
+     *
+     * @param dao
+     *            the underlying direct access object
+     * @param executor
+     *            the executor that runs the calls
+     * @throws NullPointerException
+     *             if parameter {@code dao} or {@code executor} is a
+     *             {@code null} reference
+     */
+    public AsyncDAOImpl(DAO dao, Executor executor) {
+        this.dao = Objects.requireNonNull(dao, "You cannot set the direct access object to a null reference.");
+        this.executor = Objects.requireNonNull(executor, "You cannot set the executor to a null reference.");
+    }
+
+    @Override
+    public <T> CompletableFuture<T> call(Function<DAO, T> call) {
+        return CompletableFuture.supplyAsync(() -> call.apply(dao), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<BlogUser>> getAllBlogUsers() {
+        return call(DAO::getAllBlogUsers);
+    }
+
+    @Override
+    public CompletableFuture<List<BlogUserSummary>> getBlogUserSummaries(String afterNick, int maxResults) {
+        return call(dao -> dao.getBlogUserSummaries(afterNick, maxResults));
+    }
+
+    @Override
+    public CompletableFuture<BlogUser> getBlogUser(String nick) {
+        return call(dao -> dao.getBlogUser(nick));
+    }
+
+    @Override
+    public CompletableFuture<BlogUser> getBlogUser(Long id) {
+        return call(dao -> dao.getBlogUser(id));
+    }
+
+    @Override
+    public CompletableFuture<List<BlogEntry>> getAllBlogEntries() {
+        return call(DAO::getAllBlogEntries);
+    }
+
+    @Override
+    public CompletableFuture<List<BlogEntry>> getAllUserEntries(BlogUser user) {
+        return call(dao -> dao.getAllUserEntries(user));
+    }
+
+    @Override
+    public CompletableFuture<List<BlogEntry>> getUserEntries(BlogUser user, PageCursor after, int maxResults) {
+        return call(dao -> dao.getUserEntries(user, after, maxResults));
+    }
+
+    @Override
+    public CompletableFuture<List<BlogEntry>> getUserEntriesWithComments(BlogUser user, PageCursor after,
+            int maxResults) {
+        return call(dao -> dao.getUserEntriesWithComments(user, after, maxResults));
+    }
+
+    @Override
+    public CompletableFuture<BlogEntry> getBlogEntry(Long id) {
+        return call(dao -> dao.getBlogEntry(id));
+    }
+
+    @Override
+    public CompletableFuture<BlogEntry> getBlogEntryWithComments(Long id) {
+        return call(dao -> dao.getBlogEntryWithComments(id));
+    }
+
+    @Override
+    public CompletableFuture<BlogVersion> getBlogEntryVersion(Long id) {
+        return call(dao -> dao.getBlogEntryVersion(id));
+    }
+
+    @Override
+    public CompletableFuture<BlogVersion> getUserEntriesVersion(String nick) {
+        return call(dao -> dao.getUserEntriesVersion(nick));
+    }
+
+}
\ No newline at end of file
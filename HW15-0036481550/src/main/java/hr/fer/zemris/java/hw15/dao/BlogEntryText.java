@@ -0,0 +1,97 @@
+package hr.fer.zemris.java.hw15.dao;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import hr.fer.zemris.java.hw15.entities.BlogEntry;
+
+/**
+ * {@code BlogEntryText} is a read-only projection of a {@link BlogEntry} that
+ * contains only its ID, title and text. It is used where only the text of the
+ * entries is needed, e.g. for building the search index, so their creators
+ * and comments are never loaded.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see BlogEntry
+ */
+public final class BlogEntryText implements Serializable {
+
+    /** Serial version UID. */
+    private static final long serialVersionUID = -4186927531670349023L;
+
+    /** ID of the blog entry. */
+    private final Long id;
+
+    /** Title of the blog entry. */
+    private final String title;
+
+    /** Text of the blog entry. */
+    private final String text;
+
+    /**
+     * Constructs a new {@code BlogEntryText} with specified ID, title and
+     * text.
+     *
+     * @param id
+     *            the ID of the blog entry
+     * @param title
+     *            the title of the blog entry
+     * @param text
+     *            the text of the blog entry
+     * @throws NullPointerException
+     *             if parameter {@code id} is a {@code null} reference
+     */
+    public BlogEntryText(Long id, String title, String text) {
+        this.id = Objects.requireNonNull(id, "You cannot set the ID of the blog entry to a null reference.");
+        this.title = title;
+        this.text = text;
+    }
+
+    /**
+     * Returns the ID of the blog entry.
+     *
+     * @return the ID of the blog entry
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Returns the title of the blog entry.
+     *
+     * @return the title of the blog entry
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Returns the text of the blog entry.
+     *
+     * @return the text of the blog entry
+     */
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof BlogEntryText))
+            return false;
+        return id.equals(((BlogEntryText) obj).id);
+    }
+
+    @Override
+    public String toString() {
+        return "BlogEntryText [id=" + id + ", title=" + title + "]";
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package hr.fer.zemris.java.hw15.dao;
+
+import java.io.IOException;
+
+import hr.fer.zemris.java.hw15.entities.BlogComment;
+import hr.fer.zemris.java.hw15.entities.BlogEntry;
+import hr.fer.zemris.java.hw15.entities.BlogUser;
+
+/**
+ * {@code BlogExportHandler} receives all the blog data, one object at a time,
+ * during {@link DAO#exportBlog(BlogExportHandler)}. All the users are passed
+ * first, then all the entries and finally all the comments, so every object is
+ * passed after the objects it refers to.
+ * <p>
+ * Passed objects are valid only during the call; the handler should write them
+ * out and must not keep them.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see DAO#exportBlog(BlogExportHandler)
+ */
+public interface BlogExportHandler {
+
+    /**
+     * Handles one blog user.
+     *
+     * @param user
+     *            the blog user
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    void exportUser(BlogUser user) throws IOException;
+
+    /**
+     * Handles one blog entry. Its creator is loaded but its comments are not.
+     *
+     * @param entry
+     *            the blog entry
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    void exportEntry(BlogEntry entry) throws IOException;
+
+    /**
+     * Handles one blog comment. Its blog entry is loaded.
+     *
+     * @param comment
+     *            the blog comment
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    void exportComment(BlogComment comment) throws IOException;
+
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+package hr.fer.zemris.java.hw15.dao;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import hr.fer.zemris.java.hw15.entities.BlogUser;
+
+/**
+ * {@code BlogUserSummary} is a read-only projection of a {@link BlogUser} that
+ * contains only its ID and nickname. It is used where the full entity isn't
+ * needed, e.g. for listing all the users of the blog, so the password hash and
+ * the other data of the user are never loaded.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see BlogUser
+ */
+public final class BlogUserSummary implements Serializable {
+
+    /** Serial version UID. */
+    private static final long serialVersionUID = 2958371065227360218L;
+
+    /** ID of the blog user. */
+    private final Long id;
+
+    /** Nickname of the blog user. */
+    private final String nick;
+
+    /**
+     * Constructs a new {@code BlogUserSummary} with specified ID and nickname.
+     *
+     * @param id
+     *            the ID of the blog user
+     * @param nick
+     *            the nickname of the blog user
+     * @throws NullPointerException
+     *             if parameter {@code id} or {@code nick} is a {@code null}
+     *             reference
+     */
+    public BlogUserSummary(Long id, String nick) {
+        this.id = Objects.requireNonNull(id, "You cannot set the ID of the blog user to a null reference.");
+        this.nick = Objects.requireNonNull(nick, "You cannot set the nickname of the blog user to a null reference.");
+    }
+
+    /**
+     * Returns the ID of the blog user.
+     *
+     * @return the ID of the blog user
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Returns the nickname of the blog user.
+     *
+     * @return the nickname of the blog user
+     */
+    public String getNick() {
+        return nick;
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof BlogUserSummary))
+            return false;
+        return id.equals(((BlogUserSummary) obj).id);
+    }
+
+    @Override
+    public String toString() {
+        return "BlogUserSummary [id=" + id + ", nick=" + nick + "]";
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,133 @@
+package hr.fer.zemris.java.hw15.dao;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import hr.fer.zemris.java.hw15.entities.BlogComment;
+import hr.fer.zemris.java.hw15.entities.BlogEntry;
+
+/**
+ * {@code BlogVersion} is a read-only projection that tells which version of a
+ * blog entry or of all the blog entries of a user is stored: the number of the
+ * entries and their comments and the time they were last changed. It is read
+ * with one aggregate query, so it can be used to answer conditional requests
+ * without loading the entries themselves.
+ * <p>
+ * Entries and comments are never deleted, so the version changes whenever an
+ * entry or a comment is added or an entry is edited.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see BlogEntry
+ * @see BlogComment
+ */
+public final class BlogVersion implements Serializable {
+
+    /** Serial version UID. */
+    private static final long serialVersionUID = -4529047013613268215L;
+
+    /** Number of the blog entries. */
+    private final long entries;
+
+    /** Number of the comments of the blog entries. */
+    private final long comments;
+
+    /** Time of the last change in milliseconds since the epoch. */
+    private final long lastModified;
+
+    /**
+     * Constructs a new {@code BlogVersion} of blog entries whose comments
+     * aren't counted.
+     *
+     * @param entries
+     *            the number of the blog entries
+     * @param lastModified
+     *            the time the last entry was modified or {@code null} if
+     *            there are no entries
+     */
+    public BlogVersion(Long entries, Date lastModified) {
+        this(entries, 0L, lastModified, null);
+    }
+
+    /**
+     * Constructs a new {@code BlogVersion}.
+     *
+     * @param entries
+     *            the number of the blog entries
+     * @param comments
+     *            the number of the comments of the blog entries
+     * @param lastModified
+     *            the time the last entry was modified or {@code null} if
+     *            there are no entries
+     * @param lastCommented
+     *            the time the last comment was posted or {@code null} if
+     *            there are no comments
+     */
+    public BlogVersion(Long entries, Long comments, Date lastModified, Date lastCommented) {
+        this.entries = entries == null ? 0 : entries;
+        this.comments = comments == null ? 0 : comments;
+        this.lastModified = Math.max(
+                lastModified == null ? 0 : lastModified.getTime(),
+                lastCommented == null ? 0 : lastCommented.getTime());
+    }
+
+    /**
+     * Returns the number of the blog entries.
+     *
+     * @return the number of the blog entries
+     */
+    public long getEntries() {
+        return entries;
+    }
+
+    /**
+     * Returns the number of the comments of the blog entries.
+     *
+     * @return the number of the comments or 0 if they aren't counted
+     */
+    public long getComments() {
+        return comments;
+    }
+
+    /**
+     * Returns the time an entry was last modified or commented.
+     *
+     * @return the time of the last change in milliseconds since the epoch or
+     *         0 if there are no entries
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Returns the entity tag of this version, without the quotes. Different
+     * versions have different tags.
+     *
+     * @return the entity tag of this version
+     */
+    public String toTag() {
+        return Long.toString(entries, 36) + "-" + Long.toString(comments, 36) + "-"
+                + Long.toString(lastModified, 36);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(entries) * 961 + Long.hashCode(comments) * 31 + Long.hashCode(lastModified);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof BlogVersion))
+            return false;
+        BlogVersion other = (BlogVersion) obj;
+        return entries == other.entries && comments == other.comments && lastModified == other.lastModified;
+    }
+
+    @Override
+    public String toString() {
+        return "BlogVersion [entries=" + entries + ", comments=" + comments + ", lastModified=" + lastModified + "]";
+    }
+
+}
\ No newline at end of file
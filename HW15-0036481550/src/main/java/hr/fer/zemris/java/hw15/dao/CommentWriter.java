@@ -0,0 +1,342 @@
+package hr.fer.zemris.java.hw15.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hr.fer.zemris.java.hw15.entities.BlogComment;
+
+/**
+ * {@code CommentWriter} is a write-behind writer of blog comments. Comments are
+ * put in a bounded queue and a background thread saves them in batches using
+ * {@link DAO#addBlogComments(List)}, so many comments posted at the same time
+ * end up in a few transactions instead of one transaction per comment.
+ * <p>
+ * The batch is written as soon as it has {@code batchSize} comments or when
+ * {@code flushInterval} milliseconds pass since its first comment was taken
+ * from the queue, whichever comes first. When the queue is full
+ * {@link #submit(BlogComment)} waits for a while and then gives up, so the
+ * caller can tell the client to try again later.
+ * <p>
+ * Every batch is saved in its own unit of work, which the cleanup task
+ * commits, or the discard task rolls back if the batch can't be saved. If the
+ * batch can't be saved, because one of its comments is too long or
+ * its entry is gone, its comments are saved again one by one, each in its
+ * own unit of work, so only the comments that fail again are lost. The
+ * saved comments are given to the listener once they are committed.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see DAO#addBlogComments(List)
+ */
+public class CommentWriter {
+
+    /** Logger of the failed writes. */
+    private static final Logger LOGGER = Logger.getLogger(CommentWriter.class.getName());
+
+    /** Direct access object used to save the comments. */
+    private final DAO dao;
+    /** Queue of the comments waiting to be saved. */
+    private final BlockingQueue<BlogComment> queue;
+    /** Maximal number of comments saved in one batch. */
+    private final int batchSize;
+    /** Maximal time a comment waits for its batch to fill in milliseconds. */
+    private final long flushInterval;
+    /** Maximal time to wait for space in the queue in milliseconds. */
+    private final long submitTimeout;
+    /** Listener that is given every saved batch on the writer thread. */
+    private final Consumer<List<BlogComment>> listener;
+    /** Task that commits the unit of work of every save on the writer thread. */
+    private final Runnable cleanup;
+    /** Task that rolls back the unit of work of a failed save. */
+    private final Runnable discard;
+    /** Background thread that saves the comments. */
+    private final Thread thread;
+
+    /** Flag that is {@code true} until the writer is shut down. */
+    private volatile boolean running = true;
+
+    /** Number of accepted comments. */
+    private final LongAdder submitted = new LongAdder();
+    /** Number of comments rejected because the queue was full. */
+    private final LongAdder rejected = new LongAdder();
+    /** Number of saved comments. */
+    private final LongAdder written = new LongAdder();
+    /** Number of comments that couldn't be saved. */
+    private final LongAdder failed = new LongAdder();
+    /** Number of written batches. */
+    private final LongAdder batches = new LongAdder();
+
+    /**
+     * Constructs a new {@code CommentWriter} and starts its background thread.
+     *
+     * @param dao
+     *            the direct access object used to save the comments
+     * @param capacity
+     *            the maximal number of comments waiting to be saved
+     * @param batchSize
+     *            the maximal number of comments saved in one batch
+     * @param flushInterval
+     *            the maximal time a comment waits for its batch to fill in
+     *            milliseconds
+     * @param submitTimeout
+     *            the maximal time to wait for space in the queue in
+     *            milliseconds
+     * @param listener
+     *            the listener that is given every saved batch on the writer
+     *            thread
+     * @param cleanup
+     *            the task that commits and ends the unit of work of every
+     *            successful save on the writer thread
+     * @param discard
+     *            the task that rolls back and ends the unit of work of every
+     *            failed save on the writer thread
+     * @throws NullPointerException
+     *             if parameter {@code dao}, {@code listener}, {@code cleanup}
+     *             or {@code discard} is a {@code null} reference
+     * @throws IllegalArgumentException
+     *             if {@code capacity} or {@code batchSize} is less than 1 or
+     *             {@code flushInterval} or {@code submitTimeout} is negative
+     */
+    public CommentWriter(DAO dao, int capacity, int batchSize, long flushInterval, long submitTimeout,
+            Consumer<List<BlogComment>> listener, Runnable cleanup, Runnable discard) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("Batch size must be at least 1.");
+        if (flushInterval < 0 || submitTimeout < 0)
+            throw new IllegalArgumentException("Flush interval and submit timeout cannot be negative.");
+
+        this.dao = Objects.requireNonNull(dao, "You cannot set the direct access object to a null reference.");
+        this.listener = Objects.requireNonNull(listener, "You cannot set the listener to a null reference.");
+        this.cleanup = Objects.requireNonNull(cleanup, "You cannot set the cleanup task to a null reference.");
+        this.discard = Objects.requireNonNull(discard, "You cannot set the discard task to a null reference.");
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.submitTimeout = submitTimeout;
+
+        this.thread = new Thread(this::run, "comment-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Puts the specified comment in the queue of the comments waiting to be
+     * saved. If the queue is full waits for at most {@code submitTimeout}
+     * milliseconds for space to become available.
+     *
+     * @param comment
+     *            the comment
+     * @return {@code true} if the comment was accepted; {@code false} if the
+     *         queue is still full or the writer is shut down
+     * @throws NullPointerException
+     *             if parameter {@code comment} is a {@code null} reference
+     */
+    public boolean submit(BlogComment comment) {
+        Objects.requireNonNull(comment, "You cannot save a null reference as a comment.");
+        if (!running)
+            return false;
+
+        boolean accepted;
+        try {
+            accepted = queue.offer(comment, submitTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+
+        if (accepted) {
+            submitted.increment();
+        } else {
+            rejected.increment();
+        }
+        return accepted;
+    }
+
+    /**
+     * Stops accepting new comments, saves all the comments that are still in
+     * the queue and waits for the background thread to finish.
+     *
+     * @param timeout
+     *            the maximal time to wait in milliseconds
+     * @throws InterruptedException
+     *             if the current thread is interrupted while waiting
+     */
+    public void shutdown(long timeout) throws InterruptedException {
+        running = false;
+        thread.join(timeout);
+    }
+
+    /**
+     * Returns the snapshot of the statistics of this writer.
+     *
+     * @return the map of statistic names to their values
+     */
+    public Map<String, Number> getStatistics() {
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("queued", queue.size());
+        stats.put("submitted", submitted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("written", written.sum());
+        stats.put("failed", failed.sum());
+        stats.put("batches", batches.sum());
+        return stats;
+    }
+
+    /**
+     * Takes the comments from the queue and saves them in batches until the
+     * writer is shut down and the queue is empty.
+     */
+    private void run() {
+        List<BlogComment> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                fill(batch);
+            } catch (InterruptedException ex) {
+                running = false;
+            }
+
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Fills the batch with the comments from the queue. Waits for at most
+     * {@code flushInterval} milliseconds for the first comment and then for at
+     * most {@code flushInterval} milliseconds for the batch to fill up.
+     *
+     * @param batch
+     *            the batch to fill
+     * @throws InterruptedException
+     *             if the writer thread is interrupted while waiting
+     */
+    private void fill(List<BlogComment> batch) throws InterruptedException {
+        BlogComment first = queue.poll(flushInterval, TimeUnit.MILLISECONDS);
+        if (first == null)
+            return;
+        batch.add(first);
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushInterval);
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0)
+                continue;
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !running)
+                return;
+
+            BlogComment next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null)
+                return;
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Saves the batch of comments. If the batch fails, its comments are saved
+     * one by one and only the ones that fail again are dropped.
+     *
+     * @param batch
+     *            the batch of comments
+     */
+    private void write(List<BlogComment> batch) {
+        RuntimeException error = save(batch);
+        if (error == null) {
+            written.add(batch.size());
+            batches.increment();
+            notifyListener(batch);
+            return;
+        }
+        if (batch.size() == 1) {
+            failed.increment();
+            LOGGER.log(Level.SEVERE, "Unable to save a comment.", error);
+            return;
+        }
+
+        LOGGER.log(Level.WARNING, "Unable to save " + batch.size() + " comments together, saving them one by one.",
+                error);
+        List<BlogComment> saved = new ArrayList<>(batch.size());
+        for (BlogComment comment : batch) {
+            BlogComment retried;
+            try {
+                // the failed unit of work may have given the comment an ID
+                retried = new BlogComment(comment.getBlogEntry(), comment.getUsersEMail(), comment.getMessage(),
+                        comment.getPostedOn());
+                error = save(Collections.singletonList(retried));
+            } catch (RuntimeException ex) {
+                retried = null;
+                error = ex;
+            }
+
+            if (error == null) {
+                written.increment();
+                saved.add(retried);
+            } else {
+                failed.increment();
+                LOGGER.log(Level.SEVERE, "Unable to save a comment.", error);
+            }
+        }
+        if (!saved.isEmpty()) {
+            batches.increment();
+            notifyListener(saved);
+        }
+    }
+
+    /**
+     * Saves the comments and runs the cleanup task, which commits the unit of
+     * work. If the comments can't be saved, runs the discard task instead,
+     * which rolls the unit of work back.
+     *
+     * @param comments
+     *            the comments
+     * @return {@code null} if the comments are saved; the exception
+     *         otherwise
+     */
+    private RuntimeException save(List<BlogComment> comments) {
+        try {
+            dao.addBlogComments(comments);
+        } catch (RuntimeException ex) {
+            try {
+                discard.run();
+            } catch (RuntimeException suppressed) {
+                ex.addSuppressed(suppressed);
+            }
+            return ex;
+        }
+
+        try {
+            cleanup.run();
+            return null;
+        } catch (RuntimeException ex) {
+            return ex;
+        }
+    }
+
+    /**
+     * Gives the saved comments to the listener.
+     *
+     * @param comments
+     *            the saved comments
+     */
+    private void notifyListener(List<BlogComment> comments) {
+        try {
+            listener.accept(comments);
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.SEVERE, "Unable to notify the listener of saved comments.", ex);
+        }
+    }
+
+}
\ No newline at end of file
@@ -1,7 +1,9 @@
 package hr.fer.zemris.java.hw15.dao;
 
 import java.util.List;
+import java.util.function.Consumer;
 
+import hr.fer.zemris.java.hw15.entities.BlogComment;
 import hr.fer.zemris.java.hw15.entities.BlogEntry;
 import hr.fer.zemris.java.hw15.entities.BlogUser;
 
@@ -23,6 +25,23 @@ public interface DAO {
      */
     public List<BlogUser> getAllBlogUsers() throws DAOException;
 
+    /**
+     * Returns one page of summaries of blog users ordered by their nicknames.
+     * The page starts right after the user with nickname {@code afterNick}.
+     * <p>
+     * Only the ID and the nickname of every user are loaded.
+     *
+     * @param afterNick
+     *            nickname of the last user of the previous page or
+     *            {@code null} for the first page
+     * @param maxResults
+     *            maximal number of summaries to return
+     * @return the list of at most {@code maxResults} summaries of blog users
+     * @throws DAOException
+     *             if some exception occurs
+     */
+    public List<BlogUserSummary> getBlogUserSummaries(String afterNick, int maxResults) throws DAOException;
+
     /**
      * Returns the blog user with the specified {@code nick}. If that blog user
      * doesn't exist {@code null} is returned.
@@ -68,6 +87,49 @@ public interface DAO {
      */
     public List<BlogEntry> getAllUserEntries(BlogUser user) throws DAOException;
 
+    /**
+     * Returns one page of blog entries with specified {@code user} as a
+     * creator. Entries are ordered by the date of creation and ID and the page
+     * starts right after the entry that {@code after} points to.
+     * <p>
+     * Implementations should use keyset pagination so the cost of fetching a
+     * page doesn't depend on how many entries were written before it.
+     *
+     * @param user
+     *            user that created blog entries
+     * @param after
+     *            cursor pointing to the last entry of the previous page or
+     *            {@code null} for the first page
+     * @param maxResults
+     *            maximal number of entries to return
+     * @return the list of at most {@code maxResults} blog entries
+     * @throws DAOException
+     *             if some exception occurs
+     */
+    public List<BlogEntry> getUserEntries(BlogUser user, PageCursor after, int maxResults) throws DAOException;
+
+    /**
+     * Returns one page of blog entries with specified {@code user} as a
+     * creator together with their creators and comments. Paging works the
+     * same way as in {@link #getUserEntries(BlogUser, PageCursor, int)}.
+     * <p>
+     * Comments of the returned entries are already loaded so they can be
+     * accessed without any further queries to the database.
+     *
+     * @param user
+     *            user that created blog entries
+     * @param after
+     *            cursor pointing to the last entry of the previous page or
+     *            {@code null} for the first page
+     * @param maxResults
+     *            maximal number of entries to return
+     * @return the list of at most {@code maxResults} blog entries
+     * @throws DAOException
+     *             if some exception occurs
+     */
+    public List<BlogEntry> getUserEntriesWithComments(BlogUser user, PageCursor after, int maxResults)
+            throws DAOException;
+
     /**
      * Returns the blog entry with the specified {@code id}. If that blog entry
      * doesn't exist {@code null} is returned.
@@ -80,4 +142,150 @@ public interface DAO {
      */
     public BlogEntry getBlogEntry(Long id) throws DAOException;
 
+    /**
+     * Returns the blog entries with the specified IDs together with their
+     * creators, using one query. Entries are returned in the order of the
+     * given IDs; IDs of the entries that don't exist are skipped.
+     *
+     * @param ids
+     *            entry ids
+     * @return list of blog entries
+     * @throws DAOException
+     *             if some exception occurs
+     */
+    public List<BlogEntry> getBlogEntries(List<Long> ids) throws DAOException;
+
+    /**
+     * Returns the blog entry with the specified {@code id} together with its
+     * creator and comments. If that blog entry doesn't exist {@code null} is
+     * returned.
+     * <p>
+     * Comments of the returned entry are already loaded so they can be
+     * accessed without any further queries to the database.
+     *
+     * @param id
+     *            entry id
+     * @return blog entry or {@code null} if entry doesn't exist
+     * @throws DAOException
+     *             if some exception occurs
+     */
+    public BlogEntry getBlogEntryWithComments(Long id) throws DAOException;
+
+    /**
+     * Returns the version of the blog entry with the specified {@code id},
+     * counting its comments. If that blog entry doesn't exist {@code null} is
+     * returned.
+     *
+     * @param id
+     *            entry id
+     * @return version of the blog entry or {@code null} if entry doesn't
+     *         exist
+     * @throws DAOException
+     *             if some exception occurs
+     */
+    public BlogVersion getBlogEntryVersion(Long id) throws DAOException;
+
+    /**
+     * Returns the version of all the blog entries of the user with the
+     * specified {@code nick}, without counting their comments. If that user
+     * doesn't exist {@code null} is returned.
+     *
+     * @param nick
+     *            user's nickname
+     * @return version of the blog entries of the user or {@code null} if user
+     *         doesn't exist
+     * @throws DAOException
+     *             if some exception occurs
+     */
+    public BlogVersion getUserEntriesVersion(String nick) throws DAOException;
+
+    /**
+     * Passes all the blog users, entries and comments to the specified
+     * {@code handler} in that order, one object at a time.
+     * <p>
+     * Implementations should stream the data, so the whole blog is never held
+     * in memory at once.
+     *
+     * @param handler
+     *            the handler of the exported data
+     * @throws DAOException
+     *             if some exception occurs, including the I/O exceptions
+     *             thrown by the handler
+     */
+    public void exportBlog(BlogExportHandler handler) throws DAOException;
+
+    /**
+     * Passes the ID, title and text of every blog entry to the specified
+     * {@code action}, one entry at a time, in the order of their IDs. Neither
+     * the users nor the comments are read.
+     * <p>
+     * Implementations should stream the entries, so they are never all held
+     * in memory at once.
+     *
+     * @param action
+     *            the action that handles the text of one blog entry
+     * @throws DAOException
+     *             if some exception occurs
+     */
+    public void scrollBlogEntryTexts(Consumer<BlogEntryText> action) throws DAOException;
+
+    /**
+     * Saves the specified new blog user and sets its ID.
+     *
+     * @param user
+     *            the new blog user
+     * @throws DAOException
+     *             if some exception occurs, e.g. if a user with the same
+     *             nickname already exists
+     */
+    public void addBlogUser(BlogUser user) throws DAOException;
+
+    /**
+     * Saves the specified new blog entry and sets its ID.
+     *
+     * @param entry
+     *            the new blog entry
+     * @throws DAOException
+     *             if some exception occurs
+     */
+    public void addBlogEntry(BlogEntry entry) throws DAOException;
+
+    /**
+     * Saves the changes of the title and the text of the specified existing
+     * blog entry, together with the time of its last modification. The
+     * comments of the stored entry are never changed, so the entry may be a
+     * detached copy whose comments are not loaded.
+     *
+     * @param entry
+     *            the changed blog entry
+     * @throws DAOException
+     *             if some exception occurs
+     */
+    public void updateBlogEntry(BlogEntry entry) throws DAOException;
+
+    /**
+     * Replaces the password hash of the blog user with the specified
+     * {@code id}, e.g. when the password is hashed again with stronger
+     * settings.
+     *
+     * @param id
+     *            user id
+     * @param passwordHash
+     *            the new password hash
+     * @throws DAOException
+     *             if the user doesn't exist or some other exception occurs
+     */
+    public void updatePasswordHash(Long id, String passwordHash) throws DAOException;
+
+    /**
+     * Saves all the specified blog comments in one transaction. Comments are
+     * sent to the database in batches whenever that is possible.
+     *
+     * @param comments
+     *            the list of blog comments
+     * @throws DAOException
+     *             if some exception occurs
+     */
+    public void addBlogComments(List<BlogComment> comments) throws DAOException;
+
 }
\ No newline at end of file
@@ -0,0 +1,230 @@
+package hr.fer.zemris.java.hw15.dao;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@code DAOExecutor} is a bounded {@link ThreadPoolExecutor} dedicated to the
+ * database calls made through the {@link AsyncDAO}. It has a fixed number of
+ * threads, which should match the size of the database connection pool, and a
+ * bounded queue. When the queue is full the task is run by the submitting
+ * thread, which slows the callers down instead of piling up work.
+ * <p>
+ * After every task that ran on one of its threads the executor runs the
+ * cleanup task, e.g. to release the thread-local resources the task left
+ * behind. Tasks run by the submitting thread are left alone because they share
+ * the resources of that thread.
+ * <p>
+ * The executor measures how long tasks wait in the queue and how long they
+ * run; the measurements are available through {@link #getStatistics()}.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see AsyncDAO
+ */
+public class DAOExecutor extends ThreadPoolExecutor {
+
+    /** Number of tasks that can wait in the queue per thread. */
+    private static final int QUEUE_SIZE_PER_THREAD = 8;
+
+    /** Number of submitted tasks. */
+    private final LongAdder submitted = new LongAdder();
+    /** Number of finished tasks. */
+    private final LongAdder completed = new LongAdder();
+    /** Total time tasks spent waiting in the queue in nanoseconds. */
+    private final LongAdder waitNanos = new LongAdder();
+    /** Total time tasks spent running in nanoseconds. */
+    private final LongAdder runNanos = new LongAdder();
+    /** Longest time a task spent waiting in the queue in nanoseconds. */
+    private volatile long maxWaitNanos;
+    /** Number of cleanup tasks that failed. */
+    private final LongAdder failedCleanups = new LongAdder();
+    /** Handler of the tasks that don't fit in the queue. */
+    private final CountingCallerRunsPolicy rejectionPolicy;
+    /** Task that is run after every task on the threads of this executor. */
+    private final Runnable cleanup;
+
+    /**
+     * Constructs a new {@code DAOExecutor} with specified number of threads
+     * and cleanup task.
+     *
+     * @param threads
+     *            the number of threads
+     * @param cleanup
+     *            the task that is run after every task on the threads of this
+     *            executor
+     * @throws NullPointerException
+     *             if parameter {@code cleanup} is a {@code null} reference
+     * @throws IllegalArgumentException
+     *             if {@code threads} is less than 1
+     */
+    public DAOExecutor(int threads, Runnable cleanup) {
+        this(threads, cleanup, new CountingCallerRunsPolicy());
+    }
+
+    /**
+     * Constructs a new {@code DAOExecutor} with specified number of threads,
+     * cleanup task and handler of the tasks that don't fit in the queue.
+     *
+     * @param threads
+     *            the number of threads
+     * @param cleanup
+     *            the task that is run after every task on the threads of this
+     *            executor
+     * @param rejectionPolicy
+     *            the handler of the tasks that don't fit in the queue
+     */
+    private DAOExecutor(int threads, Runnable cleanup, CountingCallerRunsPolicy rejectionPolicy) {
+        super(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(threads * QUEUE_SIZE_PER_THREAD),
+                new DAOThreadFactory(), rejectionPolicy);
+        this.cleanup = Objects.requireNonNull(cleanup, "You cannot set the cleanup task to a null reference.");
+        this.rejectionPolicy = rejectionPolicy;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        submitted.increment();
+        super.execute(new TimedTask(command));
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        if (r instanceof TimedTask) {
+            TimedTask task = (TimedTask) r;
+            task.startedAt = System.nanoTime();
+
+            long wait = task.startedAt - task.submittedAt;
+            waitNanos.add(wait);
+            if (wait > maxWaitNanos) {
+                maxWaitNanos = wait;
+            }
+        }
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        if (r instanceof TimedTask) {
+            runNanos.add(System.nanoTime() - ((TimedTask) r).startedAt);
+        }
+        completed.increment();
+
+        try {
+            cleanup.run();
+        } catch (RuntimeException ex) {
+            failedCleanups.increment();
+        }
+    }
+
+    /**
+     * Returns the snapshot of the statistics of this executor. Times are given
+     * in microseconds.
+     *
+     * @return the map of statistic names to their values
+     */
+    public Map<String, Number> getStatistics() {
+        long done = completed.sum();
+
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("threads", getPoolSize());
+        stats.put("active", getActiveCount());
+        stats.put("queued", getQueue().size());
+        stats.put("submitted", submitted.sum());
+        stats.put("completed", done);
+        stats.put("callerRuns", rejectionPolicy.callerRuns.sum());
+        stats.put("avgWaitMicros", done == 0 ? 0 : waitNanos.sum() / done / 1000);
+        stats.put("maxWaitMicros", maxWaitNanos / 1000);
+        stats.put("avgRunMicros", done == 0 ? 0 : runNanos.sum() / done / 1000);
+        stats.put("failedCleanups", failedCleanups.sum());
+        return stats;
+    }
+
+    /**
+     * {@code TimedTask} is a wrapper of a task that remembers when the task
+     * was submitted and when it started running.
+     *
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private static class TimedTask implements Runnable {
+
+        /** Wrapped task. */
+        final Runnable task;
+        /** Time when the task was submitted. */
+        final long submittedAt = System.nanoTime();
+        /** Time when the task started running. */
+        long startedAt;
+
+        /**
+         * Constructs a new {@code TimedTask} that wraps the specified task.
+         *
+         * @param task
+         *            the task
+         */
+        TimedTask(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+
+    }
+
+    /**
+     * {@code CountingCallerRunsPolicy} is a {@link RejectedExecutionHandler}
+     * that runs the rejected task in the submitting thread, just like
+     * {@link CallerRunsPolicy}, and counts how many times that happened.
+     *
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private static class CountingCallerRunsPolicy implements RejectedExecutionHandler {
+
+        /** Number of tasks that were run by the submitting thread. */
+        final LongAdder callerRuns = new LongAdder();
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (!executor.isShutdown()) {
+                callerRuns.increment();
+                if (r instanceof TimedTask) {
+                    ((TimedTask) r).task.run();
+                } else {
+                    r.run();
+                }
+            }
+        }
+
+    }
+
+    /**
+     * {@code DAOThreadFactory} is a {@link ThreadFactory} that creates named
+     * daemon threads.
+     *
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private static class DAOThreadFactory implements ThreadFactory {
+
+        /** Number of the next thread. */
+        private final AtomicInteger number = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "dao-executor-" + number.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+}
\ No newline at end of file
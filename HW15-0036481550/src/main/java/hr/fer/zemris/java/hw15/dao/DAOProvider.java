@@ -1,19 +1,30 @@
 package hr.fer.zemris.java.hw15.dao;
 
+import java.util.Objects;
+
 import hr.fer.zemris.java.hw15.dao.jpa.JPADAOImpl;
 
 /**
  * {@code DAOProvider} is a singleton that knows what needs to be returned as a
- * service provider that enables you to access persistent data.
+ * service provider that enables you to access persistent data. By default
+ * that is the {@link JPADAOImpl}.
  * 
  * @author Karlo Vrbić
  * @version 1.0
  * @see DAO
+ * @see AsyncDAO
+ * @see CommentWriter
  */
 public class DAOProvider {
 
     /** Direct access object used to access persistent data. */
-    private static DAO DIRECT_ACCESS_OBJECT = new JPADAOImpl();
+    private static volatile DAO DIRECT_ACCESS_OBJECT = new JPADAOImpl();
+
+    /** Asynchronous direct access object used to access persistent data. */
+    private static AsyncDAO ASYNC_DIRECT_ACCESS_OBJECT;
+
+    /** Write-behind writer of blog comments. */
+    private static CommentWriter COMMENT_WRITER;
 
     /**
      * Returns the instance of the direct access object used to access
@@ -25,4 +36,56 @@ public class DAOProvider {
         return DIRECT_ACCESS_OBJECT;
     }
 
+    /**
+     * Sets the direct access object used to access persistent data.
+     * 
+     * @param dao
+     *            the direct access object
+     * @throws NullPointerException
+     *             if parameter {@code dao} is a {@code null} reference
+     */
+    public static void setDAO(DAO dao) {
+        DIRECT_ACCESS_OBJECT = Objects.requireNonNull(dao, "You cannot set the direct access object to a null reference.");
+    }
+
+    /**
+     * Returns the instance of the asynchronous direct access object used to
+     * access persistent data.
+     * 
+     * @return the instance of the asynchronous direct access object
+     */
+    public static AsyncDAO getAsyncDAO() {
+        return ASYNC_DIRECT_ACCESS_OBJECT;
+    }
+
+    /**
+     * Sets the instance of the asynchronous direct access object used to
+     * access persistent data.
+     * 
+     * @param asyncDAO
+     *            the instance of the asynchronous direct access object
+     */
+    public static void setAsyncDAO(AsyncDAO asyncDAO) {
+        ASYNC_DIRECT_ACCESS_OBJECT = asyncDAO;
+    }
+
+    /**
+     * Returns the write-behind writer of blog comments.
+     * 
+     * @return the write-behind writer of blog comments
+     */
+    public static CommentWriter getCommentWriter() {
+        return COMMENT_WRITER;
+    }
+
+    /**
+     * Sets the write-behind writer of blog comments.
+     * 
+     * @param commentWriter
+     *            the write-behind writer of blog comments
+     */
+    public static void setCommentWriter(CommentWriter commentWriter) {
+        COMMENT_WRITER = commentWriter;
+    }
+
 }
\ No newline at end of file
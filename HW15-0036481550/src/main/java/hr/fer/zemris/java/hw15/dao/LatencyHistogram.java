@@ -0,0 +1,138 @@
+package hr.fer.zemris.java.hw15.dao;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@code LatencyHistogram} counts durations in fixed buckets whose upper bounds
+ * grow roughly exponentially from {@value #FIRST_BOUND} microseconds to one
+ * second. Recording is lock-free, so it can be done on every database call,
+ * and percentiles are estimated by the upper bound of the bucket they fall
+ * in.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public class LatencyHistogram {
+
+    /** Upper bound of the first bucket in microseconds. */
+    private static final long FIRST_BOUND = 50;
+
+    /** Upper bounds of the buckets in microseconds; the last one is unbounded. */
+    private static final long[] BOUNDS = { FIRST_BOUND, 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000,
+            100_000, 250_000, 500_000, 1_000_000 };
+
+    /** Counts of the durations in the buckets. */
+    private final LongAdder[] buckets = new LongAdder[BOUNDS.length + 1];
+
+    /** Number of the recorded durations. */
+    private final LongAdder count = new LongAdder();
+
+    /** Sum of the recorded durations in nanoseconds. */
+    private final LongAdder sum = new LongAdder();
+
+    /** Longest recorded duration in nanoseconds. */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructs a new empty {@code LatencyHistogram}.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos
+     *            the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = nanos / 1000;
+        int i = 0;
+        while (i < BOUNDS.length && micros > BOUNDS[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        count.increment();
+        sum.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * Returns the number of the recorded durations.
+     *
+     * @return the number of the recorded durations
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of the recorded durations.
+     *
+     * @return the sum of the recorded durations in nanoseconds
+     */
+    public long getSumNanos() {
+        return sum.sum();
+    }
+
+    /**
+     * Estimates the percentile of the recorded durations by the upper bound of
+     * the bucket it falls in. Durations longer than the last bound are
+     * estimated by the longest recorded duration.
+     *
+     * @param percentile
+     *            the percentile, from 0 to 100
+     * @return the estimated percentile in microseconds or 0 if nothing was
+     *         recorded
+     */
+    public long getPercentileMicros(double percentile) {
+        long[] counts = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0)
+            return 0;
+
+        long rank = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BOUNDS.length; i++) {
+            seen += counts[i];
+            if (seen >= rank)
+                return BOUNDS[i];
+        }
+        return max.get() / 1000;
+    }
+
+    /**
+     * Puts the statistics of this histogram into the map. Count of every
+     * bucket is put under the name {@code <prefix>Le<bound>Micros}, or
+     * {@code <prefix>OverMicros} for the last bucket, followed by the average,
+     * the maximum and the 50th, 95th and 99th percentiles in microseconds.
+     *
+     * @param stats
+     *            the map of statistic names to their values
+     * @param prefix
+     *            the prefix of the names of the statistics
+     */
+    public void addTo(Map<String, Number> stats, String prefix) {
+        for (int i = 0; i < BOUNDS.length; i++) {
+            stats.put(prefix + "Le" + BOUNDS[i] + "Micros", buckets[i].sum());
+        }
+        stats.put(prefix + "OverMicros", buckets[BOUNDS.length].sum());
+
+        long n = count.sum();
+        stats.put(prefix + "AvgMicros", n == 0 ? 0 : sum.sum() / n / 1000);
+        stats.put(prefix + "MaxMicros", max.get() / 1000);
+        stats.put(prefix + "P50Micros", getPercentileMicros(50));
+        stats.put(prefix + "P95Micros", getPercentileMicros(95));
+        stats.put(prefix + "P99Micros", getPercentileMicros(99));
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,142 @@
+package hr.fer.zemris.java.hw15.dao;
+
+import java.util.Date;
+import java.util.Objects;
+
+import hr.fer.zemris.java.hw15.entities.BlogEntry;
+
+/**
+ * {@code PageCursor} is an immutable position in a list of blog entries
+ * ordered by creation date and ID. It is used for keyset (seek) pagination:
+ * the next page starts right after the entry the cursor points to, so the
+ * database can seek directly to it using an index instead of skipping over
+ * all the previous rows.
+ * <p>
+ * Cursor can be converted to a compact string using {@link #toString()} and
+ * parsed back using {@link #parse(String)} so it can be passed around as a
+ * request parameter.
+ * <p>
+ * Cursors are ordered the same way as the entries they point to.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see DAO#getUserEntries(hr.fer.zemris.java.hw15.entities.BlogUser,
+ *      PageCursor, int)
+ */
+public final class PageCursor implements Comparable<PageCursor> {
+
+    /** Radix used for the string representation of the cursor. */
+    private static final int RADIX = 36;
+
+    /** Separator of the parts of the string representation of the cursor. */
+    private static final char SEPARATOR = '.';
+
+    /** Date and time when the entry this cursor points to was created. */
+    private final long createdAt;
+
+    /** ID of the entry this cursor points to. */
+    private final long id;
+
+    /**
+     * Constructs a new {@code PageCursor} with specified creation time and ID
+     * of the blog entry.
+     *
+     * @param createdAt
+     *            the date and time when the blog entry was created as number
+     *            of milliseconds since the epoch
+     * @param id
+     *            the ID of the blog entry
+     */
+    public PageCursor(long createdAt, long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    /**
+     * Returns the cursor that points to the specified {@code entry}.
+     *
+     * @param entry
+     *            the blog entry
+     * @return the cursor that points to the specified entry
+     * @throws NullPointerException
+     *             if parameter {@code entry} is a {@code null} reference
+     */
+    public static PageCursor of(BlogEntry entry) {
+        Objects.requireNonNull(entry, "You cannot make a cursor of a null reference.");
+        return new PageCursor(entry.getCreatedAt().getTime(), entry.getId());
+    }
+
+    /**
+     * Parses the string representation of the cursor made by
+     * {@link #toString()}.
+     *
+     * @param str
+     *            the string representation of the cursor
+     * @return the cursor or {@code null} if {@code str} is {@code null} or
+     *         empty
+     * @throws IllegalArgumentException
+     *             if {@code str} is not a valid cursor
+     */
+    public static PageCursor parse(String str) {
+        if (str == null || str.isEmpty())
+            return null;
+
+        int index = str.indexOf(SEPARATOR);
+        if (index <= 0 || index == str.length() - 1)
+            throw new IllegalArgumentException("Invalid page cursor: '" + str + "'.");
+
+        try {
+            return new PageCursor(
+                    Long.parseLong(str.substring(0, index), RADIX),
+                    Long.parseLong(str.substring(index + 1), RADIX));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid page cursor: '" + str + "'.", ex);
+        }
+    }
+
+    /**
+     * Returns the date and time when the entry this cursor points to was
+     * created.
+     *
+     * @return the date and time when the entry was created
+     */
+    public Date getCreatedAt() {
+        return new Date(createdAt);
+    }
+
+    /**
+     * Returns the ID of the entry this cursor points to.
+     *
+     * @return the ID of the entry
+     */
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public int compareTo(PageCursor other) {
+        int result = Long.compare(createdAt, other.createdAt);
+        return result != 0 ? result : Long.compare(id, other.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(createdAt) + Long.hashCode(id);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof PageCursor))
+            return false;
+        PageCursor other = (PageCursor) obj;
+        return createdAt == other.createdAt && id == other.id;
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(createdAt, RADIX) + SEPARATOR + Long.toString(id, RADIX);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,512 @@
+package hr.fer.zemris.java.hw15.dao.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+
+import hr.fer.zemris.java.hw15.dao.BlogUserSummary;
+import hr.fer.zemris.java.hw15.dao.BlogVersion;
+import hr.fer.zemris.java.hw15.dao.DAO;
+import hr.fer.zemris.java.hw15.dao.DAOException;
+import hr.fer.zemris.java.hw15.dao.PageCursor;
+import hr.fer.zemris.java.hw15.dao.jpa.JPADAOImpl;
+import hr.fer.zemris.java.hw15.dao.jpa.JPAEMProvider;
+import hr.fer.zemris.java.hw15.entities.BlogComment;
+import hr.fer.zemris.java.hw15.entities.BlogEntry;
+import hr.fer.zemris.java.hw15.entities.BlogUser;
+
+/**
+ * {@code JDBCDAOImpl} is a {@link DAO} that reads blog users, entries and
+ * comments with hand-written prepared statements instead of going through the
+ * JPA entity manager, so reads don't pay for loading managed entities, their
+ * snapshots and dirty checking in Hibernate. Writes are inherited from
+ * {@link JPADAOImpl}.
+ * <p>
+ * Statements run on the connection of the read entity manager of the current
+ * unit of work in {@link JPAEMProvider}, so they see the uncommitted writes of
+ * the unit of work and a request never holds a second pooled connection. Reads
+ * go to the replica when it is configured and the current thread hasn't
+ * written to the primary database, just like in {@link JPADAOImpl}.
+ * <p>
+ * Returned entities are detached. Comments of blog entries are loaded only by
+ * the methods that promise so; other entries have an empty list of comments.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see DAO
+ * @see JPADAOImpl
+ */
+public class JDBCDAOImpl extends JPADAOImpl {
+
+    /** Columns of the blog user. */
+    private static final String USER_COLUMNS = "u.id, u.firstName, u.lastName, u.nick, u.email, u.passwordHash";
+    /** Columns of the blog entry. */
+    private static final String ENTRY_COLUMNS = "e.id, e.title, e.text, e.createdAt, e.lastModifiedAt";
+    /** Columns of the blog comment. */
+    private static final String COMMENT_COLUMNS = "c.id, c.blogEntry_id, c.usersEMail, c.message, c.postedOn";
+
+    /** Query that selects all the blog users. */
+    private static final String SELECT_USERS = "select " + USER_COLUMNS + " from blog_users u";
+    /** Query that selects the blog user with the given nickname. */
+    private static final String SELECT_USER_BY_NICK = SELECT_USERS + " where u.nick = ?";
+    /** Query that selects the blog user with the given ID. */
+    private static final String SELECT_USER_BY_ID = SELECT_USERS + " where u.id = ?";
+    /** Query that selects the first page of user summaries. */
+    private static final String SELECT_SUMMARIES = "select u.id, u.nick from blog_users u order by u.nick";
+    /** Query that selects a page of user summaries after the given nickname. */
+    private static final String SELECT_SUMMARIES_AFTER = "select u.id, u.nick from blog_users u where u.nick > ? "
+            + "order by u.nick";
+
+    /** Query that selects all the blog entries together with their creators. */
+    private static final String SELECT_ENTRIES = "select " + ENTRY_COLUMNS + ", " + USER_COLUMNS
+            + " from blog_entries e join blog_users u on e.creator_id = u.id";
+    /** Query that selects the blog entry with the given ID. */
+    private static final String SELECT_ENTRY_BY_ID = SELECT_ENTRIES + " where e.id = ?";
+    /** Query that selects all the blog entries of the given creator. */
+    private static final String SELECT_ENTRIES_BY_CREATOR = "select " + ENTRY_COLUMNS
+            + " from blog_entries e where e.creator_id = ?";
+    /** Query that selects the first page of the blog entries of the given creator. */
+    private static final String SELECT_PAGE_BY_CREATOR = SELECT_ENTRIES_BY_CREATOR + " order by e.createdAt, e.id";
+    /** Query that selects a page of the blog entries of the given creator after the given cursor. */
+    private static final String SELECT_PAGE_BY_CREATOR_AFTER = SELECT_ENTRIES_BY_CREATOR
+            + " and e.createdAt >= ? and (e.createdAt > ? or e.id > ?) order by e.createdAt, e.id";
+    /** Query that selects the comments of the blog entry with the given ID. */
+    private static final String SELECT_COMMENTS_BY_ENTRY = "select " + COMMENT_COLUMNS
+            + " from blog_comments c where c.blogEntry_id = ? order by c.postedOn";
+    /** Query that selects the version of the blog entry with the given ID. */
+    private static final String SELECT_ENTRY_VERSION = "select count(distinct e.id), count(c.id), "
+            + "max(e.lastModifiedAt), max(c.postedOn) from blog_entries e "
+            + "left join blog_comments c on c.blogEntry_id = e.id where e.id = ? group by e.id";
+    /** Query that selects the version of the blog entries of the user with the given nickname. */
+    private static final String SELECT_USER_ENTRIES_VERSION = "select count(e.id), max(e.lastModifiedAt) "
+            + "from blog_users u left join blog_entries e on e.creator_id = u.id where u.nick = ? group by u.id";
+
+    @Override
+    public List<BlogUser> getAllBlogUsers() {
+        return execute(con -> {
+            try (PreparedStatement st = con.prepareStatement(SELECT_USERS);
+                    ResultSet rs = st.executeQuery()) {
+                List<BlogUser> users = new ArrayList<>();
+                while (rs.next()) {
+                    users.add(mapUser(rs, 1));
+                }
+                return users;
+            }
+        });
+    }
+
+    @Override
+    public List<BlogUserSummary> getBlogUserSummaries(String afterNick, int maxResults) {
+        return execute(con -> {
+            try (PreparedStatement st = con.prepareStatement(afterNick == null ? SELECT_SUMMARIES
+                    : SELECT_SUMMARIES_AFTER)) {
+                if (afterNick != null) {
+                    st.setString(1, afterNick);
+                }
+                st.setMaxRows(maxResults);
+
+                try (ResultSet rs = st.executeQuery()) {
+                    List<BlogUserSummary> users = new ArrayList<>();
+                    while (rs.next()) {
+                        users.add(new BlogUserSummary(rs.getLong(1), rs.getString(2)));
+                    }
+                    return users;
+                }
+            }
+        });
+    }
+
+    @Override
+    public BlogUser getBlogUser(String nick) {
+        return execute(con -> {
+            try (PreparedStatement st = con.prepareStatement(SELECT_USER_BY_NICK)) {
+                st.setString(1, nick);
+                try (ResultSet rs = st.executeQuery()) {
+                    return rs.next() ? mapUser(rs, 1) : null;
+                }
+            }
+        });
+    }
+
+    @Override
+    public BlogUser getBlogUser(Long id) {
+        return execute(con -> {
+            try (PreparedStatement st = con.prepareStatement(SELECT_USER_BY_ID)) {
+                st.setLong(1, id);
+                try (ResultSet rs = st.executeQuery()) {
+                    return rs.next() ? mapUser(rs, 1) : null;
+                }
+            }
+        });
+    }
+
+    @Override
+    public List<BlogEntry> getAllBlogEntries() {
+        return execute(con -> {
+            try (PreparedStatement st = con.prepareStatement(SELECT_ENTRIES);
+                    ResultSet rs = st.executeQuery()) {
+                Map<Long, BlogUser> users = new HashMap<>();
+                List<BlogEntry> entries = new ArrayList<>();
+                while (rs.next()) {
+                    BlogUser user = users.computeIfAbsent(rs.getLong(6), id -> mapUserUnchecked(rs, 6));
+                    entries.add(mapEntry(rs, 1, user));
+                }
+                return entries;
+            }
+        });
+    }
+
+    @Override
+    public List<BlogEntry> getAllUserEntries(BlogUser user) {
+        return execute(con -> {
+            try (PreparedStatement st = con.prepareStatement(SELECT_ENTRIES_BY_CREATOR)) {
+                st.setLong(1, user.getId());
+                return mapEntries(st, user);
+            }
+        });
+    }
+
+    @Override
+    public List<BlogEntry> getUserEntries(BlogUser user, PageCursor after, int maxResults) {
+        return execute(con -> selectPage(con, user, after, maxResults));
+    }
+
+    @Override
+    public List<BlogEntry> getUserEntriesWithComments(BlogUser user, PageCursor after, int maxResults) {
+        return execute(con -> {
+            List<BlogEntry> entries = selectPage(con, user, after, maxResults);
+            if (entries.isEmpty()) {
+                return entries;
+            }
+
+            Map<Long, BlogEntry> byId = new HashMap<>();
+            StringBuilder sql = new StringBuilder("select ").append(COMMENT_COLUMNS)
+                    .append(" from blog_comments c where c.blogEntry_id in (");
+            for (BlogEntry entry : entries) {
+                sql.append(byId.isEmpty() ? "?" : ", ?");
+                byId.put(entry.getId(), entry);
+            }
+            sql.append(") order by c.postedOn");
+
+            try (PreparedStatement st = con.prepareStatement(sql.toString())) {
+                int index = 1;
+                for (BlogEntry entry : entries) {
+                    st.setLong(index++, entry.getId());
+                }
+                try (ResultSet rs = st.executeQuery()) {
+                    while (rs.next()) {
+                        BlogEntry entry = byId.get(rs.getLong(2));
+                        entry.getComments().add(mapComment(rs, 1, entry));
+                    }
+                }
+            }
+            return entries;
+        });
+    }
+
+    @Override
+    public BlogEntry getBlogEntry(Long id) {
+        return execute(con -> selectEntry(con, id));
+    }
+
+    @Override
+    public List<BlogEntry> getBlogEntries(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        return execute(con -> {
+            StringBuilder sql = new StringBuilder(SELECT_ENTRIES).append(" where e.id in (");
+            for (int i = 0; i < ids.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(")");
+
+            try (PreparedStatement st = con.prepareStatement(sql.toString())) {
+                int index = 1;
+                for (Long id : ids) {
+                    st.setLong(index++, id);
+                }
+                Map<Long, BlogUser> users = new HashMap<>();
+                List<BlogEntry> entries = new ArrayList<>();
+                try (ResultSet rs = st.executeQuery()) {
+                    while (rs.next()) {
+                        BlogUser user = users.computeIfAbsent(rs.getLong(6), id -> mapUserUnchecked(rs, 6));
+                        entries.add(mapEntry(rs, 1, user));
+                    }
+                }
+                return inOrder(ids, entries);
+            }
+        });
+    }
+
+    @Override
+    public BlogEntry getBlogEntryWithComments(Long id) {
+        return execute(con -> {
+            BlogEntry entry = selectEntry(con, id);
+            if (entry == null) {
+                return null;
+            }
+
+            try (PreparedStatement st = con.prepareStatement(SELECT_COMMENTS_BY_ENTRY)) {
+                st.setLong(1, id);
+                try (ResultSet rs = st.executeQuery()) {
+                    while (rs.next()) {
+                        entry.getComments().add(mapComment(rs, 1, entry));
+                    }
+                }
+            }
+            return entry;
+        });
+    }
+
+    @Override
+    public BlogVersion getBlogEntryVersion(Long id) {
+        return execute(con -> {
+            try (PreparedStatement st = con.prepareStatement(SELECT_ENTRY_VERSION)) {
+                st.setLong(1, id);
+                try (ResultSet rs = st.executeQuery()) {
+                    return rs.next() ? new BlogVersion(rs.getLong(1), rs.getLong(2), rs.getTimestamp(3),
+                            rs.getTimestamp(4)) : null;
+                }
+            }
+        });
+    }
+
+    @Override
+    public BlogVersion getUserEntriesVersion(String nick) {
+        return execute(con -> {
+            try (PreparedStatement st = con.prepareStatement(SELECT_USER_ENTRIES_VERSION)) {
+                st.setString(1, nick);
+                try (ResultSet rs = st.executeQuery()) {
+                    return rs.next() ? new BlogVersion(rs.getLong(1), rs.getTimestamp(2)) : null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Selects the blog entry with the specified {@code id} together with its
+     * creator.
+     *
+     * @param con
+     *            the connection to the database
+     * @param id
+     *            entry id
+     * @return blog entry or {@code null} if entry doesn't exist
+     * @throws SQLException
+     *             if a database access error occurs
+     */
+    private static BlogEntry selectEntry(Connection con, Long id) throws SQLException {
+        try (PreparedStatement st = con.prepareStatement(SELECT_ENTRY_BY_ID)) {
+            st.setLong(1, id);
+            try (ResultSet rs = st.executeQuery()) {
+                return rs.next() ? mapEntry(rs, 1, mapUser(rs, 6)) : null;
+            }
+        }
+    }
+
+    /**
+     * Selects one page of the blog entries written by the specified
+     * {@code user} using keyset pagination.
+     *
+     * @param con
+     *            the connection to the database
+     * @param user
+     *            user that created blog entries
+     * @param after
+     *            cursor pointing to the last entry of the previous page or
+     *            {@code null} for the first page
+     * @param maxResults
+     *            maximal number of entries to return
+     * @return the list of at most {@code maxResults} blog entries
+     * @throws SQLException
+     *             if a database access error occurs
+     */
+    private static List<BlogEntry> selectPage(Connection con, BlogUser user, PageCursor after, int maxResults)
+            throws SQLException {
+        try (PreparedStatement st = con.prepareStatement(after == null ? SELECT_PAGE_BY_CREATOR
+                : SELECT_PAGE_BY_CREATOR_AFTER)) {
+            st.setLong(1, user.getId());
+            if (after != null) {
+                Timestamp createdAt = new Timestamp(after.getCreatedAt().getTime());
+                st.setTimestamp(2, createdAt);
+                st.setTimestamp(3, createdAt);
+                st.setLong(4, after.getId());
+            }
+            st.setMaxRows(maxResults);
+            return mapEntries(st, user);
+        }
+    }
+
+    /**
+     * Executes the specified statement and maps all the rows to blog entries
+     * written by the specified {@code user}.
+     *
+     * @param st
+     *            the statement that selects {@link #ENTRY_COLUMNS}
+     * @param user
+     *            user that created blog entries
+     * @return the list of blog entries
+     * @throws SQLException
+     *             if a database access error occurs
+     */
+    private static List<BlogEntry> mapEntries(PreparedStatement st, BlogUser user) throws SQLException {
+        try (ResultSet rs = st.executeQuery()) {
+            List<BlogEntry> entries = new ArrayList<>();
+            while (rs.next()) {
+                entries.add(mapEntry(rs, 1, user));
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * Maps {@link #USER_COLUMNS} of the current row, starting at column
+     * {@code first}, to a blog user.
+     *
+     * @param rs
+     *            the result set
+     * @param first
+     *            index of the first column
+     * @return the blog user
+     * @throws SQLException
+     *             if a database access error occurs
+     */
+    private static BlogUser mapUser(ResultSet rs, int first) throws SQLException {
+        BlogUser user = new BlogUser();
+        user.setId(rs.getLong(first));
+        user.setFirstName(rs.getString(first + 1));
+        user.setLastName(rs.getString(first + 2));
+        user.setNick(rs.getString(first + 3));
+        user.setEmail(rs.getString(first + 4));
+        user.setPasswordHash(rs.getString(first + 5));
+        return user;
+    }
+
+    /**
+     * Does the same as {@link #mapUser(ResultSet, int)} but wraps the
+     * {@link SQLException} in a {@link DAOException} so it can be used in
+     * lambda expressions.
+     *
+     * @param rs
+     *            the result set
+     * @param first
+     *            index of the first column
+     * @return the blog user
+     */
+    private static BlogUser mapUserUnchecked(ResultSet rs, int first) {
+        try {
+            return mapUser(rs, first);
+        } catch (SQLException ex) {
+            throw new DAOException("Unable to read the blog user.", ex);
+        }
+    }
+
+    /**
+     * Maps {@link #ENTRY_COLUMNS} of the current row, starting at column
+     * {@code first}, to a blog entry written by the specified {@code creator}.
+     *
+     * @param rs
+     *            the result set
+     * @param first
+     *            index of the first column
+     * @param creator
+     *            user that created the blog entry
+     * @return the blog entry
+     * @throws SQLException
+     *             if a database access error occurs
+     */
+    private static BlogEntry mapEntry(ResultSet rs, int first, BlogUser creator) throws SQLException {
+        BlogEntry entry = new BlogEntry();
+        entry.setId(rs.getLong(first));
+        entry.setTitle(rs.getString(first + 1));
+        entry.setText(rs.getString(first + 2));
+        entry.setCreatedAt(rs.getTimestamp(first + 3));
+        Timestamp lastModifiedAt = rs.getTimestamp(first + 4);
+        if (lastModifiedAt != null) {
+            entry.setLastModifiedAt(lastModifiedAt);
+        }
+        entry.setCreator(creator);
+        return entry;
+    }
+
+    /**
+     * Maps {@link #COMMENT_COLUMNS} of the current row, starting at column
+     * {@code first}, to a comment of the specified blog entry.
+     *
+     * @param rs
+     *            the result set
+     * @param first
+     *            index of the first column
+     * @param entry
+     *            blog entry that the comment refers to
+     * @return the blog comment
+     * @throws SQLException
+     *             if a database access error occurs
+     */
+    private static BlogComment mapComment(ResultSet rs, int first, BlogEntry entry) throws SQLException {
+        BlogComment comment = new BlogComment();
+        comment.setId(rs.getLong(first));
+        comment.setBlogEntry(entry);
+        comment.setUsersEMail(rs.getString(first + 2));
+        comment.setMessage(rs.getString(first + 3));
+        comment.setPostedOn(rs.getTimestamp(first + 4));
+        return comment;
+    }
+
+    /**
+     * Executes the specified work on the connection of the read entity manager
+     * of the current unit of work. The connection belongs to the replica if
+     * the replica is configured and the current thread hasn't written to the
+     * primary database; its transaction is ended by the unit of work.
+     *
+     * @param work
+     *            the work
+     * @return the result of the work
+     * @throws DAOException
+     *             if a database access error occurs
+     */
+    private static <T> T execute(SQLWork<T> work) {
+        Session session = JPAEMProvider.getReadEntityManager().unwrap(Session.class);
+        try {
+            return session.doReturningWork(work::execute);
+        } catch (HibernateException ex) {
+            throw new DAOException("Unable to read from the database.", ex);
+        }
+    }
+
+    /**
+     * {@code SQLWork} is a piece of work done on a connection to the database.
+     *
+     * @author Karlo Vrbić
+     * @version 1.0
+     * @param <T>
+     *            the type of the result of the work
+     */
+    @FunctionalInterface
+    private interface SQLWork<T> {
+
+        /**
+         * Executes the work on the specified connection.
+         *
+         * @param con
+         *            the connection to the database
+         * @return the result of the work
+         * @throws SQLException
+         *             if a database access error occurs
+         */
+        T execute(Connection con) throws SQLException;
+
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,182 @@
+package hr.fer.zemris.java.hw15.dao.jpa;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.cache.ehcache.internal.regions.EhcacheDataRegion;
+import org.hibernate.cache.spi.Region;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import hr.fer.zemris.java.hw15.entities.BlogUser;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.statistics.StatisticsGateway;
+
+/**
+ * {@code CacheRegions} sizes the regions of the second-level cache of an
+ * {@link EntityManagerFactory} and reads their statistics. Every region is
+ * known by its short name: the name of the entity or of the collection without
+ * the package of the entities, e.g. {@code BlogEntry.comments}, or the simple
+ * class name of the query caches, e.g. {@code StandardQueryCache}.
+ * <p>
+ * Regions are defined in ehcache.xml. The properties
+ * {@code blog.cache.<region>.max_entries} and
+ * {@code blog.cache.<region>.time_to_live} of the persistence unit override
+ * the number of the entries the region keeps in memory and how many seconds
+ * they live, so the cache can be sized without changing ehcache.xml. They
+ * apply to the {@link CaffeineCache} regions as well.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see EhcacheDataRegion
+ */
+public class CacheRegions {
+
+    /** Prefix of the properties of the regions. */
+    public static final String PROPERTY_PREFIX = "blog.cache.";
+
+    /** Suffix of the property with the maximal number of entries in memory. */
+    public static final String MAX_ENTRIES = ".max_entries";
+
+    /** Suffix of the property with the time to live in seconds. */
+    public static final String TIME_TO_LIVE = ".time_to_live";
+
+    /** Package of the entities, stripped from the names of their regions. */
+    private static final String ENTITIES_PACKAGE = BlogUser.class.getPackage().getName() + ".";
+
+    /**
+     * Applies the sizes configured by the properties of the entity manager
+     * factory to its regions.
+     *
+     * @param emf
+     *            the entity manager factory
+     * @throws IllegalArgumentException
+     *             if a property of a region is not a non-negative integer
+     */
+    public static void configure(EntityManagerFactory emf) {
+        Map<String, Object> properties = emf.getProperties();
+        for (Map.Entry<String, Ehcache> region : getRegions(emf).entrySet()) {
+            CacheConfiguration config = region.getValue().getCacheConfiguration();
+
+            Long maxEntries = getLong(properties, PROPERTY_PREFIX + region.getKey() + MAX_ENTRIES);
+            if (maxEntries != null) {
+                config.setMaxEntriesLocalHeap(maxEntries);
+            }
+            Long timeToLive = getLong(properties, PROPERTY_PREFIX + region.getKey() + TIME_TO_LIVE);
+            if (timeToLive != null) {
+                config.setTimeToLiveSeconds(timeToLive);
+            }
+        }
+    }
+
+    /**
+     * Returns the snapshot of the statistics of every region of the entity
+     * manager factory, by the short names of the regions. Statistics of a
+     * region are its hits, misses, puts, evictions, expirations, the number of
+     * its entries and their maximal number, 0 meaning unlimited.
+     *
+     * @param emf
+     *            the entity manager factory
+     * @return the map of the short names of the regions to the maps of
+     *         statistic names to their values
+     */
+    public static Map<String, Map<String, Number>> getStatistics(EntityManagerFactory emf) {
+        Map<String, Map<String, Number>> regions = new LinkedHashMap<>();
+        for (Map.Entry<String, Ehcache> region : getRegions(emf).entrySet()) {
+            if (region.getValue() instanceof CaffeineCache) {
+                regions.put(region.getKey(), ((CaffeineCache) region.getValue()).getCaffeineStatistics());
+                continue;
+            }
+
+            StatisticsGateway statistics = region.getValue().getStatistics();
+            long hits = statistics.cacheHitCount();
+            long misses = statistics.cacheMissCount();
+
+            Map<String, Number> stats = new LinkedHashMap<>();
+            stats.put("hits", hits);
+            stats.put("misses", misses);
+            stats.put("hitPercent", hits + misses == 0 ? 0 : hits * 100 / (hits + misses));
+            stats.put("puts", statistics.cachePutCount());
+            stats.put("removals", statistics.cacheRemoveCount());
+            stats.put("evictions", statistics.cacheEvictedCount());
+            stats.put("expirations", statistics.cacheExpiredCount());
+            stats.put("entries", statistics.getLocalHeapSize());
+            stats.put("maxEntries", region.getValue().getCacheConfiguration().getMaxEntriesLocalHeap());
+            regions.put(region.getKey(), stats);
+        }
+        return regions;
+    }
+
+    /**
+     * Returns the Ehcache caches behind the regions of the entity manager
+     * factory, sorted by the short names of the regions. Regions that are not
+     * backed by Ehcache are left out.
+     *
+     * @param emf
+     *            the entity manager factory
+     * @return the map of the short names of the regions to their caches
+     */
+    private static Map<String, Ehcache> getRegions(EntityManagerFactory emf) {
+        SessionFactoryImplementor factory = emf.unwrap(SessionFactoryImplementor.class);
+        Map<String, Region> all = new LinkedHashMap<>();
+        for (Object region : factory.getAllSecondLevelCacheRegions().values()) {
+            all.put(((Region) region).getName(), (Region) region);
+        }
+        if (factory.getSessionFactoryOptions().isQueryCacheEnabled()) {
+            Region queries = factory.getQueryCache().getRegion();
+            all.put(queries.getName(), queries);
+            Region timestamps = factory.getUpdateTimestampsCache().getRegion();
+            all.put(timestamps.getName(), timestamps);
+        }
+
+        Map<String, Ehcache> regions = new TreeMap<>();
+        for (Region region : all.values()) {
+            if (region instanceof EhcacheDataRegion) {
+                regions.put(getShortName(region.getName()), ((EhcacheDataRegion) region).getEhcache());
+            }
+        }
+        return regions;
+    }
+
+    /**
+     * Returns the short name of the region with the specified name.
+     *
+     * @param name
+     *            the name of the region
+     * @return the short name of the region
+     */
+    private static String getShortName(String name) {
+        if (name.startsWith(ENTITIES_PACKAGE))
+            return name.substring(ENTITIES_PACKAGE.length());
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * Returns the value of the non-negative integer property or {@code null}
+     * if the property isn't set.
+     *
+     * @param properties
+     *            the properties
+     * @param name
+     *            the name of the property
+     * @return the value of the property or {@code null} if it isn't set
+     * @throws IllegalArgumentException
+     *             if the value of the property is not a non-negative integer
+     */
+    private static Long getLong(Map<String, Object> properties, String name) {
+        Object value = properties.get(name);
+        if (value == null || value.toString().trim().isEmpty())
+            return null;
+        try {
+            long number = Long.parseLong(value.toString().trim());
+            if (number >= 0)
+                return number;
+        } catch (NumberFormatException ignorable) {
+        }
+        throw new IllegalArgumentException("Property " + name + " must be a non-negative integer.");
+    }
+
+}
\ No newline at end of file
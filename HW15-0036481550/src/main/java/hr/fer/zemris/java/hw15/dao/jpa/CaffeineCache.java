@@ -0,0 +1,378 @@
+package hr.fer.zemris.java.hw15.dao.jpa;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.config.CacheConfigurationListener;
+import net.sf.ehcache.constructs.EhcacheDecoratorAdapter;
+
+/**
+ * {@code CaffeineCache} is an Ehcache cache decorator that keeps the elements
+ * in a Caffeine cache instead of the memory store of the decorated cache.
+ * Caffeine evicts by W-TinyLFU: a new element is admitted only if it was used
+ * more often than the element it would evict, so a few popular elements stay
+ * cached while one-off reads pass through.
+ * <p>
+ * The Caffeine cache is sized by the configuration of the decorated cache:
+ * {@code maxEntriesLocalHeap}, 0 meaning unlimited, {@code timeToLiveSeconds}
+ * and {@code timeToIdleSeconds}. Changes of the maximal number of the entries
+ * and of the times are applied as they are made, but a time can't be set if it
+ * was 0 when the cache was created. Locking, listeners and the rest of the
+ * operations that don't touch the elements are left to the decorated cache.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see CaffeineRegionFactory
+ * @see EhcacheDecoratorAdapter
+ */
+public class CaffeineCache extends EhcacheDecoratorAdapter {
+
+    /** Elements of the cache by their keys. */
+    private final Cache<Object, Element> elements;
+
+    /** Number of the elements put into the cache. */
+    private final LongAdder puts = new LongAdder();
+
+    /** Number of the elements removed from the cache on request. */
+    private final LongAdder removals = new LongAdder();
+
+    /** Number of the elements evicted from the cache because of its size. */
+    private final LongAdder evictions = new LongAdder();
+
+    /** Number of the elements evicted from the cache because they expired. */
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * Constructs a new {@code CaffeineCache} that decorates the specified
+     * cache.
+     *
+     * @param underlyingCache
+     *            the decorated cache
+     */
+    public CaffeineCache(Ehcache underlyingCache) {
+        super(underlyingCache);
+
+        CacheConfiguration config = underlyingCache.getCacheConfiguration();
+        long maxEntries = config.getMaxEntriesLocalHeap();
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(maxEntries == 0 ? Long.MAX_VALUE : maxEntries)
+                .recordStats()
+                .removalListener((key, value, cause) -> {
+                    if (cause == RemovalCause.SIZE) {
+                        evictions.increment();
+                    } else if (cause == RemovalCause.EXPIRED) {
+                        expirations.increment();
+                    }
+                });
+        if (!config.isEternal() && config.getTimeToLiveSeconds() > 0) {
+            builder.expireAfterWrite(config.getTimeToLiveSeconds(), TimeUnit.SECONDS);
+        }
+        if (!config.isEternal() && config.getTimeToIdleSeconds() > 0) {
+            builder.expireAfterAccess(config.getTimeToIdleSeconds(), TimeUnit.SECONDS);
+        }
+        elements = builder.build();
+
+        config.addConfigurationListener(new Resizer());
+    }
+
+    /**
+     * Returns the snapshot of the statistics of the cache, named as in
+     * {@link CacheRegions#getStatistics(javax.persistence.EntityManagerFactory)}.
+     *
+     * @return the map of statistic names to their values
+     */
+    public Map<String, Number> getCaffeineStatistics() {
+        CacheStats stats = elements.stats();
+        long maxEntries = elements.policy().eviction().get().getMaximum();
+
+        Map<String, Number> statistics = new LinkedHashMap<>();
+        statistics.put("hits", stats.hitCount());
+        statistics.put("misses", stats.missCount());
+        statistics.put("hitPercent", stats.requestCount() == 0 ? 0 : stats.hitCount() * 100 / stats.requestCount());
+        statistics.put("puts", puts.sum());
+        statistics.put("removals", removals.sum());
+        statistics.put("evictions", evictions.sum());
+        statistics.put("expirations", expirations.sum());
+        statistics.put("entries", elements.estimatedSize());
+        statistics.put("maxEntries", maxEntries > Integer.MAX_VALUE ? 0 : maxEntries);
+        return statistics;
+    }
+
+    @Override
+    public Element get(Object key) {
+        return elements.getIfPresent(key);
+    }
+
+    @Override
+    public Element get(Serializable key) {
+        return get((Object) key);
+    }
+
+    @Override
+    public Element getQuiet(Object key) {
+        return elements.asMap().get(key);
+    }
+
+    @Override
+    public Element getQuiet(Serializable key) {
+        return getQuiet((Object) key);
+    }
+
+    @Override
+    public Map<Object, Element> getAll(Collection<?> keys) {
+        Map<Object, Element> result = new LinkedHashMap<>();
+        for (Object key : keys) {
+            result.put(key, get(key));
+        }
+        return result;
+    }
+
+    @Override
+    public void put(Element element) {
+        elements.put(element.getObjectKey(), element);
+        puts.increment();
+    }
+
+    @Override
+    public void put(Element element, boolean doNotNotifyCacheReplicators) {
+        put(element);
+    }
+
+    @Override
+    public void putQuiet(Element element) {
+        put(element);
+    }
+
+    @Override
+    public Element putIfAbsent(Element element) {
+        Element previous = elements.asMap().putIfAbsent(element.getObjectKey(), element);
+        if (previous == null) {
+            puts.increment();
+        }
+        return previous;
+    }
+
+    @Override
+    public Element putIfAbsent(Element element, boolean doNotNotifyCacheReplicators) {
+        return putIfAbsent(element);
+    }
+
+    @Override
+    public boolean replace(Element old, Element element) {
+        boolean[] replaced = new boolean[1];
+        elements.asMap().computeIfPresent(element.getObjectKey(), (key, current) -> {
+            replaced[0] = Objects.equals(current.getObjectValue(), old.getObjectValue());
+            return replaced[0] ? element : current;
+        });
+        return replaced[0];
+    }
+
+    @Override
+    public Element replace(Element element) {
+        return elements.asMap().replace(element.getObjectKey(), element);
+    }
+
+    @Override
+    public boolean remove(Object key) {
+        boolean removed = elements.asMap().remove(key) != null;
+        if (removed) {
+            removals.increment();
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean remove(Object key, boolean doNotNotifyCacheReplicators) {
+        return remove(key);
+    }
+
+    @Override
+    public boolean remove(Serializable key) {
+        return remove((Object) key);
+    }
+
+    @Override
+    public boolean remove(Serializable key, boolean doNotNotifyCacheReplicators) {
+        return remove((Object) key);
+    }
+
+    @Override
+    public boolean removeQuiet(Object key) {
+        return remove(key);
+    }
+
+    @Override
+    public boolean removeQuiet(Serializable key) {
+        return remove((Object) key);
+    }
+
+    @Override
+    public void removeAll() {
+        removals.add(elements.estimatedSize());
+        elements.invalidateAll();
+    }
+
+    @Override
+    public void removeAll(boolean doNotNotifyCacheReplicators) {
+        removeAll();
+    }
+
+    @Override
+    public void removeAll(Collection<?> keys) {
+        for (Object key : keys) {
+            remove(key);
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<?> keys, boolean doNotNotifyCacheReplicators) {
+        removeAll(keys);
+    }
+
+    @Override
+    public boolean isKeyInCache(Object key) {
+        return elements.asMap().containsKey(key);
+    }
+
+    @Override
+    public boolean isElementInMemory(Object key) {
+        return isKeyInCache(key);
+    }
+
+    @Override
+    public boolean isElementInMemory(Serializable key) {
+        return isKeyInCache(key);
+    }
+
+    @Override
+    public boolean isValueInCache(Object value) {
+        for (Element element : elements.asMap().values()) {
+            if (Objects.equals(value, element.getObjectValue()))
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public List getKeys() {
+        return new ArrayList<>(elements.asMap().keySet());
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public List getKeysNoDuplicateCheck() {
+        return getKeys();
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public List getKeysWithExpiryCheck() {
+        return getKeys();
+    }
+
+    @Override
+    public int getSize() {
+        return (int) Math.min(Integer.MAX_VALUE, elements.estimatedSize());
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public long getMemoryStoreSize() {
+        return elements.estimatedSize();
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public int getDiskStoreSize() {
+        return 0;
+    }
+
+    /**
+     * Returns 0 because the size of the elements in bytes is not measured.
+     *
+     * @return 0
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public long calculateInMemorySize() {
+        return 0;
+    }
+
+    @Override
+    public void evictExpiredElements() {
+        elements.cleanUp();
+    }
+
+    /**
+     * {@code Resizer} applies the changes of the configuration of the
+     * decorated cache to the Caffeine cache.
+     *
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private class Resizer implements CacheConfigurationListener {
+
+        @Override
+        public void timeToIdleChanged(long oldTimeToIdle, long newTimeToIdle) {
+            elements.policy().expireAfterAccess()
+                    .ifPresent(expiration -> expiration.setExpiresAfter(newTimeToIdle, TimeUnit.SECONDS));
+        }
+
+        @Override
+        public void timeToLiveChanged(long oldTimeToLive, long newTimeToLive) {
+            elements.policy().expireAfterWrite()
+                    .ifPresent(expiration -> expiration.setExpiresAfter(newTimeToLive, TimeUnit.SECONDS));
+        }
+
+        @Override
+        public void memoryCapacityChanged(int oldCapacity, int newCapacity) {
+            elements.policy().eviction()
+                    .ifPresent(eviction -> eviction.setMaximum(newCapacity == 0 ? Long.MAX_VALUE : newCapacity));
+        }
+
+        @Override
+        public void diskCapacityChanged(int oldCapacity, int newCapacity) {
+        }
+
+        @Override
+        public void loggingChanged(boolean oldValue, boolean newValue) {
+        }
+
+        @Override
+        public void registered(CacheConfiguration config) {
+        }
+
+        @Override
+        public void deregistered(CacheConfiguration config) {
+        }
+
+        @Override
+        public void maxBytesLocalHeapChanged(long oldValue, long newValue) {
+        }
+
+        @Override
+        public void maxBytesLocalDiskChanged(long oldValue, long newValue) {
+        }
+
+        @Override
+        public void maxEntriesInCacheChanged(long oldValue, long newValue) {
+        }
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+package hr.fer.zemris.java.hw15.dao.jpa;
+
+import java.util.Properties;
+
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.ehcache.SingletonEhCacheRegionFactory;
+import org.hibernate.cache.spi.CacheDataDescription;
+import org.hibernate.cache.spi.CollectionRegion;
+import org.hibernate.cache.spi.EntityRegion;
+import org.hibernate.cache.spi.NaturalIdRegion;
+import org.hibernate.cache.spi.QueryResultsRegion;
+import org.hibernate.cache.spi.TimestampsRegion;
+
+import net.sf.ehcache.Ehcache;
+
+/**
+ * {@code CaffeineRegionFactory} is the second-level cache region factory of
+ * Hibernate that keeps the elements of every region in a {@link CaffeineCache}.
+ * It is enabled by setting the {@code hibernate.cache.region.factory_class}
+ * property of the persistence unit to this class instead of
+ * {@link SingletonEhCacheRegionFactory}.
+ * <p>
+ * Regions are still configured in ehcache.xml and are still shared by all the
+ * persistence units, and their locking and access strategies are the ones of
+ * Ehcache; only the memory store and its LRU eviction are replaced by Caffeine
+ * and its W-TinyLFU eviction, which keeps more of the few popular entries of a
+ * skewed load.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see CaffeineCache
+ * @see SingletonEhCacheRegionFactory
+ */
+public class CaffeineRegionFactory extends SingletonEhCacheRegionFactory {
+
+    /** Serial version UID. */
+    private static final long serialVersionUID = 5829461037258315264L;
+
+    /**
+     * Constructs a new {@code CaffeineRegionFactory}.
+     */
+    public CaffeineRegionFactory() {
+    }
+
+    /**
+     * Constructs a new {@code CaffeineRegionFactory}.
+     *
+     * @param properties
+     *            the properties of the persistence unit
+     */
+    public CaffeineRegionFactory(Properties properties) {
+        super(properties);
+    }
+
+    @Override
+    public EntityRegion buildEntityRegion(String regionName, Properties properties, CacheDataDescription metadata)
+            throws CacheException {
+        decorate(regionName);
+        return super.buildEntityRegion(regionName, properties, metadata);
+    }
+
+    @Override
+    public NaturalIdRegion buildNaturalIdRegion(String regionName, Properties properties,
+            CacheDataDescription metadata) throws CacheException {
+        decorate(regionName);
+        return super.buildNaturalIdRegion(regionName, properties, metadata);
+    }
+
+    @Override
+    public CollectionRegion buildCollectionRegion(String regionName, Properties properties,
+            CacheDataDescription metadata) throws CacheException {
+        decorate(regionName);
+        return super.buildCollectionRegion(regionName, properties, metadata);
+    }
+
+    @Override
+    public QueryResultsRegion buildQueryResultsRegion(String regionName, Properties properties)
+            throws CacheException {
+        decorate(regionName);
+        return super.buildQueryResultsRegion(regionName, properties);
+    }
+
+    @Override
+    public TimestampsRegion buildTimestampsRegion(String regionName, Properties properties) throws CacheException {
+        decorate(regionName);
+        return super.buildTimestampsRegion(regionName, properties);
+    }
+
+    /**
+     * Replaces the cache of the region with a {@link CaffeineCache} unless it
+     * was already replaced by another persistence unit. A region that isn't
+     * configured in ehcache.xml gets the configuration of the default cache.
+     *
+     * @param regionName
+     *            the name of the region
+     */
+    private void decorate(String regionName) {
+        synchronized (manager) {
+            Ehcache cache = manager.addCacheIfAbsent(regionName);
+            if (!(cache instanceof CaffeineCache)) {
+                manager.replaceCacheWithDecoratedCache(cache, new CaffeineCache(cache));
+            }
+        }
+    }
+
+}
\ No newline at end of file
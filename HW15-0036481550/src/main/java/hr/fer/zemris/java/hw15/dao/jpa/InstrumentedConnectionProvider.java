@@ -0,0 +1,350 @@
+package hr.fer.zemris.java.hw15.dao.jpa;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.hibernate.c3p0.internal.C3P0ConnectionProvider;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import com.mchange.v2.c3p0.PooledDataSource;
+
+import hr.fer.zemris.java.hw15.dao.LatencyHistogram;
+
+/**
+ * {@code InstrumentedConnectionProvider} is the c3p0 connection provider of
+ * Hibernate that measures how long every checkout of a connection takes and
+ * exposes it, together with the state of the pool and of its statement cache,
+ * through {@link #getStatistics()}. It is enabled by the
+ * {@code hibernate.connection.provider_class} property of the persistence
+ * unit.
+ * <p>
+ * If the property {@value #ADAPTIVE} is {@code true}, the number of the
+ * connections that can be checked out at once is adapted to the load, between
+ * {@code hibernate.c3p0.min_size} and {@code hibernate.c3p0.max_size},
+ * starting from the minimum. After every interval of {@value #INTERVAL}
+ * seconds (10 by default) the average checkout time in that interval is
+ * compared to {@value #WAIT_THRESHOLD} milliseconds (5 by default): if it is
+ * longer or threads are waiting, the limit grows by a quarter; if it is ten
+ * times shorter and the limit wasn't reached, the limit shrinks by one. The
+ * pool itself opens the connections on demand and closes the ones that are
+ * idle beyond its minimal size after {@code maxIdleTimeExcessConnections}.
+ * A thread waits for at most {@value #CHECKOUT_TIMEOUT} milliseconds (30000
+ * by default) for the limit to let it through and then gets an
+ * {@link SQLException}, so requests don't hang while the limit is low.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see C3P0ConnectionProvider
+ */
+public class InstrumentedConnectionProvider extends C3P0ConnectionProvider {
+
+    /** Serial version UID. */
+    private static final long serialVersionUID = 6387152409815213702L;
+
+    /** Property that enables the adaptive sizing. */
+    public static final String ADAPTIVE = "blog.pool.adaptive";
+
+    /** Property with the checkout time that makes the pool grow in milliseconds. */
+    public static final String WAIT_THRESHOLD = "blog.pool.adaptive.wait_threshold";
+
+    /** Property with the interval between the adjustments in seconds. */
+    public static final String INTERVAL = "blog.pool.adaptive.interval";
+
+    /** Property with the maximal time a thread waits for the limit in milliseconds. */
+    public static final String CHECKOUT_TIMEOUT = "blog.pool.adaptive.checkout_timeout";
+
+    /** Minimal size of the pool used if none is configured, same as c3p0's. */
+    private static final int DEFAULT_MIN_SIZE = 3;
+
+    /** Maximal size of the pool used if none is configured, same as c3p0's. */
+    private static final int DEFAULT_MAX_SIZE = 15;
+
+    /** Checkout times. */
+    private final LatencyHistogram checkouts = new LatencyHistogram();
+
+    /** Number of the checkouts that failed. */
+    private final LongAdder failedCheckouts = new LongAdder();
+
+    /** Number of the checked out connections. */
+    private final AtomicInteger busy = new AtomicInteger();
+
+    /** Largest number of the checked out connections since the last adjustment. */
+    private final AtomicInteger peakBusy = new AtomicInteger();
+
+    /** Limit of the checked out connections; {@code null} if the sizing is not adaptive. */
+    private LimitSemaphore limit;
+
+    /** Minimal limit of the checked out connections. */
+    private int minSize;
+
+    /** Maximal limit of the checked out connections. */
+    private int maxSize;
+
+    /** Checkout time that makes the pool grow in nanoseconds. */
+    private long waitThresholdNanos;
+
+    /** Maximal time a thread waits for the limit in milliseconds. */
+    private long checkoutTimeoutMillis;
+
+    /** Number of the adjustments that grew the pool. */
+    private final LongAdder grown = new LongAdder();
+
+    /** Number of the adjustments that shrank the pool. */
+    private final LongAdder shrunk = new LongAdder();
+
+    /** Number of the checkouts at the last adjustment. */
+    private long lastCount;
+
+    /** Sum of the checkout times at the last adjustment in nanoseconds. */
+    private long lastSumNanos;
+
+    /** Executor of the adjustments; {@code null} if the sizing is not adaptive. */
+    private ScheduledExecutorService adjuster;
+
+    /**
+     * Returns the instrumented connection provider used by the specified
+     * entity manager factory.
+     *
+     * @param emf
+     *            the entity manager factory
+     * @return the connection provider or {@code null} if the factory doesn't
+     *         use an {@code InstrumentedConnectionProvider}
+     */
+    public static InstrumentedConnectionProvider of(EntityManagerFactory emf) {
+        ConnectionProvider provider = emf.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+                .getService(ConnectionProvider.class);
+        return provider instanceof InstrumentedConnectionProvider ? (InstrumentedConnectionProvider) provider : null;
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public void configure(Map props) {
+        super.configure(props);
+
+        if (!Boolean.parseBoolean(String.valueOf(props.get(ADAPTIVE))))
+            return;
+
+        minSize = getInt(props, "hibernate.c3p0.min_size", DEFAULT_MIN_SIZE);
+        maxSize = Math.max(minSize, getInt(props, "hibernate.c3p0.max_size", DEFAULT_MAX_SIZE));
+        waitThresholdNanos = TimeUnit.MILLISECONDS.toNanos(getInt(props, WAIT_THRESHOLD, 5));
+        int interval = getInt(props, INTERVAL, 10);
+        checkoutTimeoutMillis = getInt(props, CHECKOUT_TIMEOUT, 30000);
+
+        limit = new LimitSemaphore(minSize);
+        adjuster = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "pool-adjuster");
+            thread.setDaemon(true);
+            return thread;
+        });
+        adjuster.scheduleWithFixedDelay(this::adjust, interval, interval, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        if (limit != null) {
+            boolean acquired;
+            try {
+                acquired = limit.tryAcquire(checkoutTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                failedCheckouts.increment();
+                throw new SQLException("Interrupted while waiting for a connection.", ex);
+            }
+            if (!acquired) {
+                failedCheckouts.increment();
+                throw new SQLException("No connection available within " + checkoutTimeoutMillis
+                        + " ms, all " + limit.getLimit() + " allowed connections are checked out.");
+            }
+        }
+
+        Connection connection;
+        try {
+            connection = super.getConnection();
+        } catch (SQLException | RuntimeException ex) {
+            if (limit != null) {
+                limit.release();
+            }
+            failedCheckouts.increment();
+            throw ex;
+        }
+
+        checkouts.record(System.nanoTime() - start);
+        int nowBusy = busy.incrementAndGet();
+        peakBusy.accumulateAndGet(nowBusy, Math::max);
+        return connection;
+    }
+
+    @Override
+    public void closeConnection(Connection conn) throws SQLException {
+        busy.decrementAndGet();
+        try {
+            super.closeConnection(conn);
+        } finally {
+            if (limit != null) {
+                limit.release();
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (adjuster != null) {
+            adjuster.shutdownNow();
+        }
+        super.stop();
+    }
+
+    /**
+     * Returns the snapshot of the statistics of the pool. Times are given in
+     * microseconds. The statistics of the pool itself are missing if they
+     * can't be read.
+     *
+     * @return the map of statistic names to their values
+     */
+    public Map<String, Number> getStatistics() {
+        Map<String, Number> stats = new LinkedHashMap<>();
+        DataSource dataSource = unwrap(DataSource.class);
+        if (dataSource instanceof PooledDataSource) {
+            PooledDataSource pool = (PooledDataSource) dataSource;
+            try {
+                stats.put("connections", pool.getNumConnectionsDefaultUser());
+                stats.put("busy", pool.getNumBusyConnectionsDefaultUser());
+                stats.put("idle", pool.getNumIdleConnectionsDefaultUser());
+                stats.put("waitingThreads", pool.getNumThreadsAwaitingCheckoutDefaultUser()
+                        + (limit == null ? 0 : limit.getQueueLength()));
+                stats.put("poolFailedCheckouts", pool.getNumFailedCheckoutsDefaultUser());
+                stats.put("cachedStatements", pool.getStatementCacheNumStatementsDefaultUser());
+                stats.put("checkedOutStatements", pool.getStatementCacheNumCheckedOutDefaultUser());
+                stats.put("connectionsWithCachedStatements",
+                        pool.getStatementCacheNumConnectionsWithCachedStatementsDefaultUser());
+            } catch (SQLException ignorable) {
+            }
+        }
+
+        if (limit != null) {
+            stats.put("limit", limit.getLimit());
+            stats.put("minLimit", minSize);
+            stats.put("maxLimit", maxSize);
+            stats.put("grown", grown.sum());
+            stats.put("shrunk", shrunk.sum());
+        }
+        stats.put("checkouts", checkouts.getCount());
+        stats.put("failedCheckouts", failedCheckouts.sum());
+        checkouts.addTo(stats, "checkout");
+        return stats;
+    }
+
+    /**
+     * Grows or shrinks the limit of the checked out connections depending on
+     * the average checkout time since the last adjustment.
+     */
+    private void adjust() {
+        long count = checkouts.getCount();
+        long sumNanos = checkouts.getSumNanos();
+        long windowCount = count - lastCount;
+        long averageNanos = windowCount == 0 ? 0 : (sumNanos - lastSumNanos) / windowCount;
+        lastCount = count;
+        lastSumNanos = sumNanos;
+        int peak = peakBusy.getAndSet(busy.get());
+
+        int current = limit.getLimit();
+        if ((averageNanos > waitThresholdNanos || limit.getQueueLength() > 0) && current < maxSize) {
+            limit.setLimit(Math.min(maxSize, current + Math.max(1, current / 4)));
+            grown.increment();
+        } else if (averageNanos < waitThresholdNanos / 10 && peak < current && current > minSize) {
+            limit.setLimit(current - 1);
+            shrunk.increment();
+        }
+    }
+
+    /**
+     * Returns the value of the integer property or {@code defaultValue} if the
+     * property isn't set or is not an integer.
+     *
+     * @param props
+     *            the properties
+     * @param name
+     *            the name of the property
+     * @param defaultValue
+     *            the value used if the property isn't set
+     * @return the value of the property
+     */
+    @SuppressWarnings("rawtypes")
+    private static int getInt(Map props, String name, int defaultValue) {
+        Object value = props.get(name);
+        if (value == null)
+            return defaultValue;
+        try {
+            return Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException ex) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * {@code LimitSemaphore} is a {@link Semaphore} whose number of permits
+     * can be changed while some of them are acquired.
+     *
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private static class LimitSemaphore extends Semaphore {
+
+        /** Serial version UID. */
+        private static final long serialVersionUID = -2794361178930617341L;
+
+        /** Current number of the permits. */
+        private volatile int limit;
+
+        /**
+         * Constructs a new fair {@code LimitSemaphore}.
+         *
+         * @param limit
+         *            the initial number of the permits
+         */
+        LimitSemaphore(int limit) {
+            super(limit, true);
+            this.limit = limit;
+        }
+
+        /**
+         * Returns the current number of the permits.
+         *
+         * @return the current number of the permits
+         */
+        int getLimit() {
+            return limit;
+        }
+
+        /**
+         * Changes the number of the permits. If it shrinks, the permits that
+         * are acquired are not revoked, but no new ones are given until
+         * enough of them are released.
+         *
+         * @param newLimit
+         *            the new number of the permits
+         */
+        synchronized void setLimit(int newLimit) {
+            if (newLimit > limit) {
+                release(newLimit - limit);
+            } else if (newLimit < limit) {
+                reducePermits(limit - newLimit);
+            }
+            limit = newLimit;
+        }
+    }
+
+}
\ No newline at end of file
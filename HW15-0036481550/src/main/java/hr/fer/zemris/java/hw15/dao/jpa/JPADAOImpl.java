@@ -1,17 +1,47 @@
 package hr.fer.zemris.java.hw15.dao.jpa;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.TemporalType;
+import javax.persistence.TypedQuery;
 
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+import hr.fer.zemris.java.hw15.dao.BlogEntryText;
+import hr.fer.zemris.java.hw15.dao.BlogExportHandler;
+import hr.fer.zemris.java.hw15.dao.BlogUserSummary;
+import hr.fer.zemris.java.hw15.dao.BlogVersion;
 import hr.fer.zemris.java.hw15.dao.DAO;
 import hr.fer.zemris.java.hw15.dao.DAOException;
+import hr.fer.zemris.java.hw15.dao.PageCursor;
+import hr.fer.zemris.java.hw15.entities.BlogComment;
 import hr.fer.zemris.java.hw15.entities.BlogEntry;
 import hr.fer.zemris.java.hw15.entities.BlogUser;
 
 /**
  * {@code JPADAOImpl} is a class that offers some methods to work with a
  * object-relational database.
+ * <p>
+ * Reads use {@link JPAEMProvider#getReadEntityManager()}, so they go to the
+ * read-only replica when one is configured, and writes use
+ * {@link JPAEMProvider#getEntityManager()}, so they always go to the primary
+ * database.
+ * <p>
+ * Methods don't commit or close the entity manager. All the calls made by one
+ * request or background task share one entity manager and one transaction,
+ * which are committed and closed once by {@link JPAFilter} or by the cleanup
+ * of the task using {@link JPAEMProvider#release()}. Writes are flushed right
+ * away, so their errors are reported by the method that caused them.
  * 
  * @author Karlo Vrbić
  * @version 1.0
@@ -19,68 +49,346 @@ import hr.fer.zemris.java.hw15.entities.BlogUser;
  */
 public class JPADAOImpl implements DAO {
 
+    /** Number of rows fetched at once and kept in the session during export. */
+    private static final int EXPORT_BATCH_SIZE = 500;
+
     @Override
     public List<BlogUser> getAllBlogUsers() {
-        EntityManager em = JPAEMProvider.getEntityManager();
+        EntityManager em = JPAEMProvider.getReadEntityManager();
 
         @SuppressWarnings("unchecked")
         List<BlogUser> users = (List<BlogUser>) em.createNamedQuery("BlogUser.selectAll")
                 .getResultList();
+        return users;
+    }
+
+    @Override
+    public List<BlogUserSummary> getBlogUserSummaries(String afterNick, int maxResults) {
+        EntityManager em = JPAEMProvider.getReadEntityManager();
+
+        TypedQuery<BlogUserSummary> query;
+        if (afterNick == null) {
+            query = em.createNamedQuery("BlogUser.selectSummaries", BlogUserSummary.class);
+        } else {
+            query = em.createNamedQuery("BlogUser.selectSummariesAfter", BlogUserSummary.class)
+                    .setParameter("nick", afterNick);
+        }
 
-        JPAEMProvider.close();
+        List<BlogUserSummary> users = query.setMaxResults(maxResults)
+                .getResultList();
         return users;
     }
 
     @Override
     public BlogUser getBlogUser(String nick) {
-        EntityManager em = JPAEMProvider.getEntityManager();
+        EntityManager em = JPAEMProvider.getReadEntityManager();
 
         @SuppressWarnings("unchecked")
         List<BlogUser> users = (List<BlogUser>) em.createNamedQuery("BlogUser.selectByNick")
                 .setParameter("nick", nick)
                 .getResultList();
-        
-        JPAEMProvider.close();
         return users.size() == 1 ? users.get(0) : null;
     }
 
     @Override
     public BlogUser getBlogUser(Long id) {
-        BlogUser user = JPAEMProvider.getEntityManager().find(BlogUser.class, id);
-        JPAEMProvider.close();
-        return user;
+        return JPAEMProvider.getReadEntityManager().find(BlogUser.class, id);
     }
 
     @Override
     public List<BlogEntry> getAllBlogEntries() {
-        EntityManager em = JPAEMProvider.getEntityManager();
+        EntityManager em = JPAEMProvider.getReadEntityManager();
 
         @SuppressWarnings("unchecked")
         List<BlogEntry> users = (List<BlogEntry>) em.createNamedQuery("BlogEntry.selectAll")
                 .getResultList();
-
-        JPAEMProvider.close();
         return users;
     }
 
     @Override
     public List<BlogEntry> getAllUserEntries(BlogUser user) {
-        EntityManager em = JPAEMProvider.getEntityManager();
+        EntityManager em = JPAEMProvider.getReadEntityManager();
 
         @SuppressWarnings("unchecked")
         List<BlogEntry> users = (List<BlogEntry>) em.createNamedQuery("BlogEntry.selectByCreator")
                 .setParameter("creator", user)
                 .getResultList();
-
-        JPAEMProvider.close();
         return users;
     }
 
+    @Override
+    public List<BlogEntry> getUserEntries(BlogUser user, PageCursor after, int maxResults) {
+        EntityManager em = JPAEMProvider.getReadEntityManager();
+
+        @SuppressWarnings("unchecked")
+        List<BlogEntry> entries = (List<BlogEntry>) createPageQuery(em, "BlogEntry.selectPageByCreator", user, after,
+                maxResults).getResultList();
+        return entries;
+    }
+
+    @Override
+    public List<BlogEntry> getUserEntriesWithComments(BlogUser user, PageCursor after, int maxResults) {
+        EntityManager em = JPAEMProvider.getReadEntityManager();
+
+        @SuppressWarnings("unchecked")
+        List<Long> ids = (List<Long>) createPageQuery(em, "BlogEntry.selectPageIdsByCreator", user, after, maxResults)
+                .getResultList();
+
+        List<BlogEntry> entries = new ArrayList<>();
+        if (!ids.isEmpty()) {
+            @SuppressWarnings("unchecked")
+            List<BlogEntry> result = (List<BlogEntry>) em.createNamedQuery("BlogEntry.selectByIdsWithComments")
+                    .setParameter("ids", ids)
+                    .getResultList();
+            entries.addAll(result);
+        }
+        return entries;
+    }
+
     @Override
     public BlogEntry getBlogEntry(Long id) throws DAOException {
-        BlogEntry entry = JPAEMProvider.getEntityManager().find(BlogEntry.class, id);
-        JPAEMProvider.close();
-        return entry;
+        return JPAEMProvider.getReadEntityManager().find(BlogEntry.class, id);
+    }
+
+    @Override
+    public List<BlogEntry> getBlogEntries(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<BlogEntry> entries = JPAEMProvider.getReadEntityManager()
+                .createNamedQuery("BlogEntry.selectByIds", BlogEntry.class)
+                .setParameter("ids", ids)
+                .getResultList();
+        return inOrder(ids, entries);
+    }
+
+    @Override
+    public BlogEntry getBlogEntryWithComments(Long id) {
+        EntityManager em = JPAEMProvider.getReadEntityManager();
+
+        @SuppressWarnings("unchecked")
+        List<BlogEntry> entries = (List<BlogEntry>) em.createNamedQuery("BlogEntry.selectByIdWithComments")
+                .setParameter("id", id)
+                .getResultList();
+        return entries.isEmpty() ? null : entries.get(0);
+    }
+
+    @Override
+    public BlogVersion getBlogEntryVersion(Long id) {
+        List<BlogVersion> versions = JPAEMProvider.getReadEntityManager()
+                .createNamedQuery("BlogEntry.selectVersionById", BlogVersion.class)
+                .setParameter("id", id)
+                .getResultList();
+        return versions.isEmpty() ? null : versions.get(0);
+    }
+
+    @Override
+    public BlogVersion getUserEntriesVersion(String nick) {
+        List<BlogVersion> versions = JPAEMProvider.getReadEntityManager()
+                .createNamedQuery("BlogUser.selectEntriesVersion", BlogVersion.class)
+                .setParameter("nick", nick)
+                .getResultList();
+        return versions.isEmpty() ? null : versions.get(0);
+    }
+
+    @Override
+    public void exportBlog(BlogExportHandler handler) {
+        Session session = JPAEMProvider.getReadEntityManager().unwrap(Session.class);
+
+        try {
+            scroll(session, "BlogUser.exportAll", BlogUser.class, handler::exportUser);
+            scroll(session, "BlogEntry.exportAll", BlogEntry.class, handler::exportEntry);
+            scroll(session, "BlogComment.exportAll", BlogComment.class, handler::exportComment);
+        } catch (IOException ex) {
+            throw new DAOException("Unable to export the blog.", ex);
+        }
+    }
+
+    @Override
+    public void scrollBlogEntryTexts(Consumer<BlogEntryText> action) {
+        Session session = JPAEMProvider.getReadEntityManager().unwrap(Session.class);
+
+        try {
+            scroll(session, "BlogEntry.selectTexts", BlogEntryText.class, action::accept);
+        } catch (IOException ex) {
+            throw new DAOException("Unable to read the blog entries.", ex);
+        }
+    }
+
+    @Override
+    public void addBlogUser(BlogUser user) {
+        EntityManager em = JPAEMProvider.getEntityManager();
+        em.persist(user);
+        em.flush();
+    }
+
+    @Override
+    public void addBlogEntry(BlogEntry entry) {
+        EntityManager em = JPAEMProvider.getEntityManager();
+        em.persist(entry);
+        em.flush();
+    }
+
+    @Override
+    public void updateBlogEntry(BlogEntry entry) {
+        EntityManager em = JPAEMProvider.getEntityManager();
+        BlogEntry stored = em.find(BlogEntry.class, entry.getId());
+        if (stored == null)
+            throw new DAOException("Blog entry with ID " + entry.getId() + " doesn't exist.");
+
+        // the managed entry is changed instead of merging the given one, whose
+        // comments may not be loaded and would be removed as orphans
+        if (stored != entry) {
+            stored.setTitle(entry.getTitle());
+            stored.setText(entry.getText());
+            stored.setLastModifiedAt(entry.getLastModifiedAt());
+        }
+        em.flush();
+    }
+
+    @Override
+    public void updatePasswordHash(Long id, String passwordHash) {
+        EntityManager em = JPAEMProvider.getEntityManager();
+        BlogUser user = em.find(BlogUser.class, id);
+        if (user == null)
+            throw new DAOException("Blog user with ID " + id + " doesn't exist.");
+
+        user.setPasswordHash(passwordHash);
+        em.flush();
+    }
+
+    @Override
+    public void addBlogComments(List<BlogComment> comments) {
+        EntityManager em = JPAEMProvider.getEntityManager();
+
+        for (BlogComment comment : comments) {
+            em.persist(comment);
+        }
+        em.flush();
+    }
+
+    /**
+     * Runs the specified named query as a forward-only cursor and passes the
+     * results to the specified {@code action} one by one. Results are read-only
+     * and bypass the second-level cache, and the session is cleared every
+     * {@value #EXPORT_BATCH_SIZE} results, so memory use doesn't grow with the
+     * number of results.
+     *
+     * @param session
+     *            session used to run the query
+     * @param queryName
+     *            name of the named query
+     * @param type
+     *            type of the results
+     * @param action
+     *            action that handles one result
+     * @throws IOException
+     *             if the action throws it
+     */
+    private static <T> void scroll(Session session, String queryName, Class<T> type, ExportAction<T> action)
+            throws IOException {
+        ScrollableResults results = session.getNamedQuery(queryName)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .setFetchSize(EXPORT_BATCH_SIZE)
+                .scroll(ScrollMode.FORWARD_ONLY);
+
+        try {
+            int count = 0;
+            while (results.next()) {
+                action.accept(type.cast(results.get(0)));
+                if (++count % EXPORT_BATCH_SIZE == 0) {
+                    session.clear();
+                }
+            }
+        } finally {
+            results.close();
+            session.clear();
+        }
+    }
+
+    /**
+     * Creates the query that returns one page of the blog entries written by
+     * the specified {@code user}. If {@code after} is not {@code null} the
+     * named query with the {@code After} suffix is used so the page starts
+     * right after the entry the cursor points to.
+     *
+     * @param em
+     *            entity manager used to create the query
+     * @param queryName
+     *            name of the named query that returns the first page
+     * @param user
+     *            user that created blog entries
+     * @param after
+     *            cursor pointing to the last entry of the previous page or
+     *            {@code null} for the first page
+     * @param maxResults
+     *            maximal number of entries to return
+     * @return the query that returns one page of blog entries
+     */
+    private static Query createPageQuery(EntityManager em, String queryName, BlogUser user, PageCursor after,
+            int maxResults) {
+        Query query;
+        if (after == null) {
+            query = em.createNamedQuery(queryName);
+        } else {
+            query = em.createNamedQuery(queryName + "After")
+                    .setParameter("createdAt", after.getCreatedAt(), TemporalType.TIMESTAMP)
+                    .setParameter("id", after.getId());
+        }
+
+        return query.setParameter("creator", user)
+                .setMaxResults(maxResults);
+    }
+
+    /**
+     * Orders the specified entries by the given IDs. IDs without an entry are
+     * skipped.
+     *
+     * @param ids
+     *            entry ids in the wanted order
+     * @param entries
+     *            entries in any order
+     * @return list of the entries in the order of the IDs
+     */
+    protected static List<BlogEntry> inOrder(List<Long> ids, List<BlogEntry> entries) {
+        Map<Long, BlogEntry> byId = new HashMap<>();
+        for (BlogEntry entry : entries) {
+            byId.put(entry.getId(), entry);
+        }
+
+        List<BlogEntry> ordered = new ArrayList<>();
+        for (Long id : ids) {
+            BlogEntry entry = byId.get(id);
+            if (entry != null) {
+                ordered.add(entry);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * {@code ExportAction} is an action that handles one exported object.
+     *
+     * @author Karlo Vrbić
+     * @version 1.0
+     * @param <T>
+     *            the type of the object
+     */
+    @FunctionalInterface
+    private interface ExportAction<T> {
+
+        /**
+         * Handles the specified object.
+         *
+         * @param object
+         *            the object
+         * @throws IOException
+         *             if an I/O error occurs
+         */
+        void accept(T object) throws IOException;
+
     }
 
 }
\ No newline at end of file
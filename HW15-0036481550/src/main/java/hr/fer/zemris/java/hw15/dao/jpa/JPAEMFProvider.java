@@ -4,7 +4,8 @@ import javax.persistence.EntityManagerFactory;
 
 /**
  * {@code JPAEMFProvider} is a class that stores entity manager factory which
- * can be used by multiple classes.
+ * can be used by multiple classes. Optionally it also stores the entity manager
+ * factory of a read-only replica of the database.
  * 
  * @author Karlo Vrbić
  * @version 1.0
@@ -15,6 +16,9 @@ public class JPAEMFProvider {
     /** Entity manager factory for the persistence unit. */
     public static EntityManagerFactory emf;
 
+    /** Entity manager factory for the read-only replica of the database. */
+    private static EntityManagerFactory replicaEmf;
+
     /**
      * Returns the entity manager factory.
      * 
@@ -33,5 +37,26 @@ public class JPAEMFProvider {
     public static void setEmf(EntityManagerFactory emf) {
         JPAEMFProvider.emf = emf;
     }
+
+    /**
+     * Returns the entity manager factory of the read-only replica or
+     * {@code null} if the replica is not configured.
+     * 
+     * @return the entity manager factory of the replica
+     */
+    public static EntityManagerFactory getReplicaEmf() {
+        return replicaEmf;
+    }
+
+    /**
+     * Sets the entity manager factory of the read-only replica.
+     * 
+     * @param replicaEmf
+     *            the entity manager factory of the replica or {@code null} if
+     *            all reads should go to the primary database
+     */
+    public static void setReplicaEmf(EntityManagerFactory replicaEmf) {
+        JPAEMFProvider.replicaEmf = replicaEmf;
+    }
     
 }
\ No newline at end of file
@@ -1,6 +1,13 @@
 package hr.fer.zemris.java.hw15.dao.jpa;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
 
 import hr.fer.zemris.java.hw15.dao.DAOException;
 
@@ -10,6 +17,31 @@ import hr.fer.zemris.java.hw15.dao.DAOException;
  * These entity manager differ from their normal counterparts in that each
  * thread that accesses one (via its {@code get} or {@code set} method) has its
  * own, independently initialized copy of the entity manager.
+ * <p>
+ * Reads can be sent to a read-only replica of the database by using
+ * {@link #getReadEntityManager()}. Writes always use
+ * {@link #getEntityManager()}, which goes to the primary database. Once a
+ * thread has used the primary database all its reads go there as well, so the
+ * thread sees its own writes even if the replica lags behind. That lasts until
+ * {@link #release()} is called at the end of the request.
+ * <p>
+ * The entity manager is opened on first use and shared by everything the
+ * thread does until {@link #release()} commits its transaction and closes it,
+ * or {@link #discard()} rolls it back, so one request is one unit of work. A
+ * unit of work that is known to write can be started with
+ * {@link #beginUnitOfWork(boolean)}; then even its first reads use the primary
+ * database and the entities they load are the ones that get written, without
+ * being loaded again.
+ * <p>
+ * A unit of work that only reads can be started as read-only, as
+ * {@link JPAFilter} does for {@code GET} requests. Its entity manager loads
+ * entities without keeping their snapshots for dirty checking, never flushes,
+ * uses a read-only connection and rolls back instead of committing. If such a
+ * unit of work writes after all, {@link #getEntityManager()} replaces the
+ * read-only entity manager with a normal one.
+ * <p>
+ * Work that must see the committed writes of the unit of work, like
+ * invalidating caches, can be scheduled by {@link #afterCommit(Runnable)}.
  * 
  * @author Karlo Vrbić
  * @version 1.0
@@ -19,25 +51,212 @@ public class JPAEMProvider {
     /** Thread-local entity manager. */
     private static ThreadLocal<LocalData> LOCALS = new ThreadLocal<>();
 
+    /** Flag that is set once the current thread has used the primary database. */
+    private static ThreadLocal<Boolean> STICKY = new ThreadLocal<>();
+
+    /** Flag that is set if the unit of work of the current thread only reads. */
+    private static ThreadLocal<Boolean> READ_ONLY = new ThreadLocal<>();
+
     /**
-     * Returns the entity manager of the database in the current thread's copy
-     * of this thread-local connection.
+     * Returns the entity manager of the primary database in the current
+     * thread's copy of this thread-local connection. If the current thread has
+     * an open read-only entity manager, of the replica or of the primary
+     * database, it is closed first and the unit of work stops being read-only.
      * 
-     * @return the current thread's entity manager of the database
+     * @return the current thread's entity manager of the primary database
      */
     public static EntityManager getEntityManager() {
+        STICKY.set(Boolean.TRUE);
+        READ_ONLY.remove();
+
         LocalData ldata = LOCALS.get();
+        if (ldata != null && ldata.readOnly) {
+            close();
+            ldata = null;
+        }
         if (ldata == null) {
-            ldata = new LocalData();
-            ldata.em = JPAEMFProvider.getEmf().createEntityManager();
-            ldata.em.getTransaction().begin();
-            LOCALS.set(ldata);
+            ldata = open(JPAEMFProvider.getEmf(), false);
         }
         return ldata.em;
     }
 
+    /**
+     * Returns the entity manager used for reading in the current thread's copy
+     * of this thread-local connection. That is the entity manager of the
+     * replica if the replica is configured and the current thread hasn't used
+     * the primary database yet; otherwise it is the entity manager of the
+     * primary database.
+     * <p>
+     * Entities loaded from the replica, or in a read-only unit of work, are
+     * read-only and nothing is flushed from their entity manager.
+     * 
+     * @return the current thread's entity manager used for reading
+     */
+    public static EntityManager getReadEntityManager() {
+        LocalData ldata = LOCALS.get();
+        if (ldata != null) {
+            return ldata.em;
+        }
+
+        EntityManagerFactory replica = JPAEMFProvider.getReplicaEmf();
+        if (replica == null || STICKY.get() != null) {
+            return open(JPAEMFProvider.getEmf(), READ_ONLY.get() != null).em;
+        }
+        return open(replica, true).em;
+    }
+
+    /**
+     * Starts the unit of work of the current thread. If {@code write} is
+     * {@code true}, all the reads of the unit of work use the primary
+     * database, as if it had already written something; otherwise the unit of
+     * work is read-only.
+     * 
+     * @param write
+     *            {@code true} if the unit of work writes to the database
+     */
+    public static void beginUnitOfWork(boolean write) {
+        if (write) {
+            STICKY.set(Boolean.TRUE);
+            READ_ONLY.remove();
+        } else {
+            READ_ONLY.set(Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Sends the following reads of the current thread to the primary
+     * database, as if it had written something, but keeps a read-only unit of
+     * work read-only. It is used before reads whose results are cached, since
+     * a lagging replica may still return what a committed write has changed.
+     * An entity manager of the replica that is already open is closed.
+     */
+    public static void readFromPrimary() {
+        if (JPAEMFProvider.getReplicaEmf() == null || STICKY.get() != null)
+            return;
+
+        STICKY.set(Boolean.TRUE);
+        LocalData ldata = LOCALS.get();
+        if (ldata != null && ldata.readOnly) {
+            close();
+        }
+    }
+
+    /**
+     * Returns {@code true} if the unit of work of the current thread is
+     * read-only.
+     * 
+     * @return {@code true} if the unit of work of the current thread is
+     *         read-only
+     */
+    public static boolean isReadOnly() {
+        return READ_ONLY.get() != null;
+    }
+
+    /**
+     * Returns {@code true} if the current thread has used the primary database
+     * since the last call of {@link #release()}.
+     * 
+     * @return {@code true} if reads of the current thread must go to the
+     *         primary database
+     */
+    public static boolean hasWritten() {
+        return STICKY.get() != null;
+    }
+
+    /**
+     * Runs the task once the transaction of the current thread is committed.
+     * If the current thread has no transaction that writes, the task is run
+     * right away. Tasks of a transaction that is rolled back are not run.
+     * 
+     * @param task
+     *            the task
+     */
+    public static void afterCommit(Runnable task) {
+        LocalData ldata = LOCALS.get();
+        if (ldata == null || ldata.readOnly) {
+            task.run();
+        } else {
+            ldata.afterCommit.add(task);
+        }
+    }
+
+    /**
+     * Closes the entity manager of the current thread and forgets that the
+     * thread has used the primary database. This should be called at the end
+     * of every request or background task.
+     * 
+     * @throws DAOException
+     *             if some exception occurs
+     */
+    public static void release() throws DAOException {
+        STICKY.remove();
+        READ_ONLY.remove();
+        close();
+    }
+
+    /**
+     * Rolls back the transaction of the entity manager of the current thread,
+     * closes it and forgets that the thread has used the primary database.
+     * This should be called instead of {@link #release()} when the unit of
+     * work fails.
+     * 
+     * @throws DAOException
+     *             if the entity manager can't be closed
+     */
+    public static void discard() throws DAOException {
+        STICKY.remove();
+        READ_ONLY.remove();
+        LocalData ldata = LOCALS.get();
+        if (ldata == null) {
+            return;
+        }
+        LOCALS.remove();
+        try {
+            if (ldata.em.getTransaction().isActive()) {
+                ldata.em.getTransaction().rollback();
+            }
+        } catch (Exception ignorable) {
+        }
+        try {
+            ldata.em.close();
+        } catch (Exception ex) {
+            throw new DAOException("Unable to close entity manager.", ex);
+        }
+    }
+
+    /**
+     * Creates a new entity manager of the current thread and begins its
+     * transaction.
+     * 
+     * @param emf
+     *            the entity manager factory
+     * @param readOnly
+     *            {@code true} if the entity manager only reads, which is always
+     *            the case for the replica
+     * @return the thread-local data holding the new entity manager
+     */
+    private static LocalData open(EntityManagerFactory emf, boolean readOnly) {
+        LocalData ldata = new LocalData();
+        ldata.em = emf.createEntityManager();
+        ldata.readOnly = readOnly;
+        Session session = ldata.em.unwrap(Session.class);
+        if (readOnly) {
+            session.setDefaultReadOnly(true);
+            session.setFlushMode(FlushMode.MANUAL);
+        }
+        ldata.em.getTransaction().begin();
+        if (readOnly) {
+            session.doWork(connection -> connection.setReadOnly(true));
+        }
+        LOCALS.set(ldata);
+        return ldata;
+    }
+
     /**
      * Closes the the entity manager of the database of the current thread.
+     * Its transaction is committed, or rolled back if the entity manager is
+     * read-only, since there is nothing to commit then. Once it is committed
+     * the tasks scheduled by {@link #afterCommit(Runnable)} are run.
      * 
      * @throws DAOException
      *             if some exception occurs
@@ -49,7 +268,11 @@ public class JPAEMProvider {
         }
         DAOException dex = null;
         try {
-            ldata.em.getTransaction().commit();
+            if (ldata.readOnly) {
+                ldata.em.getTransaction().rollback();
+            } else {
+                ldata.em.getTransaction().commit();
+            }
         } catch (Exception ex) {
             dex = new DAOException("Unable to commit transaction.", ex);
         }
@@ -63,6 +286,10 @@ public class JPAEMProvider {
         LOCALS.remove();
         if (dex != null)
             throw dex;
+
+        for (Runnable task : ldata.afterCommit) {
+            task.run();
+        }
     }
 
     /**
@@ -77,6 +304,12 @@ public class JPAEMProvider {
         /** Entity manager. */
         EntityManager em;
 
+        /** Flag that is {@code true} if the entity manager only reads. */
+        boolean readOnly;
+
+        /** Tasks run after the transaction is committed. */
+        List<Runnable> afterCommit = new ArrayList<>();
+
     }
 
 }
\ No newline at end of file
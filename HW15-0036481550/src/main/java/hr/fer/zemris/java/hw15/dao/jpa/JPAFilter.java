@@ -9,9 +9,18 @@ import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpServletRequest;
 
 /**
- * {@code JPAFilter} is filter that closes thread-local entity manager.
+ * {@code JPAFilter} is filter that makes every request one unit of work: all
+ * the database calls of the request share the thread-local entity manager and
+ * its transaction, which is committed and closed once the request is handled,
+ * or rolled back if handling it fails.
+ * <p>
+ * {@code GET} and {@code HEAD} requests are read-only units of work, so their
+ * entities are loaded without snapshots and nothing is flushed or committed.
+ * Other requests are expected to write, so they read from the primary database
+ * from the start.
  * 
  * @author Karlo Vrbić
  * @version 1.0
@@ -27,10 +36,18 @@ public class JPAFilter implements Filter {
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
+        JPAEMProvider.beginUnitOfWork(isWrite(request));
+
+        boolean handled = false;
         try {
             chain.doFilter(request, response);
+            handled = true;
         } finally {
-            JPAEMProvider.close();
+            if (handled) {
+                JPAEMProvider.release();
+            } else {
+                JPAEMProvider.discard();
+            }
         }
     }
 
@@ -38,4 +55,20 @@ public class JPAFilter implements Filter {
     public void destroy() {
     }
 
+    /**
+     * Checks if the request is expected to write to the database.
+     * 
+     * @param request
+     *            the request
+     * @return {@code true} if the request is not a {@code GET} or {@code HEAD}
+     *         request
+     */
+    private static boolean isWrite(ServletRequest request) {
+        if (!(request instanceof HttpServletRequest))
+            return false;
+
+        String method = ((HttpServletRequest) request).getMethod();
+        return !method.equals("GET") && !method.equals("HEAD");
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,432 @@
+package hr.fer.zemris.java.hw15.dao.memory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import hr.fer.zemris.java.hw15.dao.BlogEntryText;
+import hr.fer.zemris.java.hw15.dao.BlogExportHandler;
+import hr.fer.zemris.java.hw15.dao.BlogUserSummary;
+import hr.fer.zemris.java.hw15.dao.BlogVersion;
+import hr.fer.zemris.java.hw15.dao.DAO;
+import hr.fer.zemris.java.hw15.dao.DAOException;
+import hr.fer.zemris.java.hw15.dao.PageCursor;
+import hr.fer.zemris.java.hw15.entities.BlogComment;
+import hr.fer.zemris.java.hw15.entities.BlogEntry;
+import hr.fer.zemris.java.hw15.entities.BlogUser;
+
+/**
+ * {@code MemoryDAOImpl} is a thread-safe {@link DAO} that keeps all the data in
+ * memory. It needs no database, so it can be used to benchmark the servlets
+ * and pages on their own and to run large concurrency tests quickly. All the
+ * data is lost when the application stops.
+ * <p>
+ * Data is kept in concurrent indexes: users by ID and by nickname, entries by
+ * ID and by creator (ordered by the date of creation and ID, so pages are
+ * read the same way as with keyset pagination) and comments by entry.
+ * <p>
+ * Stored objects are never handed out. Every method stores and returns copies,
+ * so callers can change the returned entities just like detached JPA entities
+ * without affecting the stored data until they save them.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see DAO
+ */
+public class MemoryDAOImpl implements DAO {
+
+    /** Order of the comments of one entry. */
+    private static final Comparator<BlogComment> COMMENT_ORDER = Comparator.comparing(BlogComment::getPostedOn);
+
+    /** Sequence of the IDs of all the entities. */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /** Blog users by their IDs. */
+    private final ConcurrentMap<Long, BlogUser> usersById = new ConcurrentHashMap<>();
+    /** Blog users by their nicknames. */
+    private final ConcurrentNavigableMap<String, BlogUser> usersByNick = new ConcurrentSkipListMap<>();
+    /** Blog entries by their IDs. */
+    private final ConcurrentMap<Long, BlogEntry> entriesById = new ConcurrentHashMap<>();
+    /** Blog entries by the IDs of their creators, ordered by date of creation and ID. */
+    private final ConcurrentMap<Long, ConcurrentNavigableMap<PageCursor, BlogEntry>> entriesByCreator = new ConcurrentHashMap<>();
+    /** Blog comments by the IDs of their entries. */
+    private final ConcurrentMap<Long, Queue<BlogComment>> commentsByEntry = new ConcurrentHashMap<>();
+
+    @Override
+    public List<BlogUser> getAllBlogUsers() {
+        List<BlogUser> users = new ArrayList<>();
+        for (BlogUser user : usersById.values()) {
+            users.add(copy(user));
+        }
+        return users;
+    }
+
+    @Override
+    public List<BlogUserSummary> getBlogUserSummaries(String afterNick, int maxResults) {
+        Map<String, BlogUser> page = afterNick == null ? usersByNick : usersByNick.tailMap(afterNick, false);
+
+        List<BlogUserSummary> users = new ArrayList<>();
+        for (BlogUser user : page.values()) {
+            if (users.size() >= maxResults)
+                break;
+            users.add(new BlogUserSummary(user.getId(), user.getNick()));
+        }
+        return users;
+    }
+
+    @Override
+    public BlogUser getBlogUser(String nick) {
+        BlogUser user = usersByNick.get(nick);
+        return user == null ? null : copy(user);
+    }
+
+    @Override
+    public BlogUser getBlogUser(Long id) {
+        BlogUser user = usersById.get(id);
+        return user == null ? null : copy(user);
+    }
+
+    @Override
+    public List<BlogEntry> getAllBlogEntries() {
+        List<BlogEntry> entries = new ArrayList<>();
+        for (BlogEntry entry : entriesById.values()) {
+            entries.add(copy(entry, copy(entry.getCreator())));
+        }
+        return entries;
+    }
+
+    @Override
+    public List<BlogEntry> getAllUserEntries(BlogUser user) {
+        return copyEntries(getUserIndex(user).values(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<BlogEntry> getUserEntries(BlogUser user, PageCursor after, int maxResults) {
+        ConcurrentNavigableMap<PageCursor, BlogEntry> index = getUserIndex(user);
+        Collection<BlogEntry> page = after == null ? index.values() : index.tailMap(after, false).values();
+        return copyEntries(page, maxResults);
+    }
+
+    @Override
+    public List<BlogEntry> getUserEntriesWithComments(BlogUser user, PageCursor after, int maxResults) {
+        List<BlogEntry> entries = getUserEntries(user, after, maxResults);
+        for (BlogEntry entry : entries) {
+            copyComments(entry);
+        }
+        return entries;
+    }
+
+    @Override
+    public BlogEntry getBlogEntry(Long id) {
+        BlogEntry entry = entriesById.get(id);
+        return entry == null ? null : copy(entry, copy(entry.getCreator()));
+    }
+
+    @Override
+    public List<BlogEntry> getBlogEntries(List<Long> ids) {
+        List<BlogEntry> entries = new ArrayList<>();
+        for (Long id : ids) {
+            BlogEntry entry = getBlogEntry(id);
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public BlogEntry getBlogEntryWithComments(Long id) {
+        BlogEntry entry = getBlogEntry(id);
+        if (entry != null) {
+            copyComments(entry);
+        }
+        return entry;
+    }
+
+    @Override
+    public BlogVersion getBlogEntryVersion(Long id) {
+        BlogEntry entry = entriesById.get(id);
+        if (entry == null)
+            return null;
+
+        Queue<BlogComment> comments = commentsByEntry.get(id);
+        long count = 0;
+        Date lastCommented = null;
+        if (comments != null) {
+            for (BlogComment comment : comments) {
+                count++;
+                if (lastCommented == null || comment.getPostedOn().after(lastCommented)) {
+                    lastCommented = comment.getPostedOn();
+                }
+            }
+        }
+        return new BlogVersion(1L, count, entry.getLastModifiedAt(), lastCommented);
+    }
+
+    @Override
+    public BlogVersion getUserEntriesVersion(String nick) {
+        BlogUser user = usersByNick.get(nick);
+        if (user == null)
+            return null;
+
+        long count = 0;
+        Date lastModified = null;
+        for (BlogEntry entry : getUserIndex(user).values()) {
+            count++;
+            if (lastModified == null || entry.getLastModifiedAt().after(lastModified)) {
+                lastModified = entry.getLastModifiedAt();
+            }
+        }
+        return new BlogVersion(count, lastModified);
+    }
+
+    @Override
+    public void exportBlog(BlogExportHandler handler) {
+        try {
+            for (BlogUser user : usersById.values()) {
+                handler.exportUser(copy(user));
+            }
+            for (BlogEntry entry : entriesById.values()) {
+                handler.exportEntry(copy(entry, copy(entry.getCreator())));
+            }
+            for (Queue<BlogComment> comments : commentsByEntry.values()) {
+                for (BlogComment comment : comments) {
+                    handler.exportComment(copy(comment, copy(comment.getBlogEntry(), comment.getBlogEntry().getCreator())));
+                }
+            }
+        } catch (IOException ex) {
+            throw new DAOException("Unable to export the blog.", ex);
+        }
+    }
+
+    @Override
+    public void scrollBlogEntryTexts(Consumer<BlogEntryText> action) {
+        for (BlogEntry entry : entriesById.values()) {
+            action.accept(new BlogEntryText(entry.getId(), entry.getTitle(), entry.getText()));
+        }
+    }
+
+    @Override
+    public void addBlogUser(BlogUser user) {
+        BlogUser stored = copy(user);
+        stored.setId(sequence.incrementAndGet());
+
+        if (usersByNick.putIfAbsent(stored.getNick(), stored) != null)
+            throw new DAOException("Blog user with nickname " + stored.getNick() + " already exists.");
+        usersById.put(stored.getId(), stored);
+
+        user.setId(stored.getId());
+    }
+
+    @Override
+    public void addBlogEntry(BlogEntry entry) {
+        BlogUser creator = getStoredUser(entry.getCreator());
+        BlogEntry stored = copy(entry, creator);
+        stored.setId(sequence.incrementAndGet());
+
+        entriesById.put(stored.getId(), stored);
+        entriesByCreator.computeIfAbsent(creator.getId(), id -> new ConcurrentSkipListMap<>())
+                .put(PageCursor.of(stored), stored);
+
+        entry.setId(stored.getId());
+    }
+
+    @Override
+    public void updateBlogEntry(BlogEntry entry) {
+        BlogEntry old = entriesById.get(entry.getId());
+        if (old == null)
+            throw new DAOException("Blog entry with ID " + entry.getId() + " doesn't exist.");
+
+        BlogEntry stored = copy(entry, old.getCreator());
+        entriesById.put(stored.getId(), stored);
+
+        // replaced in place, so concurrent page reads never miss the entry
+        ConcurrentNavigableMap<PageCursor, BlogEntry> index = entriesByCreator.get(old.getCreator().getId());
+        PageCursor key = PageCursor.of(stored);
+        index.put(key, stored);
+        PageCursor oldKey = PageCursor.of(old);
+        if (!oldKey.equals(key)) {
+            index.remove(oldKey);
+        }
+    }
+
+    @Override
+    public void updatePasswordHash(Long id, String passwordHash) {
+        BlogUser old = usersById.get(id);
+        if (old == null)
+            throw new DAOException("Blog user with ID " + id + " doesn't exist.");
+
+        // replaced by a copy, so concurrent readers never see a half-updated user
+        BlogUser stored = copy(old);
+        stored.setPasswordHash(passwordHash);
+        usersById.put(id, stored);
+        usersByNick.put(stored.getNick(), stored);
+    }
+
+    @Override
+    public void addBlogComments(List<BlogComment> comments) {
+        List<BlogComment> stored = new ArrayList<>(comments.size());
+        for (BlogComment comment : comments) {
+            BlogEntry entry = comment.getBlogEntry();
+            if (entry == null || entry.getId() == null || !entriesById.containsKey(entry.getId()))
+                throw new DAOException("Blog entry of the comment doesn't exist.");
+            stored.add(copy(comment, entriesById.get(entry.getId())));
+        }
+
+        for (int i = 0; i < stored.size(); i++) {
+            BlogComment comment = stored.get(i);
+            comment.setId(sequence.incrementAndGet());
+            commentsByEntry.computeIfAbsent(comment.getBlogEntry().getId(), id -> new ConcurrentLinkedQueue<>())
+                    .add(comment);
+            comments.get(i).setId(comment.getId());
+        }
+    }
+
+    /**
+     * Returns the index of the blog entries of the specified user.
+     *
+     * @param user
+     *            user that created blog entries
+     * @return the index of the blog entries of the user
+     */
+    private ConcurrentNavigableMap<PageCursor, BlogEntry> getUserIndex(BlogUser user) {
+        ConcurrentNavigableMap<PageCursor, BlogEntry> index = entriesByCreator.get(user.getId());
+        return index == null ? new ConcurrentSkipListMap<>() : index;
+    }
+
+    /**
+     * Returns the stored blog user with the same ID as the specified one.
+     *
+     * @param user
+     *            the blog user
+     * @return the stored blog user
+     * @throws DAOException
+     *             if the user is not stored
+     */
+    private BlogUser getStoredUser(BlogUser user) {
+        BlogUser stored = user == null || user.getId() == null ? null : usersById.get(user.getId());
+        if (stored == null)
+            throw new DAOException("Creator of the blog entry doesn't exist.");
+        return stored;
+    }
+
+    /**
+     * Copies at most {@code maxResults} of the specified stored entries of one
+     * creator. All the copies share the same copy of the creator.
+     *
+     * @param entries
+     *            the stored entries
+     * @param maxResults
+     *            maximal number of entries to copy
+     * @return the list of copies
+     */
+    private static List<BlogEntry> copyEntries(Collection<BlogEntry> entries, int maxResults) {
+        List<BlogEntry> copies = new ArrayList<>();
+        BlogUser creatorCopy = null;
+        for (BlogEntry entry : entries) {
+            if (copies.size() >= maxResults)
+                break;
+            if (creatorCopy == null) {
+                creatorCopy = copy(entry.getCreator());
+            }
+            copies.add(copy(entry, creatorCopy));
+        }
+        return copies;
+    }
+
+    /**
+     * Fills the list of comments of the specified copy of a blog entry with
+     * the copies of its stored comments.
+     *
+     * @param entry
+     *            the copy of the blog entry
+     */
+    private void copyComments(BlogEntry entry) {
+        Queue<BlogComment> comments = commentsByEntry.get(entry.getId());
+        if (comments == null)
+            return;
+
+        for (BlogComment comment : comments) {
+            entry.getComments().add(copy(comment, entry));
+        }
+        entry.getComments().sort(COMMENT_ORDER);
+    }
+
+    /**
+     * Returns the copy of the specified blog user.
+     *
+     * @param user
+     *            the blog user
+     * @return the copy of the blog user
+     */
+    private static BlogUser copy(BlogUser user) {
+        BlogUser copy = new BlogUser();
+        if (user.getId() != null) {
+            copy.setId(user.getId());
+        }
+        copy.setFirstName(user.getFirstName());
+        copy.setLastName(user.getLastName());
+        copy.setNick(user.getNick());
+        copy.setEmail(user.getEmail());
+        copy.setPasswordHash(user.getPasswordHash());
+        return copy;
+    }
+
+    /**
+     * Returns the copy of the specified blog entry without its comments.
+     *
+     * @param entry
+     *            the blog entry
+     * @param creator
+     *            user set as the creator of the copy
+     * @return the copy of the blog entry
+     */
+    private static BlogEntry copy(BlogEntry entry, BlogUser creator) {
+        BlogEntry copy = new BlogEntry();
+        if (entry.getId() != null) {
+            copy.setId(entry.getId());
+        }
+        copy.setCreator(creator);
+        copy.setTitle(entry.getTitle());
+        copy.setText(entry.getText());
+        copy.setCreatedAt(entry.getCreatedAt());
+        if (entry.getLastModifiedAt() != null) {
+            copy.setLastModifiedAt(entry.getLastModifiedAt());
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the copy of the specified blog comment.
+     *
+     * @param comment
+     *            the blog comment
+     * @param entry
+     *            blog entry set as the entry of the copy
+     * @return the copy of the blog comment
+     */
+    private static BlogComment copy(BlogComment comment, BlogEntry entry) {
+        BlogComment copy = new BlogComment();
+        if (comment.getId() != null) {
+            copy.setId(comment.getId());
+        }
+        copy.setBlogEntry(entry);
+        copy.setUsersEMail(comment.getUsersEMail());
+        copy.setMessage(comment.getMessage());
+        copy.setPostedOn(comment.getPostedOn());
+        return copy;
+    }
+
+}
\ No newline at end of file
@@ -4,16 +4,24 @@ import java.io.Serializable;
 import java.util.Date;
 import java.util.Objects;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 /**
  * {@code BlogComment} is an {@link Entity} class that is used to as persistent
  * data about a blog comment.
@@ -25,6 +33,11 @@ import javax.persistence.TemporalType;
  */
 @Entity
 @Table(name = "blog_comments")
+@Cacheable(true)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NamedQueries({
+        @NamedQuery(name = "BlogComment.exportAll", query = "select c from BlogComment as c join fetch c.blogEntry as e "
+                + "join fetch e.creator order by c.id") })
 public class BlogComment implements Serializable {
 
     /** Serial version UID. */
@@ -38,10 +51,12 @@ public class BlogComment implements Serializable {
 
     /**
      * ID of the blog comment. This is a auto-incremented number set by
-     * database.
+     * database. IDs are taken from the sequence in blocks so a batch of
+     * comments can be inserted without asking the database for every ID.
      */
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "blog_comments_seq")
+    @SequenceGenerator(name = "blog_comments_seq", sequenceName = "blog_comments_seq", allocationSize = 50)
     private Long id;
 
     /** Blog entry that this comment refers to. */
@@ -133,7 +148,7 @@ public class BlogComment implements Serializable {
     /**
      * Constructs a new empty {@code BlogComment}.
      */
-    protected BlogComment() {
+    public BlogComment() {
     }
 
     /**
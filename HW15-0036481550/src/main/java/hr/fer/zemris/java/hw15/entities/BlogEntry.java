@@ -12,7 +12,9 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.NamedQueries;
@@ -20,10 +22,14 @@ import javax.persistence.NamedQuery;
 import javax.persistence.OneToMany;
 import javax.persistence.OrderBy;
 import javax.persistence.QueryHint;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 /**
  * {@code BlogEntry} is an {@link Entity} class that is used to as persistent
  * data about a blog entry.
@@ -34,15 +40,42 @@ import javax.persistence.TemporalType;
  * @see Serializable
  */
 @Entity
-@Table(name = "blog_entries")
+@Table(name = "blog_entries", indexes = {
+        @Index(name = "blog_entries_creator_page", columnList = "creator_id, createdAt, id") })
 @Cacheable(true)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @NamedQueries({
         @NamedQuery(name = "BlogEntry.selectAll", query = "select e from BlogEntry as e", hints = {
                 @QueryHint(name = "org.hibernate.cacheable", value = "true") }),
         @NamedQuery(name = "BlogEntry.selectById", query = "select e from BlogEntry as e where e.id=:id", hints = {
                 @QueryHint(name = "org.hibernate.cacheable", value = "true") }),
         @NamedQuery(name = "BlogEntry.selectByCreator", query = "select e from BlogEntry as e where e.creator=:creator", hints = {
-                @QueryHint(name = "org.hibernate.cacheable", value = "true") })
+                @QueryHint(name = "org.hibernate.cacheable", value = "true") }),
+        @NamedQuery(name = "BlogEntry.selectPageByCreator", query = "select e from BlogEntry as e where e.creator=:creator "
+                + "order by e.createdAt, e.id", hints = {
+                        @QueryHint(name = "org.hibernate.cacheable", value = "true") }),
+        @NamedQuery(name = "BlogEntry.selectPageByCreatorAfter", query = "select e from BlogEntry as e where e.creator=:creator "
+                + "and e.createdAt >= :createdAt and (e.createdAt > :createdAt or e.id > :id) "
+                + "order by e.createdAt, e.id", hints = {
+                        @QueryHint(name = "org.hibernate.cacheable", value = "true") }),
+        @NamedQuery(name = "BlogEntry.selectPageIdsByCreator", query = "select e.id from BlogEntry as e where e.creator=:creator "
+                + "order by e.createdAt, e.id"),
+        @NamedQuery(name = "BlogEntry.selectPageIdsByCreatorAfter", query = "select e.id from BlogEntry as e where e.creator=:creator "
+                + "and e.createdAt >= :createdAt and (e.createdAt > :createdAt or e.id > :id) "
+                + "order by e.createdAt, e.id"),
+        @NamedQuery(name = "BlogEntry.selectByIds", query = "select e from BlogEntry as e "
+                + "join fetch e.creator where e.id in :ids"),
+        @NamedQuery(name = "BlogEntry.selectByIdWithComments", query = "select distinct e from BlogEntry as e "
+                + "join fetch e.creator left join fetch e.comments where e.id=:id"),
+        @NamedQuery(name = "BlogEntry.selectByIdsWithComments", query = "select distinct e from BlogEntry as e "
+                + "join fetch e.creator left join fetch e.comments where e.id in :ids order by e.createdAt, e.id"),
+        @NamedQuery(name = "BlogEntry.selectVersionById", query = "select new hr.fer.zemris.java.hw15.dao.BlogVersion("
+                + "count(distinct e.id), count(c.id), max(e.lastModifiedAt), max(c.postedOn)) from BlogEntry as e "
+                + "left join e.comments as c where e.id=:id group by e.id", hints = {
+                        @QueryHint(name = "org.hibernate.cacheable", value = "true") }),
+        @NamedQuery(name = "BlogEntry.exportAll", query = "select e from BlogEntry as e join fetch e.creator order by e.id"),
+        @NamedQuery(name = "BlogEntry.selectTexts", query = "select new hr.fer.zemris.java.hw15.dao.BlogEntryText("
+                + "e.id, e.title, e.text) from BlogEntry as e order by e.id")
 })
 public class BlogEntry implements Serializable {
 
@@ -57,9 +90,12 @@ public class BlogEntry implements Serializable {
 
     /**
      * ID of the blog entry. This is a auto-incremented number set by database.
+     * IDs are taken from the sequence in blocks so a batch of entries can be
+     * inserted without asking the database for every ID.
      */
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "blog_entries_seq")
+    @SequenceGenerator(name = "blog_entries_seq", sequenceName = "blog_entries_seq", allocationSize = 50)
     private Long id;
 
     /** Creator of this blog entry. */
@@ -88,6 +124,7 @@ public class BlogEntry implements Serializable {
     /** List of all comments for this blog entry. */
     @OneToMany(mappedBy = "blogEntry", fetch = FetchType.LAZY, cascade = CascadeType.PERSIST, orphanRemoval = true)
     @OrderBy("postedOn")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<BlogComment> comments = new ArrayList<>();
 
     /**
@@ -237,7 +274,7 @@ public class BlogEntry implements Serializable {
     /**
      * Constructs a new empty {@code BlogEntry}.
      */
-    protected BlogEntry() {
+    public BlogEntry() {
     }
 
     /**
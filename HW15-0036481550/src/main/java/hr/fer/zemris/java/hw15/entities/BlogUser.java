@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -18,7 +19,11 @@ import javax.persistence.OrderBy;
 import javax.persistence.QueryHint;
 import javax.persistence.Table;
 
-import hr.fer.zemris.java.hw15.crypto.Sha1Utils;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import hr.fer.zemris.java.hw15.crypto.PasswordService;
+import hr.fer.zemris.java.hw15.crypto.PasswordServiceProvider;
 
 /**
  * {@code BlogUser} is an {@link Entity} class that is used to as persistent
@@ -31,13 +36,26 @@ import hr.fer.zemris.java.hw15.crypto.Sha1Utils;
  */
 @Entity
 @Table(name = "blog_users")
+@Cacheable(true)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @NamedQueries({
         @NamedQuery(name = "BlogUser.selectAll", query = "select u from BlogUser as u", hints = {
                 @QueryHint(name = "org.hibernate.cacheable", value = "true") }),
         @NamedQuery(name = "BlogUser.selectByNick", query = "select u from BlogUser as u where u.nick=:nick", hints = {
                 @QueryHint(name = "org.hibernate.cacheable", value = "true") }),
         @NamedQuery(name = "BlogUser.selectById", query = "select u from BlogUser as u where u.id=:id", hints = {
-                @QueryHint(name = "org.hibernate.cacheable", value = "true") })
+                @QueryHint(name = "org.hibernate.cacheable", value = "true") }),
+        @NamedQuery(name = "BlogUser.selectSummaries", query = "select new hr.fer.zemris.java.hw15.dao.BlogUserSummary(u.id, u.nick) "
+                + "from BlogUser as u order by u.nick", hints = {
+                        @QueryHint(name = "org.hibernate.cacheable", value = "true") }),
+        @NamedQuery(name = "BlogUser.selectSummariesAfter", query = "select new hr.fer.zemris.java.hw15.dao.BlogUserSummary(u.id, u.nick) "
+                + "from BlogUser as u where u.nick > :nick order by u.nick", hints = {
+                        @QueryHint(name = "org.hibernate.cacheable", value = "true") }),
+        @NamedQuery(name = "BlogUser.selectEntriesVersion", query = "select new hr.fer.zemris.java.hw15.dao.BlogVersion("
+                + "count(e.id), max(e.lastModifiedAt)) from BlogUser as u left join u.blogEntries as e "
+                + "where u.nick=:nick group by u.id", hints = {
+                        @QueryHint(name = "org.hibernate.cacheable", value = "true") }),
+        @NamedQuery(name = "BlogUser.exportAll", query = "select u from BlogUser as u order by u.id")
 })
 public class BlogUser implements Serializable {
 
@@ -76,13 +94,14 @@ public class BlogUser implements Serializable {
     @Column(length = 50, nullable = false)
     private String email;
 
-    /** Password of the blog user stored as SHA-1 hash. */
-    @Column(length = 50, nullable = false)
+    /** Password of the blog user stored as a hash with its salt and settings. */
+    @Column(length = 128, nullable = false)
     private String passwordHash;
 
     /** List of all blog entries that this user wrote. */
     @OneToMany(mappedBy = "creator", fetch = FetchType.LAZY, cascade = CascadeType.PERSIST, orphanRemoval = true)
     @OrderBy("createdAt")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<BlogEntry> blogEntries;
 
     /**
@@ -90,7 +109,8 @@ public class BlogUser implements Serializable {
      * nickname, e-mail, password and list of all blog entries that this user
      * posted.
      * <p>
-     * <b>Note:</b>Password is stored as a SHA-1 digest.
+     * <b>Note:</b>Password is stored as a hash made by the
+     * {@link PasswordService}.
      * 
      * @param firstName
      *            the first name of the blog user
@@ -144,7 +164,7 @@ public class BlogUser implements Serializable {
         this.lastName = lastName;
         this.nick = nick;
         this.email = email;
-        this.passwordHash = Sha1Utils.sha1Hex(password);
+        this.passwordHash = PasswordServiceProvider.getPasswordService().hash(password);
         this.blogEntries = blogEntries;
     }
 
@@ -152,7 +172,8 @@ public class BlogUser implements Serializable {
      * Constructs a new {@code BlogUser} with specified first name, last name,
      * nickname, e-mail and password.
      * <p>
-     * <b>Note:</b>Password is stored as a SHA-1 digest.
+     * <b>Note:</b>Password is stored as a hash made by the
+     * {@link PasswordService}.
      * 
      * @param firstName
      *            the first name of the blog user
@@ -185,7 +206,7 @@ public class BlogUser implements Serializable {
     /**
      * Constructs a new empty {@code BlogUser}.
      */
-    protected BlogUser() {
+    public BlogUser() {
     }
 
     /**
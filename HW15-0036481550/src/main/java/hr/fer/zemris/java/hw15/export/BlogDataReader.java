@@ -0,0 +1,208 @@
+package hr.fer.zemris.java.hw15.export;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+
+import hr.fer.zemris.java.hw15.dao.BlogExportHandler;
+import hr.fer.zemris.java.hw15.entities.BlogComment;
+import hr.fer.zemris.java.hw15.entities.BlogEntry;
+import hr.fer.zemris.java.hw15.entities.BlogUser;
+
+/**
+ * {@code BlogDataReader} reads the records written by a {@link BlogDataWriter}
+ * and passes them to a {@link BlogExportHandler}, one at a time, just like
+ * {@link hr.fer.zemris.java.hw15.dao.DAO#exportBlog(BlogExportHandler)} does.
+ * <p>
+ * Objects passed to the handler are new, unsaved entities that still carry the
+ * IDs from the file. Entities they refer to are represented by empty entities
+ * that have only the ID from the file set. Users without a password hash get an
+ * empty one, so they can't log in until the password is set again.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ExportFormat
+ */
+public abstract class BlogDataReader {
+
+    /** Reader the records are read from. */
+    protected final Reader reader;
+
+    /** Number of the current record, starting from 1. */
+    private long record;
+
+    /**
+     * Constructs a new {@code BlogDataReader}.
+     *
+     * @param reader
+     *            the reader the records are read from
+     * @throws NullPointerException
+     *             if parameter {@code reader} is a {@code null} reference
+     */
+    protected BlogDataReader(Reader reader) {
+        this.reader = Objects.requireNonNull(reader, "You cannot read the blog data from a null reference.");
+    }
+
+    /**
+     * Reads all the records and passes them to the specified handler.
+     *
+     * @param handler
+     *            the handler of the records
+     * @throws IOException
+     *             if an I/O error occurs, the handler throws it or a record is
+     *             invalid
+     */
+    public abstract void read(BlogExportHandler handler) throws IOException;
+
+    /**
+     * Creates the entity from the fields of one record and passes it to the
+     * specified handler.
+     *
+     * @param type
+     *            the type of the record
+     * @param fields
+     *            the fields of the record by their names
+     * @param handler
+     *            the handler of the records
+     * @throws IOException
+     *             if the handler throws it or the record is invalid
+     */
+    protected void dispatch(String type, Map<String, String> fields, BlogExportHandler handler) throws IOException {
+        record++;
+        try {
+            switch (type) {
+            case BlogDataWriter.USER:
+                handler.exportUser(toUser(fields));
+                break;
+            case BlogDataWriter.ENTRY:
+                handler.exportEntry(toEntry(fields));
+                break;
+            case BlogDataWriter.COMMENT:
+                handler.exportComment(toComment(fields));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown type of the record: " + type + ".");
+            }
+        } catch (RuntimeException ex) {
+            throw new IOException("Invalid record " + record + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Creates the blog user from the fields of the record.
+     *
+     * @param fields
+     *            the fields of the record
+     * @return the blog user
+     */
+    private static BlogUser toUser(Map<String, String> fields) {
+        BlogUser user = new BlogUser();
+        user.setId(toLong(fields, "id"));
+        user.setFirstName(required(fields, "firstName"));
+        user.setLastName(required(fields, "lastName"));
+        user.setNick(required(fields, "nick"));
+        user.setEmail(required(fields, "email"));
+        String passwordHash = fields.get("passwordHash");
+        user.setPasswordHash(passwordHash == null ? "" : passwordHash);
+        return user;
+    }
+
+    /**
+     * Creates the blog entry from the fields of the record.
+     *
+     * @param fields
+     *            the fields of the record
+     * @return the blog entry
+     */
+    private static BlogEntry toEntry(Map<String, String> fields) {
+        BlogUser creator = new BlogUser();
+        creator.setId(toLong(fields, "creatorId"));
+
+        BlogEntry entry = new BlogEntry();
+        entry.setId(toLong(fields, "id"));
+        entry.setCreator(creator);
+        entry.setTitle(required(fields, "title"));
+        entry.setText(required(fields, "text"));
+        entry.setCreatedAt(toDate(required(fields, "createdAt")));
+        String lastModifiedAt = fields.get("lastModifiedAt");
+        if (lastModifiedAt != null) {
+            entry.setLastModifiedAt(toDate(lastModifiedAt));
+        }
+        return entry;
+    }
+
+    /**
+     * Creates the blog comment from the fields of the record.
+     *
+     * @param fields
+     *            the fields of the record
+     * @return the blog comment
+     */
+    private static BlogComment toComment(Map<String, String> fields) {
+        BlogEntry entry = new BlogEntry();
+        entry.setId(toLong(fields, "entryId"));
+
+        BlogComment comment = new BlogComment();
+        comment.setId(toLong(fields, "id"));
+        comment.setBlogEntry(entry);
+        comment.setUsersEMail(required(fields, "usersEMail"));
+        comment.setMessage(required(fields, "message"));
+        comment.setPostedOn(toDate(required(fields, "postedOn")));
+        return comment;
+    }
+
+    /**
+     * Returns the value of the required field.
+     *
+     * @param fields
+     *            the fields of the record
+     * @param name
+     *            the name of the field
+     * @return the value of the field
+     * @throws IllegalArgumentException
+     *             if the field is missing
+     */
+    private static String required(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null)
+            throw new IllegalArgumentException("Field " + name + " is missing.");
+        return value;
+    }
+
+    /**
+     * Returns the value of the required field as a number.
+     *
+     * @param fields
+     *            the fields of the record
+     * @param name
+     *            the name of the field
+     * @return the value of the field
+     * @throws IllegalArgumentException
+     *             if the field is missing or is not a number
+     */
+    private static Long toLong(Map<String, String> fields, String name) {
+        return Long.valueOf(required(fields, name));
+    }
+
+    /**
+     * Parses the date in the ISO-8601 format.
+     *
+     * @param value
+     *            the formatted date
+     * @return the date
+     * @throws IllegalArgumentException
+     *             if the date can't be parsed
+     */
+    private static Date toDate(String value) {
+        try {
+            return Date.from(Instant.parse(value));
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid date: " + value + ".", ex);
+        }
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package hr.fer.zemris.java.hw15.export;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Objects;
+
+import hr.fer.zemris.java.hw15.dao.BlogExportHandler;
+
+/**
+ * {@code BlogDataWriter} is a {@link BlogExportHandler} that writes every
+ * object it receives as one record to a {@link Writer}. Nothing is buffered
+ * except by the writer itself, so the blog can be written in constant memory.
+ * <p>
+ * Every record has a type ({@value #USER}, {@value #ENTRY} or
+ * {@value #COMMENT}) and refers to other records by their IDs. Dates are
+ * written in the ISO-8601 format in UTC.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ExportFormat
+ */
+public abstract class BlogDataWriter implements BlogExportHandler, Flushable {
+
+    /** Type of the record of a blog user. */
+    public static final String USER = "user";
+    /** Type of the record of a blog entry. */
+    public static final String ENTRY = "entry";
+    /** Type of the record of a blog comment. */
+    public static final String COMMENT = "comment";
+
+    /** Writer the records are written to. */
+    protected final Writer writer;
+
+    /** Flag that is {@code true} if password hashes should be written. */
+    protected final boolean includePasswordHashes;
+
+    /**
+     * Constructs a new {@code BlogDataWriter}.
+     *
+     * @param writer
+     *            the writer the records are written to
+     * @param includePasswordHashes
+     *            {@code true} if password hashes of the users should be
+     *            written
+     * @throws NullPointerException
+     *             if parameter {@code writer} is a {@code null} reference
+     */
+    protected BlogDataWriter(Writer writer, boolean includePasswordHashes) {
+        this.writer = Objects.requireNonNull(writer, "You cannot write the blog data to a null reference.");
+        this.includePasswordHashes = includePasswordHashes;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    /**
+     * Formats the specified date in the ISO-8601 format in UTC.
+     *
+     * @param date
+     *            the date or {@code null}
+     * @return the formatted date or {@code null} if the date is {@code null}
+     */
+    protected static String format(Date date) {
+        return date == null ? null : Instant.ofEpochMilli(date.getTime()).toString();
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,75 @@
+package hr.fer.zemris.java.hw15.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import hr.fer.zemris.java.hw15.dao.jpa.JPADAOImpl;
+import hr.fer.zemris.java.hw15.dao.jpa.JPAEMFProvider;
+import hr.fer.zemris.java.hw15.dao.jpa.JPAEMProvider;
+
+/**
+ * {@code BlogExport} is a command line program that exports all the blog data,
+ * including password hashes, to a file. It connects to the database using the
+ * {@code baza.podataka.za.blog} persistence unit but never changes its schema.
+ * <p>
+ * Usage: {@code BlogExport <file> [ndjson|csv]}. If the format is not given it
+ * is chosen by the extension of the file.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ExportFormat
+ */
+public class BlogExport {
+
+    /**
+     * Method which is executed when program is run.
+     *
+     * @param args
+     *            the path of the file and optionally the format
+     * @throws IOException
+     *             if the file can't be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: BlogExport <file> [ndjson|csv]");
+            System.exit(1);
+        }
+
+        Path file = Paths.get(args[0]);
+        ExportFormat format;
+        if (args.length == 2) {
+            format = ExportFormat.forName(args[1]);
+        } else {
+            String name = file.getFileName().toString();
+            format = ExportFormat.forName(name.substring(name.lastIndexOf('.') + 1));
+        }
+
+        Map<String, String> properties = new HashMap<>();
+        properties.put("hibernate.hbm2ddl.auto", "none");
+        EntityManagerFactory emf = Persistence.createEntityManagerFactory("baza.podataka.za.blog", properties);
+        JPAEMFProvider.setEmf(emf);
+
+        long start = System.nanoTime();
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            BlogDataWriter dataWriter = format.createWriter(writer, true);
+            new JPADAOImpl().exportBlog(dataWriter);
+            dataWriter.flush();
+        } finally {
+            JPAEMProvider.release();
+            JPAEMFProvider.setEmf(null);
+            emf.close();
+        }
+
+        System.out.printf("Exported the blog to %s in %d ms.%n", file, (System.nanoTime() - start) / 1_000_000);
+    }
+
+}
\ No newline at end of file
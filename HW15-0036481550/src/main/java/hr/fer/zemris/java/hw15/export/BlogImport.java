@@ -0,0 +1,468 @@
+package hr.fer.zemris.java.hw15.export;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+
+import hr.fer.zemris.java.hw15.dao.BlogExportHandler;
+import hr.fer.zemris.java.hw15.entities.BlogComment;
+import hr.fer.zemris.java.hw15.entities.BlogEntry;
+import hr.fer.zemris.java.hw15.entities.BlogUser;
+
+/**
+ * {@code BlogImport} is a command line program that imports users, entries and
+ * comments from a file written by {@link BlogExport} (or any other file in one
+ * of the {@link ExportFormat formats}) into the database of the
+ * {@code baza.podataka.za.blog} persistence unit. The schema must already
+ * exist; it is never changed.
+ * <p>
+ * Usage:
+ * {@code BlogImport <file> [--format ndjson|csv] [--batch-size n] [--workers n]}
+ * <p>
+ * Entities are inserted through {@link StatelessSession}s, so they are never
+ * kept in memory, and are sent to the database in JDBC batches of
+ * {@code batch-size} rows, one transaction per batch. Users are inserted by the
+ * main thread. Entries are distributed to {@code workers} parallel workers by
+ * their authors and comments follow their entries, so every worker inserts the
+ * whole blog of some authors. Records get new IDs; references between them are
+ * translated from the IDs in the file.
+ * <p>
+ * Progress and throughput are reported every {@value #REPORT_INTERVAL}
+ * seconds and at the end.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see BlogDataReader
+ */
+public class BlogImport {
+
+    /** Default number of rows inserted in one batch. */
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
+    /** Interval between the progress reports in seconds. */
+    private static final int REPORT_INTERVAL = 5;
+
+    /** Number of records that can wait for one worker. */
+    private static final int WORKER_QUEUE_SIZE = 10000;
+
+    /** Record that tells the worker to stop. */
+    private static final Object END = new Object();
+
+    /** Number of imported users. */
+    private final LongAdder users = new LongAdder();
+    /** Number of imported entries. */
+    private final LongAdder entries = new LongAdder();
+    /** Number of imported comments. */
+    private final LongAdder comments = new LongAdder();
+    /** Number of records that couldn't be imported. */
+    private final LongAdder failed = new LongAdder();
+
+    /** Session factory. */
+    private final SessionFactory sessionFactory;
+    /** Number of rows inserted in one batch. */
+    private final int batchSize;
+    /** Workers that import the entries and comments. */
+    private final List<Worker> workers = new ArrayList<>();
+
+    /** New IDs of the users by their IDs in the file. */
+    private final Map<Long, Long> userIds = new HashMap<>();
+    /** Indexes of the workers that imported the entries by IDs of the entries in the file. */
+    private final Map<Long, Integer> entryWorkers = new HashMap<>();
+
+    /** Session used to insert the users. */
+    private StatelessSession userSession;
+    /** Current transaction of the session used to insert the users. */
+    private Transaction userTransaction;
+    /** IDs from the file of the users inserted in the current transaction. */
+    private final List<Long> pendingUsers = new ArrayList<>();
+
+    /**
+     * Constructs a new {@code BlogImport}.
+     *
+     * @param sessionFactory
+     *            the session factory
+     * @param batchSize
+     *            the number of rows inserted in one batch
+     * @param workerCount
+     *            the number of workers that import the entries and comments
+     */
+    private BlogImport(SessionFactory sessionFactory, int batchSize, int workerCount) {
+        this.sessionFactory = sessionFactory;
+        this.batchSize = batchSize;
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(new Worker(i));
+        }
+    }
+
+    /**
+     * Method which is executed when program is run.
+     *
+     * @param args
+     *            the path of the file and the options
+     * @throws IOException
+     *             if the file can't be read or is not valid
+     * @throws InterruptedException
+     *             if the main thread is interrupted while waiting for the
+     *             workers
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1 || args.length % 2 == 0) {
+            usage();
+        }
+
+        Path file = Paths.get(args[0]);
+        String name = file.getFileName().toString();
+        ExportFormat format = null;
+        int batchSize = DEFAULT_BATCH_SIZE;
+        int workerCount = Runtime.getRuntime().availableProcessors();
+        try {
+            format = ExportFormat.forName(name.substring(name.lastIndexOf('.') + 1));
+        } catch (IllegalArgumentException ignorable) {
+        }
+
+        for (int i = 1; i < args.length; i += 2) {
+            switch (args[i]) {
+            case "--format":
+                format = ExportFormat.forName(args[i + 1]);
+                break;
+            case "--batch-size":
+                batchSize = Integer.parseInt(args[i + 1]);
+                break;
+            case "--workers":
+                workerCount = Integer.parseInt(args[i + 1]);
+                break;
+            default:
+                usage();
+            }
+        }
+        if (format == null || batchSize < 1 || workerCount < 1) {
+            usage();
+        }
+
+        Map<String, String> properties = new HashMap<>();
+        properties.put("hibernate.hbm2ddl.auto", "none");
+        properties.put("hibernate.jdbc.batch_size", Integer.toString(batchSize));
+        properties.put("hibernate.c3p0.max_size", Integer.toString(Math.max(workerCount + 1, 5)));
+        EntityManagerFactory emf = Persistence.createEntityManagerFactory("baza.podataka.za.blog", properties);
+
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            new BlogImport(emf.unwrap(SessionFactory.class), batchSize, workerCount).run(format.createReader(reader));
+        } finally {
+            emf.close();
+        }
+    }
+
+    /**
+     * Prints the usage and exits.
+     */
+    private static void usage() {
+        System.err.println("Usage: BlogImport <file> [--format ndjson|csv] [--batch-size n] [--workers n]");
+        System.exit(1);
+    }
+
+    /**
+     * Imports all the records from the specified reader.
+     *
+     * @param reader
+     *            the reader of the records
+     * @throws IOException
+     *             if the records can't be read
+     * @throws InterruptedException
+     *             if the main thread is interrupted while waiting for the
+     *             workers
+     */
+    private void run(BlogDataReader reader) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "import-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> report(start), REPORT_INTERVAL, REPORT_INTERVAL, TimeUnit.SECONDS);
+
+        for (Worker worker : workers) {
+            worker.start();
+        }
+
+        userSession = sessionFactory.openStatelessSession();
+        try {
+            reader.read(new Dispatcher());
+            commitUsers();
+        } finally {
+            userSession.close();
+            for (Worker worker : workers) {
+                worker.queue.put(END);
+            }
+            for (Worker worker : workers) {
+                worker.join();
+            }
+            reporter.shutdownNow();
+        }
+
+        report(start);
+    }
+
+    /**
+     * Prints the number of imported records and the throughput.
+     *
+     * @param start
+     *            the time when the import started in nanoseconds
+     */
+    private void report(long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long total = users.sum() + entries.sum() + comments.sum();
+        System.out.printf("%8.1f s: %d users, %d entries, %d comments, %d failed, %.0f rows/s%n", seconds,
+                users.sum(), entries.sum(), comments.sum(), failed.sum(), total / Math.max(seconds, 1e-3));
+    }
+
+    /**
+     * Inserts the blog user in the current transaction of the main thread.
+     *
+     * @param user
+     *            the blog user with the ID from the file
+     */
+    private void insertUser(BlogUser user) {
+        Long oldId = user.getId();
+        if (userTransaction == null) {
+            userTransaction = userSession.beginTransaction();
+        }
+
+        try {
+            userIds.put(oldId, (Long) userSession.insert(user));
+        } catch (RuntimeException ex) {
+            failed.increment();
+            return;
+        }
+        pendingUsers.add(oldId);
+        if (pendingUsers.size() == batchSize) {
+            commitUsers();
+        }
+    }
+
+    /**
+     * Commits the inserted users so the workers can refer to them. If the
+     * commit fails, all the users of the transaction are counted as failed and
+     * forgotten.
+     */
+    private void commitUsers() {
+        if (userTransaction == null)
+            return;
+
+        try {
+            userTransaction.commit();
+            users.add(pendingUsers.size());
+        } catch (RuntimeException ex) {
+            System.err.println("Unable to import " + pendingUsers.size() + " users: " + ex.getMessage());
+            failed.add(pendingUsers.size());
+            userIds.keySet().removeAll(pendingUsers);
+            try {
+                userTransaction.rollback();
+            } catch (RuntimeException ignorable) {
+            }
+        }
+        userTransaction = null;
+        pendingUsers.clear();
+    }
+
+    /**
+     * {@code Dispatcher} is a {@link BlogExportHandler} that inserts the users
+     * and hands the entries and comments to the workers.
+     *
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private class Dispatcher implements BlogExportHandler {
+
+        @Override
+        public void exportUser(BlogUser user) {
+            insertUser(user);
+        }
+
+        @Override
+        public void exportEntry(BlogEntry entry) throws IOException {
+            commitUsers();
+
+            Long creatorId = userIds.get(entry.getCreator().getId());
+            if (creatorId == null) {
+                failed.increment();
+                return;
+            }
+            entry.getCreator().setId(creatorId);
+
+            int index = (int) Math.floorMod(creatorId, (long) workers.size());
+            entryWorkers.put(entry.getId(), index);
+            put(index, entry);
+        }
+
+        @Override
+        public void exportComment(BlogComment comment) throws IOException {
+            commitUsers();
+
+            Integer index = entryWorkers.get(comment.getBlogEntry().getId());
+            if (index == null) {
+                failed.increment();
+                return;
+            }
+            put(index, comment);
+        }
+
+        /**
+         * Hands the record to the worker with the specified index.
+         *
+         * @param index
+         *            the index of the worker
+         * @param record
+         *            the record
+         * @throws IOException
+         *             if the main thread is interrupted while waiting
+         */
+        private void put(int index, Object record) throws IOException {
+            try {
+                workers.get(index).queue.put(record);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Import was interrupted.", ex);
+            }
+        }
+
+    }
+
+    /**
+     * {@code Worker} is a thread that inserts the entries and comments of some
+     * authors in batches using its own {@link StatelessSession}.
+     *
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private class Worker extends Thread {
+
+        /** Records waiting to be inserted. */
+        final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(WORKER_QUEUE_SIZE);
+
+        /** New IDs of the entries by their IDs in the file. */
+        private final Map<Long, Long> entryIds = new HashMap<>();
+
+        /** IDs from the file of the entries inserted in the current transaction. */
+        private final List<Long> pendingEntries = new ArrayList<>();
+        /** Comments inserted in the current transaction. */
+        private int pendingComments;
+
+        /**
+         * Constructs a new {@code Worker}.
+         *
+         * @param index
+         *            the index of the worker
+         */
+        Worker(int index) {
+            super("import-worker-" + index);
+        }
+
+        @Override
+        public void run() {
+            try (StatelessSession session = sessionFactory.openStatelessSession()) {
+                Transaction transaction = null;
+                while (true) {
+                    Object record = queue.take();
+                    if (record == END)
+                        break;
+
+                    if (transaction == null) {
+                        transaction = session.beginTransaction();
+                    }
+                    try {
+                        insert(session, record);
+                    } catch (RuntimeException ex) {
+                        failed.increment();
+                        continue;
+                    }
+
+                    if (pendingEntries.size() + pendingComments == batchSize) {
+                        commit(transaction);
+                        transaction = null;
+                    }
+                }
+                if (transaction != null) {
+                    commit(transaction);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Inserts one record.
+         *
+         * @param session
+         *            the session of this worker
+         * @param record
+         *            the entry or the comment
+         */
+        private void insert(StatelessSession session, Object record) {
+            if (record instanceof BlogEntry) {
+                BlogEntry entry = (BlogEntry) record;
+                Long oldId = entry.getId();
+                entryIds.put(oldId, (Long) session.insert(entry));
+                pendingEntries.add(oldId);
+            } else {
+                BlogComment comment = (BlogComment) record;
+                Long entryId = entryIds.get(comment.getBlogEntry().getId());
+                if (entryId == null)
+                    throw new IllegalStateException("Entry of the comment was not imported.");
+
+                comment.getBlogEntry().setId(entryId);
+                session.insert(comment);
+                pendingComments++;
+            }
+        }
+
+        /**
+         * Commits the transaction and counts the inserted records. If the
+         * commit fails, the records are counted as failed and the entries of
+         * the transaction are forgotten, so their later comments are counted
+         * as failed instead of referring to the rows that don't exist.
+         *
+         * @param transaction
+         *            the transaction
+         */
+        private void commit(Transaction transaction) {
+            try {
+                transaction.commit();
+                entries.add(pendingEntries.size());
+                comments.add(pendingComments);
+            } catch (RuntimeException ex) {
+                System.err.println(getName() + ": unable to import " + (pendingEntries.size() + pendingComments)
+                        + " records: " + ex.getMessage());
+                failed.add(pendingEntries.size() + pendingComments);
+                entryIds.keySet().removeAll(pendingEntries);
+                try {
+                    transaction.rollback();
+                } catch (RuntimeException ignorable) {
+                }
+            }
+            pendingEntries.clear();
+            pendingComments = 0;
+        }
+
+    }
+
+}
\ No newline at end of file
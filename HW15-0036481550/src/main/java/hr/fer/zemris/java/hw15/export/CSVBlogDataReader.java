@@ -0,0 +1,125 @@
+package hr.fer.zemris.java.hw15.export;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import hr.fer.zemris.java.hw15.dao.BlogExportHandler;
+
+/**
+ * {@code CSVBlogDataReader} is a {@link BlogDataReader} that reads the records
+ * written by the {@link CSVBlogDataWriter}. Quoted values can contain commas,
+ * doubled quotes and line breaks; empty values are read as missing values,
+ * {@code ""} is read as an empty string and empty rows are skipped.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ExportFormat#CSV
+ */
+public class CSVBlogDataReader extends BlogDataReader {
+
+    /** Names of the columns of the records by their types. */
+    private static final Map<String, String[]> COLUMNS = new HashMap<>();
+
+    static {
+        COLUMNS.put(BlogDataWriter.USER,
+                new String[] { "id", "nick", "firstName", "lastName", "email", "passwordHash" });
+        COLUMNS.put(BlogDataWriter.ENTRY,
+                new String[] { "id", "creatorId", "title", "text", "createdAt", "lastModifiedAt" });
+        COLUMNS.put(BlogDataWriter.COMMENT,
+                new String[] { "id", "entryId", "usersEMail", "message", "postedOn" });
+    }
+
+    /**
+     * Constructs a new {@code CSVBlogDataReader}.
+     *
+     * @param reader
+     *            the reader the records are read from
+     * @throws NullPointerException
+     *             if parameter {@code reader} is a {@code null} reference
+     */
+    public CSVBlogDataReader(Reader reader) {
+        super(reader);
+    }
+
+    @Override
+    public void read(BlogExportHandler handler) throws IOException {
+        Reader in = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+        List<String> values = new ArrayList<>();
+        Map<String, String> fields = new HashMap<>();
+
+        while (readRow(in, values)) {
+            if (values.size() == 1 && values.get(0) == null)
+                continue;
+
+            String type = values.get(0) == null ? "" : values.get(0);
+            String[] columns = COLUMNS.get(type);
+            fields.clear();
+            if (columns != null) {
+                for (int i = 0; i < columns.length && i + 1 < values.size(); i++) {
+                    fields.put(columns[i], values.get(i + 1));
+                }
+            }
+            dispatch(type, fields, handler);
+        }
+    }
+
+    /**
+     * Reads one row.
+     *
+     * @param in
+     *            the reader
+     * @param values
+     *            list the values of the row are put in; missing values are
+     *            {@code null}
+     * @return {@code false} if the end of the input is reached before the row
+     * @throws IOException
+     *             if an I/O error occurs or a quoted value is not terminated
+     */
+    private static boolean readRow(Reader in, List<String> values) throws IOException {
+        values.clear();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+
+        int c = in.read();
+        if (c == -1)
+            return false;
+
+        while (true) {
+            if (quoted) {
+                if (c == -1)
+                    throw new IOException("Unterminated quoted value.");
+                if (c == '"') {
+                    in.mark(1);
+                    int next = in.read();
+                    if (next == '"') {
+                        value.append('"');
+                    } else {
+                        quoted = false;
+                        in.reset();
+                    }
+                } else {
+                    value.append((char) c);
+                }
+            } else if (c == '"' && value.length() == 0) {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',' || c == '\n' || c == -1) {
+                values.add(value.length() == 0 && !wasQuoted ? null : value.toString());
+                value.setLength(0);
+                wasQuoted = false;
+                if (c != ',')
+                    return true;
+            } else if (c != '\r') {
+                value.append((char) c);
+            }
+            c = in.read();
+        }
+    }
+
+}
\ No newline at end of file
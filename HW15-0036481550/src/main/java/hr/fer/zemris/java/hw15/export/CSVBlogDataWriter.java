@@ -0,0 +1,114 @@
+package hr.fer.zemris.java.hw15.export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import hr.fer.zemris.java.hw15.entities.BlogComment;
+import hr.fer.zemris.java.hw15.entities.BlogEntry;
+import hr.fer.zemris.java.hw15.entities.BlogUser;
+
+/**
+ * {@code CSVBlogDataWriter} is a {@link BlogDataWriter} that writes every
+ * record as one row of comma separated values as described in RFC 4180. The
+ * first value of every row is the type of the record and the remaining values
+ * depend on it:
+ *
+ * <pre>
+ * user,id,nick,firstName,lastName,email,passwordHash
+ * entry,id,creatorId,title,text,createdAt,lastModifiedAt
+ * comment,id,entryId,usersEMail,message,postedOn
+ * </pre>
+ *
+ * Empty values stand for missing values, so empty strings are written as
+ * {@code ""}. Values that contain commas, quotes or line breaks are quoted, so
+ * one row can span several lines.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ExportFormat#CSV
+ */
+public class CSVBlogDataWriter extends BlogDataWriter {
+
+    /** Line separator of the rows. */
+    private static final String CRLF = "\r\n";
+
+    /**
+     * Constructs a new {@code CSVBlogDataWriter}.
+     *
+     * @param writer
+     *            the writer the records are written to
+     * @param includePasswordHashes
+     *            {@code true} if password hashes of the users should be
+     *            written
+     * @throws NullPointerException
+     *             if parameter {@code writer} is a {@code null} reference
+     */
+    public CSVBlogDataWriter(Writer writer, boolean includePasswordHashes) {
+        super(writer, includePasswordHashes);
+    }
+
+    @Override
+    public void exportUser(BlogUser user) throws IOException {
+        writer.write(USER);
+        value(user.getId().toString());
+        value(user.getNick());
+        value(user.getFirstName());
+        value(user.getLastName());
+        value(user.getEmail());
+        value(includePasswordHashes ? user.getPasswordHash() : null);
+        writer.write(CRLF);
+    }
+
+    @Override
+    public void exportEntry(BlogEntry entry) throws IOException {
+        writer.write(ENTRY);
+        value(entry.getId().toString());
+        value(entry.getCreator().getId().toString());
+        value(entry.getTitle());
+        value(entry.getText());
+        value(format(entry.getCreatedAt()));
+        value(format(entry.getLastModifiedAt()));
+        writer.write(CRLF);
+    }
+
+    @Override
+    public void exportComment(BlogComment comment) throws IOException {
+        writer.write(COMMENT);
+        value(comment.getId().toString());
+        value(comment.getBlogEntry().getId().toString());
+        value(comment.getUsersEMail());
+        value(comment.getMessage());
+        value(format(comment.getPostedOn()));
+        writer.write(CRLF);
+    }
+
+    /**
+     * Writes the separator and the specified value, quoted if needed.
+     *
+     * @param value
+     *            the value or {@code null}
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    private void value(String value) throws IOException {
+        writer.write(',');
+        if (value == null)
+            return;
+
+        boolean quote = false;
+        for (int i = 0, n = value.length(); i < n && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+
+        if (!quote && !value.isEmpty()) {
+            writer.write(value);
+            return;
+        }
+
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package hr.fer.zemris.java.hw15.export;
+
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * {@code ExportFormat} is an enumeration of the formats the blog data can be
+ * exported to and imported from.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see BlogDataWriter
+ * @see BlogDataReader
+ */
+public enum ExportFormat {
+
+    /** Newline delimited JSON; one JSON object per line. */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /** Comma separated values; one record per row. */
+    CSV("text/csv", "csv");
+
+    /** MIME type of the format. */
+    private final String contentType;
+
+    /** Usual file extension of the format. */
+    private final String extension;
+
+    /**
+     * Constructs a new {@code ExportFormat} with specified MIME type and file
+     * extension.
+     *
+     * @param contentType
+     *            the MIME type of the format
+     * @param extension
+     *            the usual file extension of the format
+     */
+    private ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    /**
+     * Returns the MIME type of the format.
+     *
+     * @return the MIME type of the format
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Returns the usual file extension of the format.
+     *
+     * @return the usual file extension of the format
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Creates the writer of the blog data in this format.
+     *
+     * @param writer
+     *            the writer the data is written to
+     * @param includePasswordHashes
+     *            {@code true} if password hashes of the users should be
+     *            written
+     * @return the writer of the blog data
+     */
+    public BlogDataWriter createWriter(Writer writer, boolean includePasswordHashes) {
+        switch (this) {
+        case NDJSON:
+            return new NDJSONBlogDataWriter(writer, includePasswordHashes);
+        case CSV:
+            return new CSVBlogDataWriter(writer, includePasswordHashes);
+        default:
+            throw new IllegalStateException("Unknown format: " + this + ".");
+        }
+    }
+
+    /**
+     * Creates the reader of the blog data in this format.
+     *
+     * @param reader
+     *            the reader the data is read from
+     * @return the reader of the blog data
+     */
+    public BlogDataReader createReader(Reader reader) {
+        switch (this) {
+        case NDJSON:
+            return new NDJSONBlogDataReader(reader);
+        case CSV:
+            return new CSVBlogDataReader(reader);
+        default:
+            throw new IllegalStateException("Unknown format: " + this + ".");
+        }
+    }
+
+    /**
+     * Returns the format with the specified name, ignoring case, or the format
+     * with the specified extension.
+     *
+     * @param name
+     *            the name or the extension of the format
+     * @return the format
+     * @throws IllegalArgumentException
+     *             if the format doesn't exist
+     */
+    public static ExportFormat forName(String name) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name) || format.extension.equalsIgnoreCase(name))
+                return format;
+        }
+        throw new IllegalArgumentException("Unknown export format: " + name + ".");
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,220 @@
+package hr.fer.zemris.java.hw15.export;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+import hr.fer.zemris.java.hw15.dao.BlogExportHandler;
+
+/**
+ * {@code NDJSONBlogDataReader} is a {@link BlogDataReader} that reads the
+ * records written by the {@link NDJSONBlogDataWriter}. Every line must be one
+ * flat JSON object whose values are strings, numbers or {@code null}; empty
+ * lines are skipped.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ExportFormat#NDJSON
+ */
+public class NDJSONBlogDataReader extends BlogDataReader {
+
+    /** Line that is being parsed. */
+    private String line;
+
+    /** Position in the line. */
+    private int position;
+
+    /**
+     * Constructs a new {@code NDJSONBlogDataReader}.
+     *
+     * @param reader
+     *            the reader the records are read from
+     * @throws NullPointerException
+     *             if parameter {@code reader} is a {@code null} reference
+     */
+    public NDJSONBlogDataReader(Reader reader) {
+        super(reader);
+    }
+
+    @Override
+    public void read(BlogExportHandler handler) throws IOException {
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        Map<String, String> fields = new HashMap<>();
+
+        while ((line = lines.readLine()) != null) {
+            if (line.trim().isEmpty())
+                continue;
+
+            fields.clear();
+            position = 0;
+            parseObject(fields);
+            dispatch(fields.getOrDefault("type", ""), fields, handler);
+        }
+    }
+
+    /**
+     * Parses the flat JSON object in the current line.
+     *
+     * @param fields
+     *            map the fields are put in
+     * @throws IOException
+     *             if the line is not a valid flat JSON object
+     */
+    private void parseObject(Map<String, String> fields) throws IOException {
+        expect('{');
+        if (peek() == '}') {
+            position++;
+            return;
+        }
+
+        while (true) {
+            String name = parseString();
+            expect(':');
+            fields.put(name, parseValue());
+
+            char c = next();
+            if (c == '}')
+                break;
+            if (c != ',')
+                throw error("Expected ',' or '}'");
+        }
+    }
+
+    /**
+     * Parses a JSON value. Strings are unescaped, {@code null} is returned as
+     * {@code null} and other literals are returned as they are written.
+     *
+     * @return the value
+     * @throws IOException
+     *             if the value is not valid
+     */
+    private String parseValue() throws IOException {
+        if (peek() == '"')
+            return parseString();
+
+        int start = position;
+        while (position < line.length() && line.charAt(position) != ',' && line.charAt(position) != '}') {
+            position++;
+        }
+        String literal = line.substring(start, position).trim();
+        if (literal.isEmpty())
+            throw error("Expected a value");
+        return literal.equals("null") ? null : literal;
+    }
+
+    /**
+     * Parses a JSON string.
+     *
+     * @return the unescaped string
+     * @throws IOException
+     *             if the string is not valid
+     */
+    private String parseString() throws IOException {
+        expect('"');
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            if (position >= line.length())
+                throw error("Unterminated string");
+
+            char c = line.charAt(position++);
+            if (c == '"')
+                return sb.toString();
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+
+            if (position >= line.length())
+                throw error("Unterminated string");
+            char escaped = line.charAt(position++);
+            switch (escaped) {
+            case 'n':
+                sb.append('\n');
+                break;
+            case 'r':
+                sb.append('\r');
+                break;
+            case 't':
+                sb.append('\t');
+                break;
+            case 'b':
+                sb.append('\b');
+                break;
+            case 'f':
+                sb.append('\f');
+                break;
+            case 'u':
+                if (position + 4 > line.length())
+                    throw error("Invalid unicode escape");
+                try {
+                    sb.append((char) Integer.parseInt(line.substring(position, position + 4), 16));
+                } catch (NumberFormatException ex) {
+                    throw error("Invalid unicode escape");
+                }
+                position += 4;
+                break;
+            default:
+                sb.append(escaped);
+            }
+        }
+    }
+
+    /**
+     * Skips the whitespace and checks that the next character is the expected
+     * one.
+     *
+     * @param expected
+     *            the expected character
+     * @throws IOException
+     *             if the next character is not the expected one
+     */
+    private void expect(char expected) throws IOException {
+        if (next() != expected)
+            throw error("Expected '" + expected + "'");
+    }
+
+    /**
+     * Skips the whitespace and returns the next character.
+     *
+     * @return the next character
+     * @throws IOException
+     *             if the end of the line is reached
+     */
+    private char next() throws IOException {
+        char c = peek();
+        position++;
+        return c;
+    }
+
+    /**
+     * Skips the whitespace and returns the next character without consuming
+     * it.
+     *
+     * @return the next character
+     * @throws IOException
+     *             if the end of the line is reached
+     */
+    private char peek() throws IOException {
+        while (position < line.length() && Character.isWhitespace(line.charAt(position))) {
+            position++;
+        }
+        if (position >= line.length())
+            throw error("Unexpected end of line");
+        return line.charAt(position);
+    }
+
+    /**
+     * Creates the exception that describes the syntax error at the current
+     * position.
+     *
+     * @param message
+     *            the description of the error
+     * @return the exception
+     */
+    private IOException error(String message) {
+        return new IOException(message + " at position " + position + " of line: " + line);
+    }
+
+}
\ No newline at end of file
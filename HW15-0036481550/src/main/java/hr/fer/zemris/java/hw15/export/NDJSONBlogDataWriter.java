@@ -0,0 +1,188 @@
+package hr.fer.zemris.java.hw15.export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import hr.fer.zemris.java.hw15.entities.BlogComment;
+import hr.fer.zemris.java.hw15.entities.BlogEntry;
+import hr.fer.zemris.java.hw15.entities.BlogUser;
+
+/**
+ * {@code NDJSONBlogDataWriter} is a {@link BlogDataWriter} that writes every
+ * record as one JSON object in its own line, e.g.
+ *
+ * <pre>
+ * {"type":"user","id":1,"nick":"karlo","firstName":"Karlo","lastName":"Vrbić","email":"karlo@fer.hr","passwordHash":"..."}
+ * {"type":"entry","id":2,"creatorId":1,"title":"...","text":"...","createdAt":"2016-06-01T10:00:00Z","lastModifiedAt":null}
+ * {"type":"comment","id":3,"entryId":2,"usersEMail":"...","message":"...","postedOn":"2016-06-01T11:00:00Z"}
+ * </pre>
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see ExportFormat#NDJSON
+ */
+public class NDJSONBlogDataWriter extends BlogDataWriter {
+
+    /** Hexadecimal digits. */
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Constructs a new {@code NDJSONBlogDataWriter}.
+     *
+     * @param writer
+     *            the writer the records are written to
+     * @param includePasswordHashes
+     *            {@code true} if password hashes of the users should be
+     *            written
+     * @throws NullPointerException
+     *             if parameter {@code writer} is a {@code null} reference
+     */
+    public NDJSONBlogDataWriter(Writer writer, boolean includePasswordHashes) {
+        super(writer, includePasswordHashes);
+    }
+
+    @Override
+    public void exportUser(BlogUser user) throws IOException {
+        begin(USER, user.getId());
+        field("nick", user.getNick());
+        field("firstName", user.getFirstName());
+        field("lastName", user.getLastName());
+        field("email", user.getEmail());
+        if (includePasswordHashes) {
+            field("passwordHash", user.getPasswordHash());
+        }
+        end();
+    }
+
+    @Override
+    public void exportEntry(BlogEntry entry) throws IOException {
+        begin(ENTRY, entry.getId());
+        field("creatorId", entry.getCreator().getId());
+        field("title", entry.getTitle());
+        field("text", entry.getText());
+        field("createdAt", format(entry.getCreatedAt()));
+        field("lastModifiedAt", format(entry.getLastModifiedAt()));
+        end();
+    }
+
+    @Override
+    public void exportComment(BlogComment comment) throws IOException {
+        begin(COMMENT, comment.getId());
+        field("entryId", comment.getBlogEntry().getId());
+        field("usersEMail", comment.getUsersEMail());
+        field("message", comment.getMessage());
+        field("postedOn", format(comment.getPostedOn()));
+        end();
+    }
+
+    /**
+     * Writes the beginning of the record with the specified type and ID.
+     *
+     * @param type
+     *            the type of the record
+     * @param id
+     *            the ID of the record
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    private void begin(String type, Long id) throws IOException {
+        writer.write("{\"type\":");
+        string(type);
+        field("id", id);
+    }
+
+    /**
+     * Writes the end of the record.
+     *
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    private void end() throws IOException {
+        writer.write("}\n");
+    }
+
+    /**
+     * Writes the number field.
+     *
+     * @param name
+     *            the name of the field
+     * @param value
+     *            the value of the field or {@code null}
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    private void field(String name, Long value) throws IOException {
+        writer.write(",\"");
+        writer.write(name);
+        writer.write("\":");
+        writer.write(value == null ? "null" : value.toString());
+    }
+
+    /**
+     * Writes the string field.
+     *
+     * @param name
+     *            the name of the field
+     * @param value
+     *            the value of the field or {@code null}
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    private void field(String name, String value) throws IOException {
+        writer.write(",\"");
+        writer.write(name);
+        writer.write("\":");
+        if (value == null) {
+            writer.write("null");
+        } else {
+            string(value);
+        }
+    }
+
+    /**
+     * Writes the specified string as a JSON string.
+     *
+     * @param value
+     *            the string
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    private void string(String value) throws IOException {
+        writer.write('"');
+        int start = 0;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\')
+                continue;
+
+            writer.write(value, start, i - start);
+            start = i + 1;
+            switch (c) {
+            case '"':
+                writer.write("\\\"");
+                break;
+            case '\\':
+                writer.write("\\\\");
+                break;
+            case '\n':
+                writer.write("\\n");
+                break;
+            case '\r':
+                writer.write("\\r");
+                break;
+            case '\t':
+                writer.write("\\t");
+                break;
+            default:
+                writer.write("\\u");
+                writer.write(HEX[(c >> 12) & 0xF]);
+                writer.write(HEX[(c >> 8) & 0xF]);
+                writer.write(HEX[(c >> 4) & 0xF]);
+                writer.write(HEX[c & 0xF]);
+            }
+        }
+        writer.write(value, start, value.length() - start);
+        writer.write('"');
+    }
+
+}
\ No newline at end of file
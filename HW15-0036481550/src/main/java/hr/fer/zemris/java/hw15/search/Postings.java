@@ -0,0 +1,156 @@
+package hr.fer.zemris.java.hw15.search;
+
+import java.util.Arrays;
+
+/**
+ * {@code Postings} is the list of the blog entries that contain one term,
+ * together with the number of occurrences of the term in each of them and the
+ * length of each of them. IDs of the entries are kept sorted in primitive
+ * arrays so lists can be intersected by searching instead of hashing and take
+ * only 12 bytes per entry; the number of occurrences and the length are packed
+ * into one {@code int}, so ranking doesn't have to look up the entries.
+ * <p>
+ * New entries have the largest IDs, so adding them only appends to the arrays.
+ * <p>
+ * This class is not thread-safe; {@link SearchIndex} guards it with its lock.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see SearchIndex
+ */
+class Postings {
+
+    /** Initial capacity of the arrays. */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /** Largest number of occurrences or length that can be packed. */
+    private static final int MAX_PACKED = 0xFFFF;
+
+    /** Sorted IDs of the blog entries. */
+    private long[] ids = new long[INITIAL_CAPACITY];
+
+    /**
+     * Weighted numbers of occurrences of the term in the blog entries in the
+     * lower and lengths of the blog entries in the upper 16 bits.
+     */
+    private int[] packed = new int[INITIAL_CAPACITY];
+
+    /** Number of the blog entries. */
+    private int size;
+
+    /**
+     * Returns the number of the blog entries that contain the term.
+     *
+     * @return the number of the blog entries
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the ID of the blog entry at the specified position.
+     *
+     * @param index
+     *            the position
+     * @return the ID of the blog entry
+     */
+    long id(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Returns the weighted number of occurrences of the term in the blog entry
+     * at the specified position.
+     *
+     * @param index
+     *            the position
+     * @return the weighted number of occurrences
+     */
+    int frequency(int index) {
+        return packed[index] & MAX_PACKED;
+    }
+
+    /**
+     * Returns the number of the terms of the blog entry at the specified
+     * position.
+     *
+     * @param index
+     *            the position
+     * @return the number of the terms of the blog entry
+     */
+    int length(int index) {
+        return packed[index] >>> 16;
+    }
+
+    /**
+     * Adds the blog entry or changes its number of occurrences if it is
+     * already in the list.
+     *
+     * @param id
+     *            the ID of the blog entry
+     * @param frequency
+     *            the weighted number of occurrences of the term
+     * @param length
+     *            the number of the terms of the blog entry
+     */
+    void put(long id, int frequency, int length) {
+        int value = Math.min(length, MAX_PACKED) << 16 | Math.min(frequency, MAX_PACKED);
+        int index = size == 0 || ids[size - 1] < id ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            packed[index] = value;
+            return;
+        }
+
+        index = -index - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1));
+            packed = Arrays.copyOf(packed, ids.length);
+        }
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        System.arraycopy(packed, index, packed, index + 1, size - index);
+        ids[index] = id;
+        packed[index] = value;
+        size++;
+    }
+
+    /**
+     * Removes the blog entry from the list.
+     *
+     * @param id
+     *            the ID of the blog entry
+     */
+    void remove(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index < 0)
+            return;
+
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        System.arraycopy(packed, index + 1, packed, index, size - index - 1);
+        size--;
+    }
+
+    /**
+     * Finds the position of the blog entry, starting the search at position
+     * {@code from}. Since the candidates are checked in ascending order, the
+     * search gallops forward from the previous position instead of searching
+     * the whole list every time.
+     *
+     * @param id
+     *            the ID of the blog entry
+     * @param from
+     *            the position the search starts at
+     * @return the position of the blog entry if it is in the list; otherwise
+     *         {@code -(insertion point) - 1}
+     */
+    int find(long id, int from) {
+        if (from >= size)
+            return -size - 1;
+
+        int bound = 1;
+        while (from + bound < size && ids[from + bound] < id) {
+            bound <<= 1;
+        }
+        return Arrays.binarySearch(ids, from + (bound >> 1), Math.min(from + bound + 1, size), id);
+    }
+
+}
\ No newline at end of file
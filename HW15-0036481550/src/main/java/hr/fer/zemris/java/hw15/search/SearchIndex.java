@@ -0,0 +1,418 @@
+package hr.fer.zemris.java.hw15.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import hr.fer.zemris.java.hw15.dao.DAO;
+import hr.fer.zemris.java.hw15.dao.DAOException;
+import hr.fer.zemris.java.hw15.dao.jpa.JPAEMProvider;
+import hr.fer.zemris.java.hw15.entities.BlogEntry;
+
+/**
+ * {@code SearchIndex} is an in-memory inverted index of the titles and texts
+ * of the blog entries. For every term it keeps the sorted list of the entries
+ * that contain it, so a query is answered by intersecting the lists of its
+ * terms, starting from the shortest one, and never touches the database.
+ * <p>
+ * Terms are maximal runs of letters and digits, converted to lower case and
+ * stripped of diacritics, so {@code Čađa} matches {@code cada}. All the terms
+ * of the query must be in the entry. Matching entries are ranked using BM25;
+ * occurrences in the title count {@value #TITLE_WEIGHT} times.
+ * <p>
+ * The index is built from the {@link DAO} when the application starts and is
+ * kept up to date by calling {@link #update(BlogEntry)} whenever an entry is
+ * saved; the entry is indexed once the transaction that saves it is
+ * committed, so a rolled back entry is never found. Searches run concurrently; updates exclude them only while the lists
+ * are changed.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see SearchResult
+ */
+public class SearchIndex {
+
+    /** Number of times occurrences in the title count. */
+    private static final int TITLE_WEIGHT = 3;
+
+    /** Saturation of the term frequency in BM25. */
+    private static final double K1 = 1.2;
+
+    /** Length normalization in BM25. */
+    private static final double B = 0.75;
+
+    /** Maximal number of the terms of the query that are used. */
+    private static final int MAX_QUERY_TERMS = 10;
+
+    /** Maximal length of a term; longer terms are truncated. */
+    private static final int MAX_TERM_LENGTH = 64;
+
+    /** Lock that guards all the fields. */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** IDs of the terms. */
+    private final Map<String, Integer> terms = new HashMap<>();
+
+    /** Postings of the terms by their IDs. */
+    private final List<Postings> postings = new ArrayList<>();
+
+    /** Indexed blog entries by their IDs. */
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    /** Sum of the lengths of all the indexed blog entries. */
+    private long totalLength;
+
+    /** Flag that tells if the index was built. */
+    private volatile boolean ready;
+
+    /**
+     * Indexes all the blog entries of the specified {@link DAO}. Only the
+     * titles and texts of the entries are streamed from the database, so they
+     * are never all in memory, and the entries that were updated in the
+     * meantime are not overwritten with their older versions. The build
+     * takes a while, so it should run on its own thread.
+     *
+     * @param dao
+     *            the direct access object
+     * @throws DAOException
+     *             if the blog entries can't be read
+     */
+    public void build(DAO dao) throws DAOException {
+        dao.scrollBlogEntryTexts(entry -> index(entry.getId(), entry.getTitle(), entry.getText(), false));
+        ready = true;
+    }
+
+    /**
+     * Checks if the index was built, i.e. if the results contain all the
+     * blog entries.
+     *
+     * @return {@code true} if the index was built; {@code false} otherwise
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the number of the indexed blog entries.
+     *
+     * @return the number of the indexed blog entries
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the blog entry to the index or replaces its previous version once
+     * the transaction of the current thread is committed, or right away if
+     * there is no transaction.
+     *
+     * @param entry
+     *            the saved blog entry
+     * @throws NullPointerException
+     *             if parameter {@code entry} or its ID is a {@code null}
+     *             reference
+     */
+    public void update(BlogEntry entry) {
+        Objects.requireNonNull(entry, "You cannot index a null reference as a blog entry.");
+        JPAEMProvider.afterCommit(() -> index(entry.getId(), entry.getTitle(), entry.getText(), true));
+    }
+
+    /**
+     * Finds the blog entries that contain all the terms of the query.
+     *
+     * @param query
+     *            the query
+     * @param offset
+     *            the number of the most relevant entries that are skipped
+     * @param limit
+     *            the maximal number of the returned entries
+     * @return the page of the found entries
+     * @throws IllegalArgumentException
+     *             if {@code offset} is negative or {@code limit} is not
+     *             positive
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        if (offset < 0 || limit < 1)
+            throw new IllegalArgumentException("Invalid page: offset " + offset + ", limit " + limit + ".");
+
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query == null ? "" : query).keySet());
+        if (queryTerms.isEmpty())
+            return new SearchResult(0, Collections.emptyList());
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>();
+            for (String term : queryTerms) {
+                Integer termId = terms.get(term);
+                if (termId == null)
+                    return new SearchResult(0, Collections.emptyList());
+                lists.add(postings.get(termId));
+                if (lists.size() == MAX_QUERY_TERMS)
+                    break;
+            }
+            lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+            return rank(lists, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Intersects the postings and ranks the matching blog entries. Must be
+     * called while holding the read lock.
+     *
+     * @param lists
+     *            the postings of the terms of the query, shortest first
+     * @param offset
+     *            the number of the most relevant entries that are skipped
+     * @param limit
+     *            the maximal number of the returned entries
+     * @return the page of the found entries
+     */
+    private SearchResult rank(List<Postings> lists, int offset, int limit) {
+        int count = documents.size();
+        double averageLength = count == 0 ? 1 : Math.max(1.0, (double) totalLength / count);
+        double[] idfs = new double[lists.size()];
+        for (int i = 0; i < idfs.length; i++) {
+            int df = lists.get(i).size();
+            idfs[i] = Math.log(1 + (count - df + 0.5) / (df + 0.5));
+        }
+
+        int keep = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        PriorityQueue<Hit> best = new PriorityQueue<>();
+        int[] positions = new int[lists.size()];
+        int total = 0;
+
+        Postings shortest = lists.get(0);
+        candidates: for (int i = 0; i < shortest.size(); i++) {
+            long id = shortest.id(i);
+            positions[0] = i;
+            for (int j = 1; j < lists.size(); j++) {
+                int position = lists.get(j).find(id, positions[j]);
+                if (position < 0) {
+                    positions[j] = -position - 1;
+                    continue candidates;
+                }
+                positions[j] = position;
+            }
+
+            total++;
+            double norm = K1 * (1 - B + B * shortest.length(i) / averageLength);
+            double score = 0;
+            for (int j = 0; j < lists.size(); j++) {
+                int tf = lists.get(j).frequency(positions[j]);
+                score += idfs[j] * tf * (K1 + 1) / (tf + norm);
+            }
+
+            if (best.size() < keep) {
+                best.add(new Hit(id, score));
+            } else if (best.peek().compareTo(score, id) < 0) {
+                best.poll();
+                best.add(new Hit(id, score));
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ids.add(best.poll().id);
+        }
+        Collections.reverse(ids);
+        return new SearchResult(total, offset >= ids.size() ? Collections.emptyList()
+                : new ArrayList<>(ids.subList(offset, ids.size())));
+    }
+
+    /**
+     * Indexes the blog entry.
+     *
+     * @param id
+     *            the ID of the blog entry
+     * @param title
+     *            the title of the blog entry
+     * @param text
+     *            the text of the blog entry
+     * @param replace
+     *            {@code true} if the previous version of the entry is
+     *            replaced; {@code false} if the entry is skipped if it is
+     *            already indexed
+     */
+    private void index(long id, String title, String text, boolean replace) {
+        Map<String, Integer> frequencies = tokenize(text);
+        int length = 0;
+        for (int frequency : frequencies.values()) {
+            length += frequency;
+        }
+        for (Map.Entry<String, Integer> term : tokenize(title).entrySet()) {
+            frequencies.merge(term.getKey(), TITLE_WEIGHT * term.getValue(), Integer::sum);
+            length += term.getValue();
+        }
+
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.get(id);
+            if (previous != null) {
+                if (!replace)
+                    return;
+                for (int termId : previous.termIds) {
+                    postings.get(termId).remove(id);
+                }
+                totalLength -= previous.length;
+            }
+
+            int[] termIds = new int[frequencies.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> term : frequencies.entrySet()) {
+                Integer termId = terms.get(term.getKey());
+                if (termId == null) {
+                    termId = postings.size();
+                    terms.put(term.getKey(), termId);
+                    postings.add(new Postings());
+                }
+                postings.get(termId).put(id, term.getValue(), length);
+                termIds[i++] = termId;
+            }
+            documents.put(id, new Document(termIds, length));
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Splits the text into terms and counts their occurrences.
+     *
+     * @param text
+     *            the text
+     * @return the numbers of occurrences of the terms
+     */
+    static Map<String, Integer> tokenize(String text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        if (text == null)
+            return frequencies;
+
+        StringBuilder term = new StringBuilder();
+        for (int i = 0, n = text.length(); i <= n; i++) {
+            char c = i < n ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (term.length() < MAX_TERM_LENGTH) {
+                    term.append(c);
+                }
+            } else if (term.length() > 0) {
+                frequencies.merge(normalize(term), 1, Integer::sum);
+                term.setLength(0);
+            }
+        }
+        return frequencies;
+    }
+
+    /**
+     * Converts the term to lower case and strips the diacritics.
+     *
+     * @param term
+     *            the term
+     * @return the normalized term
+     */
+    private static String normalize(CharSequence term) {
+        String lower = term.toString().toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) > 127) {
+                String stripped = Normalizer.normalize(lower.replace('đ', 'd'), Normalizer.Form.NFD);
+                return stripped.replaceAll("\\p{M}+", "");
+            }
+        }
+        return lower;
+    }
+
+    /**
+     * {@code Document} is the data the index keeps about one blog entry.
+     *
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private static class Document {
+
+        /** IDs of the distinct terms of the blog entry. */
+        final int[] termIds;
+
+        /** Number of the terms of the blog entry. */
+        final int length;
+
+        /**
+         * Constructs a new {@code Document}.
+         *
+         * @param termIds
+         *            the IDs of the distinct terms of the blog entry
+         * @param length
+         *            the number of the terms of the blog entry
+         */
+        Document(int[] termIds, int length) {
+            this.termIds = termIds;
+            this.length = length;
+        }
+    }
+
+    /**
+     * {@code Hit} is a matching blog entry with its score. Hits are ordered
+     * from the least to the most relevant; newer entries win ties.
+     *
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private static class Hit implements Comparable<Hit> {
+
+        /** ID of the blog entry. */
+        final long id;
+
+        /** Score of the blog entry. */
+        final double score;
+
+        /**
+         * Constructs a new {@code Hit}.
+         *
+         * @param id
+         *            the ID of the blog entry
+         * @param score
+         *            the score of the blog entry
+         */
+        Hit(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(Hit other) {
+            return compareTo(other.score, other.id);
+        }
+
+        /**
+         * Compares this hit with the hit with the specified score and ID.
+         *
+         * @param score
+         *            the score of the other hit
+         * @param id
+         *            the ID of the other hit
+         * @return a negative number, zero or a positive number if this hit is
+         *         less, equally or more relevant than the other hit
+         */
+        int compareTo(double score, long id) {
+            int result = Double.compare(this.score, score);
+            return result != 0 ? result : Long.compare(this.id, id);
+        }
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+package hr.fer.zemris.java.hw15.search;
+
+import java.util.Objects;
+
+/**
+ * {@code SearchIndexProvider} is a singleton that stores the
+ * {@link SearchIndex} of the blog entries used by the application. By default
+ * that is an empty index.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see SearchIndex
+ */
+public class SearchIndexProvider {
+
+    /** Search index of the blog entries. */
+    private static volatile SearchIndex SEARCH_INDEX = new SearchIndex();
+
+    /**
+     * Returns the search index of the blog entries.
+     *
+     * @return the search index of the blog entries
+     */
+    public static SearchIndex getSearchIndex() {
+        return SEARCH_INDEX;
+    }
+
+    /**
+     * Sets the search index of the blog entries.
+     *
+     * @param searchIndex
+     *            the search index of the blog entries
+     * @throws NullPointerException
+     *             if parameter {@code searchIndex} is a {@code null} reference
+     */
+    public static void setSearchIndex(SearchIndex searchIndex) {
+        SEARCH_INDEX = Objects.requireNonNull(searchIndex, "You cannot set the search index to a null reference.");
+    }
+
+}
\ No newline at end of file
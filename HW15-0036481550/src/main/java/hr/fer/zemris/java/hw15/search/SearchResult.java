@@ -0,0 +1,59 @@
+package hr.fer.zemris.java.hw15.search;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * {@code SearchResult} is one page of the blog entries found by the
+ * {@link SearchIndex}, ordered from the most to the least relevant, together
+ * with the number of all the entries that match the query.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see SearchIndex#search(String, int, int)
+ */
+public final class SearchResult {
+
+    /** Number of all the blog entries that match the query. */
+    private final int total;
+
+    /** IDs of the blog entries on this page. */
+    private final List<Long> entryIds;
+
+    /**
+     * Constructs a new {@code SearchResult}.
+     *
+     * @param total
+     *            the number of all the blog entries that match the query
+     * @param entryIds
+     *            the IDs of the blog entries on this page
+     * @throws NullPointerException
+     *             if parameter {@code entryIds} is a {@code null} reference
+     */
+    public SearchResult(int total, List<Long> entryIds) {
+        this.total = total;
+        this.entryIds = Collections.unmodifiableList(
+                Objects.requireNonNull(entryIds, "You cannot set the IDs of the blog entries to a null reference."));
+    }
+
+    /**
+     * Returns the number of all the blog entries that match the query.
+     *
+     * @return the number of all the blog entries that match the query
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Returns the IDs of the blog entries on this page, from the most to the
+     * least relevant.
+     *
+     * @return the unmodifiable list of the IDs of the blog entries
+     */
+    public List<Long> getEntryIds() {
+        return entryIds;
+    }
+
+}
\ No newline at end of file
@@ -1,6 +1,7 @@
 package hr.fer.zemris.java.hw15.servlets;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -8,16 +9,19 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import hr.fer.zemris.java.hw15.dao.DAO;
+import hr.fer.zemris.java.hw15.dao.AsyncDAO;
 import hr.fer.zemris.java.hw15.dao.DAOProvider;
-import hr.fer.zemris.java.hw15.dao.jpa.JPAEMProvider;
 import hr.fer.zemris.java.hw15.entities.BlogComment;
 import hr.fer.zemris.java.hw15.entities.BlogEntry;
 import hr.fer.zemris.java.hw15.entities.BlogUser;
+import hr.fer.zemris.java.hw15.web.cache.FragmentCacheProvider;
 
 /**
  * {@code AddCOmmentServlet} is a {@link HttpServlet} class that adds comment to
- * a blog entry.
+ * a blog entry. Comments are saved in the background by the
+ * {@link hr.fer.zemris.java.hw15.dao.CommentWriter}. The commented entry is
+ * invalidated in the fragment cache when the comment is accepted and again
+ * when it is saved.
  * 
  * @author Karlo Vrbić
  * @version 1.0
@@ -29,22 +33,29 @@ public class AddCommentServlet extends HttpServlet {
     /** Serial version UID. */
     private static final long serialVersionUID = 5617869630617561057L;
 
+    /** Seconds the client should wait before posting the comment again. */
+    private static final String RETRY_AFTER = "1";
+
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
         String comment = req.getParameter("comment");
         String entryID = req.getParameter("entry");
         String userID = req.getParameter("user");
 
-        DAO dao = DAOProvider.getDAO();
-        BlogEntry entry = dao.getBlogEntry(Long.parseLong(entryID));
-        BlogUser user = dao.getBlogUser(Long.parseLong(userID));
+        AsyncDAO dao = DAOProvider.getAsyncDAO();
+        CompletableFuture<BlogEntry> entry = dao.getBlogEntry(Long.parseLong(entryID));
+        CompletableFuture<BlogUser> user = dao.getBlogUser(Long.parseLong(userID));
 
-        BlogComment blogComment = new BlogComment(entry, user.getEmail(), comment);
+        BlogComment blogComment = new BlogComment(entry.join(), user.join().getEmail(), comment);
 
-        JPAEMProvider.getEntityManager().persist(blogComment);
-        JPAEMProvider.close();
+        if (!DAOProvider.getCommentWriter().submit(blogComment)) {
+            resp.setHeader("Retry-After", RETRY_AFTER);
+            resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many comments are being posted right now.");
+            return;
+        }
+        FragmentCacheProvider.getFragmentCache().invalidateComments(blogComment.getBlogEntry().getId());
 
         resp.sendRedirect("/blog/index.jsp");
     }
 
-}
+}
\ No newline at end of file
@@ -2,23 +2,49 @@ package hr.fer.zemris.java.hw15.servlets;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
-import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import hr.fer.zemris.java.hw15.dao.BlogVersion;
 import hr.fer.zemris.java.hw15.dao.DAO;
 import hr.fer.zemris.java.hw15.dao.DAOProvider;
-import hr.fer.zemris.java.hw15.dao.jpa.JPAEMProvider;
+import hr.fer.zemris.java.hw15.dao.PageCursor;
 import hr.fer.zemris.java.hw15.entities.BlogEntry;
 import hr.fer.zemris.java.hw15.entities.BlogUser;
+import hr.fer.zemris.java.hw15.search.SearchIndexProvider;
+import hr.fer.zemris.java.hw15.web.auth.AuthFilter;
+import hr.fer.zemris.java.hw15.web.auth.AuthToken;
+import hr.fer.zemris.java.hw15.web.cache.AuthorPage;
+import hr.fer.zemris.java.hw15.web.cache.BufferedResponse;
+import hr.fer.zemris.java.hw15.web.cache.ConditionalGet;
+import hr.fer.zemris.java.hw15.web.cache.FragmentCache;
+import hr.fer.zemris.java.hw15.web.cache.FragmentCacheProvider;
+import hr.fer.zemris.java.hw15.web.cache.RenderedEntry;
+import hr.fer.zemris.java.hw15.web.route.RouteMatch;
+import hr.fer.zemris.java.hw15.web.route.Router;
 
 /**
  * {@code AuthorServlet} is a {@link HttpServlet} class that can make new or
  * edit existing blog entries.
+ * <p>
+ * Blog entries are rendered by entry.jsp and the rendered entries and pages
+ * are kept in the {@link FragmentCache}, so a page whose entries are all
+ * cached is shown without reading the database.
+ * <p>
+ * Before a page is prepared its {@link BlogVersion} is read and a client that
+ * already has that version gets {@code 304 Not Modified} through
+ * {@link ConditionalGet}.
+ * <p>
+ * Paths are dispatched by a {@link Router}: the pages of entries are shown by
+ * GET, while the new and edit pages, which change the blog, answer only to
+ * POST.
  * 
  * @author Karlo Vrbić
  * @version 1.0
@@ -30,32 +56,161 @@ public class AuthorServlet extends HttpServlet {
     /** Serial version UID */
     private static final long serialVersionUID = -1333336395144850286L;
 
+    /** Number of blog entries shown on one page. */
+    private static final int PAGE_SIZE = 20;
+
+    /** Router of the paths of the servlet. */
+    static final Router<Page> ROUTER = new Router<Page>()
+            .add("/{nick}", Page.ENTRIES)
+            .add("/{nick}/{id:long}", Page.ENTRY)
+            .add("/{nick}/new", Page.NEW)
+            .add("/{nick}/edit", Page.EDIT);
+
+    /** Route matches of the threads. */
+    private static final ThreadLocal<RouteMatch> MATCH = ThreadLocal.withInitial(ROUTER::newMatch);
+
+    /**
+     * {@code Page} is a page of the servlet.
+     *
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    enum Page {
+        /** One page of the entries of a user, shown by GET. */
+        ENTRIES,
+        /** One entry with its comments, shown by GET. */
+        ENTRY,
+        /** New entry of a user, made by POST. */
+        NEW,
+        /** Editing an entry of a user, started by POST. */
+        EDIT
+    }
+
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        doPost(req, resp);
+        RouteMatch match = MATCH.get();
+        Page page = ROUTER.route(req.getPathInfo(), match);
+        if (page == null) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        switch (page) {
+        case ENTRIES:
+            showEntries(req, resp, match.getString("nick"));
+            break;
+        case ENTRY:
+            showEntry(req, resp, match.getLong("id"));
+            break;
+        default:
+            resp.setHeader("Allow", "POST");
+            resp.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+        }
     }
 
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        String path = req.getPathInfo().substring(1).replace("servleti/", "").replace("author/", "");
-        path = path.replace("servleti/", "");
-        path = path.replace("author/", "");
-
-        int index = path.contains("/") ? path.indexOf('/') : path.length();
-        String username = path.substring(0, index);
-        path = path.substring(index).replace("/", "");
-
-        if (path.equals("new")) {
-            prepareNew(req, resp, username);
-        } else if (path.equals("edit")) {
-            prepareEdit(req, resp, username);
-        } else if (path.matches("^[0-9]+$")) {
-            prepareBlog(req, Long.parseLong(path));
-            req.getRequestDispatcher("/WEB-INF/pages/entries.jsp").forward(req, resp);
-        } else if (path.equals("")) {
-            prepareBlogs(req, username);
-            req.getRequestDispatcher("/WEB-INF/pages/entries.jsp").forward(req, resp);
+        RouteMatch match = MATCH.get();
+        Page page = ROUTER.route(req.getPathInfo(), match);
+        if (page == null) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        switch (page) {
+        case NEW:
+            prepareNew(req, resp, match.getString("nick"));
+            break;
+        case EDIT:
+            prepareEdit(req, resp, match.getString("nick"));
+            break;
+        default:
+            resp.setHeader("Allow", "GET, HEAD");
+            resp.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+        }
+    }
+
+    /**
+     * Shows one blog entry together with its comments, or only answers that
+     * the client's copy is still valid. The version of a cached entry is the
+     * one it was rendered from, so the database is read only on a miss.
+     *
+     * @param req
+     *            an {@link HttpServletRequest} object that contains the request
+     *            the client has made of the servlet
+     * @param resp
+     *            an {@link HttpServletResponse} object that contains the
+     *            response the servlet sends to the client
+     * @param id
+     *            id of the entry
+     * @exception IOException
+     *                if an input or output error is detected when the servlet
+     *                handles the request
+     * @exception ServletException
+     *                if the request for the GET could not be handled
+     */
+    private static void showEntry(HttpServletRequest req, HttpServletResponse resp, long id)
+            throws ServletException, IOException {
+        FragmentCache cache = FragmentCacheProvider.getFragmentCache();
+        RenderedEntry rendered = cache.getEntry(id, true);
+        long stamp = rendered == null ? cache.entryStamp(id) : 0;
+        BlogVersion version = rendered == null ? DAOProvider.getDAO().getBlogEntryVersion(id) : rendered.getVersion();
+        if (version == null) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (ConditionalGet.isNotModified(req, resp, version, getVariant(req)))
+            return;
+
+        if (!prepareBlog(req, resp, id, rendered, version, stamp)) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        req.getRequestDispatcher("/WEB-INF/pages/entries.jsp").forward(req, resp);
+    }
+
+    /**
+     * Shows one page of the blog entries of the user, or only answers that
+     * the client's copy is still valid. The version of a cached page is the
+     * one it was read at, so the database is read only on a miss.
+     *
+     * @param req
+     *            an {@link HttpServletRequest} object that contains the request
+     *            the client has made of the servlet
+     * @param resp
+     *            an {@link HttpServletResponse} object that contains the
+     *            response the servlet sends to the client
+     * @param username
+     *            username of the user
+     * @exception IOException
+     *                if an input or output error is detected when the servlet
+     *                handles the request
+     * @exception ServletException
+     *                if the request for the GET could not be handled
+     */
+    private static void showEntries(HttpServletRequest req, HttpServletResponse resp, String username)
+            throws ServletException, IOException {
+        FragmentCache cache = FragmentCacheProvider.getFragmentCache();
+        AuthorPage page = cache.getPage(username, req.getParameter("after"));
+        long stamp = page == null ? cache.authorStamp(username) : 0;
+        BlogVersion version = page == null ? DAOProvider.getDAO().getUserEntriesVersion(username) : page.getVersion();
+        if (version == null) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
+        if (ConditionalGet.isNotModified(req, resp, version, getVariant(req)))
+            return;
+
+        try {
+            if (!prepareBlogs(req, resp, username, page, version, stamp)) {
+                resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+        } catch (IllegalArgumentException ex) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, ex.getMessage());
+            return;
+        }
+        req.getRequestDispatcher("/WEB-INF/pages/entries.jsp").forward(req, resp);
     }
 
     /**
@@ -83,12 +238,13 @@ public class AuthorServlet extends HttpServlet {
         BlogUser user = dao.getBlogUser(username);
         BlogEntry entry = new BlogEntry(user, "", "");
 
-        JPAEMProvider.getEntityManager().persist(entry);
-        JPAEMProvider.close();
+        dao.addBlogEntry(entry);
+        SearchIndexProvider.getSearchIndex().update(entry);
+        FragmentCacheProvider.getFragmentCache().invalidateAuthor(user.getNick());
 
         if (checkIfLoggedIn(req, user.getId())) {
-            req.getSession().setAttribute("user", user);
-            req.getSession().setAttribute("entry", entry);
+            req.setAttribute("user", user);
+            req.setAttribute("entry", entry);
             req.getRequestDispatcher("/WEB-INF/pages/editBlog.jsp").forward(req, resp);
         }
     }
@@ -120,46 +276,187 @@ public class AuthorServlet extends HttpServlet {
         BlogEntry entry = dao.getBlogEntry(Long.parseLong(entryID));
 
         if (checkIfLoggedIn(req, user.getId())) {
-            req.getSession().setAttribute("user", user);
-            req.getSession().setAttribute("entry", entry);
+            req.setAttribute("user", user);
+            req.setAttribute("entry", entry);
             req.getRequestDispatcher("/WEB-INF/pages/editBlog.jsp").forward(req, resp);
         }
     }
 
     /**
-     * Prepares the data for listing one blog entry.
+     * Prepares the data for listing one blog entry together with its comments.
      * 
      * @param req
      *            an {@link HttpServletRequest} object that contains the request
      *            the client has made of the servlet
+     * @param resp
+     *            an {@link HttpServletResponse} object that contains the
+     *            response the servlet sends to the client
      * @param id
      *            id of the entry
+     * @param rendered
+     *            the cached entry or {@code null} if it is not cached
+     * @param version
+     *            the version of the entry and its comments
+     * @param stamp
+     *            the stamp of the entry taken before the version was read if
+     *            the entry is not cached
+     * @return {@code true} if the entry exists; {@code false} otherwise
+     * @exception IOException
+     *                if an input or output error is detected when the entry is
+     *                rendered
+     * @exception ServletException
+     *                if the entry could not be rendered
      */
-    private static void prepareBlog(HttpServletRequest req, long id) {
-        BlogEntry entry = DAOProvider.getDAO().getBlogEntry(id);
-        List<BlogEntry> entries = new ArrayList<>();
-        entries.add(entry);
+    private static boolean prepareBlog(HttpServletRequest req, HttpServletResponse resp, long id,
+            RenderedEntry rendered, BlogVersion version, long stamp) throws ServletException, IOException {
+        if (rendered == null) {
+            BlogEntry entry = DAOProvider.getDAO().getBlogEntryWithComments(id);
+            if (entry == null)
+                return false;
+
+            rendered = render(req, resp, entry, version);
+            FragmentCacheProvider.getFragmentCache().putEntry(rendered, true, stamp);
+        }
+
+        List<RenderedEntry> entries = new ArrayList<>();
+        entries.add(rendered);
 
-        req.getSession().setAttribute("user", entry.getCreator());
-        req.getSession().setAttribute("entries", entries);
+        req.setAttribute("nick", rendered.getNick());
+        req.setAttribute("entries", entries);
+        return true;
     }
 
     /**
-     * Prepares the data for listing all blog entries of one user.
-     * 
+     * Prepares the data for listing one page of blog entries of one user. The
+     * page starts after the entry pointed to by the {@code after} request
+     * parameter and the cursor of the next page, if there is one, is stored as
+     * {@code nextPage} request attribute.
+     *
      * @param req
      *            an {@link HttpServletRequest} object that contains the request
      *            the client has made of the servlet
+     * @param resp
+     *            an {@link HttpServletResponse} object that contains the
+     *            response the servlet sends to the client
      * @param username
      *            username of the user
+     * @param page
+     *            the cached page or {@code null} if it is not cached
+     * @param version
+     *            the version of the blog entries of the user
+     * @param stamp
+     *            the stamp of the author taken before the version was read if
+     *            the page is not cached
+     * @return {@code true} if the user exists; {@code false} otherwise
+     * @throws IllegalArgumentException
+     *             if the {@code after} request parameter is not a valid cursor
+     * @exception IOException
+     *                if an input or output error is detected when an entry is
+     *                rendered
+     * @exception ServletException
+     *                if an entry could not be rendered
      */
-    private static void prepareBlogs(HttpServletRequest req, String username) {
+    private static boolean prepareBlogs(HttpServletRequest req, HttpServletResponse resp, String username,
+            AuthorPage page, BlogVersion version, long stamp) throws ServletException, IOException {
         DAO dao = DAOProvider.getDAO();
-        BlogUser user = dao.getBlogUser(username);
-        List<BlogEntry> entries = dao.getAllUserEntries(user);
+        FragmentCache cache = FragmentCacheProvider.getFragmentCache();
+        String afterParameter = req.getParameter("after");
+        PageCursor after = PageCursor.parse(afterParameter);
+
+        Map<Long, BlogEntry> loaded = new HashMap<>();
+        if (page == null) {
+            BlogUser user = dao.getBlogUser(username);
+            if (user == null)
+                return false;
+
+            List<BlogEntry> entries = dao.getUserEntries(user, after, PAGE_SIZE + 1);
+            String nextPage = null;
+            if (entries.size() > PAGE_SIZE) {
+                entries = entries.subList(0, PAGE_SIZE);
+                nextPage = PageCursor.of(entries.get(PAGE_SIZE - 1)).toString();
+            }
+
+            List<Long> ids = new ArrayList<>();
+            for (BlogEntry entry : entries) {
+                ids.add(entry.getId());
+                loaded.put(entry.getId(), entry);
+            }
+            page = new AuthorPage(ids, nextPage, version);
+            cache.putPage(username, afterParameter, page, stamp);
+        }
+
+        List<RenderedEntry> rendered = new ArrayList<>();
+        for (Long id : page.getEntryIds()) {
+            RenderedEntry entry = cache.getEntry(id, false);
+            if (entry == null && loaded.containsKey(id)) {
+                entry = render(req, resp, loaded.get(id), null);
+                cache.putPageEntry(entry, stamp);
+            } else if (entry == null) {
+                long entryStamp = cache.entryStamp(id);
+                BlogEntry blogEntry = dao.getBlogEntry(id);
+                if (blogEntry == null)
+                    continue;
+                entry = render(req, resp, blogEntry, null);
+                cache.putEntry(entry, false, entryStamp);
+            }
+            rendered.add(entry);
+        }
 
-        req.getSession().setAttribute("user", user);
-        req.getSession().setAttribute("entries", entries);
+        if (page.getNextPage() != null) {
+            req.setAttribute("nextPage", page.getNextPage());
+        }
+        req.setAttribute("nick", username);
+        req.setAttribute("entries", rendered);
+        return true;
+    }
+
+    /**
+     * Renders the blog entry using entry.jsp.
+     *
+     * @param req
+     *            an {@link HttpServletRequest} object that contains the request
+     *            the client has made of the servlet
+     * @param resp
+     *            an {@link HttpServletResponse} object that contains the
+     *            response the servlet sends to the client
+     * @param entry
+     *            the blog entry
+     * @param version
+     *            the version of the blog entry and its comments if the
+     *            comments are rendered as well; {@code null} otherwise
+     * @return the rendered blog entry
+     * @exception IOException
+     *                if an input or output error is detected when the entry is
+     *                rendered
+     * @exception ServletException
+     *                if the entry could not be rendered
+     */
+    private static RenderedEntry render(HttpServletRequest req, HttpServletResponse resp, BlogEntry entry,
+            BlogVersion version) throws ServletException, IOException {
+        BufferedResponse buffer = new BufferedResponse(resp);
+        req.setAttribute("entry", entry);
+        req.setAttribute("showComments", version != null);
+        try {
+            req.getRequestDispatcher("/WEB-INF/pages/entry.jsp").include(req, buffer);
+        } finally {
+            req.removeAttribute("entry");
+            req.removeAttribute("showComments");
+        }
+        return new RenderedEntry(entry.getId(), entry.getCreator().getNick(), buffer.getText(), version);
+    }
+
+    /**
+     * Returns the variant of the page for the client: pages differ only by
+     * the user logged in with the token verified by the {@link AuthFilter}.
+     *
+     * @param req
+     *            an {@link HttpServletRequest} object that contains the request
+     *            the client has made of the servlet
+     * @return the variant of the page
+     */
+    private static String getVariant(HttpServletRequest req) {
+        AuthToken token = AuthFilter.getToken(req);
+        return token == null ? "a" : "u" + token.getUserId();
     }
 
     /**
@@ -173,17 +470,7 @@ public class AuthorServlet extends HttpServlet {
      * @return {@code true} if user is logged in; {@code false} otherwise
      */
     private static boolean checkIfLoggedIn(HttpServletRequest req, long userID) {
-        Cookie[] cookies = req.getCookies();
-        if (cookies != null) {
-            for (Cookie cookie : cookies) {
-                String cookieName = cookie.getName();
-
-                if (cookieName.equals("current.user.id")) {
-                    return cookie.getValue().equals(Long.toString(userID));
-                }
-            }
-        }
-
-        return false;
+        AuthToken token = AuthFilter.getToken(req);
+        return token != null && token.getUserId() == userID;
     }
-}
+}
\ No newline at end of file
@@ -1,6 +1,7 @@
 package hr.fer.zemris.java.hw15.servlets;
 
 import java.io.IOException;
+import java.util.Date;
 
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -10,8 +11,9 @@ import javax.servlet.http.HttpServletResponse;
 
 import hr.fer.zemris.java.hw15.dao.DAO;
 import hr.fer.zemris.java.hw15.dao.DAOProvider;
-import hr.fer.zemris.java.hw15.dao.jpa.JPAEMProvider;
 import hr.fer.zemris.java.hw15.entities.BlogEntry;
+import hr.fer.zemris.java.hw15.search.SearchIndexProvider;
+import hr.fer.zemris.java.hw15.web.cache.FragmentCacheProvider;
 
 /**
  * {@code AuthorServlet} is a {@link HttpServlet} class that can make edit
@@ -38,11 +40,14 @@ public class EditEntryServlet extends HttpServlet {
 
         entry.setTitle(title);
         entry.setText(text);
+        entry.setLastModifiedAt(new Date());
 
-        JPAEMProvider.getEntityManager().merge(entry);
-        JPAEMProvider.close();
+        dao.updateBlogEntry(entry);
+        SearchIndexProvider.getSearchIndex().update(entry);
+        FragmentCacheProvider.getFragmentCache().invalidateEntry(entry.getId());
+        FragmentCacheProvider.getFragmentCache().invalidateAuthor(entry.getCreator().getNick());
 
         resp.sendRedirect(req.getContextPath() + "/index.jsp");
     }
 
-}
+}
\ No newline at end of file
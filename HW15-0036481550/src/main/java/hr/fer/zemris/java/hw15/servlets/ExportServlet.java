@@ -0,0 +1,101 @@
+package hr.fer.zemris.java.hw15.servlets;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import hr.fer.zemris.java.hw15.dao.DAOProvider;
+import hr.fer.zemris.java.hw15.export.BlogDataWriter;
+import hr.fer.zemris.java.hw15.export.ExportFormat;
+import hr.fer.zemris.java.hw15.web.auth.AuthFilter;
+
+/**
+ * {@code ExportServlet} is a {@link HttpServlet} class that streams all the
+ * blog data to the client in the format given by the {@code format} parameter
+ * ({@code ndjson}, the default, or {@code csv}).
+ * <p>
+ * The data is written while it is read from the database, so the export runs
+ * in constant memory. Password hashes are never exported and the servlet
+ * answers with 404 unless the context parameter {@value #EXPORT_ENABLED} is
+ * {@code true}. The client must also be logged in and send the secret from
+ * the context parameter {@value #EXPORT_SECRET} in the {@value #SECRET_HEADER}
+ * header; the secrets are compared in constant time, so the response doesn't
+ * leak how much of a guess was right. Without a configured secret nobody can
+ * export.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see HttpServlet
+ * @see ExportFormat
+ */
+@WebServlet(name = "export", urlPatterns = { "/servleti/export" })
+public class ExportServlet extends HttpServlet {
+
+    /** Serial version UID. */
+    private static final long serialVersionUID = -3417640926143580917L;
+
+    /** Context parameter that enables the export. */
+    private static final String EXPORT_ENABLED = "export.enabled";
+
+    /** Context parameter with the secret the client must send. */
+    private static final String EXPORT_SECRET = "export.secret";
+
+    /** Request header with the secret. */
+    private static final String SECRET_HEADER = "X-Export-Secret";
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        if (!Boolean.parseBoolean(getServletContext().getInitParameter(EXPORT_ENABLED))) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (AuthFilter.getToken(req) == null || !hasSecret(req)) {
+            resp.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        ExportFormat format;
+        try {
+            String name = req.getParameter("format");
+            format = name == null ? ExportFormat.NDJSON : ExportFormat.forName(name);
+        } catch (IllegalArgumentException ex) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, ex.getMessage());
+            return;
+        }
+
+        resp.setContentType(format.getContentType());
+        resp.setCharacterEncoding("UTF-8");
+        resp.setHeader("Content-Disposition", "attachment; filename=\"blog." + format.getExtension() + "\"");
+
+        BlogDataWriter writer = format.createWriter(
+                new BufferedWriter(new OutputStreamWriter(resp.getOutputStream(), StandardCharsets.UTF_8)), false);
+        DAOProvider.getDAO().exportBlog(writer);
+        writer.flush();
+    }
+
+    /**
+     * Checks whether the request carries the configured export secret.
+     *
+     * @param req
+     *            the request
+     * @return {@code true} if the secret is configured and the request has it
+     */
+    private boolean hasSecret(HttpServletRequest req) {
+        String secret = getServletContext().getInitParameter(EXPORT_SECRET);
+        String sent = req.getHeader(SECRET_HEADER);
+        if (secret == null || secret.trim().isEmpty() || sent == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(secret.trim().getBytes(StandardCharsets.UTF_8),
+                sent.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
\ No newline at end of file
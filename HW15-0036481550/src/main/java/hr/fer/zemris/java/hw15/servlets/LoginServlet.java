@@ -5,17 +5,30 @@ import java.util.Objects;
 
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
-import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import hr.fer.zemris.java.hw15.crypto.Sha1Utils;
+import hr.fer.zemris.java.hw15.crypto.PasswordService;
+import hr.fer.zemris.java.hw15.crypto.PasswordServiceProvider;
+import hr.fer.zemris.java.hw15.dao.DAO;
 import hr.fer.zemris.java.hw15.dao.DAOProvider;
 import hr.fer.zemris.java.hw15.entities.BlogUser;
+import hr.fer.zemris.java.hw15.web.auth.AuthFilter;
+import hr.fer.zemris.java.hw15.web.auth.TokenSigner;
+import hr.fer.zemris.java.hw15.web.auth.TokenSignerProvider;
 
 /**
  * {@code LoginServlet} is a {@link HttpServlet} class that handles all logins.
+ * <p>
+ * Passwords are checked by the {@link PasswordService}. A password whose hash
+ * is in a legacy format or made with weaker settings is hashed again on a
+ * successful login. An unknown username is checked against a dummy hash, so
+ * it takes as long as a wrong password and the time of the answer doesn't
+ * tell which usernames exist.
+ * <p>
+ * A logged in user gets an authentication token signed by the
+ * {@link TokenSigner}, which the {@link AuthFilter} verifies on every request.
  * 
  * @author Karlo Vrbić
  * @version 1.0
@@ -27,60 +40,55 @@ public class LoginServlet extends HttpServlet {
     /** Serial version UID. */
     private static final long serialVersionUID = 4608384024913102540L;
 
-    /** Max-age of a cookie. */
-    private static final int MAX_AGE = 60 * 10;
-
     protected void doPost(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
         String name = request.getParameter("username");
         String password = request.getParameter("password");
 
-        if (checkIfValidPassword(name, password)) {
-            BlogUser user = DAOProvider.getDAO().getBlogUser(name);
-
-            Cookie idCookie = new Cookie("current.user.id", Long.toString(user.getId()));
-            Cookie firstNameCookie = new Cookie("current.user.fn", user.getFirstName());
-            Cookie lastNameCookie = new Cookie("current.user.ln", user.getLastName());
-            Cookie nicknameCookie = new Cookie("current.user.nick", user.getNick());
-
-            idCookie.setMaxAge(MAX_AGE);
-            firstNameCookie.setMaxAge(MAX_AGE);
-            lastNameCookie.setMaxAge(MAX_AGE);
-            nicknameCookie.setMaxAge(MAX_AGE);
-
-            response.addCookie(idCookie);
-            response.addCookie(firstNameCookie);
-            response.addCookie(lastNameCookie);
-            response.addCookie(nicknameCookie);
-
-            request.getSession().setAttribute("login_status", "0");
-        } else {
-            request.getSession().setAttribute("login_status", "1");
+        BlogUser user = authenticate(name, password);
+        if (user == null) {
+            response.sendRedirect("/blog/index.jsp?login=failed");
+            return;
         }
 
+        TokenSigner signer = TokenSignerProvider.getTokenSigner();
+        AuthFilter.setCookie(request, response, signer.issue(user), signer.getMaxAge());
         response.sendRedirect("/blog/index.jsp");
     }
 
     /**
      * Checks if provided password is really the password of the user with
-     * specified username.
+     * specified username. If the stored hash of the password is outdated, it
+     * is replaced with a new one.
      * 
      * @param username
      *            username of the user
      * @param password
      *            password of the user
-     * @return {@code true} if user is password is valid; {@code false}
-     *         otherwise
+     * @return the user if the password is valid; {@code null} otherwise
      */
-    private static boolean checkIfValidPassword(String username, String password) {
+    private static BlogUser authenticate(String username, String password) {
         Objects.requireNonNull(username, "You cannot check password of a user with null as a username.");
         Objects.requireNonNull(password, "You cannot check password of a user with null as a password.");
 
-        BlogUser user = DAOProvider.getDAO().getBlogUser(username);
+        DAO dao = DAOProvider.getDAO();
+        PasswordService passwords = PasswordServiceProvider.getPasswordService();
+        BlogUser user = dao.getBlogUser(username);
+        if (user == null) {
+            passwords.matches(password, passwords.getDummyHash());
+            return null;
+        }
+
+        String hash = user.getPasswordHash();
+        if (!passwords.matches(password, hash))
+            return null;
 
-        if (user == null)
-            return false;
-        return user.getPasswordHash().equals(Sha1Utils.sha1Hex(password));
+        if (passwords.needsRehash(hash)) {
+            String newHash = passwords.hash(password);
+            dao.updatePasswordHash(user.getId(), newHash);
+            user.setPasswordHash(newHash);
+        }
+        return user;
     }
 
-}
+}
\ No newline at end of file
@@ -4,14 +4,15 @@ import java.io.IOException;
 
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
-import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import hr.fer.zemris.java.hw15.web.auth.AuthFilter;
+
 /**
  * {@code LogoutServlet} is a {@link HttpServlet} class that handles all
- * logouts.
+ * logouts by deleting the cookie with the authentication token.
  * 
  * @author Karlo Vrbić
  * @version 1.0
@@ -25,23 +26,8 @@ public class LogoutServlet extends HttpServlet {
 
     protected void doPost(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
-        Cookie[] cookies = request.getCookies();
-        if (cookies != null) {
-            for (Cookie cookie : cookies) {
-                String cookieName = cookie.getName();
-
-                if (cookieName.equals("current.user.id") || cookieName.equals("current.user.fn")
-                        || cookieName.equals("current.user.ln") || cookieName.equals("current.user.nick")) {
-                    cookie.setMaxAge(0);
-                    response.addCookie(cookie);
-                }
-            }
-        }
-
-        request.getSession().removeAttribute("login_status");
-        request.getSession().removeAttribute("login_message");
-
+        AuthFilter.setCookie(request, response, "", 0);
         response.sendRedirect("/blog/index.jsp");
     }
 
-}
+}
\ No newline at end of file
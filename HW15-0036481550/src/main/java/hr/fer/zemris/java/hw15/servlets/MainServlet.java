@@ -9,12 +9,12 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import hr.fer.zemris.java.hw15.dao.BlogUserSummary;
 import hr.fer.zemris.java.hw15.dao.DAOProvider;
-import hr.fer.zemris.java.hw15.entities.BlogUser;
 
 /**
- * {@code MainServlet} is a {@link HttpServlet} class that gets all users and
- * forwards it to index.jsp.
+ * {@code MainServlet} is a {@link HttpServlet} class that gets one page of
+ * users and forwards it to index.jsp.
  * 
  * @author Karlo Vrbić
  * @version 1.0
@@ -26,11 +26,21 @@ public class MainServlet extends HttpServlet {
     /** Serial version UID. */
     private static final long serialVersionUID = 4012956635407408016L;
 
+    /** Number of blog users shown on one page. */
+    private static final int PAGE_SIZE = 100;
+
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        List<BlogUser> users = DAOProvider.getDAO().getAllBlogUsers();
+        String after = req.getParameter("after");
+        List<BlogUserSummary> users = DAOProvider.getDAO().getBlogUserSummaries(after, PAGE_SIZE + 1);
+
+        if (users.size() > PAGE_SIZE) {
+            users = users.subList(0, PAGE_SIZE);
+            req.setAttribute("nextPage", users.get(PAGE_SIZE - 1).getNick());
+        }
+
         req.setAttribute("users", users);
         req.getRequestDispatcher("/WEB-INF/pages/index.jsp").forward(req, resp);
     }
 
-}
+}
\ No newline at end of file
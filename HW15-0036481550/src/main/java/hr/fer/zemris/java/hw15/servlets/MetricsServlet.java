@@ -0,0 +1,165 @@
+package hr.fer.zemris.java.hw15.servlets;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import hr.fer.zemris.java.hw15.dao.CommentWriter;
+import hr.fer.zemris.java.hw15.dao.DAOExecutor;
+import hr.fer.zemris.java.hw15.dao.DAOProvider;
+import hr.fer.zemris.java.hw15.dao.jpa.CacheRegions;
+import hr.fer.zemris.java.hw15.dao.jpa.InstrumentedConnectionProvider;
+import hr.fer.zemris.java.hw15.web.cache.FragmentCache;
+import hr.fer.zemris.java.hw15.web.cache.FragmentCacheProvider;
+import hr.fer.zemris.java.hw15.web.compress.CompressionFilter;
+import hr.fer.zemris.java.hw15.web.session.SessionFootprint;
+
+/**
+ * {@code MetricsServlet} is a {@link HttpServlet} class that returns the live
+ * statistics of the application as one JSON object. Every group of statistics
+ * is a nested object: {@code pool} and {@code replicaPool} for the connection
+ * pools, {@code executor} for the {@link DAOExecutor} and {@code comments} for
+ * the {@link CommentWriter}. Every region of the second-level cache has its
+ * own group named {@code cache.<region>} with its hits, misses and evictions,
+ * as read by {@link CacheRegions}, and {@code fragments} is the
+ * {@link FragmentCache}, {@code compression} the {@link CompressionFilter} and
+ * {@code sessions} the memory held by the sessions, as reported by
+ * {@link SessionFootprint}. Groups that aren't used are left out.
+ * <p>
+ * The servlet answers with 404 unless the context parameter
+ * {@value #METRICS_ENABLED} is {@code true}.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see HttpServlet
+ * @see InstrumentedConnectionProvider
+ */
+@WebServlet(name = "metrics", urlPatterns = { "/servleti/metrics" })
+public class MetricsServlet extends HttpServlet {
+
+    /** Serial version UID. */
+    private static final long serialVersionUID = 2260932431817702145L;
+
+    /** Context parameter that enables the metrics. */
+    private static final String METRICS_ENABLED = "metrics.enabled";
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        ServletContext context = getServletContext();
+        if (!Boolean.parseBoolean(context.getInitParameter(METRICS_ENABLED))) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        Map<String, Map<String, Number>> groups = new LinkedHashMap<>();
+        addPool(groups, "pool", context.getAttribute("my.application.emf"));
+        addPool(groups, "replicaPool", context.getAttribute("my.application.replica.emf"));
+        addCache(groups, context.getAttribute("my.application.emf"));
+
+        DAOExecutor executor = (DAOExecutor) context.getAttribute("my.application.dao.executor");
+        if (executor != null) {
+            groups.put("executor", executor.getStatistics());
+        }
+        CommentWriter writer = DAOProvider.getCommentWriter();
+        if (writer != null) {
+            groups.put("comments", writer.getStatistics());
+        }
+        groups.put("fragments", FragmentCacheProvider.getFragmentCache().getStatistics());
+        CompressionFilter compression = (CompressionFilter) context.getAttribute(CompressionFilter.ATTRIBUTE);
+        if (compression != null) {
+            groups.put("compression", compression.getStatistics());
+        }
+        SessionFootprint sessions = (SessionFootprint) context.getAttribute(SessionFootprint.ATTRIBUTE);
+        if (sessions != null) {
+            groups.put("sessions", sessions.getStatistics());
+        }
+
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        resp.setHeader("Cache-Control", "no-store");
+        writeJson(resp.getWriter(), groups);
+    }
+
+    /**
+     * Adds the statistics of the connection pool of the entity manager
+     * factory, if it has an instrumented one.
+     *
+     * @param groups
+     *            the groups of the statistics
+     * @param name
+     *            the name of the group
+     * @param emf
+     *            the entity manager factory or {@code null} if there is none
+     */
+    private static void addPool(Map<String, Map<String, Number>> groups, String name, Object emf) {
+        if (!(emf instanceof EntityManagerFactory) || !((EntityManagerFactory) emf).isOpen())
+            return;
+
+        InstrumentedConnectionProvider provider = InstrumentedConnectionProvider.of((EntityManagerFactory) emf);
+        if (provider != null) {
+            groups.put(name, provider.getStatistics());
+        }
+    }
+
+    /**
+     * Adds the statistics of every region of the second-level cache of the
+     * entity manager factory. The replica has no second-level cache, so only
+     * the regions of the primary database are added.
+     *
+     * @param groups
+     *            the groups of the statistics
+     * @param emf
+     *            the entity manager factory or {@code null} if there is none
+     */
+    private static void addCache(Map<String, Map<String, Number>> groups, Object emf) {
+        if (!(emf instanceof EntityManagerFactory) || !((EntityManagerFactory) emf).isOpen())
+            return;
+
+        for (Map.Entry<String, Map<String, Number>> region : CacheRegions
+                .getStatistics((EntityManagerFactory) emf).entrySet()) {
+            groups.put("cache." + region.getKey(), region.getValue());
+        }
+    }
+
+    /**
+     * Writes the groups of the statistics as a JSON object. Names of the
+     * statistics are plain identifiers, so they need no escaping.
+     *
+     * @param out
+     *            the writer
+     * @param groups
+     *            the groups of the statistics
+     */
+    private static void writeJson(PrintWriter out, Map<String, Map<String, Number>> groups) {
+        out.print('{');
+        boolean firstGroup = true;
+        for (Map.Entry<String, Map<String, Number>> group : groups.entrySet()) {
+            if (!firstGroup) {
+                out.print(',');
+            }
+            firstGroup = false;
+            out.print("\n  \"" + group.getKey() + "\": {");
+
+            boolean first = true;
+            for (Map.Entry<String, Number> stat : group.getValue().entrySet()) {
+                if (!first) {
+                    out.print(',');
+                }
+                first = false;
+                out.print("\n    \"" + stat.getKey() + "\": " + stat.getValue());
+            }
+            out.print("\n  }");
+        }
+        out.print("\n}\n");
+    }
+
+}
\ No newline at end of file
@@ -8,7 +8,7 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import hr.fer.zemris.java.hw15.dao.jpa.JPAEMProvider;
+import hr.fer.zemris.java.hw15.dao.DAOProvider;
 import hr.fer.zemris.java.hw15.entities.BlogUser;
 
 /**
@@ -35,10 +35,9 @@ public class RegisterServlet extends HttpServlet {
 
         BlogUser user = new BlogUser(firstName, lastName, username, email, password);
 
-        JPAEMProvider.getEntityManager().persist(user);
-        JPAEMProvider.close();
+        DAOProvider.getDAO().addBlogUser(user);
 
         resp.sendRedirect("/blog/index.jsp");
     }
 
-}
+}
\ No newline at end of file
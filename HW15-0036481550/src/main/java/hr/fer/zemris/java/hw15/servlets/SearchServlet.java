@@ -0,0 +1,82 @@
+package hr.fer.zemris.java.hw15.servlets;
+
+import java.io.IOException;
+import java.util.List;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import hr.fer.zemris.java.hw15.dao.DAO;
+import hr.fer.zemris.java.hw15.dao.DAOProvider;
+import hr.fer.zemris.java.hw15.entities.BlogEntry;
+import hr.fer.zemris.java.hw15.search.SearchIndex;
+import hr.fer.zemris.java.hw15.search.SearchIndexProvider;
+import hr.fer.zemris.java.hw15.search.SearchResult;
+
+/**
+ * {@code SearchServlet} is a {@link HttpServlet} class that finds the blog
+ * entries whose titles and texts contain all the words of the {@code q}
+ * parameter and forwards one page of them, the most relevant first, to
+ * search.jsp. Pages are numbered from 1 by the {@code page} parameter.
+ * <p>
+ * Entries are found in the {@link SearchIndex}; only the entries on the page
+ * are loaded using the {@link DAO}, all of them with one query and in the
+ * order of their relevance.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see HttpServlet
+ * @see SearchIndex
+ */
+@WebServlet(name = "search", urlPatterns = { "/servleti/search" })
+public class SearchServlet extends HttpServlet {
+
+    /** Serial version UID. */
+    private static final long serialVersionUID = -6071552382694139105L;
+
+    /** Number of blog entries shown on one page. */
+    private static final int PAGE_SIZE = 20;
+
+    /** Number of the last page that can be requested. */
+    private static final int MAX_PAGE = 500;
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        String query = req.getParameter("q");
+        query = query == null ? "" : query.trim();
+
+        int page;
+        try {
+            String pageParameter = req.getParameter("page");
+            page = pageParameter == null ? 1 : Integer.parseInt(pageParameter);
+        } catch (NumberFormatException ex) {
+            page = 0;
+        }
+        if (page < 1 || page > MAX_PAGE) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Page must be a number from 1 to " + MAX_PAGE + ".");
+            return;
+        }
+
+        SearchIndex index = SearchIndexProvider.getSearchIndex();
+        SearchResult result = index.search(query, (page - 1) * PAGE_SIZE, PAGE_SIZE);
+
+        List<BlogEntry> entries = DAOProvider.getDAO().getBlogEntries(result.getEntryIds());
+
+        req.setAttribute("query", query);
+        req.setAttribute("entries", entries);
+        req.setAttribute("total", result.getTotal());
+        req.setAttribute("page", page);
+        req.setAttribute("indexReady", index.isReady());
+        if (page > 1) {
+            req.setAttribute("previousPage", page - 1);
+        }
+        if (page < MAX_PAGE && (long) page * PAGE_SIZE < result.getTotal()) {
+            req.setAttribute("nextPage", page + 1);
+        }
+        req.getRequestDispatcher("/WEB-INF/pages/search.jsp").forward(req, resp);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,94 @@
+package hr.fer.zemris.java.hw15.web.auth;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * {@code AuthFilter} is a filter that verifies the authentication token in the
+ * {@value #COOKIE} cookie with the {@link TokenSigner} and, if it is valid,
+ * stores its {@link AuthToken} as the {@value #ATTRIBUTE} request attribute.
+ * No session is made and the database isn't read, so any node of the
+ * application can serve any request.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see Filter
+ * @see TokenSignerProvider
+ */
+@WebFilter(filterName = "f3", urlPatterns = { "/*" })
+public class AuthFilter implements Filter {
+
+    /** Name of the cookie with the token. */
+    public static final String COOKIE = "auth";
+
+    /** Name of the request attribute with the verified token. */
+    public static final String ATTRIBUTE = "auth";
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        Cookie[] cookies = ((HttpServletRequest) request).getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (cookie.getName().equals(COOKIE)) {
+                    AuthToken token = TokenSignerProvider.getTokenSigner().verify(cookie.getValue());
+                    if (token != null) {
+                        request.setAttribute(ATTRIBUTE, token);
+                    }
+                    break;
+                }
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    /**
+     * Returns the verified token of the request.
+     *
+     * @param req
+     *            the request
+     * @return the token or {@code null} if the user isn't logged in
+     */
+    public static AuthToken getToken(HttpServletRequest req) {
+        return (AuthToken) req.getAttribute(ATTRIBUTE);
+    }
+
+    /**
+     * Adds the cookie with the token to the response.
+     *
+     * @param req
+     *            the request
+     * @param resp
+     *            the response
+     * @param token
+     *            the token
+     * @param maxAge
+     *            the time the cookie is kept in seconds; 0 deletes it
+     */
+    public static void setCookie(HttpServletRequest req, HttpServletResponse resp, String token, int maxAge) {
+        Cookie cookie = new Cookie(COOKIE, token);
+        cookie.setMaxAge(maxAge);
+        cookie.setPath(req.getContextPath().isEmpty() ? "/" : req.getContextPath());
+        cookie.setHttpOnly(true);
+        resp.addCookie(cookie);
+    }
+
+}
\ No newline at end of file
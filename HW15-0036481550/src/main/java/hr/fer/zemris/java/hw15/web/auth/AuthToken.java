@@ -0,0 +1,87 @@
+package hr.fer.zemris.java.hw15.web.auth;
+
+import java.util.Objects;
+
+/**
+ * {@code AuthToken} is the verified content of the authentication token of a
+ * logged in user: the id, nick and first name of the user and the time the
+ * token expires. Pages read it from the {@value AuthFilter#ATTRIBUTE} request
+ * attribute.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see TokenSigner
+ */
+public class AuthToken {
+
+    /** Id of the user. */
+    private final long userId;
+
+    /** Nick of the user. */
+    private final String nick;
+
+    /** First name of the user. */
+    private final String firstName;
+
+    /** Time the token expires in milliseconds since the epoch. */
+    private final long expiresAt;
+
+    /**
+     * Constructs a new {@code AuthToken}.
+     *
+     * @param userId
+     *            the id of the user
+     * @param nick
+     *            the nick of the user
+     * @param firstName
+     *            the first name of the user
+     * @param expiresAt
+     *            the time the token expires in milliseconds since the epoch
+     * @throws NullPointerException
+     *             if parameter {@code nick} or {@code firstName} is a
+     *             {@code null} reference
+     */
+    public AuthToken(long userId, String nick, String firstName, long expiresAt) {
+        this.userId = userId;
+        this.nick = Objects.requireNonNull(nick, "You cannot set the nick to a null reference.");
+        this.firstName = Objects.requireNonNull(firstName, "You cannot set the first name to a null reference.");
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Returns the id of the user.
+     *
+     * @return the id of the user
+     */
+    public long getUserId() {
+        return userId;
+    }
+
+    /**
+     * Returns the nick of the user.
+     *
+     * @return the nick of the user
+     */
+    public String getNick() {
+        return nick;
+    }
+
+    /**
+     * Returns the first name of the user.
+     *
+     * @return the first name of the user
+     */
+    public String getFirstName() {
+        return firstName;
+    }
+
+    /**
+     * Returns the time the token expires.
+     *
+     * @return the time the token expires in milliseconds since the epoch
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+}
\ No newline at end of file
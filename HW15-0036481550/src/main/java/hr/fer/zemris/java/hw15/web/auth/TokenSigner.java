@@ -0,0 +1,187 @@
+package hr.fer.zemris.java.hw15.web.auth;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import hr.fer.zemris.java.hw15.entities.BlogUser;
+
+/**
+ * {@code TokenSigner} issues and verifies the authentication tokens. A token
+ * is {@code <payload>.<signature>}, both in URL-safe Base64: the payload holds
+ * the id, nick and first name of the user and the expiry time, and the
+ * signature is its HMAC-SHA256 under the secret key. A token is checked by
+ * recomputing the signature, so no session or database is needed and every
+ * node that shares the key accepts the tokens of the others.
+ * <p>
+ * Every thread reuses its own {@link Mac}, initialized with the key once.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see AuthFilter
+ * @see TokenSignerProvider
+ */
+public class TokenSigner {
+
+    /** Name of the message authentication code. */
+    private static final String ALGORITHM = "HmacSHA256";
+
+    /** Version of the payload format. */
+    private static final int VERSION = 1;
+
+    /** Minimal number of the bytes of the key. */
+    public static final int MIN_KEY_LENGTH = 16;
+
+    /** Source of the generated keys. */
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /** Secret key. */
+    private final SecretKeySpec key;
+
+    /** Time a token is valid in milliseconds. */
+    private final long maxAge;
+
+    /** Message authentication codes of the threads. */
+    private final ThreadLocal<Mac> mac = ThreadLocal.withInitial(this::createMac);
+
+    /**
+     * Constructs a new {@code TokenSigner}.
+     *
+     * @param key
+     *            the secret key
+     * @param maxAge
+     *            the time a token is valid in seconds
+     * @throws IllegalArgumentException
+     *             if the key is shorter than {@value #MIN_KEY_LENGTH} bytes or
+     *             {@code maxAge} is less than 1
+     */
+    public TokenSigner(byte[] key, int maxAge) {
+        if (key.length < MIN_KEY_LENGTH)
+            throw new IllegalArgumentException("Key must be at least " + MIN_KEY_LENGTH + " bytes long.");
+        if (maxAge < 1)
+            throw new IllegalArgumentException("Tokens must be valid at least one second.");
+
+        this.key = new SecretKeySpec(key.clone(), ALGORITHM);
+        this.maxAge = maxAge * 1000L;
+    }
+
+    /**
+     * Generates a random key.
+     *
+     * @return the key
+     */
+    public static byte[] generateKey() {
+        byte[] key = new byte[32];
+        RANDOM.nextBytes(key);
+        return key;
+    }
+
+    /**
+     * Returns the time a token is valid.
+     *
+     * @return the time a token is valid in seconds
+     */
+    public int getMaxAge() {
+        return (int) (maxAge / 1000);
+    }
+
+    /**
+     * Issues a new token for the user, valid from now on.
+     *
+     * @param user
+     *            the user
+     * @return the token
+     */
+    public String issue(BlogUser user) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeLong(user.getId());
+            out.writeLong(System.currentTimeMillis() + maxAge);
+            out.writeUTF(user.getNick());
+            out.writeUTF(user.getFirstName());
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to write the token.", ex);
+        }
+
+        byte[] payload = bytes.toByteArray();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(payload) + "." + encoder.encodeToString(sign(payload));
+    }
+
+    /**
+     * Verifies the token.
+     *
+     * @param token
+     *            the token
+     * @return the content of the token or {@code null} if the token is
+     *         malformed, its signature is wrong or it has expired
+     */
+    public AuthToken verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot < 0)
+            return null;
+
+        byte[] payload;
+        byte[] signature;
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            payload = decoder.decode(token.substring(0, dot));
+            signature = decoder.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(sign(payload), signature))
+            return null;
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            if (in.readByte() != VERSION)
+                return null;
+
+            long userId = in.readLong();
+            long expiresAt = in.readLong();
+            if (expiresAt <= System.currentTimeMillis())
+                return null;
+
+            return new AuthToken(userId, in.readUTF(), in.readUTF(), expiresAt);
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Signs the payload.
+     *
+     * @param payload
+     *            the payload
+     * @return the signature
+     */
+    private byte[] sign(byte[] payload) {
+        return mac.get().doFinal(payload);
+    }
+
+    /**
+     * Creates a message authentication code initialized with the key.
+     *
+     * @return the message authentication code
+     */
+    private Mac createMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ALGORITHM + " is not supported.", ex);
+        }
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package hr.fer.zemris.java.hw15.web.auth;
+
+import java.util.Objects;
+
+/**
+ * {@code TokenSignerProvider} is a singleton that stores the
+ * {@link TokenSigner} used by the application. By default that is a signer
+ * with a random key, whose tokens are valid for {@value #DEFAULT_MAX_AGE}
+ * seconds and only until the application is stopped.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see TokenSigner
+ */
+public class TokenSignerProvider {
+
+    /** Default time a token is valid in seconds. */
+    public static final int DEFAULT_MAX_AGE = 60 * 10;
+
+    /** Signer of the authentication tokens. */
+    private static volatile TokenSigner TOKEN_SIGNER = new TokenSigner(TokenSigner.generateKey(),
+            DEFAULT_MAX_AGE);
+
+    /**
+     * Returns the signer of the authentication tokens.
+     *
+     * @return the signer of the authentication tokens
+     */
+    public static TokenSigner getTokenSigner() {
+        return TOKEN_SIGNER;
+    }
+
+    /**
+     * Sets the signer of the authentication tokens.
+     *
+     * @param tokenSigner
+     *            the signer of the authentication tokens
+     * @throws NullPointerException
+     *             if parameter {@code tokenSigner} is a {@code null} reference
+     */
+    public static void setTokenSigner(TokenSigner tokenSigner) {
+        TOKEN_SIGNER = Objects.requireNonNull(tokenSigner,
+                "You cannot set the token signer to a null reference.");
+    }
+
+}
\ No newline at end of file
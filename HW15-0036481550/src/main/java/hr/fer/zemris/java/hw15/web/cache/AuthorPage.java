@@ -0,0 +1,81 @@
+package hr.fer.zemris.java.hw15.web.cache;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import hr.fer.zemris.java.hw15.dao.BlogVersion;
+
+/**
+ * {@code AuthorPage} is one page of the blog entries of an author: the IDs of
+ * the entries on the page, the cursor of the next page and the version of the
+ * entries of the author the page was read at. The entries themselves are
+ * cached separately.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see FragmentCache
+ */
+public final class AuthorPage {
+
+    /** IDs of the blog entries on this page. */
+    private final List<Long> entryIds;
+
+    /** Cursor of the next page or {@code null} if this is the last page. */
+    private final String nextPage;
+
+    /** Version of the blog entries of the author. */
+    private final BlogVersion version;
+
+    /**
+     * Constructs a new {@code AuthorPage}.
+     *
+     * @param entryIds
+     *            the IDs of the blog entries on this page
+     * @param nextPage
+     *            the cursor of the next page or {@code null} if this is the
+     *            last page
+     * @param version
+     *            the version of the blog entries of the author
+     * @throws NullPointerException
+     *             if parameter {@code entryIds} or {@code version} is a
+     *             {@code null} reference
+     */
+    public AuthorPage(List<Long> entryIds, String nextPage, BlogVersion version) {
+        this.entryIds = Collections.unmodifiableList(
+                Objects.requireNonNull(entryIds, "You cannot set the IDs of the blog entries to a null reference."));
+        this.nextPage = nextPage;
+        this.version = Objects.requireNonNull(version, "You cannot set the version to a null reference.");
+    }
+
+    /**
+     * Returns the IDs of the blog entries on this page, in the order they are
+     * shown.
+     *
+     * @return the unmodifiable list of the IDs of the blog entries
+     */
+    public List<Long> getEntryIds() {
+        return entryIds;
+    }
+
+    /**
+     * Returns the cursor of the next page.
+     *
+     * @return the cursor of the next page or {@code null} if this is the last
+     *         page
+     */
+    public String getNextPage() {
+        return nextPage;
+    }
+
+    /**
+     * Returns the version of the blog entries of the author the page was read
+     * at.
+     *
+     * @return the version of the blog entries of the author
+     */
+    public BlogVersion getVersion() {
+        return version;
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+package hr.fer.zemris.java.hw15.web.cache;
+
+import java.io.CharArrayWriter;
+import java.io.PrintWriter;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * {@code BufferedResponse} is a {@link HttpServletResponseWrapper} that keeps
+ * the text written to it instead of sending it, so a JSP can be included to
+ * render a fragment of a page into a string.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see HttpServletResponseWrapper
+ */
+public class BufferedResponse extends HttpServletResponseWrapper {
+
+    /** Text written to the response. */
+    private final CharArrayWriter buffer = new CharArrayWriter();
+
+    /** Writer of the text. */
+    private final PrintWriter writer = new PrintWriter(buffer);
+
+    /**
+     * Constructs a new {@code BufferedResponse}.
+     *
+     * @param response
+     *            the wrapped response
+     */
+    public BufferedResponse(HttpServletResponse response) {
+        super(response);
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        return writer;
+    }
+
+    /**
+     * Throws {@link IllegalStateException} because only text can be buffered.
+     *
+     * @return never
+     * @throws IllegalStateException
+     *             always
+     */
+    @Override
+    public ServletOutputStream getOutputStream() {
+        throw new IllegalStateException("Only text can be written to a buffered response.");
+    }
+
+    @Override
+    public void flushBuffer() {
+        writer.flush();
+    }
+
+    /**
+     * Returns the text written to the response.
+     *
+     * @return the text written to the response
+     */
+    public String getText() {
+        writer.flush();
+        return buffer.toString();
+    }
+
+}
\ No newline at end of file
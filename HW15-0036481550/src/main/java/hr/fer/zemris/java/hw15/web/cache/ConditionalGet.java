@@ -0,0 +1,129 @@
+package hr.fer.zemris.java.hw15.web.cache;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import hr.fer.zemris.java.hw15.dao.BlogVersion;
+
+/**
+ * {@code ConditionalGet} is a utility class that answers conditional
+ * {@code GET} and {@code HEAD} requests. Pages get a weak {@code ETag} made of
+ * their {@link BlogVersion} and the variant of the page and a
+ * {@code Last-Modified} header, and a request whose {@code If-None-Match} or
+ * {@code If-Modified-Since} header matches them is answered with
+ * {@code 304 Not Modified} before the page is rendered.
+ * <p>
+ * The tags are weak, so they stay valid when the response is compressed.
+ * Caches must revalidate the pages on every request and keep them apart by
+ * the cookies, because the pages differ for the logged in users.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see BlogVersion
+ */
+public class ConditionalGet {
+
+    /**
+     * Sets the validators of the page and checks whether the client already
+     * has it. If it does, the response status is set to
+     * {@code 304 Not Modified} and nothing else should be written. Only
+     * {@code GET} and {@code HEAD} requests are checked; other requests are
+     * left as they are.
+     * <p>
+     * As in RFC 7232, {@code If-Modified-Since} is ignored if the request has
+     * an {@code If-None-Match} header.
+     *
+     * @param req
+     *            an {@link HttpServletRequest} object that contains the request
+     *            the client has made of the servlet
+     * @param resp
+     *            an {@link HttpServletResponse} object that contains the
+     *            response the servlet sends to the client
+     * @param version
+     *            the version of the data shown on the page
+     * @param variant
+     *            the variant of the page for the current client, e.g. whether
+     *            the client is logged in
+     * @return {@code true} if the client has the page and {@code 304} was
+     *         set; {@code false} if the page should be sent
+     */
+    public static boolean isNotModified(HttpServletRequest req, HttpServletResponse resp, BlogVersion version,
+            String variant) {
+        String method = req.getMethod();
+        if (!method.equals("GET") && !method.equals("HEAD"))
+            return false;
+
+        String etag = "W/\"" + version.toTag() + "-" + variant + "\"";
+        long lastModified = version.getLastModified() / 1000 * 1000;
+
+        resp.setHeader("ETag", etag);
+        if (lastModified > 0) {
+            resp.setDateHeader("Last-Modified", lastModified);
+        }
+        resp.setHeader("Cache-Control", "no-cache");
+        resp.addHeader("Vary", "Cookie");
+
+        boolean notModified;
+        String ifNoneMatch = req.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            notModified = matches(ifNoneMatch, etag);
+        } else {
+            notModified = lastModified > 0 && lastModified <= getIfModifiedSince(req);
+        }
+
+        if (notModified) {
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        }
+        return notModified;
+    }
+
+    /**
+     * Checks whether the value of the {@code If-None-Match} header matches the
+     * tag, using the weak comparison.
+     *
+     * @param ifNoneMatch
+     *            the value of the {@code If-None-Match} header
+     * @param etag
+     *            the tag of the page
+     * @return {@code true} if the header matches the tag; {@code false}
+     *         otherwise
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        String opaque = stripWeak(etag);
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*") || stripWeak(tag).equals(opaque))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the tag without the weakness indicator.
+     *
+     * @param tag
+     *            the tag
+     * @return the tag without the {@code W/} prefix
+     */
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    /**
+     * Returns the value of the {@code If-Modified-Since} header.
+     *
+     * @param req
+     *            an {@link HttpServletRequest} object that contains the request
+     *            the client has made of the servlet
+     * @return the time from the header in milliseconds since the epoch or -1
+     *         if there is no valid header
+     */
+    private static long getIfModifiedSince(HttpServletRequest req) {
+        try {
+            return req.getDateHeader("If-Modified-Since");
+        } catch (IllegalArgumentException ex) {
+            return -1;
+        }
+    }
+
+}
\ No newline at end of file
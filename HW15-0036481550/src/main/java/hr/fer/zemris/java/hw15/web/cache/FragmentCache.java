@@ -0,0 +1,428 @@
+package hr.fer.zemris.java.hw15.web.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import hr.fer.zemris.java.hw15.dao.jpa.JPAEMProvider;
+
+/**
+ * {@code FragmentCache} keeps the rendered blog entries and the pages of the
+ * blog entries of the authors in memory, so popular pages are served without
+ * touching the database. Entries are cached by their IDs, once with and once
+ * without their comments; pages by the nickname of the author and the cursor
+ * of the page. The rendered entries take at most the configured number of
+ * bytes and the pages at most {@value #MAX_PAGES} places; both expire
+ * {@value #TIME_TO_LIVE} minutes after they are cached, in case the database
+ * is changed outside the application.
+ * <p>
+ * Writes invalidate exactly what they change: editing an entry invalidates
+ * the entry and the pages of its author, whose versions include the time of
+ * the last change, commenting it invalidates the entry with its comments and
+ * adding an entry invalidates the pages of its author. Every invalidation is done
+ * right away and once more after the transaction of the write is committed.
+ * A fragment rendered from data read before an invalidation is never kept:
+ * the reader takes the stamp of the entry, {@link #entryStamp(long)}, or of
+ * the author, {@link #authorStamp(String)}, before reading, and the fragment
+ * is dropped if that entry or author was invalidated since then. Stamps are
+ * kept in {@value #STAMPS} stripes, so a write only rarely drops a fragment of
+ * another entry or author.
+ * <p>
+ * Taking a stamp also sends the following reads of the current thread to the
+ * primary database, because a lagging replica could still return the data of
+ * an invalidated fragment and it would be cached until it expires.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see FragmentCacheProvider
+ */
+public class FragmentCache {
+
+    /** Maximal number of the cached pages. */
+    private static final int MAX_PAGES = 10_000;
+
+    /** Time after which cached fragments expire in minutes. */
+    private static final int TIME_TO_LIVE = 10;
+
+    /** Estimated number of bytes a rendered entry takes besides its HTML. */
+    private static final int ENTRY_OVERHEAD = 96;
+
+    /** Number of the stripes of the stamps of the entries and the authors. */
+    private static final int STAMPS = 4096;
+
+    /** Flag that is {@code false} if nothing is cached. */
+    private final boolean enabled;
+
+    /** Maximal number of bytes the rendered entries take. */
+    private final long maxBytes;
+
+    /** Rendered entries by their keys. */
+    private final Cache<Long, RenderedEntry> entries;
+
+    /** Pages of the blog entries by their keys. */
+    private final Cache<PageKey, AuthorPage> pages;
+
+    /** Stamps of the entries, by the stripes of their IDs. */
+    private final AtomicLongArray entryStamps = new AtomicLongArray(STAMPS);
+
+    /** Stamps of the authors, by the stripes of their nicknames. */
+    private final AtomicLongArray authorStamps = new AtomicLongArray(STAMPS);
+
+    /** Number of the invalidations. */
+    private final LongAdder invalidations = new LongAdder();
+
+    /** Number of the fragments that were not kept because they were stale. */
+    private final LongAdder stalePuts = new LongAdder();
+
+    /**
+     * Constructs a new {@code FragmentCache}.
+     *
+     * @param maxBytes
+     *            the maximal number of bytes the rendered entries take; 0
+     *            disables the cache
+     * @throws IllegalArgumentException
+     *             if {@code maxBytes} is negative
+     */
+    public FragmentCache(long maxBytes) {
+        if (maxBytes < 0)
+            throw new IllegalArgumentException("Size of the fragment cache cannot be negative.");
+
+        this.enabled = maxBytes > 0;
+        this.maxBytes = maxBytes;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long key, RenderedEntry entry) -> ENTRY_OVERHEAD + 2 * entry.getHtml().length())
+                .expireAfterWrite(TIME_TO_LIVE, TimeUnit.MINUTES)
+                .recordStats()
+                .build();
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(enabled ? MAX_PAGES : 0)
+                .expireAfterWrite(TIME_TO_LIVE, TimeUnit.MINUTES)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the current stamp of the blog entry. It must be taken before the
+     * entry is read and given back when the rendered entry is put. The
+     * following reads of the current thread go to the primary database.
+     *
+     * @param id
+     *            the ID of the blog entry
+     * @return the current stamp of the blog entry
+     */
+    public long entryStamp(long id) {
+        JPAEMProvider.readFromPrimary();
+        return entryStamps.get(entryStripe(id));
+    }
+
+    /**
+     * Returns the current stamp of the author. It must be taken before a page
+     * of the entries of the author is read and given back when the page, or
+     * an entry read with it, is put. The following reads of the current
+     * thread go to the primary database.
+     *
+     * @param nick
+     *            the nickname of the author
+     * @return the current stamp of the author
+     */
+    public long authorStamp(String nick) {
+        JPAEMProvider.readFromPrimary();
+        return authorStamps.get(authorStripe(nick));
+    }
+
+    /**
+     * Returns the rendered blog entry.
+     *
+     * @param id
+     *            the ID of the blog entry
+     * @param withComments
+     *            {@code true} for the entry rendered with its comments
+     * @return the rendered blog entry or {@code null} if it isn't cached
+     */
+    public RenderedEntry getEntry(long id, boolean withComments) {
+        return enabled ? entries.getIfPresent(entryKey(id, withComments)) : null;
+    }
+
+    /**
+     * Caches the rendered blog entry unless the entry was invalidated since
+     * the stamp was taken.
+     *
+     * @param entry
+     *            the rendered blog entry
+     * @param withComments
+     *            {@code true} if the entry is rendered with its comments
+     * @param stamp
+     *            the stamp of the entry taken before it was read
+     */
+    public void putEntry(RenderedEntry entry, boolean withComments, long stamp) {
+        if (enabled) {
+            put(entries, entryKey(entry.getId(), withComments), entry, entryStamps, entryStripe(entry.getId()),
+                    stamp);
+        }
+    }
+
+    /**
+     * Caches the blog entry rendered without its comments that was read with
+     * a page of its author, unless the author was invalidated since the stamp
+     * was taken. Editing an entry invalidates its author as well.
+     *
+     * @param entry
+     *            the rendered blog entry
+     * @param stamp
+     *            the stamp of the author taken before the page was read
+     */
+    public void putPageEntry(RenderedEntry entry, long stamp) {
+        if (enabled) {
+            put(entries, entryKey(entry.getId(), false), entry, authorStamps, authorStripe(entry.getNick()), stamp);
+        }
+    }
+
+    /**
+     * Returns the page of the blog entries of the author.
+     *
+     * @param nick
+     *            the nickname of the author
+     * @param after
+     *            the cursor of the page or {@code null} for the first page
+     * @return the page or {@code null} if it isn't cached
+     */
+    public AuthorPage getPage(String nick, String after) {
+        return enabled ? pages.getIfPresent(new PageKey(nick, after)) : null;
+    }
+
+    /**
+     * Caches the page of the blog entries of the author unless the author was
+     * invalidated since the stamp was taken.
+     *
+     * @param nick
+     *            the nickname of the author
+     * @param after
+     *            the cursor of the page or {@code null} for the first page
+     * @param page
+     *            the page
+     * @param stamp
+     *            the stamp of the author taken before the page was read
+     */
+    public void putPage(String nick, String after, AuthorPage page, long stamp) {
+        if (enabled) {
+            put(pages, new PageKey(nick, after), page, authorStamps, authorStripe(nick), stamp);
+        }
+    }
+
+    /**
+     * Invalidates the blog entry, with and without its comments, because it
+     * was changed.
+     *
+     * @param id
+     *            the ID of the blog entry
+     */
+    public void invalidateEntry(long id) {
+        invalidate(entryStamps, entryStripe(id), () -> {
+            entries.invalidate(entryKey(id, false));
+            entries.invalidate(entryKey(id, true));
+        });
+    }
+
+    /**
+     * Invalidates the blog entry with its comments because it was commented.
+     *
+     * @param id
+     *            the ID of the blog entry
+     */
+    public void invalidateComments(long id) {
+        invalidate(entryStamps, entryStripe(id), () -> entries.invalidate(entryKey(id, true)));
+    }
+
+    /**
+     * Invalidates all the pages of the blog entries of the author because an
+     * entry was added or edited.
+     *
+     * @param nick
+     *            the nickname of the author
+     */
+    public void invalidateAuthor(String nick) {
+        invalidate(authorStamps, authorStripe(nick),
+                () -> pages.asMap().keySet().removeIf(key -> key.nick.equals(nick)));
+    }
+
+    /**
+     * Returns the snapshot of the statistics of the cache.
+     *
+     * @return the map of statistic names to their values
+     */
+    public Map<String, Number> getStatistics() {
+        Map<String, Number> stats = new LinkedHashMap<>();
+        addTo(stats, "entry", entries.stats());
+        addTo(stats, "page", pages.stats());
+        stats.put("entries", entries.estimatedSize());
+        stats.put("pages", pages.estimatedSize());
+        stats.put("bytes", entries.policy().eviction().get().weightedSize().orElse(0));
+        stats.put("maxBytes", maxBytes);
+        stats.put("invalidations", invalidations.sum());
+        stats.put("stalePuts", stalePuts.sum());
+        return stats;
+    }
+
+    /**
+     * Changes the stamp and runs the invalidation right away and once more
+     * after the transaction of the current thread is committed.
+     *
+     * @param stamps
+     *            the stamps of the entries or of the authors
+     * @param stripe
+     *            the stripe of the invalidated entry or author
+     * @param invalidation
+     *            the invalidation
+     */
+    private void invalidate(AtomicLongArray stamps, int stripe, Runnable invalidation) {
+        if (!enabled)
+            return;
+
+        Runnable task = () -> {
+            stamps.incrementAndGet(stripe);
+            invalidations.increment();
+            invalidation.run();
+        };
+        task.run();
+        JPAEMProvider.afterCommit(task);
+    }
+
+    /**
+     * Caches the value and drops it again if its stamp changed since it was
+     * taken. The stamp is checked after the value is put, so an invalidation
+     * that runs at the same time either sees the value and removes it or
+     * changes the stamp before it is checked.
+     *
+     * @param cache
+     *            the cache
+     * @param key
+     *            the key of the value
+     * @param value
+     *            the value
+     * @param stamps
+     *            the stamps of the entries or of the authors
+     * @param stripe
+     *            the stripe of the stamp of the value
+     * @param stamp
+     *            the stamp taken before the value was read
+     */
+    private <K, V> void put(Cache<K, V> cache, K key, V value, AtomicLongArray stamps, int stripe, long stamp) {
+        if (stamps.get(stripe) != stamp) {
+            stalePuts.increment();
+            return;
+        }
+        cache.put(key, value);
+        if (stamps.get(stripe) != stamp) {
+            cache.asMap().remove(key, value);
+            stalePuts.increment();
+        }
+    }
+
+    /**
+     * Returns the stripe of the stamp of the blog entry.
+     *
+     * @param id
+     *            the ID of the blog entry
+     * @return the stripe of the stamp
+     */
+    private static int entryStripe(long id) {
+        return (int) (id ^ id >>> 32) & (STAMPS - 1);
+    }
+
+    /**
+     * Returns the stripe of the stamp of the author.
+     *
+     * @param nick
+     *            the nickname of the author
+     * @return the stripe of the stamp
+     */
+    private static int authorStripe(String nick) {
+        int hash = nick.hashCode();
+        return (hash ^ hash >>> 16) & (STAMPS - 1);
+    }
+
+    /**
+     * Returns the key of the rendered blog entry.
+     *
+     * @param id
+     *            the ID of the blog entry
+     * @param withComments
+     *            {@code true} for the entry rendered with its comments
+     * @return the key of the rendered blog entry
+     */
+    private static Long entryKey(long id, boolean withComments) {
+        return id << 1 | (withComments ? 1 : 0);
+    }
+
+    /**
+     * Puts the hits, misses, hit percentage and evictions of the cache into
+     * the map.
+     *
+     * @param stats
+     *            the map of statistic names to their values
+     * @param prefix
+     *            the prefix of the names of the statistics
+     * @param cacheStats
+     *            the statistics of the cache
+     */
+    private static void addTo(Map<String, Number> stats, String prefix, CacheStats cacheStats) {
+        stats.put(prefix + "Hits", cacheStats.hitCount());
+        stats.put(prefix + "Misses", cacheStats.missCount());
+        stats.put(prefix + "HitPercent",
+                cacheStats.requestCount() == 0 ? 0 : cacheStats.hitCount() * 100 / cacheStats.requestCount());
+        stats.put(prefix + "Evictions", cacheStats.evictionCount());
+    }
+
+    /**
+     * {@code PageKey} is the key of a page of the blog entries of an author.
+     *
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private static final class PageKey {
+
+        /** Nickname of the author. */
+        final String nick;
+
+        /** Cursor of the page or {@code null} for the first page. */
+        final String after;
+
+        /**
+         * Constructs a new {@code PageKey}.
+         *
+         * @param nick
+         *            the nickname of the author
+         * @param after
+         *            the cursor of the page or {@code null} for the first
+         *            page
+         */
+        PageKey(String nick, String after) {
+            this.nick = Objects.requireNonNull(nick, "You cannot set the nickname to a null reference.");
+            this.after = after;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * nick.hashCode() + Objects.hashCode(after);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof PageKey))
+                return false;
+            PageKey other = (PageKey) obj;
+            return nick.equals(other.nick) && Objects.equals(after, other.after);
+        }
+    }
+
+}
\ No newline at end of file
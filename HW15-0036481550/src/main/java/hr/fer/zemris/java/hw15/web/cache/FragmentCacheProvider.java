@@ -0,0 +1,42 @@
+package hr.fer.zemris.java.hw15.web.cache;
+
+import java.util.Objects;
+
+/**
+ * {@code FragmentCacheProvider} is a singleton that stores the
+ * {@link FragmentCache} used by the application. By default that is a
+ * disabled cache that keeps nothing.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see FragmentCache
+ */
+public class FragmentCacheProvider {
+
+    /** Cache of the rendered fragments of the pages. */
+    private static volatile FragmentCache FRAGMENT_CACHE = new FragmentCache(0);
+
+    /**
+     * Returns the cache of the rendered fragments of the pages.
+     *
+     * @return the cache of the rendered fragments of the pages
+     */
+    public static FragmentCache getFragmentCache() {
+        return FRAGMENT_CACHE;
+    }
+
+    /**
+     * Sets the cache of the rendered fragments of the pages.
+     *
+     * @param fragmentCache
+     *            the cache of the rendered fragments of the pages
+     * @throws NullPointerException
+     *             if parameter {@code fragmentCache} is a {@code null}
+     *             reference
+     */
+    public static void setFragmentCache(FragmentCache fragmentCache) {
+        FRAGMENT_CACHE = Objects.requireNonNull(fragmentCache,
+                "You cannot set the fragment cache to a null reference.");
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,91 @@
+package hr.fer.zemris.java.hw15.web.cache;
+
+import java.util.Objects;
+
+import hr.fer.zemris.java.hw15.dao.BlogVersion;
+
+/**
+ * {@code RenderedEntry} is one blog entry rendered by entry.jsp as an HTML
+ * fragment, together with what the page around it needs to know about it.
+ * An entry rendered with its comments also keeps the version it was rendered
+ * from, so a conditional request for it is answered without the database.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see FragmentCache
+ */
+public final class RenderedEntry {
+
+    /** ID of the blog entry. */
+    private final long id;
+
+    /** Nickname of the creator of the blog entry. */
+    private final String nick;
+
+    /** Rendered HTML of the blog entry. */
+    private final String html;
+
+    /** Version of the rendered blog entry and its comments. */
+    private final BlogVersion version;
+
+    /**
+     * Constructs a new {@code RenderedEntry}.
+     *
+     * @param id
+     *            the ID of the blog entry
+     * @param nick
+     *            the nickname of the creator of the blog entry
+     * @param html
+     *            the rendered HTML of the blog entry
+     * @param version
+     *            the version of the blog entry and its comments or
+     *            {@code null} if the comments were not rendered
+     * @throws NullPointerException
+     *             if parameter {@code nick} or {@code html} is a {@code null}
+     *             reference
+     */
+    public RenderedEntry(long id, String nick, String html, BlogVersion version) {
+        this.id = id;
+        this.nick = Objects.requireNonNull(nick, "You cannot set the nickname to a null reference.");
+        this.html = Objects.requireNonNull(html, "You cannot set the HTML to a null reference.");
+        this.version = version;
+    }
+
+    /**
+     * Returns the ID of the blog entry.
+     *
+     * @return the ID of the blog entry
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Returns the nickname of the creator of the blog entry.
+     *
+     * @return the nickname of the creator of the blog entry
+     */
+    public String getNick() {
+        return nick;
+    }
+
+    /**
+     * Returns the rendered HTML of the blog entry.
+     *
+     * @return the rendered HTML of the blog entry
+     */
+    public String getHtml() {
+        return html;
+    }
+
+    /**
+     * Returns the version of the blog entry and its comments the HTML was
+     * rendered from.
+     *
+     * @return the version or {@code null} if the comments were not rendered
+     */
+    public BlogVersion getVersion() {
+        return version;
+    }
+
+}
\ No newline at end of file
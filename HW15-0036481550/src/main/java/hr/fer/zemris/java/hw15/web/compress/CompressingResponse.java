@@ -0,0 +1,503 @@
+package hr.fer.zemris.java.hw15.web.compress;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * {@code CompressingResponse} is a {@link HttpServletResponseWrapper} that
+ * compresses the body of the response with gzip or deflate. The body is kept
+ * in memory until it grows over the threshold; a smaller body is sent as it
+ * is, with its length, and a larger one is compressed if its content type is
+ * text and the response is a successful one.
+ * <p>
+ * {@link #finish()} must be called once the response is written, and
+ * {@link #abort()} if writing it fails, so the deflater goes back to its pool.
+ * A response of an asynchronous request is finished after the filter returns,
+ * so it is let through uncompressed by {@link #passThrough()}, which is also
+ * how a non-blocking write listener gets to the stream of the container.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see CompressionFilter
+ */
+class CompressingResponse extends HttpServletResponseWrapper {
+
+    /** Header of the gzip format: magic number, deflate method, no flags. */
+    private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+    /** Length of the gzip trailer. */
+    private static final int GZIP_TRAILER_LENGTH = 8;
+
+    /** Filter that collects the statistics. */
+    private final CompressionFilter filter;
+
+    /** Name of the content encoding, {@code gzip} or {@code deflate}. */
+    private final String encoding;
+
+    /** Pool of the deflaters of the encoding. */
+    private final DeflaterPool pool;
+
+    /** Minimal length of a body that is compressed. */
+    private final int threshold;
+
+    /** Stream of the body or {@code null} if it isn't used yet. */
+    private CompressingStream stream;
+
+    /** Writer of the body or {@code null} if it isn't used. */
+    private PrintWriter writer;
+
+    /**
+     * Flag that is {@code true} if the body is written by the container or
+     * let through uncompressed.
+     */
+    private boolean bypassed;
+
+    /**
+     * Constructs a new {@code CompressingResponse}.
+     *
+     * @param response
+     *            the wrapped response
+     * @param filter
+     *            the filter that collects the statistics
+     * @param encoding
+     *            the name of the content encoding
+     * @param pool
+     *            the pool of the deflaters of the encoding
+     * @param threshold
+     *            the minimal length of a body that is compressed
+     */
+    CompressingResponse(HttpServletResponse response, CompressionFilter filter, String encoding, DeflaterPool pool,
+            int threshold) {
+        super(response);
+        this.filter = filter;
+        this.encoding = encoding;
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null)
+            throw new IllegalStateException("getWriter() has already been called for this response.");
+        if (bypassed && stream == null)
+            return super.getOutputStream();
+
+        if (stream == null) {
+            stream = new CompressingStream();
+        }
+        return stream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (stream != null)
+                throw new IllegalStateException("getOutputStream() has already been called for this response.");
+            if (bypassed)
+                return super.getWriter();
+
+            stream = new CompressingStream();
+            writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        // the length is set once it is known whether the body is compressed
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        // the length is set once it is known whether the body is compressed
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (!name.equalsIgnoreCase("Content-Length")) {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (!name.equalsIgnoreCase("Content-Length")) {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        } else if (stream != null) {
+            stream.flush();
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        discard();
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        if (stream != null) {
+            stream.resetBuffer();
+        }
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        bypass();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        bypass();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        bypass();
+        super.sendRedirect(location);
+    }
+
+    /**
+     * Writes the rest of the body and gives the deflater back to the pool.
+     *
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    void finish() throws IOException {
+        if (bypassed || stream == null)
+            return;
+
+        if (writer != null) {
+            writer.flush();
+        }
+        stream.finish();
+    }
+
+    /**
+     * Lets the rest of the body through uncompressed, because the request went
+     * asynchronous. The part written so far is sent as it is, unless it is
+     * already being compressed; then the compressed body is finished.
+     *
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    void passThrough() throws IOException {
+        if (bypassed)
+            return;
+
+        bypassed = true;
+        if (writer != null) {
+            writer.flush();
+        }
+        if (stream != null) {
+            stream.passThrough();
+        }
+    }
+
+    /**
+     * Gives the deflater back to the pool without writing the rest of the
+     * body.
+     */
+    void abort() {
+        if (stream != null) {
+            stream.releaseDeflater();
+        }
+    }
+
+    /**
+     * Drops the body written so far, so the container can write its own.
+     */
+    private void bypass() {
+        discard();
+        bypassed = true;
+    }
+
+    /**
+     * Drops the stream and the writer of the body.
+     */
+    private void discard() {
+        abort();
+        stream = null;
+        writer = null;
+    }
+
+    /**
+     * Checks whether the body should be compressed.
+     *
+     * @return {@code true} if the response is successful, has a text content
+     *         type and isn't encoded yet
+     */
+    private boolean isCompressible() {
+        if (getStatus() != HttpServletResponse.SC_OK || containsHeader("Content-Encoding"))
+            return false;
+
+        String type = getContentType();
+        return type != null && CompressionFilter.isCompressible(type);
+    }
+
+    /**
+     * {@code CompressingStream} is the {@link ServletOutputStream} of the
+     * body. It buffers the body until it decides whether to compress it.
+     *
+     * @author Karlo Vrbić
+     * @version 1.0
+     */
+    private class CompressingStream extends ServletOutputStream {
+
+        /** Body written before the decision. */
+        private byte[] buffer = new byte[Math.min(threshold, 8192)];
+
+        /** Number of the bytes in the buffer. */
+        private int count;
+
+        /** Flag that is {@code true} once it is decided how to send the body. */
+        private boolean decided;
+
+        /** Deflater of the body or {@code null} if it isn't compressed. */
+        private Deflater deflater;
+
+        /** Checksum of the body for the gzip trailer. */
+        private CRC32 crc;
+
+        /** Output of the deflater. */
+        private byte[] output;
+
+        /** Underlying stream of the response. */
+        private ServletOutputStream out;
+
+        /** Processor time spent compressing in nanoseconds. */
+        private long cpuTime;
+
+        /** Flag that is {@code true} once the body is finished. */
+        private boolean finished;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (finished)
+                throw new IOException("The response is already finished.");
+
+            if (!decided) {
+                if (count + len <= threshold) {
+                    if (count + len > buffer.length) {
+                        buffer = Arrays.copyOf(buffer, Math.min(threshold, Math.max(count + len, 2 * buffer.length)));
+                    }
+                    System.arraycopy(b, off, buffer, count, len);
+                    count += len;
+                    return;
+                }
+                decide(isCompressible());
+            }
+
+            if (deflater != null) {
+                deflate(b, off, len);
+            } else {
+                out.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (decided && deflater == null) {
+                out.flush();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return !decided || deflater != null || out.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            try {
+                CompressingResponse.this.passThrough();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            if (finished)
+                throw new IllegalStateException("The compressed body cannot be written non-blocking.");
+
+            out.setWriteListener(writeListener);
+        }
+
+        /**
+         * Sends the buffered body as it is and writes the rest of it
+         * uncompressed, or finishes the body if it is already compressed.
+         *
+         * @throws IOException
+         *             if an I/O error occurs
+         */
+        void passThrough() throws IOException {
+            if (!decided) {
+                decide(false);
+                filter.recordSkipped();
+            } else if (deflater != null) {
+                finish();
+            }
+        }
+
+        /**
+         * Drops the buffered body if it isn't sent yet.
+         */
+        void resetBuffer() {
+            if (!decided) {
+                count = 0;
+            }
+        }
+
+        /**
+         * Writes the rest of the body. A body that never reached the threshold
+         * is sent as it is.
+         *
+         * @throws IOException
+         *             if an I/O error occurs
+         */
+        void finish() throws IOException {
+            if (finished)
+                return;
+
+            if (!decided) {
+                getResponse().setContentLength(count);
+                decide(false);
+                filter.recordSkipped();
+            } else if (deflater != null) {
+                long start = CompressionFilter.cpuTime();
+                deflater.finish();
+                while (!deflater.finished()) {
+                    drain();
+                }
+                long in = deflater.getBytesRead();
+                long compressed = deflater.getBytesWritten();
+                if (crc != null) {
+                    writeInt((int) crc.getValue());
+                    writeInt((int) in);
+                    compressed += GZIP_HEADER.length + GZIP_TRAILER_LENGTH;
+                }
+                cpuTime += CompressionFilter.cpuTime() - start;
+                filter.recordCompressed(in, compressed, cpuTime);
+                releaseDeflater();
+            }
+            finished = true;
+        }
+
+        /**
+         * Gives the deflater back to the pool.
+         */
+        void releaseDeflater() {
+            if (deflater != null) {
+                pool.release(deflater);
+                deflater = null;
+            }
+        }
+
+        /**
+         * Decides how the body is sent and sends the buffered part of it.
+         *
+         * @param compress
+         *            {@code true} if the body is compressed
+         * @throws IOException
+         *             if an I/O error occurs
+         */
+        private void decide(boolean compress) throws IOException {
+            decided = true;
+            if (compress) {
+                setHeader("Content-Encoding", encoding);
+                deflater = pool.borrow();
+                output = new byte[8192];
+            }
+
+            out = getResponse().getOutputStream();
+            if (compress && encoding.equals(CompressionFilter.GZIP)) {
+                crc = new CRC32();
+                out.write(GZIP_HEADER);
+            }
+            if (deflater != null) {
+                deflate(buffer, 0, count);
+            } else {
+                out.write(buffer, 0, count);
+            }
+            buffer = null;
+        }
+
+        /**
+         * Compresses the bytes and writes the compressed output.
+         *
+         * @param b
+         *            the bytes
+         * @param off
+         *            the offset of the first byte
+         * @param len
+         *            the number of the bytes
+         * @throws IOException
+         *             if an I/O error occurs
+         */
+        private void deflate(byte[] b, int off, int len) throws IOException {
+            if (len == 0)
+                return;
+
+            long start = CompressionFilter.cpuTime();
+            if (crc != null) {
+                crc.update(b, off, len);
+            }
+            deflater.setInput(b, off, len);
+            while (!deflater.needsInput()) {
+                drain();
+            }
+            cpuTime += CompressionFilter.cpuTime() - start;
+        }
+
+        /**
+         * Writes the available output of the deflater.
+         *
+         * @throws IOException
+         *             if an I/O error occurs
+         */
+        private void drain() throws IOException {
+            int length = deflater.deflate(output, 0, output.length);
+            if (length > 0) {
+                out.write(output, 0, length);
+            }
+        }
+
+        /**
+         * Writes the integer in the little-endian order, as gzip stores them.
+         *
+         * @param value
+         *            the integer
+         * @throws IOException
+         *             if an I/O error occurs
+         */
+        private void writeInt(int value) throws IOException {
+            out.write(value & 0xff);
+            out.write((value >>> 8) & 0xff);
+            out.write((value >>> 16) & 0xff);
+            out.write((value >>> 24) & 0xff);
+        }
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,303 @@
+package hr.fer.zemris.java.hw15.web.compress;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * {@code CompressionFilter} is a filter that compresses the text responses
+ * with gzip or deflate, whichever the client prefers in its
+ * {@code Accept-Encoding} header. Responses shorter than the context parameter
+ * {@value #MIN_BYTES} are sent as they are, because compressing them costs
+ * more than it saves. The deflaters are taken from a {@link DeflaterPool}, so
+ * no native memory is allocated per response.
+ * <p>
+ * Asynchronous requests are supported, but their responses are not
+ * compressed: once a request goes asynchronous or its response is written
+ * with a write listener, the body is let through to the container as it is.
+ * <p>
+ * Compressed bodies are not cached; every response is compressed as it is
+ * written. The cached fragments of the {@code FragmentCache} are only parts
+ * of a page that entries.jsp writes around them, and separately compressed
+ * parts can't be joined into one gzip or deflate stream with a
+ * {@link java.util.zip.Deflater}. A whole page can't be cached either,
+ * because its ETag, which depends on the logged in user, is known only after
+ * the servlet runs. A client that already has the page gets an empty
+ * {@code 304 Not Modified} instead, so nothing is compressed for it.
+ * <p>
+ * The filter stores itself as the {@value #ATTRIBUTE} context attribute, so
+ * its statistics can be read: the numbers of the compressed and skipped
+ * responses, the bytes before and after compression, the compression ratio
+ * and the processor time spent compressing.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see Filter
+ * @see CompressingResponse
+ */
+@WebFilter(filterName = "f2", urlPatterns = { "/*" }, asyncSupported = true)
+public class CompressionFilter implements Filter {
+
+    /** Name of the gzip content encoding. */
+    static final String GZIP = "gzip";
+
+    /** Name of the deflate content encoding. */
+    static final String DEFLATE = "deflate";
+
+    /** Name of the context attribute with the filter. */
+    public static final String ATTRIBUTE = "my.application.compression";
+
+    /** Context parameter with the minimal length of a compressed response. */
+    private static final String MIN_BYTES = "compression.min_bytes";
+
+    /** Context parameter with the compression level. */
+    private static final String LEVEL = "compression.level";
+
+    /** Context parameter with the maximal number of the idle deflaters. */
+    private static final String POOL_SIZE = "compression.pool.size";
+
+    /** Bean that measures the processor time of the threads. */
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /** Minimal length of a compressed response. */
+    private int threshold;
+
+    /** Pool of the gzip deflaters. */
+    private DeflaterPool gzipPool;
+
+    /** Pool of the deflate deflaters. */
+    private DeflaterPool deflatePool;
+
+    /** Number of the compressed responses. */
+    private final LongAdder compressed = new LongAdder();
+
+    /** Number of the responses that were too short to compress. */
+    private final LongAdder skipped = new LongAdder();
+
+    /** Number of the bytes before compression. */
+    private final LongAdder bytesIn = new LongAdder();
+
+    /** Number of the bytes after compression. */
+    private final LongAdder bytesOut = new LongAdder();
+
+    /** Processor time spent compressing in nanoseconds. */
+    private final LongAdder cpuTime = new LongAdder();
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        ServletContext context = filterConfig.getServletContext();
+        try {
+            threshold = getIntParameter(context, MIN_BYTES, 1024);
+            int level = getIntParameter(context, LEVEL, 6);
+            int poolSize = getIntParameter(context, POOL_SIZE, 2 * Runtime.getRuntime().availableProcessors());
+
+            gzipPool = new DeflaterPool(level, true, poolSize);
+            deflatePool = new DeflaterPool(level, false, poolSize);
+        } catch (IllegalArgumentException ex) {
+            throw new ServletException("Invalid compression settings.", ex);
+        }
+        context.setAttribute(ATTRIBUTE, this);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (!(request instanceof HttpServletRequest) || ((HttpServletRequest) request).getMethod().equals("HEAD")) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        HttpServletRequest req = (HttpServletRequest) request;
+        HttpServletResponse resp = (HttpServletResponse) response;
+        resp.addHeader("Vary", "Accept-Encoding");
+
+        String encoding = negotiate(req.getHeader("Accept-Encoding"));
+        if (encoding == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        CompressingResponse compressing = new CompressingResponse(resp, this, encoding,
+                encoding.equals(GZIP) ? gzipPool : deflatePool, threshold);
+        boolean handled = false;
+        try {
+            chain.doFilter(request, compressing);
+            if (req.isAsyncStarted()) {
+                compressing.passThrough();
+            } else {
+                compressing.finish();
+            }
+            handled = true;
+        } finally {
+            if (!handled) {
+                compressing.abort();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        gzipPool.close();
+        deflatePool.close();
+    }
+
+    /**
+     * Returns the snapshot of the statistics of the compression.
+     *
+     * @return the map of statistic names to their values
+     */
+    public Map<String, Number> getStatistics() {
+        long in = bytesIn.sum();
+        long out = bytesOut.sum();
+
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("compressed", compressed.sum());
+        stats.put("skipped", skipped.sum());
+        stats.put("bytesIn", in);
+        stats.put("bytesOut", out);
+        stats.put("ratioPercent", in == 0 ? 0 : out * 100 / in);
+        stats.put("cpuMillis", cpuTime.sum() / 1_000_000);
+        stats.put("deflatersCreated", gzipPool.getCreated() + deflatePool.getCreated());
+        stats.put("deflatersReused", gzipPool.getReused() + deflatePool.getReused());
+        return stats;
+    }
+
+    /**
+     * Records a compressed response.
+     *
+     * @param in
+     *            the number of the bytes before compression
+     * @param out
+     *            the number of the bytes after compression
+     * @param cpu
+     *            the processor time spent compressing in nanoseconds
+     */
+    void recordCompressed(long in, long out, long cpu) {
+        compressed.increment();
+        bytesIn.add(in);
+        bytesOut.add(out);
+        cpuTime.add(cpu);
+    }
+
+    /**
+     * Records a response that was too short to compress.
+     */
+    void recordSkipped() {
+        skipped.increment();
+    }
+
+    /**
+     * Returns the processor time of the current thread, or the wall time if
+     * the processor time can't be measured.
+     *
+     * @return the time in nanoseconds
+     */
+    static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    /**
+     * Checks whether the content of the type is worth compressing.
+     *
+     * @param contentType
+     *            the content type of the response
+     * @return {@code true} for text, JSON, JavaScript and XML
+     */
+    static boolean isCompressible(String contentType) {
+        String type = contentType.toLowerCase();
+        return type.startsWith("text/") || type.startsWith("application/json")
+                || type.startsWith("application/javascript") || type.startsWith("application/xml");
+    }
+
+    /**
+     * Chooses the content encoding from the {@code Accept-Encoding} header.
+     * Gzip wins a tie, because every client that accepts deflate accepts it
+     * and some of them decode deflate wrongly.
+     *
+     * @param acceptEncoding
+     *            the value of the {@code Accept-Encoding} header or
+     *            {@code null} if there is none
+     * @return {@value #GZIP}, {@value #DEFLATE} or {@code null} if the client
+     *         accepts neither
+     */
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return null;
+
+        double gzip = -1;
+        double deflate = -1;
+        double any = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] parameters = part.trim().split(";");
+            String coding = parameters[0].trim().toLowerCase();
+            double quality = 1;
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException ex) {
+                        quality = 0;
+                    }
+                }
+            }
+
+            if (coding.equals(GZIP) || coding.equals("x-gzip")) {
+                gzip = quality;
+            } else if (coding.equals(DEFLATE)) {
+                deflate = quality;
+            } else if (coding.equals("*")) {
+                any = quality;
+            }
+        }
+
+        gzip = gzip < 0 ? any : gzip;
+        deflate = deflate < 0 ? any : deflate;
+        if (gzip > 0 && gzip >= deflate)
+            return GZIP;
+        if (deflate > 0)
+            return DEFLATE;
+        return null;
+    }
+
+    /**
+     * Returns the value of the integer context parameter with the specified
+     * name or {@code defaultValue} if the parameter isn't set.
+     *
+     * @param context
+     *            the servlet context
+     * @param name
+     *            the name of the parameter
+     * @param defaultValue
+     *            the value used if the parameter isn't set
+     * @return the value of the parameter
+     * @throws IllegalArgumentException
+     *             if the value of the parameter is not an integer
+     */
+    private static int getIntParameter(ServletContext context, String name, int defaultValue) {
+        String value = context.getInitParameter(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Context parameter " + name + " must be an integer.", ex);
+        }
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+package hr.fer.zemris.java.hw15.web.compress;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+
+/**
+ * {@code DeflaterPool} is a bounded pool of {@link Deflater} instances with
+ * the same compression level and format. A deflater holds a few hundred
+ * kilobytes of native memory that is freed only when it is ended, so reusing
+ * them is much cheaper than creating one per response.
+ * <p>
+ * Deflaters that don't fit into the pool when they are released are ended
+ * right away.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see Deflater
+ */
+public class DeflaterPool {
+
+    /** Compression level of the deflaters. */
+    private final int level;
+
+    /** Flag that is {@code true} if the deflaters write raw deflate data. */
+    private final boolean nowrap;
+
+    /** Deflaters that are ready to be used. */
+    private final BlockingQueue<Deflater> idle;
+
+    /** Number of the created deflaters. */
+    private final LongAdder created = new LongAdder();
+
+    /** Number of the times a pooled deflater was reused. */
+    private final LongAdder reused = new LongAdder();
+
+    /**
+     * Constructs a new {@code DeflaterPool}.
+     *
+     * @param level
+     *            the compression level of the deflaters, from 0 to 9 or
+     *            {@link Deflater#DEFAULT_COMPRESSION}
+     * @param nowrap
+     *            {@code true} for raw deflate data, as used by gzip;
+     *            {@code false} for the zlib format
+     * @param capacity
+     *            the maximal number of the idle deflaters
+     * @throws IllegalArgumentException
+     *             if {@code level} is not a valid level or {@code capacity}
+     *             is less than 1
+     */
+    public DeflaterPool(int level, boolean nowrap, int capacity) {
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION)
+            throw new IllegalArgumentException("Invalid compression level: " + level + ".");
+
+        this.level = level;
+        this.nowrap = nowrap;
+        this.idle = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Takes an idle deflater from the pool or creates a new one if there is
+     * none. It must be given back with {@link #release(Deflater)}.
+     *
+     * @return the deflater
+     */
+    public Deflater borrow() {
+        Deflater deflater = idle.poll();
+        if (deflater != null) {
+            reused.increment();
+            return deflater;
+        }
+
+        created.increment();
+        return new Deflater(level, nowrap);
+    }
+
+    /**
+     * Resets the deflater and gives it back to the pool.
+     *
+     * @param deflater
+     *            the deflater taken with {@link #borrow()}
+     */
+    public void release(Deflater deflater) {
+        deflater.reset();
+        if (!idle.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Ends all the idle deflaters.
+     */
+    public void close() {
+        Deflater deflater;
+        while ((deflater = idle.poll()) != null) {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Returns the number of the created deflaters.
+     *
+     * @return the number of the created deflaters
+     */
+    public long getCreated() {
+        return created.sum();
+    }
+
+    /**
+     * Returns the number of the times a pooled deflater was reused.
+     *
+     * @return the number of the reuses
+     */
+    public long getReused() {
+        return reused.sum();
+    }
+
+}
\ No newline at end of file
@@ -1,17 +1,93 @@
 package hr.fer.zemris.java.hw15.web.init;
 
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
+import javax.servlet.ServletContext;
 import javax.servlet.ServletContextEvent;
 import javax.servlet.ServletContextListener;
 import javax.servlet.annotation.WebListener;
 
+import hr.fer.zemris.java.hw15.crypto.PasswordService;
+import hr.fer.zemris.java.hw15.crypto.PasswordServiceProvider;
+import hr.fer.zemris.java.hw15.crypto.Pbkdf2PasswordHasher;
+import hr.fer.zemris.java.hw15.crypto.Sha1PasswordHasher;
+import hr.fer.zemris.java.hw15.dao.AsyncDAO;
+import hr.fer.zemris.java.hw15.dao.AsyncDAOImpl;
+import hr.fer.zemris.java.hw15.dao.CommentWriter;
+import hr.fer.zemris.java.hw15.dao.DAO;
+import hr.fer.zemris.java.hw15.dao.DAOExecutor;
+import hr.fer.zemris.java.hw15.dao.DAOProvider;
+import hr.fer.zemris.java.hw15.dao.jdbc.JDBCDAOImpl;
+import hr.fer.zemris.java.hw15.dao.jpa.CacheRegions;
+import hr.fer.zemris.java.hw15.dao.jpa.JPADAOImpl;
 import hr.fer.zemris.java.hw15.dao.jpa.JPAEMFProvider;
+import hr.fer.zemris.java.hw15.dao.jpa.JPAEMProvider;
+import hr.fer.zemris.java.hw15.dao.memory.MemoryDAOImpl;
+import hr.fer.zemris.java.hw15.search.SearchIndex;
+import hr.fer.zemris.java.hw15.search.SearchIndexProvider;
+import hr.fer.zemris.java.hw15.web.cache.FragmentCache;
+import hr.fer.zemris.java.hw15.web.auth.TokenSigner;
+import hr.fer.zemris.java.hw15.web.auth.TokenSignerProvider;
+import hr.fer.zemris.java.hw15.web.cache.FragmentCacheProvider;
 
 /**
  * {@code Initialization} is a servlet context listener that on every context
  * initialization makes a {@link EntityManagerFactory} and sets it as a servlet
- * context attribute and stores it in {@link JPAEMFProvider}.
+ * context attribute and stores it in {@link JPAEMFProvider}. The regions of its
+ * second-level cache are sized by {@link CacheRegions}. Context parameters
+ * whose names start with {@value #PERSISTENCE_PREFIX} override the properties
+ * of the persistence unit, so the application can be pointed at another
+ * database without changing persistence.xml.
+ * <p>
+ * If the context parameter {@value #REPLICA_UNIT} names a persistence unit,
+ * the entity manager factory of that unit is created as well and used for
+ * reads from a read-only replica of the database. The replica has no
+ * second-level cache: what it reads may lag behind the primary database and
+ * must not get into the cache used by the reads that see their own writes.
+ * <p>
+ * The context parameter {@value #DAO_IMPLEMENTATION} selects the {@link DAO}
+ * used by the application: {@code jpa} for the {@link JPADAOImpl}, which is
+ * the default, {@code jdbc} for the {@link JDBCDAOImpl} or {@code memory} for
+ * the {@link MemoryDAOImpl}. The in-memory implementation needs no database,
+ * so no entity manager factory is created for it.
+ * <p>
+ * It also starts the {@link DAOExecutor} used by the {@link AsyncDAO}. The
+ * executor has {@value #DAO_EXECUTOR_THREADS} threads, by default half of the
+ * connections in the database connection pool. It must have fewer threads than
+ * the pool has connections, so the asynchronous calls and the search index
+ * build can never hold all of them and the request threads always find a free
+ * connection.
+ * <p>
+ * Finally it starts the {@link CommentWriter}. Its queue capacity, batch size,
+ * flush interval and submit timeout are read from the context parameters
+ * {@value #COMMENTS_QUEUE_CAPACITY}, {@value #COMMENTS_BATCH_SIZE},
+ * {@value #COMMENTS_FLUSH_INTERVAL} and {@value #COMMENTS_SUBMIT_TIMEOUT}. On
+ * context destruction all the queued comments are saved before the entity
+ * manager factory is closed.
+ * <p>
+ * The {@link SearchIndex} of the blog entries is built on one of the threads
+ * of the executor, so the application can serve requests while it is built.
+ * <p>
+ * The {@link FragmentCache} of the rendered pages takes at most
+ * {@value #FRAGMENTS_MAX_KB} kilobytes; 0 disables it. Comments saved by the
+ * {@link CommentWriter} invalidate their entries in it.
+ * <p>
+ * New passwords are hashed by the {@link PasswordService} with the algorithm
+ * named by the context parameter {@value #PASSWORD_HASH}: {@code pbkdf2}, the
+ * default, with {@value #PASSWORD_ITERATIONS} iterations, or the legacy
+ * {@code sha1}. Hashes of both algorithms are always accepted.
+ * <p>
+ * The authentication tokens are signed by the {@link TokenSigner} with the
+ * Base64 key from the context parameter {@value #AUTH_SECRET} and are valid
+ * for {@value #AUTH_MAX_AGE} seconds. All nodes of the application must share
+ * the key; if it isn't set, a random one is generated and the tokens are
+ * accepted only by this node until it is stopped.
  * 
  * @author Karlo Vrbić
  * @version 1.0
@@ -20,19 +96,296 @@ import hr.fer.zemris.java.hw15.dao.jpa.JPAEMFProvider;
 @WebListener
 public class Initialization implements ServletContextListener {
 
+    /** Name of the property with the maximal size of the connection pool. */
+    private static final String POOL_MAX_SIZE = "hibernate.c3p0.max_size";
+
+    /** Size of the connection pool used if none is configured. */
+    private static final int DEFAULT_POOL_MAX_SIZE = 20;
+
+    /** Time to wait for the running database calls on shutdown in seconds. */
+    private static final int SHUTDOWN_TIMEOUT = 10;
+
+    /** Context parameter with the number of the threads of the DAO executor. */
+    private static final String DAO_EXECUTOR_THREADS = "dao.executor.threads";
+
+    /** Context parameter with the name of the DAO implementation. */
+    private static final String DAO_IMPLEMENTATION = "dao.implementation";
+
+    /** Prefix of the context parameters that override the persistence unit. */
+    private static final String PERSISTENCE_PREFIX = "hibernate.";
+
+    /** Context parameter with the name of the persistence unit of the replica. */
+    private static final String REPLICA_UNIT = "jpa.replica.unit";
+
+    /** Context parameter with the capacity of the comment queue. */
+    private static final String COMMENTS_QUEUE_CAPACITY = "comments.queue.capacity";
+    /** Context parameter with the number of comments saved in one batch. */
+    private static final String COMMENTS_BATCH_SIZE = "comments.batch.size";
+    /** Context parameter with the flush interval in milliseconds. */
+    private static final String COMMENTS_FLUSH_INTERVAL = "comments.flush.interval";
+    /** Context parameter with the submit timeout in milliseconds. */
+    private static final String COMMENTS_SUBMIT_TIMEOUT = "comments.submit.timeout";
+
+    /** Context parameter with the algorithm of the new password hashes. */
+    private static final String PASSWORD_HASH = "password.hash";
+    /** Context parameter with the number of the PBKDF2 iterations. */
+    private static final String PASSWORD_ITERATIONS = "password.pbkdf2.iterations";
+
+    /** Context parameter with the key of the authentication tokens. */
+    private static final String AUTH_SECRET = "auth.secret";
+    /** Context parameter with the time a token is valid in seconds. */
+    private static final String AUTH_MAX_AGE = "auth.max_age";
+
+    /** Context parameter with the size of the fragment cache in kilobytes. */
+    private static final String FRAGMENTS_MAX_KB = "fragments.cache.max_kb";
+
     @Override
     public void contextInitialized(ServletContextEvent sce) {
-        EntityManagerFactory emf = Persistence.createEntityManagerFactory("baza.podataka.za.blog");
-        sce.getServletContext().setAttribute("my.application.emf", emf);
-        JPAEMFProvider.setEmf(emf);
+        ServletContext context = sce.getServletContext();
+        String implementation = context.getInitParameter(DAO_IMPLEMENTATION);
+        implementation = implementation == null ? "" : implementation.trim().toLowerCase();
+
+        int poolSize = DEFAULT_POOL_MAX_SIZE;
+        if (!implementation.equals("memory")) {
+            EntityManagerFactory emf = Persistence.createEntityManagerFactory("baza.podataka.za.blog",
+                    getPersistenceProperties(context));
+            context.setAttribute("my.application.emf", emf);
+            JPAEMFProvider.setEmf(emf);
+            CacheRegions.configure(emf);
+            poolSize = getPoolMaxSize(emf);
+
+            String replicaUnit = context.getInitParameter(REPLICA_UNIT);
+            if (replicaUnit != null && !replicaUnit.trim().isEmpty()) {
+                EntityManagerFactory replicaEmf = Persistence.createEntityManagerFactory(replicaUnit.trim());
+                context.setAttribute("my.application.replica.emf", replicaEmf);
+                JPAEMFProvider.setReplicaEmf(replicaEmf);
+            }
+        }
+
+        DAOProvider.setDAO(createDAO(implementation));
+        PasswordServiceProvider.setPasswordService(createPasswordService(context));
+        TokenSignerProvider.setTokenSigner(createTokenSigner(context));
+
+        int threads = getIntParameter(context, DAO_EXECUTOR_THREADS, Math.max(1, poolSize / 2));
+        if (threads < 1 || threads >= poolSize && poolSize > 1)
+            throw new IllegalArgumentException("Context parameter " + DAO_EXECUTOR_THREADS
+                    + " must be at least 1 and less than the pool size " + poolSize + ".");
+        DAOExecutor executor = new DAOExecutor(threads, JPAEMProvider::release);
+        sce.getServletContext().setAttribute("my.application.dao.executor", executor);
+        DAOProvider.setAsyncDAO(new AsyncDAOImpl(DAOProvider.getDAO(), executor));
+
+        FragmentCache fragmentCache = new FragmentCache(1024L * getIntParameter(context, FRAGMENTS_MAX_KB, 16384));
+        FragmentCacheProvider.setFragmentCache(fragmentCache);
+
+        DAOProvider.setCommentWriter(new CommentWriter(
+                DAOProvider.getDAO(),
+                getIntParameter(context, COMMENTS_QUEUE_CAPACITY, 10000),
+                getIntParameter(context, COMMENTS_BATCH_SIZE, 50),
+                getIntParameter(context, COMMENTS_FLUSH_INTERVAL, 200),
+                getIntParameter(context, COMMENTS_SUBMIT_TIMEOUT, 100),
+                batch -> batch.forEach(comment -> fragmentCache.invalidateComments(comment.getBlogEntry().getId())),
+                JPAEMProvider::release,
+                JPAEMProvider::discard));
+
+        SearchIndex searchIndex = new SearchIndex();
+        SearchIndexProvider.setSearchIndex(searchIndex);
+        Thread indexBuilder = new Thread(() -> {
+            JPAEMProvider.beginUnitOfWork(false);
+            try {
+                searchIndex.build(DAOProvider.getDAO());
+                context.log("Search index built with " + searchIndex.size() + " blog entries.");
+            } catch (RuntimeException ex) {
+                context.log("Unable to build the search index.", ex);
+            } finally {
+                JPAEMProvider.discard();
+            }
+        }, "search-index-builder");
+        indexBuilder.setDaemon(true);
+        indexBuilder.start();
     }
 
     @Override
     public void contextDestroyed(ServletContextEvent sce) {
+        CommentWriter writer = DAOProvider.getCommentWriter();
+        if (writer != null) {
+            try {
+                writer.shutdown(TimeUnit.SECONDS.toMillis(SHUTDOWN_TIMEOUT));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        DAOProvider.setAsyncDAO(null);
+        DAOExecutor executor = (DAOExecutor) sce.getServletContext().getAttribute("my.application.dao.executor");
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        JPAEMFProvider.setReplicaEmf(null);
+        EntityManagerFactory replicaEmf = (EntityManagerFactory) sce.getServletContext()
+                .getAttribute("my.application.replica.emf");
+        if (replicaEmf != null) {
+            replicaEmf.close();
+        }
+
         JPAEMFProvider.setEmf(null);
         EntityManagerFactory emf = (EntityManagerFactory) sce.getServletContext().getAttribute("my.application.emf");
         if (emf != null) {
             emf.close();
         }
     }
+
+    /**
+     * Returns the context parameters whose names start with
+     * {@value #PERSISTENCE_PREFIX} and whose values aren't empty.
+     *
+     * @param context
+     *            the servlet context
+     * @return the properties that override the persistence unit
+     */
+    private static Map<String, String> getPersistenceProperties(ServletContext context) {
+        Map<String, String> properties = new HashMap<>();
+        for (String name : Collections.list(context.getInitParameterNames())) {
+            String value = context.getInitParameter(name);
+            if (name.startsWith(PERSISTENCE_PREFIX) && value != null && !value.trim().isEmpty()) {
+                properties.put(name, value.trim());
+            }
+        }
+        if (!properties.isEmpty()) {
+            context.log("Persistence unit properties overridden: " + properties.keySet());
+        }
+        return properties;
+    }
+
+    /**
+     * Creates the {@link DAO} with the specified name.
+     *
+     * @param name
+     *            the name of the implementation in lower case; {@code jpa},
+     *            {@code jdbc}, {@code memory} or an empty string for the
+     *            default
+     * @return the direct access object
+     * @throws IllegalArgumentException
+     *             if the implementation with the specified name doesn't exist
+     */
+    private static DAO createDAO(String name) {
+        switch (name) {
+        case "":
+        case "jpa":
+            return new JPADAOImpl();
+        case "jdbc":
+            return new JDBCDAOImpl();
+        case "memory":
+            return new MemoryDAOImpl();
+        default:
+            throw new IllegalArgumentException("Unknown DAO implementation: " + name + ".");
+        }
+    }
+
+    /**
+     * Returns the maximal size of the connection pool of the specified entity
+     * manager factory.
+     *
+     * @param emf
+     *            the entity manager factory
+     * @return the maximal size of the connection pool
+     */
+    private static int getPoolMaxSize(EntityManagerFactory emf) {
+        Object size = emf.getProperties().get(POOL_MAX_SIZE);
+        if (size == null) {
+            return DEFAULT_POOL_MAX_SIZE;
+        }
+        try {
+            return Integer.parseInt(size.toString().trim());
+        } catch (NumberFormatException ex) {
+            return DEFAULT_POOL_MAX_SIZE;
+        }
+    }
+
+    /**
+     * Creates the password service with the hasher selected by the context
+     * parameters.
+     *
+     * @param context
+     *            the servlet context
+     * @return the password service
+     * @throws IllegalArgumentException
+     *             if the algorithm is unknown or the number of the iterations
+     *             is invalid
+     */
+    private static PasswordService createPasswordService(ServletContext context) {
+        String algorithm = context.getInitParameter(PASSWORD_HASH);
+        algorithm = algorithm == null ? "" : algorithm.trim().toLowerCase();
+
+        Sha1PasswordHasher sha1 = new Sha1PasswordHasher();
+        Pbkdf2PasswordHasher pbkdf2 = new Pbkdf2PasswordHasher(
+                getIntParameter(context, PASSWORD_ITERATIONS, PasswordServiceProvider.DEFAULT_ITERATIONS));
+        switch (algorithm) {
+        case "":
+        case "pbkdf2":
+            return new PasswordService(pbkdf2, sha1);
+        case "sha1":
+            return new PasswordService(sha1, pbkdf2);
+        default:
+            throw new IllegalArgumentException("Unknown password hash: " + algorithm + ".");
+        }
+    }
+
+    /**
+     * Creates the signer of the authentication tokens with the key and the
+     * validity from the context parameters.
+     *
+     * @param context
+     *            the servlet context
+     * @return the token signer
+     * @throws IllegalArgumentException
+     *             if the key is not valid Base64, it is too short or the
+     *             validity is less than one second
+     */
+    private static TokenSigner createTokenSigner(ServletContext context) {
+        int maxAge = getIntParameter(context, AUTH_MAX_AGE, TokenSignerProvider.DEFAULT_MAX_AGE);
+        String secret = context.getInitParameter(AUTH_SECRET);
+        if (secret == null || secret.trim().isEmpty()) {
+            context.log("Context parameter " + AUTH_SECRET + " is not set, tokens are signed with a random key.");
+            return new TokenSigner(TokenSigner.generateKey(), maxAge);
+        }
+
+        try {
+            return new TokenSigner(Base64.getDecoder().decode(secret.trim()), maxAge);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Context parameter " + AUTH_SECRET + " must be a Base64 key of at least "
+                    + TokenSigner.MIN_KEY_LENGTH + " bytes.", ex);
+        }
+    }
+
+    /**
+     * Returns the value of the integer context parameter with the specified
+     * name or {@code defaultValue} if the parameter isn't set.
+     *
+     * @param context
+     *            the servlet context
+     * @param name
+     *            the name of the parameter
+     * @param defaultValue
+     *            the value used if the parameter isn't set
+     * @return the value of the parameter
+     * @throws IllegalArgumentException
+     *             if the value of the parameter is not an integer
+     */
+    private static int getIntParameter(ServletContext context, String name, int defaultValue) {
+        String value = context.getInitParameter(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Context parameter " + name + " must be an integer.", ex);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package hr.fer.zemris.java.hw15.web.route;
+
+/**
+ * {@code RouteMatch} holds the variables of the route matched by a
+ * {@link Router}. The variables are kept as bounds in the matched path and the
+ * {@code long} ones also as their values, so a match can be reused for every
+ * request of one thread without allocating. A string variable is cut out of
+ * the path only when it is read.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see Router
+ */
+public class RouteMatch {
+
+    /** Matched path. */
+    private String path;
+
+    /** Names of the variables of the matched route. */
+    private String[] names;
+
+    /** Start of every variable in the path. */
+    private final int[] starts;
+
+    /** End of every variable in the path. */
+    private final int[] ends;
+
+    /** Value of every {@code long} variable. */
+    private final long[] values;
+
+    /** Start and end of every segment of the path, used by the router. */
+    final int[] bounds;
+
+    /**
+     * Constructs a new {@code RouteMatch}.
+     *
+     * @param capacity
+     *            the most variables of a route
+     * @param segments
+     *            the most segments of a route
+     */
+    RouteMatch(int capacity, int segments) {
+        starts = new int[capacity];
+        ends = new int[capacity];
+        values = new long[capacity];
+        bounds = new int[2 * segments];
+    }
+
+    /**
+     * Stores the bounds and the value of a variable.
+     *
+     * @param index
+     *            the index of the variable
+     * @param start
+     *            the start of the variable in the path
+     * @param end
+     *            the end of the variable in the path
+     * @param value
+     *            the value of a {@code long} variable
+     */
+    void capture(int index, int start, int end, long value) {
+        starts[index] = start;
+        ends[index] = end;
+        values[index] = value;
+    }
+
+    /**
+     * Stores the path and the variables of the matched route.
+     *
+     * @param path
+     *            the matched path
+     * @param names
+     *            the names of the variables
+     */
+    void set(String path, String[] names) {
+        this.path = path;
+        this.names = names;
+    }
+
+    /**
+     * Returns the value of the variable as a string.
+     *
+     * @param name
+     *            the name of the variable
+     * @return the value of the variable
+     * @throws IllegalArgumentException
+     *             if the matched route has no such variable
+     */
+    public String getString(String name) {
+        int index = indexOf(name);
+        return path.substring(starts[index], ends[index]);
+    }
+
+    /**
+     * Returns the value of the {@code long} variable.
+     *
+     * @param name
+     *            the name of the variable
+     * @return the value of the variable
+     * @throws IllegalArgumentException
+     *             if the matched route has no such variable
+     */
+    public long getLong(String name) {
+        return values[indexOf(name)];
+    }
+
+    /**
+     * Checks whether the value of the variable equals the text, without
+     * cutting it out of the path.
+     *
+     * @param name
+     *            the name of the variable
+     * @param text
+     *            the text
+     * @return {@code true} if the value equals the text; {@code false}
+     *         otherwise
+     * @throws IllegalArgumentException
+     *             if the matched route has no such variable
+     */
+    public boolean equals(String name, String text) {
+        int index = indexOf(name);
+        int length = ends[index] - starts[index];
+        return text.length() == length && path.regionMatches(starts[index], text, 0, length);
+    }
+
+    /**
+     * Returns the index of the variable.
+     *
+     * @param name
+     *            the name of the variable
+     * @return the index of the variable
+     * @throws IllegalArgumentException
+     *             if the matched route has no such variable
+     */
+    private int indexOf(String name) {
+        if (names != null) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(name))
+                    return i;
+            }
+        }
+        throw new IllegalArgumentException("Matched route has no variable " + name + ".");
+    }
+
+}
\ No newline at end of file
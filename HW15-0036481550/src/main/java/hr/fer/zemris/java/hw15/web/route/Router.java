@@ -0,0 +1,228 @@
+package hr.fer.zemris.java.hw15.web.route;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * {@code Router} maps the paths of the requests to handlers. A route is a
+ * pattern of segments separated by slashes, like {@code /{nick}/{id:long}}:
+ * a plain segment matches only itself, {@code {name}} matches any non-empty
+ * segment and {@code {name:long}} a segment of at most 18 decimal digits. A
+ * path may end with one extra slash.
+ * <p>
+ * The patterns are compiled once, when they are added. A path is split into
+ * its segments once, and then the routes with as many segments are tried in
+ * the order they were added; the first one that matches wins. Matching
+ * compares the path in place and writes the variables into a reusable
+ * {@link RouteMatch}, so it allocates nothing.
+ * <p>
+ * A router is built once and then only read, so it can be shared by all the
+ * threads of a servlet.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @param <H>
+ *            the type of the handlers
+ * @see RouteMatch
+ */
+public class Router<H> {
+
+    /** Most digits of a {@code long} variable, so it never overflows. */
+    private static final int MAX_DIGITS = 18;
+
+    /** Compiled routes in the order they were added. */
+    private final List<Route<H>> routes = new ArrayList<>();
+
+    /** Most variables in any of the routes. */
+    private int maxVariables;
+
+    /** Most segments in any of the routes. */
+    private int maxSegments;
+
+    /**
+     * Adds a route.
+     *
+     * @param pattern
+     *            the pattern of the route
+     * @param handler
+     *            the handler of the paths that match the pattern
+     * @return this router
+     * @throws NullPointerException
+     *             if parameter {@code pattern} or {@code handler} is a
+     *             {@code null} reference
+     * @throws IllegalArgumentException
+     *             if the pattern is not valid
+     */
+    public Router<H> add(String pattern, H handler) {
+        Objects.requireNonNull(pattern, "You cannot add a null reference as a pattern.");
+        Objects.requireNonNull(handler, "You cannot add a null reference as a handler.");
+
+        Route<H> route = new Route<>(pattern, handler);
+        routes.add(route);
+        maxVariables = Math.max(maxVariables, route.variables.length);
+        maxSegments = Math.max(maxSegments, route.literals.length);
+        return this;
+    }
+
+    /**
+     * Creates a match big enough for the variables of every route of this
+     * router. One match should be reused by one thread.
+     *
+     * @return the match
+     */
+    public RouteMatch newMatch() {
+        return new RouteMatch(maxVariables, maxSegments);
+    }
+
+    /**
+     * Finds the first route that matches the path and stores its variables in
+     * the match.
+     *
+     * @param path
+     *            the path, starting with a slash; may be {@code null}
+     * @param match
+     *            the match made by {@link #newMatch()}
+     * @return the handler of the route or {@code null} if no route matches
+     */
+    public H route(String path, RouteMatch match) {
+        if (path == null || path.isEmpty() || path.charAt(0) != '/')
+            return null;
+
+        int length = path.length();
+        if (length > 1 && path.charAt(length - 1) == '/') {
+            length--;
+        }
+        int[] bounds = match.bounds;
+        int segments = 0;
+        if (length > 1) {
+            int start = 1;
+            for (int i = 1; i <= length; i++) {
+                if (i == length || path.charAt(i) == '/') {
+                    if (i == start || segments == maxSegments)
+                        return null;
+                    bounds[2 * segments] = start;
+                    bounds[2 * segments + 1] = i;
+                    segments++;
+                    start = i + 1;
+                }
+            }
+        }
+
+        for (int i = 0, size = routes.size(); i < size; i++) {
+            Route<H> route = routes.get(i);
+            if (route.literals.length == segments && route.matches(path, bounds, match)) {
+                match.set(path, route.variables);
+                return route.handler;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * {@code Route} is one compiled pattern with its handler.
+     *
+     * @author Karlo Vrbić
+     * @version 1.0
+     * @param <H>
+     *            the type of the handler
+     */
+    private static class Route<H> {
+
+        /** Literal of every segment or {@code null} for a variable. */
+        private final String[] literals;
+
+        /** {@code true} for the segments that are {@code long} variables. */
+        private final boolean[] numeric;
+
+        /** Names of the variables in the order of their segments. */
+        private final String[] variables;
+
+        /** Handler of the route. */
+        private final H handler;
+
+        /**
+         * Compiles the pattern.
+         *
+         * @param pattern
+         *            the pattern
+         * @param handler
+         *            the handler
+         * @throws IllegalArgumentException
+         *             if the pattern is not valid
+         */
+        Route(String pattern, H handler) {
+            if (!pattern.startsWith("/"))
+                throw new IllegalArgumentException("Pattern must start with a slash: " + pattern + ".");
+
+            String[] segments = pattern.equals("/") ? new String[0] : pattern.substring(1).split("/", -1);
+            literals = new String[segments.length];
+            numeric = new boolean[segments.length];
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (segment.isEmpty())
+                    throw new IllegalArgumentException("Pattern has an empty segment: " + pattern + ".");
+
+                if (segment.startsWith("{") && segment.endsWith("}")) {
+                    String name = segment.substring(1, segment.length() - 1);
+                    if (name.endsWith(":long")) {
+                        name = name.substring(0, name.length() - ":long".length());
+                        numeric[i] = true;
+                    }
+                    if (name.isEmpty() || names.contains(name))
+                        throw new IllegalArgumentException("Invalid variable " + segment + " in " + pattern + ".");
+                    names.add(name);
+                } else {
+                    literals[i] = segment;
+                }
+            }
+            variables = names.toArray(new String[names.size()]);
+            this.handler = handler;
+        }
+
+        /**
+         * Checks whether the path, which has as many segments as the route,
+         * matches the route and writes the bounds and values of the variables
+         * into the match.
+         *
+         * @param path
+         *            the path
+         * @param bounds
+         *            the start and the end of every segment of the path
+         * @param match
+         *            the match
+         * @return {@code true} if the path matches; {@code false} otherwise
+         */
+        boolean matches(String path, int[] bounds, RouteMatch match) {
+            int variable = 0;
+            for (int i = 0; i < literals.length; i++) {
+                int position = bounds[2 * i];
+                int end = bounds[2 * i + 1];
+                int segmentLength = end - position;
+
+                String literal = literals[i];
+                if (literal != null) {
+                    if (segmentLength != literal.length() || !path.regionMatches(position, literal, 0, segmentLength))
+                        return false;
+                } else {
+                    long value = 0;
+                    if (numeric[i]) {
+                        if (segmentLength > MAX_DIGITS)
+                            return false;
+                        for (int j = position; j < end; j++) {
+                            char c = path.charAt(j);
+                            if (c < '0' || c > '9')
+                                return false;
+                            value = value * 10 + (c - '0');
+                        }
+                    }
+                    match.capture(variable++, position, end, value);
+                }
+            }
+            return true;
+        }
+
+    }
+
+}
\ No newline at end of file
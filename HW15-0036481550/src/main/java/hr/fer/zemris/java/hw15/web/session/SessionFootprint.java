@@ -0,0 +1,177 @@
+package hr.fer.zemris.java.hw15.web.session;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpSessionEvent;
+import javax.servlet.http.HttpSessionListener;
+
+/**
+ * {@code SessionFootprint} is a listener that keeps track of the live
+ * sessions, so the memory they hold can be reported. Pages of the blog keep
+ * their data in the request and the logged in users are recognized by their
+ * authentication tokens, so the blog itself makes no sessions.
+ * <p>
+ * The listener stores itself as the {@value #ATTRIBUTE} context attribute.
+ * Its statistics are the numbers of the created, destroyed and live sessions,
+ * the most live sessions at once, and the number and the estimated size of
+ * the attributes of the live sessions. The size of an attribute is the length
+ * of its serialized form, measured only when the statistics are read.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ * @see HttpSessionListener
+ */
+@WebListener
+public class SessionFootprint implements ServletContextListener, HttpSessionListener {
+
+    /** Name of the context attribute with the listener. */
+    public static final String ATTRIBUTE = "my.application.sessions";
+
+    /** Live sessions by their ids. */
+    private final Map<String, HttpSession> sessions = new ConcurrentHashMap<>();
+
+    /** Number of the created sessions. */
+    private final LongAdder created = new LongAdder();
+
+    /** Number of the destroyed sessions. */
+    private final LongAdder destroyed = new LongAdder();
+
+    /** Most live sessions at once. */
+    private final AtomicLong peak = new AtomicLong();
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        sce.getServletContext().setAttribute(ATTRIBUTE, this);
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        sce.getServletContext().removeAttribute(ATTRIBUTE);
+        sessions.clear();
+    }
+
+    @Override
+    public void sessionCreated(HttpSessionEvent se) {
+        HttpSession session = se.getSession();
+        sessions.put(session.getId(), session);
+        created.increment();
+        peak.accumulateAndGet(sessions.size(), Math::max);
+    }
+
+    @Override
+    public void sessionDestroyed(HttpSessionEvent se) {
+        if (sessions.remove(se.getSession().getId()) != null) {
+            destroyed.increment();
+        }
+    }
+
+    /**
+     * Returns the statistics of the sessions. The attributes of every live
+     * session are serialized, so this shouldn't be called too often. An
+     * attribute that can't be serialized is counted in {@code unserializable}
+     * and left out of the size.
+     *
+     * @return the statistics of the sessions
+     */
+    public Map<String, Number> getStatistics() {
+        long live = 0;
+        long attributes = 0;
+        long unserializable = 0;
+        long bytes = 0;
+        long largest = 0;
+
+        CountingStream counter = new CountingStream();
+        for (HttpSession session : sessions.values()) {
+            long size = 0;
+            try {
+                Enumeration<String> names = session.getAttributeNames();
+                while (names.hasMoreElements()) {
+                    Object value = session.getAttribute(names.nextElement());
+                    attributes++;
+                    long length = sizeOf(value, counter);
+                    if (length < 0) {
+                        unserializable++;
+                    } else {
+                        size += length;
+                    }
+                }
+            } catch (IllegalStateException ex) {
+                // session was invalidated in the meantime
+                continue;
+            }
+            live++;
+            bytes += size;
+            largest = Math.max(largest, size);
+        }
+
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("active", live);
+        stats.put("created", created.sum());
+        stats.put("destroyed", destroyed.sum());
+        stats.put("peak", peak.get());
+        stats.put("attributes", attributes);
+        stats.put("unserializable", unserializable);
+        stats.put("bytes", bytes);
+        stats.put("bytesPerSession", live == 0 ? 0 : bytes / live);
+        stats.put("largestBytes", largest);
+        return stats;
+    }
+
+    /**
+     * Returns the length of the serialized form of the value.
+     *
+     * @param value
+     *            the value
+     * @param counter
+     *            the stream that counts the written bytes
+     * @return the length in bytes or {@code -1} if the value can't be
+     *         serialized
+     */
+    private static long sizeOf(Object value, CountingStream counter) {
+        counter.count = 0;
+        try (ObjectOutputStream out = new ObjectOutputStream(counter)) {
+            out.writeObject(value);
+        } catch (IOException ex) {
+            return -1;
+        }
+        return counter.count;
+    }
+
+    /**
+     * {@code CountingStream} is an {@link OutputStream} that only counts the
+     * written bytes.
+     *
+     * @author Karlo Vrbić
+     * @version 1.0
+     * @see OutputStream
+     */
+    private static class CountingStream extends OutputStream {
+
+        /** Number of the written bytes. */
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+    }
+
+}
\ No newline at end of file
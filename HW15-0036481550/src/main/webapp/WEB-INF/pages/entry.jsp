@@ -0,0 +1,29 @@
+<%@ page contentType="text/html; charset=UTF-8" pageEncoding="UTF-8" session="false"%>
+<%@ taglib uri="http://java.sun.com/jsp/jstl/core" prefix="c"%>
+<%-- Jedan blog zapis; rezultat se sprema u FragmentCache pa ne smije ovisiti o korisniku koji ga gleda --%>
+<div>
+    <h3>
+        <c:out value="${entry.title}" />
+    </h3>
+    <p>
+        <c:out value="${entry.text}" />
+    </p>
+</div>
+
+<c:if test="${showComments}">
+    <div>
+        <c:forEach var="comment" items="${entry.comments}">
+            <p>
+                <c:out value="${comment.message}" />
+            </p>
+        </c:forEach>
+    </div>
+
+    <div>
+        <form action="${pageContext.request.contextPath}/servleti/addComment" method="post">
+            <textarea name="comment" rows="6" cols="75" placeholder="Comment"></textarea>
+            <input type="hidden" name="entry" value="${entry.id}" /> <input type="hidden" name="user"
+                value="${entry.creator.id}" /> <input type="submit" value="Comment" />
+        </form>
+    </div>
+</c:if>
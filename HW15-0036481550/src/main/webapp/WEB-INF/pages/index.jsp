@@ -1,4 +1,4 @@
-<%@ page contentType="text/html; charset=UTF-8" pageEncoding="UTF-8" session="true"%>
+<%@ page contentType="text/html; charset=UTF-8" pageEncoding="UTF-8" session="false"%>
 <%@ taglib uri="http://java.sun.com/jsp/jstl/core" prefix="c"%>
 
 <html>
@@ -8,10 +8,10 @@
 <body>
     <div>
         <c:choose>
-            <c:when test="${login_status == '0'}">
+            <c:when test="${not empty auth}">
                 <p>
                     Welcome back
-                    <c:out value="${cookie['current.user.fn']}" />
+                    <c:out value="${auth.firstName}" />
                     !
                 </p>
                 <form action="servleti/logout" method="post">
@@ -28,13 +28,18 @@
     </div>
     <div>
         <c:choose>
-            <c:when test="${login_status == '1'}">
+            <c:when test="${param.login == 'failed'}">
                 <p>
                     <c:out value="Incorrect username or password entered. Please try again." />
                 </p>
             </c:when>
         </c:choose>
     </div>
+    <div>
+        <form action="servleti/search" method="get">
+            <input type="text" name="q" placeholder="Search" /> <input type="submit" value="Search" />
+        </form>
+    </div>
     <div>
         <form action="register.jsp" method="post">
             <input type="submit" value="Register" />
@@ -45,5 +50,13 @@
             <a href="servleti/author/${user.nick}" ><c:out value="${user.nick}" /></a>
         </c:forEach>
     </div>
+    <c:if test="${not empty nextPage}">
+        <div>
+            <c:url var="nextPageUrl" value="/index.jsp">
+                <c:param name="after" value="${nextPage}" />
+            </c:url>
+            <a href="${nextPageUrl}">Next page</a>
+        </div>
+    </c:if>
 </body>
 </html>
\ No newline at end of file
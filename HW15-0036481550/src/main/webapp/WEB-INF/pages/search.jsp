@@ -0,0 +1,70 @@
+<%@ page contentType="text/html; charset=UTF-8" pageEncoding="UTF-8" session="false"%>
+<%@ taglib uri="http://java.sun.com/jsp/jstl/core" prefix="c"%>
+<%@ taglib uri="http://java.sun.com/jsp/jstl/functions" prefix="fn"%>
+
+<html>
+<head>
+<title>Blog - Search</title>
+</head>
+<body>
+    <div>
+        <form action="${pageContext.request.contextPath}/servleti/search" method="get">
+            <input type="text" name="q" value="<c:out value="${query}" />" placeholder="Search" /> <input
+                type="submit" value="Search" />
+        </form>
+    </div>
+
+    <c:if test="${not indexReady}">
+        <div>
+            <p>
+                <c:out value="Search index is still being built, some entries may be missing." />
+            </p>
+        </div>
+    </c:if>
+
+    <c:if test="${not empty query}">
+        <div>
+            <p>
+                Found
+                <c:out value="${total}" />
+                entries.
+            </p>
+        </div>
+    </c:if>
+
+    <div>
+        <c:forEach var="e" items="${entries}">
+            <div>
+                <h3>
+                    <a href="${pageContext.request.contextPath}/servleti/author/${e.creator.nick}/${e.id}"><c:out
+                            value="${e.title}" /></a>
+                </h3>
+                <p>
+                    <c:out value="${e.creator.nick}" />
+                </p>
+                <p>
+                    <c:out value="${fn:substring(e.text, 0, 200)}" />
+                    <c:if test="${fn:length(e.text) > 200}">...</c:if>
+                </p>
+            </div>
+        </c:forEach>
+    </div>
+
+    <div>
+        <c:if test="${not empty previousPage}">
+            <c:url var="previousPageUrl" value="/servleti/search">
+                <c:param name="q" value="${query}" />
+                <c:param name="page" value="${previousPage}" />
+            </c:url>
+            <a href="${previousPageUrl}">Previous page</a>
+        </c:if>
+        <c:if test="${not empty nextPage}">
+            <c:url var="nextPageUrl" value="/servleti/search">
+                <c:param name="q" value="${query}" />
+                <c:param name="page" value="${nextPage}" />
+            </c:url>
+            <a href="${nextPageUrl}">Next page</a>
+        </c:if>
+    </div>
+</body>
+</html>
@@ -0,0 +1,103 @@
+package hr.fer.zemris.java.hw15.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.hw15.entities.BlogEntry;
+
+/**
+ * Tests of the {@link PageCursor}.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public class PageCursorTest {
+
+    @Test
+    public void toStringIsParsedBack() {
+        PageCursor cursor = new PageCursor(1476789012345L, 4711);
+        PageCursor parsed = PageCursor.parse(cursor.toString());
+
+        assertEquals(cursor, parsed);
+        assertEquals(1476789012345L, parsed.getCreatedAt().getTime());
+        assertEquals(4711, parsed.getId());
+    }
+
+    @Test
+    public void extremeValuesAreParsedBack() {
+        for (PageCursor cursor : new PageCursor[] { new PageCursor(0, 0), new PageCursor(-1, 1),
+                new PageCursor(Long.MIN_VALUE, Long.MAX_VALUE) }) {
+            assertEquals(cursor, PageCursor.parse(cursor.toString()));
+        }
+    }
+
+    @Test
+    public void toStringIsCompact() {
+        assertEquals("ya.z", new PageCursor(36 * 34 + 10, 35).toString());
+    }
+
+    @Test
+    public void cursorOfEntryPointsToIt() {
+        BlogEntry entry = new BlogEntry();
+        entry.setId(42L);
+        entry.setCreatedAt(new Date(1000));
+
+        PageCursor cursor = PageCursor.of(entry);
+        assertEquals(1000, cursor.getCreatedAt().getTime());
+        assertEquals(42, cursor.getId());
+    }
+
+    @Test
+    public void missingCursorIsNull() {
+        assertNull(PageCursor.parse(null));
+        assertNull(PageCursor.parse(""));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cursorWithoutSeparatorIsRejected() {
+        PageCursor.parse("abc");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cursorWithoutDateIsRejected() {
+        PageCursor.parse(".abc");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cursorWithoutIdIsRejected() {
+        PageCursor.parse("abc.");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cursorWithTooManyPartsIsRejected() {
+        PageCursor.parse("a.b.c");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cursorWithInvalidDigitsIsRejected() {
+        PageCursor.parse("a_b.c");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cursorOutOfRangeIsRejected() {
+        PageCursor.parse("zzzzzzzzzzzzzzzzzz.1");
+    }
+
+    @Test
+    public void cursorsAreOrderedByDateThenId() {
+        PageCursor first = new PageCursor(1000, 9);
+        PageCursor second = new PageCursor(2000, 1);
+        PageCursor third = new PageCursor(2000, 2);
+
+        assertTrue(first.compareTo(second) < 0);
+        assertTrue(second.compareTo(third) < 0);
+        assertTrue(third.compareTo(first) > 0);
+        assertEquals(0, second.compareTo(new PageCursor(2000, 1)));
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,213 @@
+package hr.fer.zemris.java.hw15.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import hr.fer.zemris.java.hw15.dao.DAO;
+import hr.fer.zemris.java.hw15.dao.memory.MemoryDAOImpl;
+import hr.fer.zemris.java.hw15.entities.BlogEntry;
+import hr.fer.zemris.java.hw15.entities.BlogUser;
+
+/**
+ * Tests of the {@link SearchIndex}. The entries are indexed outside of any
+ * transaction, so every update is applied right away.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public class SearchIndexTest {
+
+    /** Tested index. */
+    private SearchIndex index;
+
+    /**
+     * Creates an empty index.
+     */
+    @Before
+    public void setUp() {
+        index = new SearchIndex();
+    }
+
+    @Test
+    public void allTermsOfTheQueryMustMatch() {
+        index.update(entry(1, "Apples", "red and green"));
+        index.update(entry(2, "Pears", "green and yellow"));
+        index.update(entry(3, "Plums", "blue"));
+
+        assertEquals(Arrays.asList(2L, 1L), index.search("green and", 0, 10).getEntryIds());
+        assertEquals(Collections.singletonList(1L), index.search("green red", 0, 10).getEntryIds());
+        assertEquals(0, index.search("green blue", 0, 10).getTotal());
+    }
+
+    @Test
+    public void unknownOrEmptyQueryFindsNothing() {
+        index.update(entry(1, "Apples", "red"));
+
+        assertEquals(0, index.search("bananas", 0, 10).getTotal());
+        assertEquals(0, index.search("", 0, 10).getTotal());
+        assertEquals(0, index.search(" ,.- ", 0, 10).getTotal());
+        assertEquals(0, index.search(null, 0, 10).getTotal());
+    }
+
+    @Test
+    public void termsIgnoreCaseAndDiacritics() {
+        index.update(entry(1, "Čađa", "Žuta ŠUMA"));
+
+        assertEquals(Collections.singletonList(1L), index.search("cada", 0, 10).getEntryIds());
+        assertEquals(Collections.singletonList(1L), index.search("zuta šuma", 0, 10).getEntryIds());
+        assertEquals(Collections.singletonList(1L), index.search("ČAĐA", 0, 10).getEntryIds());
+    }
+
+    @Test
+    public void titleMatchesRankHigher() {
+        index.update(entry(1, "Fruit", "about apples here"));
+        index.update(entry(2, "Apples", "about fruit here"));
+
+        assertEquals(Arrays.asList(2L, 1L), index.search("apples", 0, 10).getEntryIds());
+    }
+
+    @Test
+    public void moreOccurrencesRankHigher() {
+        index.update(entry(1, "One", "cherry pie and cake"));
+        index.update(entry(2, "Two", "cherry pie cherry cake"));
+        index.update(entry(3, "Three", "apple pie and cake"));
+
+        assertEquals(Arrays.asList(2L, 1L), index.search("cherry", 0, 10).getEntryIds());
+    }
+
+    @Test
+    public void shorterEntriesRankHigher() {
+        index.update(entry(1, "One", "cherry with a very long text around the single term"));
+        index.update(entry(2, "Two", "cherry pie"));
+        index.update(entry(3, "Three", "apple pie"));
+
+        assertEquals(Arrays.asList(2L, 1L), index.search("cherry", 0, 10).getEntryIds());
+    }
+
+    @Test
+    public void rarerTermsWeighMore() {
+        index.update(entry(1, "One", "rare common common common"));
+        index.update(entry(2, "Two", "rare rare rare common"));
+        for (long id = 3; id <= 6; id++) {
+            index.update(entry(id, "Other", "common"));
+        }
+
+        assertEquals(Arrays.asList(2L, 1L), index.search("common rare", 0, 10).getEntryIds());
+    }
+
+    @Test
+    public void newerEntriesWinTies() {
+        index.update(entry(1, "Same", "text"));
+        index.update(entry(2, "Same", "text"));
+        index.update(entry(3, "Same", "text"));
+
+        assertEquals(Arrays.asList(3L, 2L, 1L), index.search("same", 0, 10).getEntryIds());
+    }
+
+    @Test
+    public void resultsArePaged() {
+        for (long id = 1; id <= 5; id++) {
+            index.update(entry(id, "Same", "text"));
+        }
+
+        SearchResult page = index.search("text", 1, 2);
+        assertEquals(5, page.getTotal());
+        assertEquals(Arrays.asList(4L, 3L), page.getEntryIds());
+        assertEquals(Collections.emptyList(), index.search("text", 5, 2).getEntryIds());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeOffsetIsRejected() {
+        index.search("text", -1, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyPageIsRejected() {
+        index.search("text", 0, 0);
+    }
+
+    @Test
+    public void updateReplacesThePreviousVersion() {
+        index.update(entry(1, "Old title", "old text"));
+        index.update(entry(1, "New title", "new text"));
+
+        assertEquals(1, index.size());
+        assertEquals(0, index.search("old", 0, 10).getTotal());
+        assertEquals(Collections.singletonList(1L), index.search("new", 0, 10).getEntryIds());
+        assertEquals(Collections.singletonList(1L), index.search("title", 0, 10).getEntryIds());
+    }
+
+    @Test
+    public void buildIndexesAllEntries() {
+        DAO dao = new MemoryDAOImpl();
+        BlogUser user = user(dao);
+        dao.addBlogEntry(new BlogEntry(user, "First", "apples"));
+        dao.addBlogEntry(new BlogEntry(user, "Second", "apples and pears"));
+
+        assertFalse(index.isReady());
+        index.build(dao);
+
+        assertTrue(index.isReady());
+        assertEquals(2, index.size());
+        assertEquals(2, index.search("apples", 0, 10).getTotal());
+    }
+
+    @Test
+    public void buildKeepsNewerVersions() {
+        DAO dao = new MemoryDAOImpl();
+        BlogEntry stored = new BlogEntry(user(dao), "Stale", "stale text");
+        dao.addBlogEntry(stored);
+        index.update(entry(stored.getId(), "Fresh", "fresh text"));
+
+        index.build(dao);
+
+        assertEquals(1, index.size());
+        assertEquals(0, index.search("stale", 0, 10).getTotal());
+        assertEquals(1, index.search("fresh", 0, 10).getTotal());
+    }
+
+    /**
+     * Returns the blog entry with the specified ID, title and text.
+     *
+     * @param id
+     *            the ID of the entry
+     * @param title
+     *            the title of the entry
+     * @param text
+     *            the text of the entry
+     * @return the blog entry
+     */
+    private static BlogEntry entry(long id, String title, String text) {
+        BlogEntry entry = new BlogEntry();
+        entry.setId(id);
+        entry.setTitle(title);
+        entry.setText(text);
+        return entry;
+    }
+
+    /**
+     * Saves a new blog user.
+     *
+     * @param dao
+     *            the direct access object
+     * @return the saved blog user
+     */
+    private static BlogUser user(DAO dao) {
+        BlogUser user = new BlogUser();
+        user.setFirstName("Ana");
+        user.setLastName("Anić");
+        user.setNick("ana");
+        user.setEmail("ana@example.com");
+        user.setPasswordHash("hash");
+        dao.addBlogUser(user);
+        return user;
+    }
+
+}
\ No newline at end of file
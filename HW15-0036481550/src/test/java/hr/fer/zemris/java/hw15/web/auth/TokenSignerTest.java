@@ -0,0 +1,160 @@
+package hr.fer.zemris.java.hw15.web.auth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.hw15.entities.BlogUser;
+
+/**
+ * Tests of the {@link TokenSigner}.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public class TokenSignerTest {
+
+    /** Key of the tested signer. */
+    private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes();
+
+    /** Tested signer. */
+    private final TokenSigner signer = new TokenSigner(KEY, 3600);
+
+    @Test
+    public void issuedTokenIsVerified() {
+        long before = System.currentTimeMillis();
+        AuthToken token = signer.verify(signer.issue(user()));
+
+        assertNotNull(token);
+        assertEquals(7, token.getUserId());
+        assertEquals("ana", token.getNick());
+        assertEquals("Ana", token.getFirstName());
+        assertTrue(token.getExpiresAt() >= before + 3600 * 1000L);
+        assertTrue(token.getExpiresAt() <= System.currentTimeMillis() + 3600 * 1000L);
+    }
+
+    @Test
+    public void tamperedPayloadIsRejected() {
+        String token = signer.issue(user());
+        int dot = token.indexOf('.');
+        byte[] payload = Base64.getUrlDecoder().decode(token.substring(0, dot));
+        payload[8] ^= 1; // the lowest byte of the user ID
+
+        String tampered = Base64.getUrlEncoder().withoutPadding().encodeToString(payload) + token.substring(dot);
+        assertNull(signer.verify(tampered));
+    }
+
+    @Test
+    public void tamperedSignatureIsRejected() {
+        String token = signer.issue(user());
+        int start = token.indexOf('.') + 1;
+        char first = token.charAt(start);
+        String tampered = token.substring(0, start) + (first == 'A' ? 'B' : 'A') + token.substring(start + 1);
+
+        assertNull(signer.verify(tampered));
+    }
+
+    @Test
+    public void truncatedSignatureIsRejected() {
+        String token = signer.issue(user());
+
+        assertNull(signer.verify(token.substring(0, token.length() - 4)));
+        assertNull(signer.verify(token.substring(0, token.indexOf('.') + 1)));
+    }
+
+    @Test
+    public void malformedTokensAreRejected() {
+        assertNull(signer.verify(""));
+        assertNull(signer.verify("no-signature"));
+        assertNull(signer.verify("not base64!.not base64!"));
+        assertNull(signer.verify("."));
+    }
+
+    @Test
+    public void tokenOfAnotherKeyIsRejected() {
+        byte[] otherKey = Arrays.copyOf(KEY, KEY.length);
+        otherKey[0] ^= 1;
+        String token = new TokenSigner(otherKey, 3600).issue(user());
+
+        assertNull(signer.verify(token));
+    }
+
+    @Test
+    public void expiredTokenIsRejected() throws Exception {
+        assertNull(signer.verify(token(1, System.currentTimeMillis() - 1)));
+        assertNotNull(signer.verify(token(1, System.currentTimeMillis() + 60_000)));
+    }
+
+    @Test
+    public void tokenOfUnknownVersionIsRejected() throws Exception {
+        assertNull(signer.verify(token(2, System.currentTimeMillis() + 60_000)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shortKeyIsRejected() {
+        new TokenSigner(new byte[TokenSigner.MIN_KEY_LENGTH - 1], 3600);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveMaxAgeIsRejected() {
+        new TokenSigner(KEY, 0);
+    }
+
+    /**
+     * Returns the user the tokens are issued for.
+     *
+     * @return the user
+     */
+    private static BlogUser user() {
+        BlogUser user = new BlogUser();
+        user.setId(7L);
+        user.setFirstName("Ana");
+        user.setNick("ana");
+        return user;
+    }
+
+    /**
+     * Builds a token with the specified version and expiry time, signed with
+     * {@link #KEY} the same way {@link TokenSigner} signs its tokens.
+     *
+     * @param version
+     *            the version of the payload format
+     * @param expiresAt
+     *            the expiry time in milliseconds since the epoch
+     * @return the token
+     * @throws IOException
+     *             if the payload can't be written
+     * @throws GeneralSecurityException
+     *             if the payload can't be signed
+     */
+    private static String token(int version, long expiresAt) throws IOException, GeneralSecurityException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(version);
+            out.writeLong(7);
+            out.writeLong(expiresAt);
+            out.writeUTF("ana");
+            out.writeUTF("Ana");
+        }
+
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(KEY, "HmacSHA256"));
+        byte[] payload = bytes.toByteArray();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(payload) + "." + encoder.encodeToString(mac.doFinal(payload));
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,149 @@
+package hr.fer.zemris.java.hw15.web.route;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests of the {@link Router} and the {@link RouteMatch}.
+ *
+ * @author Karlo Vrbić
+ * @version 1.0
+ */
+public class RouterTest {
+
+    /** Tested router, with the routes of the author servlet. */
+    private final Router<String> router = new Router<String>()
+            .add("/", "root")
+            .add("/{nick}", "entries")
+            .add("/{nick}/new", "new")
+            .add("/{nick}/edit", "edit")
+            .add("/{nick}/{id:long}", "entry")
+            .add("/{nick}/{other}", "other");
+
+    /** Reused match. */
+    private final RouteMatch match = router.newMatch();
+
+    @Test
+    public void literalsAndVariablesAreMatched() {
+        assertEquals("root", router.route("/", match));
+        assertEquals("entries", router.route("/ana", match));
+        assertEquals("ana", match.getString("nick"));
+        assertEquals("new", router.route("/ana/new", match));
+        assertEquals("edit", router.route("/ana/edit", match));
+    }
+
+    @Test
+    public void firstMatchingRouteWins() {
+        assertEquals("entry", router.route("/ana/42", match));
+        assertEquals(42, match.getLong("id"));
+        assertEquals("other", router.route("/ana/x42", match));
+        assertEquals("x42", match.getString("other"));
+    }
+
+    @Test
+    public void oneTrailingSlashIsIgnored() {
+        assertEquals("entries", router.route("/ana/", match));
+        assertEquals("ana", match.getString("nick"));
+        assertEquals("entry", router.route("/ana/42/", match));
+        assertEquals(42, match.getLong("id"));
+        assertEquals("root", router.route("//", match));
+    }
+
+    @Test
+    public void emptySegmentsDontMatch() {
+        assertNull(router.route("/ana//", match));
+        assertNull(router.route("///", match));
+        assertNull(router.route("//42", match));
+        assertNull(router.route("/ana//42", match));
+    }
+
+    @Test
+    public void pathsWithoutLeadingSlashDontMatch() {
+        assertNull(router.route(null, match));
+        assertNull(router.route("", match));
+        assertNull(router.route("ana/42", match));
+    }
+
+    @Test
+    public void longOfEighteenDigitsIsMatched() {
+        assertEquals("entry", router.route("/ana/999999999999999999", match));
+        assertEquals(999999999999999999L, match.getLong("id"));
+        assertEquals("entry", router.route("/ana/000000000000000007", match));
+        assertEquals(7, match.getLong("id"));
+    }
+
+    @Test
+    public void longThatCouldOverflowIsNotMatched() {
+        assertEquals("other", router.route("/ana/9223372036854775807", match));
+        assertEquals("other", router.route("/ana/99999999999999999999", match));
+        assertEquals("other", router.route("/ana/1000000000000000000", match));
+    }
+
+    @Test
+    public void longWithOtherCharactersIsNotMatched() {
+        assertEquals("other", router.route("/ana/-1", match));
+        assertEquals("other", router.route("/ana/1e3", match));
+        assertEquals("other", router.route("/ana/+5", match));
+    }
+
+    @Test
+    public void segmentCountMustBeEqual() {
+        assertNull(router.route("/ana/42/comments", match));
+        assertNull(router.route("/a/b/c/d/e/f/g/h", match));
+
+        Router<String> twoSegments = new Router<String>().add("/{a}/{b}", "two");
+        RouteMatch twoMatch = twoSegments.newMatch();
+        assertNull(twoSegments.route("/", twoMatch));
+        assertNull(twoSegments.route("/x", twoMatch));
+        assertEquals("two", twoSegments.route("/x/y", twoMatch));
+        assertNull(twoSegments.route("/x/y/z", twoMatch));
+    }
+
+    @Test
+    public void variablesAreComparedInPlace() {
+        router.route("/ana/42", match);
+
+        assertTrue(match.equals("nick", "ana"));
+        assertFalse(match.equals("nick", "an"));
+        assertFalse(match.equals("nick", "anna"));
+    }
+
+    @Test
+    public void matchIsReused() {
+        router.route("/ana/42", match);
+        router.route("/ivo/new", match);
+
+        assertEquals("ivo", match.getString("nick"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownVariableIsRejected() {
+        router.route("/ana/new", match);
+        match.getString("id");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void patternWithoutLeadingSlashIsRejected() {
+        new Router<String>().add("{nick}", "handler");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void patternWithEmptySegmentIsRejected() {
+        new Router<String>().add("/{nick}//new", "handler");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void patternWithDuplicateVariableIsRejected() {
+        new Router<String>().add("/{id}/{id:long}", "handler");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void patternWithUnnamedVariableIsRejected() {
+        new Router<String>().add("/{:long}", "handler");
+    }
+
+}
\ No newline at end of file